@@ -29,6 +29,7 @@ import bisq.common.locale.LocaleRepository;
 import bisq.common.logging.AsciiLogo;
 import bisq.common.logging.LogSetup;
 import bisq.common.observable.Observable;
+import bisq.common.threading.ExecutorFactory;
 import bisq.i18n.Res;
 import bisq.persistence.PersistenceService;
 import ch.qos.logback.classic.Level;
@@ -69,7 +70,8 @@ public abstract class ApplicationService implements Service {
                     config.getBoolean("ignoreSignatureVerification"),
                     config.getInt("memoryReportIntervalSec"),
                     config.getBoolean("includeThreadListInMemoryReport"),
-                    config.getBoolean("checkInstanceLock"));
+                    config.getBoolean("checkInstanceLock"),
+                    config.getBoolean("useVirtualThreads"));
         }
 
         private final com.typesafe.config.Config rootConfig;
@@ -84,6 +86,7 @@ public abstract class ApplicationService implements Service {
         private final int memoryReportIntervalSec;
         private final boolean includeThreadListInMemoryReport;
         private final boolean checkInstanceLock;
+        private final boolean useVirtualThreads;
 
         public Config(com.typesafe.config.Config rootConfig,
                       Path appDataDirPath,
@@ -96,7 +99,8 @@ public abstract class ApplicationService implements Service {
                       boolean ignoreSignatureVerification,
                       int memoryReportIntervalSec,
                       boolean includeThreadListInMemoryReport,
-                      boolean checkInstanceLock) {
+                      boolean checkInstanceLock,
+                      boolean useVirtualThreads) {
             this.rootConfig = rootConfig;
             this.appDataDirPath = appDataDirPath;
             this.appName = appName;
@@ -115,6 +119,7 @@ public abstract class ApplicationService implements Service {
             this.memoryReportIntervalSec = memoryReportIntervalSec;
             this.includeThreadListInMemoryReport = includeThreadListInMemoryReport;
             this.checkInstanceLock = checkInstanceLock;
+            this.useVirtualThreads = useVirtualThreads;
         }
     }
 
@@ -179,6 +184,8 @@ public abstract class ApplicationService implements Service {
             DevMode.setDevModeWalletSetup(config.isDevModeWalletSetup());
         }
 
+        ExecutorFactory.setUseVirtualThreads(config.isUseVirtualThreads());
+
         if (config.isCheckInstanceLock()) {
             checkInstanceLock();
         }
@@ -26,6 +26,8 @@ import bisq.bonded_roles.release.AppType;
 import bisq.bonded_roles.security_manager.alert.AlertNotificationsService;
 import bisq.burningman.BurningmanService;
 import bisq.chat.ChatService;
+import bisq.common.application.Service;
+import bisq.common.application.ServiceGraph;
 import bisq.common.observable.Observable;
 import bisq.common.platform.OS;
 import bisq.common.util.ExceptionUtil;
@@ -60,6 +62,8 @@ import bisq.wallet.WalletService;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
@@ -273,42 +277,7 @@ public class DesktopApplicationService extends JavaSeApplicationService {
     @Override
     public CompletableFuture<Boolean> initialize() {
         // Move initialization work off the current thread and use ExecutorFactory.commonForkJoinPool() instead.
-        return supplyAsync(() -> memoryReportService.initialize()
-                .thenCompose(result -> securityService.initialize())
-                .thenCompose(result -> {
-                    setState(State.INITIALIZE_NETWORK);
-                    return networkService.initialize();
-                })
-                .thenCompose(result -> walletService
-                        .map(walletService -> {
-                            setState(State.INITIALIZE_WALLET);
-                            return walletService.initialize();
-                        })
-                        .orElseGet(() -> CompletableFuture.completedFuture(true)))
-                .thenCompose(result -> {
-                    setState(State.INITIALIZE_SERVICES);
-                    return identityService.initialize();
-                })
-                .thenCompose(result -> bondedRolesService.initialize())
-                .thenCompose(result -> accountService.initialize())
-                .thenCompose(result -> contractService.initialize())
-                .thenCompose(result -> userService.initialize())
-                .thenCompose(result -> settingsService.initialize())
-                .thenCompose(result -> burningmanService.initialize())
-                .thenCompose(result -> offerService.initialize())
-                .thenCompose(result -> chatService.initialize())
-                .thenCompose(result -> systemNotificationService.initialize())
-                .thenCompose(result -> supportService.initialize())
-                .thenCompose(result -> tradeService.initialize())
-                .thenCompose(result -> updaterService.initialize())
-                .thenCompose(result -> bisqEasyService.initialize())
-                .thenCompose(result -> muSigService.initialize())
-                .thenCompose(result -> alertNotificationsService.initialize())
-                .thenCompose(result -> favouriteMarketsService.initialize())
-                .thenCompose(result -> dontShowAgainService.initialize())
-                .thenCompose(result -> webcamAppService.initialize())
-                .thenCompose(result -> openTradeItemsService.initialize())
-                .thenCompose(result -> httpApiService.initialize())
+        return supplyAsync(() -> createServiceGraph().initialize()
                 .orTimeout(STARTUP_TIMEOUT_SEC, TimeUnit.SECONDS)
                 .handle((result, throwable) -> {
                     if (throwable == null) {
@@ -330,6 +299,59 @@ public class DesktopApplicationService extends JavaSeApplicationService {
                 .thenCompose(Function.identity()); // unwrap CompletableFuture
     }
 
+    /**
+     * Services which do not depend on each other get initialized concurrently. The dependencies are the services
+     * passed to the constructors. The order of the network, wallet and identity services is kept, as they set the
+     * startup state.
+     */
+    private ServiceGraph createServiceGraph() {
+        ServiceGraph graph = new ServiceGraph("DesktopApplicationService.initialize")
+                .add(memoryReportService)
+                .add(securityService)
+                .add(networkService, () -> {
+                    setState(State.INITIALIZE_NETWORK);
+                    return networkService.initialize();
+                }, List.of(securityService, memoryReportService));
+        walletService.ifPresent(walletService -> graph.add(walletService, () -> {
+            setState(State.INITIALIZE_WALLET);
+            return walletService.initialize();
+        }, List.of(networkService)));
+        List<Service> identityServiceDependencies = new ArrayList<>(List.of(securityService, networkService));
+        walletService.ifPresent(identityServiceDependencies::add);
+        return graph.add(identityService, () -> {
+                    setState(State.INITIALIZE_SERVICES);
+                    return identityService.initialize();
+                }, identityServiceDependencies)
+                .add(bondedRolesService, networkService)
+                .add(accountService)
+                .add(contractService, securityService)
+                .add(userService, securityService, identityService, networkService, bondedRolesService)
+                .add(settingsService)
+                .add(burningmanService, bondedRolesService)
+                .add(offerService, networkService, identityService)
+                .add(systemNotificationService)
+                .add(chatService, networkService, userService, settingsService, systemNotificationService)
+                .add(supportService, networkService, chatService, userService, bondedRolesService)
+                .add(tradeService, networkService, identityService, offerService, contractService, supportService,
+                        chatService, bondedRolesService, userService, settingsService, accountService,
+                        burningmanService)
+                .add(updaterService, settingsService, bondedRolesService)
+                .add(bisqEasyService, securityService, networkService, identityService, bondedRolesService,
+                        accountService, offerService, contractService, userService, chatService, settingsService,
+                        supportService, systemNotificationService, tradeService)
+                .add(muSigService, securityService, networkService, identityService, bondedRolesService,
+                        accountService, offerService, contractService, userService, chatService, settingsService,
+                        supportService, systemNotificationService, tradeService)
+                .add(alertNotificationsService, settingsService, bondedRolesService)
+                .add(favouriteMarketsService, settingsService)
+                .add(dontShowAgainService, settingsService)
+                .add(webcamAppService)
+                .add(openTradeItemsService, chatService, tradeService, userService)
+                .add(httpApiService, securityService, networkService, userService, bondedRolesService, chatService,
+                        supportService, tradeService, settingsService, bisqEasyService, openTradeItemsService,
+                        accountService);
+    }
+
     @Override
     public CompletableFuture<Boolean> shutdown() {
         log.info("shutdown");
@@ -25,6 +25,7 @@ import bisq.bonded_roles.release.AppType;
 import bisq.burningman.BurningmanService;
 import bisq.chat.ChatService;
 import bisq.common.application.Service;
+import bisq.common.application.ServiceGraph;
 import bisq.common.observable.Pin;
 import bisq.common.platform.OS;
 import bisq.contract.ContractService;
@@ -54,6 +55,8 @@ import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.Nullable;
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
@@ -186,36 +189,7 @@ public class HttpApiApplicationService extends JavaSeApplicationService {
     @Override
     public CompletableFuture<Boolean> initialize() {
         // Move initialization work off the current thread and use ExecutorFactory.commonForkJoinPool() instead.
-        return supplyAsync(() -> memoryReportService.initialize()
-                .thenCompose(result -> securityService.initialize())
-                .thenCompose(result -> {
-                    setState(State.INITIALIZE_NETWORK);
-                    return networkService.initialize();
-                })
-                .thenCompose(result -> walletService
-                        .map(walletService -> {
-                            setState(State.INITIALIZE_WALLET);
-                            return walletService.initialize();
-                        })
-                        .orElseGet(() -> CompletableFuture.completedFuture(true)))
-                .thenCompose(result -> {
-                    setState(State.INITIALIZE_SERVICES);
-                    return identityService.initialize();
-                })
-                .thenCompose(result -> bondedRolesService.initialize())
-                .thenCompose(result -> accountService.initialize())
-                .thenCompose(result -> contractService.initialize())
-                .thenCompose(result -> userService.initialize())
-                .thenCompose(result -> burningmanService.initialize())
-                .thenCompose(result -> settingsService.initialize())
-                .thenCompose(result -> systemNotificationService.initialize())
-                .thenCompose(result -> offerService.initialize())
-                .thenCompose(result -> chatService.initialize())
-                .thenCompose(result -> supportService.initialize())
-                .thenCompose(result -> tradeService.initialize())
-                .thenCompose(result -> bisqEasyService.initialize())
-                .thenCompose(result -> openTradeItemsService.initialize())
-                .thenCompose(result -> httpApiService.initialize())
+        return supplyAsync(() -> createServiceGraph().initialize()
                 .orTimeout(5, TimeUnit.MINUTES)
                 .whenComplete((success, throwable) -> {
                     if (throwable == null) {
@@ -241,6 +215,51 @@ public class HttpApiApplicationService extends JavaSeApplicationService {
                 .thenCompose(Function.identity()); // unwrap CompletableFuture
     }
 
+    /**
+     * Services which do not depend on each other get initialized concurrently. The dependencies are the services
+     * passed to the constructors. The order of the network, wallet and identity services is kept, as they set the
+     * startup state.
+     */
+    private ServiceGraph createServiceGraph() {
+        ServiceGraph graph = new ServiceGraph("HttpApiApplicationService.initialize")
+                .add(memoryReportService)
+                .add(securityService)
+                .add(networkService, () -> {
+                    setState(State.INITIALIZE_NETWORK);
+                    return networkService.initialize();
+                }, List.of(securityService, memoryReportService));
+        walletService.ifPresent(walletService -> graph.add(walletService, () -> {
+            setState(State.INITIALIZE_WALLET);
+            return walletService.initialize();
+        }, List.of(networkService)));
+        List<Service> identityServiceDependencies = new ArrayList<>(List.of(securityService, networkService));
+        walletService.ifPresent(identityServiceDependencies::add);
+        return graph.add(identityService, () -> {
+                    setState(State.INITIALIZE_SERVICES);
+                    return identityService.initialize();
+                }, identityServiceDependencies)
+                .add(bondedRolesService, networkService)
+                .add(accountService)
+                .add(contractService, securityService)
+                .add(userService, securityService, identityService, networkService, bondedRolesService)
+                .add(burningmanService, bondedRolesService)
+                .add(settingsService)
+                .add(systemNotificationService)
+                .add(offerService, networkService, identityService)
+                .add(chatService, networkService, userService, settingsService, systemNotificationService)
+                .add(supportService, networkService, chatService, userService, bondedRolesService)
+                .add(tradeService, networkService, identityService, offerService, contractService, supportService,
+                        chatService, bondedRolesService, userService, settingsService, accountService,
+                        burningmanService)
+                .add(bisqEasyService, securityService, networkService, identityService, bondedRolesService,
+                        accountService, offerService, contractService, userService, chatService, settingsService,
+                        supportService, systemNotificationService, tradeService)
+                .add(openTradeItemsService, chatService, tradeService, userService)
+                .add(httpApiService, securityService, networkService, userService, bondedRolesService, chatService,
+                        supportService, tradeService, settingsService, bisqEasyService, openTradeItemsService,
+                        accountService);
+    }
+
     @Override
     public CompletableFuture<Boolean> shutdown() {
         if (difficultyAdjustmentServicePin != null) {
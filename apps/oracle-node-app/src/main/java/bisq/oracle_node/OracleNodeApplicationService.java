@@ -19,6 +19,7 @@ package bisq.oracle_node;
 
 import bisq.bonded_roles.BondedRolesService;
 import bisq.bonded_roles.market_price.MarketPriceRequestService;
+import bisq.common.application.ServiceGraph;
 import bisq.common.observable.Pin;
 import bisq.identity.IdentityService;
 import bisq.java_se.application.JavaSeApplicationService;
@@ -88,13 +89,16 @@ public class OracleNodeApplicationService extends JavaSeApplicationService {
 
     @Override
     public CompletableFuture<Boolean> initialize() {
+        // Services which do not depend on each other get initialized concurrently
+        ServiceGraph serviceGraph = new ServiceGraph("OracleNodeApplicationService.initialize")
+                .add(memoryReportService)
+                .add(securityService)
+                .add(networkService, securityService, memoryReportService)
+                .add(identityService, securityService, networkService)
+                .add(bondedRolesService, networkService)
+                .add(oracleNodeService, memoryReportService, networkService, identityService, bondedRolesService);
         // Move initialization work off the current thread and run it on ExecutorFactory.commonForkJoinPool().
-        return supplyAsync(() -> memoryReportService.initialize()
-                .thenCompose(result -> securityService.initialize())
-                .thenCompose(result -> networkService.initialize())
-                .thenCompose(result -> identityService.initialize())
-                .thenCompose(result -> bondedRolesService.initialize())
-                .thenCompose(result -> oracleNodeService.initialize())
+        return supplyAsync(() -> serviceGraph.initialize()
                 .orTimeout(5, TimeUnit.MINUTES)
                 .whenComplete((success, throwable) -> {
                     if (success) {
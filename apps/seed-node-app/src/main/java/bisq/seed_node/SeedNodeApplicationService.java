@@ -18,6 +18,7 @@
 package bisq.seed_node;
 
 import bisq.bonded_roles.BondedRolesService;
+import bisq.common.application.ServiceGraph;
 import bisq.common.observable.Pin;
 import bisq.identity.IdentityService;
 import bisq.java_se.application.JavaSeApplicationService;
@@ -82,13 +83,16 @@ public class SeedNodeApplicationService extends JavaSeApplicationService {
 
     @Override
     public CompletableFuture<Boolean> initialize() {
+        // Services which do not depend on each other get initialized concurrently
+        ServiceGraph serviceGraph = new ServiceGraph("SeedNodeApplicationService.initialize")
+                .add(memoryReportService)
+                .add(securityService)
+                .add(networkService, securityService, memoryReportService)
+                .add(identityService, securityService, networkService)
+                .add(bondedRolesService, networkService)
+                .add(seedNodeService, securityService, networkService, identityService);
         // Move initialization work off the current thread and use ExecutorFactory.commonForkJoinPool() instead.
-        return supplyAsync(() -> memoryReportService.initialize()
-                .thenCompose(result -> securityService.initialize())
-                .thenCompose(result -> networkService.initialize())
-                .thenCompose(result -> identityService.initialize())
-                .thenCompose(result -> bondedRolesService.initialize())
-                .thenCompose(result -> seedNodeService.initialize())
+        return supplyAsync(() -> serviceGraph.initialize()
                 .orTimeout(5, TimeUnit.MINUTES)
                 .whenComplete((success, throwable) -> {
                     if (success) {
@@ -0,0 +1,18 @@
+plugins {
+    id("bisq.java-library")
+    id("bisq.java-jmh")
+}
+
+dependencies {
+    implementation(project(":persistence"))
+    implementation(project(":security"))
+    implementation(project(":account"))
+    implementation(project(":offer"))
+    implementation(project(":user"))
+    implementation(project(":application"))
+
+    implementation("network:network:$version")
+    implementation("network:network-identity:$version")
+
+    implementation(libs.protobuf.java)
+}
@@ -0,0 +1,108 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.benchmarks;
+
+import bisq.benchmarks.fixtures.SeedNodeFixtures;
+import bisq.common.file.FileMutatorUtils;
+import bisq.network.p2p.services.data.storage.StorageService;
+import bisq.network.p2p.services.data.storage.auth.AddAuthenticatedDataRequest;
+import bisq.network.p2p.services.data.storage.auth.AuthenticatedDataStorageService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adding the network data of a seed node to empty stores, as it happens when a node replays the inventory it
+ * received at startup. Each iteration starts with new stores, so we measure single shots.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class AuthenticatedDataStorageBenchmark {
+    private SeedNodeFixtures fixtures;
+    private Path trialDirPath;
+    private StorageService storageService;
+    private AuthenticatedDataStorageService userProfileStore;
+    private int iteration;
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws IOException {
+        fixtures = new SeedNodeFixtures();
+        trialDirPath = Files.createTempDirectory("bisq_benchmarks");
+    }
+
+    @Setup(Level.Iteration)
+    public void setupIteration() throws IOException {
+        Path appDataDirPath = Files.createDirectories(trialDirPath.resolve("iteration_" + iteration++));
+        storageService = SeedNodeFixtures.createStorageService(appDataDirPath);
+        String className = fixtures.getUserProfileRequests().get(0)
+                .getAuthenticatedSequentialData().getAuthenticatedData().getClassName();
+        userProfileStore = storageService.getOrCreateAuthenticatedDataStore(className).join();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() {
+        storageService.shutdown();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        FileMutatorUtils.deleteFileOrDirectory(trialDirPath);
+    }
+
+    // Sequential adds of user profiles to a single store
+    @Benchmark
+    public int addUserProfiles() {
+        int numAdded = 0;
+        for (AddAuthenticatedDataRequest request : fixtures.getUserProfileRequests()) {
+            if (userProfileStore.add(request).isSuccess()) {
+                numAdded++;
+            }
+        }
+        return numAdded;
+    }
+
+    // Concurrent adds of all data through the storage service, as done when processing an inventory
+    @Benchmark
+    public int replayInventory() {
+        List<CompletableFuture<?>> futures = fixtures.getAllRequests().stream()
+                .<CompletableFuture<?>>map(storageService::onAddDataRequest)
+                .toList();
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        return futures.size();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.benchmarks;
+
+import bisq.benchmarks.fixtures.SeedNodeFixtures;
+import bisq.common.data.ByteArray;
+import bisq.network.p2p.services.confidential.ConfidentialMessage;
+import bisq.network.p2p.services.confidential.DecryptionPipeline;
+import bisq.network.p2p.services.data.storage.mailbox.AddMailboxRequest;
+import bisq.security.ConfidentialData;
+import bisq.security.HybridEncryption;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decryption of the mailbox messages a node receives with the inventory at startup. With a single thread the
+ * pipeline behaves like the former single threaded executor. Messages come from a small set of senders, so the
+ * pipeline has to keep the order of many messages per sender.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ConfidentialMessageBenchmark {
+    private static final int NUM_SENDERS = 50;
+
+    @Param({"1", "2", "4", "8"})
+    public int numThreads;
+
+    private final List<ConfidentialData> confidentialDataList = new ArrayList<>();
+    private final List<KeyPair> receiverKeyPairs = new ArrayList<>();
+    private DecryptionPipeline decryptionPipeline;
+
+    @Setup
+    public void setup() {
+        SeedNodeFixtures fixtures = new SeedNodeFixtures(NUM_SENDERS, 0, SeedNodeFixtures.NUM_MAILBOX_MESSAGES);
+        List<AddMailboxRequest> mailboxRequests = fixtures.getMailboxRequests();
+        for (int i = 0; i < mailboxRequests.size(); i++) {
+            ConfidentialMessage confidentialMessage = mailboxRequests.get(i).getMailboxSequentialData()
+                    .getMailboxData().getConfidentialMessage();
+            confidentialDataList.add(confidentialMessage.getConfidentialData());
+            // Same receiver as used by the fixtures
+            receiverKeyPairs.add(fixtures.getKeyPairs().get((i + 1) % NUM_SENDERS));
+        }
+        decryptionPipeline = new DecryptionPipeline("ConfidentialMessageBenchmark",
+                numThreads,
+                DecryptionPipeline.DEFAULT_QUEUE_CAPACITY);
+    }
+
+    @TearDown
+    public void tearDown() {
+        decryptionPipeline.shutdown();
+    }
+
+    @Benchmark
+    public int decryptAll() {
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>(confidentialDataList.size());
+        for (int i = 0; i < confidentialDataList.size(); i++) {
+            ConfidentialData confidentialData = confidentialDataList.get(i);
+            KeyPair receiverKeyPair = receiverKeyPairs.get(i);
+            futures.add(decryptionPipeline.process(new ByteArray(confidentialData.getSenderPublicKey()),
+                    () -> decrypt(confidentialData, receiverKeyPair),
+                    decryptedBytes -> decryptedBytes.length > 0));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        return futures.size();
+    }
+
+    private static byte[] decrypt(ConfidentialData confidentialData, KeyPair receiverKeyPair) {
+        try {
+            return HybridEncryption.decryptAndVerify(confidentialData, receiverKeyPair);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
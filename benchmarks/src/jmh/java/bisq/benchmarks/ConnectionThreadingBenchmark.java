@@ -0,0 +1,279 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.benchmarks;
+
+import bisq.common.file.FileMutatorUtils;
+import bisq.common.network.Address;
+import bisq.common.network.AddressByTransportTypeMap;
+import bisq.common.network.TransportType;
+import bisq.common.network.clear_net_address_types.ClearNetAddressType;
+import bisq.common.network.clear_net_address_types.LocalHostAddressTypeFacade;
+import bisq.common.threading.ExecutorFactory;
+import bisq.common.util.NetworkUtils;
+import bisq.network.NetworkExecutors;
+import bisq.network.identity.NetworkId;
+import bisq.network.p2p.message.EncodedEnvelopePayload;
+import bisq.network.p2p.message.EnvelopePayloadMessage;
+import bisq.network.p2p.node.CloseReason;
+import bisq.network.p2p.node.Connection;
+import bisq.network.p2p.node.Feature;
+import bisq.network.p2p.node.Node;
+import bisq.network.p2p.node.authorization.AuthorizationService;
+import bisq.network.p2p.node.authorization.AuthorizationTokenType;
+import bisq.network.p2p.node.network_load.NetworkLoadSnapshot;
+import bisq.network.p2p.node.transport.ClearNetTransportService;
+import bisq.network.p2p.node.transport.TransportService;
+import bisq.network.p2p.services.peer_group.BanList;
+import bisq.network.p2p.services.peer_group.keep_alive.Ping;
+import bisq.persistence.PersistenceService;
+import bisq.security.keys.KeyBundle;
+import bisq.security.keys.KeyBundleService;
+import bisq.security.keys.PubKey;
+import bisq.security.pow.equihash.EquihashProofOfWorkService;
+import bisq.security.pow.hashcash.HashCashProofOfWorkService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares platform threads with virtual threads for blocking clear-net connections. A server node holds
+ * {@link #numConnections} inbound connections from the same number of client nodes in the same JVM.
+ * <p>
+ * The score is the time until a message sent to (or from) all connections has been received. The aux counters show
+ * the number of live platform threads, the heap used and the resident set size of the process at the end of each
+ * iteration. Each client node also runs the accept thread of its own server, which is the same in both modes.
+ * <p>
+ * Usage: ./gradlew :benchmarks:jmh -Pjmh.includes=ConnectionThreading
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ConnectionThreadingBenchmark {
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ResourceCounters {
+        public long platformThreads;
+        public long heapUsedMb;
+        public long rssMb;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            platformThreads = 0;
+            heapUsedMb = 0;
+            rssMb = 0;
+        }
+
+        private void update() {
+            platformThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+            Runtime runtime = Runtime.getRuntime();
+            heapUsedMb = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+            rssMb = readRssMb();
+        }
+
+        // Thread stacks of platform threads are not part of the heap, so we also read the resident set size
+        private static long readRssMb() {
+            try {
+                return Files.readAllLines(Path.of("/proc/self/status")).stream()
+                        .filter(line -> line.startsWith("VmRSS:"))
+                        .map(line -> line.replaceAll("\\D", ""))
+                        .mapToLong(kb -> Long.parseLong(kb) / 1024)
+                        .findFirst()
+                        .orElse(-1);
+            } catch (IOException | RuntimeException e) {
+                return -1;
+            }
+        }
+    }
+
+    @Param({"false", "true"})
+    public boolean useVirtualThreads;
+
+    @Param({"500"})
+    public int numConnections;
+
+    private Path appDataDirPath;
+    private TransportService transportService;
+    private Node serverNode;
+    private final List<Node> clientNodes = new ArrayList<>();
+    private volatile CountDownLatch serverLatch = new CountDownLatch(0);
+    private volatile CountDownLatch clientsLatch = new CountDownLatch(0);
+    private final AtomicInteger nonce = new AtomicInteger();
+
+    @Setup
+    public void setup() throws IOException {
+        ExecutorFactory.setUseVirtualThreads(useVirtualThreads);
+        NetworkExecutors.initialize(8);
+        Connection.setExecutorMaxPoolSize(10);
+
+        appDataDirPath = Files.createTempDirectory("bisq_benchmarks");
+        KeyBundleService keyBundleService = new KeyBundleService(new PersistenceService(appDataDirPath),
+                new KeyBundleService.Config("", "", "", "", false, false, false, false));
+        ClearNetTransportService.Config transportConfig = new ClearNetTransportService.Config(appDataDirPath,
+                -1,
+                (int) TimeUnit.MINUTES.toMillis(5),
+                0,
+                0,
+                120_000,
+                ClearNetAddressType.LOCAL_HOST,
+                ClearNetTransportService.IoMode.BLOCKING,
+                2);
+        transportService = new ClearNetTransportService(transportConfig);
+        transportService.initialize();
+        Node.Config nodeConfig = new Node.Config(TransportType.CLEAR,
+                Set.of(TransportType.CLEAR),
+                Set.of(Feature.AUTHORIZATION_HASH_CASH),
+                transportConfig,
+                transportConfig.getSocketTimeout(),
+                0,
+                0,
+                numConnections + 10);
+        //noinspection deprecation
+        AuthorizationService authorizationService = new AuthorizationService(
+                new AuthorizationService.Config(List.of(AuthorizationTokenType.HASH_CASH)),
+                new HashCashProofOfWorkService(),
+                new EquihashProofOfWorkService(),
+                Set.of(Feature.AUTHORIZATION_HASH_CASH));
+        NetworkLoadSnapshot networkLoadSnapshot = new NetworkLoadSnapshot();
+
+        serverNode = createNode("server", keyBundleService, nodeConfig, authorizationService, networkLoadSnapshot);
+        serverNode.addListener(new MessageListener(() -> serverLatch.countDown()));
+        serverNode.initializeAsync().join();
+        Address serverAddress = serverNode.getNetworkId().getAddressByTransportTypeMap()
+                .getAddress(TransportType.CLEAR).orElseThrow();
+
+        List<CompletableFuture<Connection>> connectionFutures = new ArrayList<>();
+        for (int i = 0; i < numConnections; i++) {
+            Node clientNode = createNode("client-" + i,
+                    keyBundleService,
+                    nodeConfig,
+                    authorizationService,
+                    networkLoadSnapshot);
+            clientNode.addListener(new MessageListener(() -> clientsLatch.countDown()));
+            clientNodes.add(clientNode);
+            connectionFutures.add(clientNode.initializeAsync()
+                    .thenCompose(node -> node.getOrCreateConnectionAsync(serverAddress)));
+        }
+        CompletableFuture.allOf(connectionFutures.toArray(CompletableFuture[]::new)).join();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        clientNodes.forEach(node -> futures.add(node.shutdown()));
+        futures.add(serverNode.shutdown());
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        clientNodes.clear();
+        transportService.shutdown().join();
+        NetworkExecutors.shutdown();
+        ExecutorFactory.setUseVirtualThreads(false);
+        FileMutatorUtils.deleteFileOrDirectory(appDataDirPath);
+    }
+
+    @Benchmark
+    public void sendToAllConnections(ResourceCounters counters) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(numConnections);
+        clientsLatch = latch;
+        EncodedEnvelopePayload encodedEnvelopePayload = new EncodedEnvelopePayload(new Ping(nonce.incrementAndGet()));
+        serverNode.getAllActiveConnections()
+                .forEach(connection -> serverNode.sendAsync(encodedEnvelopePayload, connection));
+        await(latch);
+        counters.update();
+    }
+
+    @Benchmark
+    public void receiveFromAllConnections(ResourceCounters counters) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(numConnections);
+        serverLatch = latch;
+        Ping ping = new Ping(nonce.incrementAndGet());
+        clientNodes.forEach(node -> node.getAllActiveConnections()
+                .forEach(connection -> node.sendAsync(ping, connection)));
+        await(latch);
+        counters.update();
+    }
+
+    private static void await(CountDownLatch latch) throws InterruptedException {
+        if (!latch.await(1, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("Not all messages have been received. Missing: " + latch.getCount());
+        }
+    }
+
+    private Node createNode(String tag,
+                            KeyBundleService keyBundleService,
+                            Node.Config nodeConfig,
+                            AuthorizationService authorizationService,
+                            NetworkLoadSnapshot networkLoadSnapshot) {
+        KeyBundle keyBundle = keyBundleService.createAndPersistKeyBundle(tag, keyBundleService.generateKeyPair());
+        PubKey pubKey = new PubKey(keyBundle.getKeyPair().getPublic(), keyBundle.getKeyId());
+        Address address = LocalHostAddressTypeFacade.toLocalHostAddress(NetworkUtils.findFreeSystemPort());
+        NetworkId networkId = new NetworkId(new AddressByTransportTypeMap(Map.of(TransportType.CLEAR, address)),
+                pubKey);
+        return new Node(networkId,
+                true,
+                nodeConfig,
+                new BanList(),
+                keyBundleService,
+                transportService,
+                networkLoadSnapshot,
+                authorizationService);
+    }
+
+    private record MessageListener(Runnable onMessage) implements Node.Listener {
+        @Override
+        public void onMessage(EnvelopePayloadMessage envelopePayloadMessage,
+                              Connection connection,
+                              NetworkId networkId) {
+            if (envelopePayloadMessage instanceof Ping) {
+                onMessage.run();
+            }
+        }
+
+        @Override
+        public void onConnection(Connection connection) {
+        }
+
+        @Override
+        public void onDisconnect(Connection connection, CloseReason closeReason) {
+        }
+    }
+}
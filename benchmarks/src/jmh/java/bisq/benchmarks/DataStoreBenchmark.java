@@ -0,0 +1,99 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.benchmarks;
+
+import bisq.benchmarks.fixtures.SeedNodeFixtures;
+import bisq.common.data.ByteArray;
+import bisq.common.file.FileMutatorUtils;
+import bisq.network.p2p.services.data.storage.DataStore;
+import bisq.network.p2p.services.data.storage.StorageService;
+import bisq.network.p2p.services.data.storage.auth.AuthenticatedDataRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the user profile store of a seed node: the full snapshot as written at compaction, a single
+ * journal entry as written for each change, and the serialized size of all entries as used for the inventory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataStoreBenchmark {
+    private Path appDataDirPath;
+    private StorageService storageService;
+    private DataStore<AuthenticatedDataRequest> dataStore;
+    private List<ByteArray> keys;
+    private int keyIndex;
+
+    @Setup
+    public void setup() throws IOException {
+        SeedNodeFixtures fixtures = new SeedNodeFixtures(SeedNodeFixtures.NUM_USER_PROFILES, 0, 0);
+        appDataDirPath = Files.createTempDirectory("bisq_benchmarks");
+        storageService = SeedNodeFixtures.createStorageService(appDataDirPath);
+        SeedNodeFixtures.addAll(storageService, fixtures.getUserProfileRequests());
+        String className = fixtures.getUserProfileRequests().get(0)
+                .getAuthenticatedSequentialData().getAuthenticatedData().getClassName();
+        dataStore = storageService.getOrCreateAuthenticatedDataStore(className).join().getPersistableStore();
+        keys = List.copyOf(dataStore.getMap().keySet());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        storageService.shutdown();
+        FileMutatorUtils.deleteFileOrDirectory(appDataDirPath);
+    }
+
+    @Benchmark
+    public byte[] snapshot() {
+        return dataStore.toProto(false).toByteArray();
+    }
+
+    @Benchmark
+    public Optional<byte[]> journalEntry() {
+        keyIndex = (keyIndex + 1) % keys.size();
+        return dataStore.serializeEntry(keys.get(keyIndex));
+    }
+
+    @Benchmark
+    public long serializedSize() {
+        long size = 0;
+        for (AuthenticatedDataRequest request : dataStore.getMap().values()) {
+            size += request.getSerializedSize();
+        }
+        return size;
+    }
+}
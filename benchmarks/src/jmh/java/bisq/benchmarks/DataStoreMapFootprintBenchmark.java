@@ -0,0 +1,99 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.benchmarks;
+
+import bisq.common.data.ByteArray;
+import bisq.common.data.FixedWidthKeyMap;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap footprint of the map behind the data stores with the number of entries of a seed node. The retained heap per
+ * entry is reported as the secondary result {@code bytesPerEntry}. The values are shared by both maps, so only the
+ * keys and the map structure are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class DataStoreMapFootprintBenchmark {
+    @Param({"CONCURRENT_HASH_MAP", "FIXED_WIDTH_KEY_MAP"})
+    public String mapType;
+
+    @Param({"100000", "500000"})
+    public int numEntries;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long bytesPerEntry;
+    }
+
+    private byte[][] keys;
+    private final Object value = new Object();
+    // Keeps the map of the last invocation reachable until the next one
+    private Map<ByteArray, Object> map;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        keys = new byte[numEntries][20];
+        for (byte[] key : keys) {
+            random.nextBytes(key);
+        }
+    }
+
+    @Benchmark
+    public int fill(Footprint footprint) {
+        map = null;
+        long before = usedHeap();
+        map = mapType.equals("CONCURRENT_HASH_MAP")
+                ? new ConcurrentHashMap<>()
+                : new FixedWidthKeyMap<>(20);
+        for (byte[] key : keys) {
+            map.put(new ByteArray(key.clone()), value);
+        }
+        footprint.bytesPerEntry = (usedHeap() - before) / numEntries;
+        return map.size();
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.benchmarks;
+
+import bisq.security.ConfidentialData;
+import bisq.security.HybridEncryption;
+import bisq.security.keys.KeyGeneration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encryption of confidential messages on the sender side and decryption on the receiver side.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HybridEncryptionBenchmark {
+    // Typical sizes of an ack message, a private chat message and a trade message with account data
+    @Param({"200", "1200", "10000"})
+    public int messageSize;
+
+    private KeyPair senderKeyPair;
+    private KeyPair receiverKeyPair;
+    private byte[] message;
+    private ConfidentialData confidentialData;
+
+    @Setup
+    public void setup() throws GeneralSecurityException {
+        senderKeyPair = KeyGeneration.generateKeyPair();
+        receiverKeyPair = KeyGeneration.generateKeyPair();
+        message = new byte[messageSize];
+        new Random(42).nextBytes(message);
+        confidentialData = HybridEncryption.encryptAndSign(message, receiverKeyPair.getPublic(), senderKeyPair);
+    }
+
+    @Benchmark
+    public ConfidentialData encryptAndSign() throws GeneralSecurityException {
+        return HybridEncryption.encryptAndSign(message, receiverKeyPair.getPublic(), senderKeyPair);
+    }
+
+    @Benchmark
+    public byte[] decryptAndVerify() throws GeneralSecurityException {
+        return HybridEncryption.decryptAndVerify(confidentialData, receiverKeyPair);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.benchmarks;
+
+import bisq.benchmarks.fixtures.SeedNodeFixtures;
+import bisq.common.file.FileMutatorUtils;
+import bisq.network.p2p.services.data.AddDataRequest;
+import bisq.network.p2p.services.data.inventory.Inventory;
+import bisq.network.p2p.services.data.inventory.filter.FilterService;
+import bisq.network.p2p.services.data.inventory.filter.InventoryFilter;
+import bisq.network.p2p.services.data.inventory.filter.hash_set.HashSetFilterService;
+import bisq.network.p2p.services.data.inventory.filter.mini_sketch.MiniSketchFilterService;
+import bisq.network.p2p.services.data.storage.StorageService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creation of the inventory a seed node sends to a peer which misses the given share of the network data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventoryBenchmark {
+    // Same as the default maxSizeInKb config value
+    private static final int MAX_SIZE = 2000 * 1024;
+
+    @Param({"HASH_SET", "MINI_SKETCH"})
+    public String filterType;
+
+    // Percentage of the network data the requesting peer does not have
+    @Param({"100", "10"})
+    public int missingPercentage;
+
+    private Path seedNodeDirPath;
+    private Path peerDirPath;
+    private StorageService seedNodeStorageService;
+    private StorageService peerStorageService;
+    private FilterService<?> seedNodeFilterService;
+    private InventoryFilter peerFilter;
+
+    @Setup
+    public void setup() throws IOException {
+        SeedNodeFixtures fixtures = new SeedNodeFixtures();
+        List<AddDataRequest> requests = fixtures.getAllRequests();
+
+        seedNodeDirPath = Files.createTempDirectory("bisq_benchmarks");
+        seedNodeStorageService = SeedNodeFixtures.createStorageService(seedNodeDirPath);
+        SeedNodeFixtures.addAll(seedNodeStorageService, requests);
+
+        peerDirPath = Files.createTempDirectory("bisq_benchmarks");
+        peerStorageService = SeedNodeFixtures.createStorageService(peerDirPath);
+        int numPresent = requests.size() * (100 - missingPercentage) / 100;
+        SeedNodeFixtures.addAll(peerStorageService, requests.subList(0, numPresent));
+
+        if (filterType.equals("HASH_SET")) {
+            seedNodeFilterService = new HashSetFilterService(seedNodeStorageService, MAX_SIZE);
+            peerFilter = new HashSetFilterService(peerStorageService, MAX_SIZE).getFilter();
+        } else {
+            seedNodeFilterService = new MiniSketchFilterService(seedNodeStorageService, MAX_SIZE);
+            peerFilter = new MiniSketchFilterService(peerStorageService, MAX_SIZE).getFilter();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        seedNodeStorageService.shutdown();
+        peerStorageService.shutdown();
+        FileMutatorUtils.deleteFileOrDirectory(seedNodeDirPath);
+        FileMutatorUtils.deleteFileOrDirectory(peerDirPath);
+    }
+
+    @Benchmark
+    public Inventory createInventory() {
+        return seedNodeFilterService.createInventory(peerFilter);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.benchmarks;
+
+import bisq.benchmarks.fixtures.SeedNodeFixtures;
+import bisq.network.p2p.message.NetworkEnvelope;
+import bisq.network.p2p.node.envelope.parser.nio.NetworkEnvelopeDeserializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the gossip traffic a seed node receives: size delimited envelopes with user profiles, offers and
+ * mailbox messages, read from a buffer of the given size as we do on a non-blocking socket channel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NetworkEnvelopeDeserializerBenchmark {
+    @Param({"8192", "65536"})
+    public int readBufferSize;
+
+    private byte[] wireBytes;
+
+    @Setup
+    public void setup() {
+        SeedNodeFixtures fixtures = new SeedNodeFixtures(500, 100, 200);
+        ByteBuffer wireFormat = fixtures.toWireFormat(fixtures.getAllRequests());
+        wireBytes = new byte[wireFormat.remaining()];
+        wireFormat.get(wireBytes);
+    }
+
+    @Benchmark
+    public int deserialize() {
+        ByteBuffer readBuffer = ByteBuffer.allocate(readBufferSize);
+        NetworkEnvelopeDeserializer deserializer = new NetworkEnvelopeDeserializer(readBuffer);
+        int numEnvelopes = 0;
+        int position = 0;
+        while (position < wireBytes.length) {
+            int length = Math.min(readBufferSize, wireBytes.length - position);
+            readBuffer.clear();
+            readBuffer.put(wireBytes, position, length);
+            readBuffer.flip();
+            position += length;
+
+            deserializer.readFromByteBuffer();
+            List<NetworkEnvelope> envelopes = deserializer.getAllNetworkEnvelopes();
+            numEnvelopes += envelopes.size();
+        }
+        return numEnvelopes;
+    }
+}
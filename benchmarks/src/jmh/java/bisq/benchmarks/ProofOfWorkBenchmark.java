@@ -0,0 +1,93 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.benchmarks;
+
+import bisq.security.pow.ProofOfWork;
+import bisq.security.pow.equihash.EquihashProofOfWorkService;
+import bisq.security.pow.hashcash.HashCashProofOfWorkService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minting and verification of the proof of work used for the authorization tokens of network messages and for the
+ * nym of user profiles. Minting time depends on the payload, so we mint with a new payload at each invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProofOfWorkBenchmark {
+    @Param({"1024", "65536"})
+    public double difficulty;
+
+    private final Random random = new Random(42);
+    private final HashCashProofOfWorkService hashCashService = new HashCashProofOfWorkService();
+    private final EquihashProofOfWorkService equihashService = new EquihashProofOfWorkService();
+    private final byte[] challenge = new byte[32];
+    private final byte[] payload = new byte[20];
+    private ProofOfWork hashCashProofOfWork;
+    private ProofOfWork equihashProofOfWork;
+
+    @Setup
+    public void setup() {
+        random.nextBytes(challenge);
+        byte[] verifiedPayload = new byte[20];
+        random.nextBytes(verifiedPayload);
+        hashCashProofOfWork = hashCashService.mint(verifiedPayload, challenge, difficulty);
+        equihashProofOfWork = equihashService.mint(verifiedPayload, challenge, difficulty);
+    }
+
+    @Benchmark
+    public ProofOfWork hashCashMint() {
+        return hashCashService.mint(nextPayload(), challenge, difficulty);
+    }
+
+    @Benchmark
+    public boolean hashCashVerify() {
+        return hashCashService.verify(hashCashProofOfWork);
+    }
+
+    @Benchmark
+    public ProofOfWork equihashMint() {
+        return equihashService.mint(nextPayload(), challenge, difficulty);
+    }
+
+    @Benchmark
+    public boolean equihashVerify() {
+        return equihashService.verify(equihashProofOfWork);
+    }
+
+    private byte[] nextPayload() {
+        random.nextBytes(payload);
+        return payload;
+    }
+}
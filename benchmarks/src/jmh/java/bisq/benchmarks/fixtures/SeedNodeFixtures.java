@@ -0,0 +1,266 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.benchmarks.fixtures;
+
+import bisq.account.payment_method.PaymentMethod;
+import bisq.account.payment_method.fiat.FiatPaymentMethod;
+import bisq.account.payment_method.fiat.FiatPaymentRail;
+import bisq.application.ResolverConfig;
+import bisq.common.encoding.Hex;
+import bisq.common.market.MarketRepository;
+import bisq.common.network.Address;
+import bisq.common.network.AddressByTransportTypeMap;
+import bisq.common.network.TransportType;
+import bisq.network.identity.NetworkId;
+import bisq.network.p2p.message.EnvelopePayloadMessage;
+import bisq.network.p2p.message.NetworkEnvelope;
+import bisq.network.p2p.node.authorization.token.hash_cash.HashCashToken;
+import bisq.network.p2p.services.confidential.ConfidentialMessage;
+import bisq.network.p2p.services.data.AddDataRequest;
+import bisq.network.p2p.services.data.storage.DistributedData;
+import bisq.network.p2p.services.data.storage.MetaData;
+import bisq.network.p2p.services.data.storage.StorageService;
+import bisq.network.p2p.services.data.storage.auth.AddAuthenticatedDataRequest;
+import bisq.network.p2p.services.data.storage.auth.AuthenticatedData;
+import bisq.network.p2p.services.data.storage.auth.AuthenticatedSequentialData;
+import bisq.network.p2p.services.data.storage.auth.DefaultAuthenticatedData;
+import bisq.network.p2p.services.data.storage.mailbox.AddMailboxRequest;
+import bisq.network.p2p.services.data.storage.mailbox.MailboxData;
+import bisq.offer.Direction;
+import bisq.offer.amount.spec.QuoteSideRangeAmountSpec;
+import bisq.offer.mu_sig.MuSigOffer;
+import bisq.offer.mu_sig.MuSigOfferMessage;
+import bisq.offer.price.spec.MarketPriceSpec;
+import bisq.persistence.PersistenceService;
+import bisq.security.ConfidentialData;
+import bisq.security.DigestUtil;
+import bisq.security.HybridEncryption;
+import bisq.security.SignatureUtil;
+import bisq.security.keys.KeyGeneration;
+import bisq.security.keys.PubKey;
+import bisq.security.pow.ProofOfWork;
+import bisq.user.profile.UserProfile;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Network data at the scale a seed node holds: user profiles, offers and mailbox messages with realistic sizes,
+ * each signed by the key of its owner. Creating the fixtures takes a few seconds, so benchmarks should create them
+ * once per trial.
+ */
+@Slf4j
+@Getter
+public class SeedNodeFixtures {
+    public static final int NUM_USER_PROFILES = 5000;
+    public static final int NUM_OFFERS = 1000;
+    public static final int NUM_MAILBOX_MESSAGES = 2000;
+    // Roughly the size of a serialized TwoPartyPrivateChatMessage
+    public static final int MAILBOX_MESSAGE_SIZE = 1200;
+    // Difficulty used for the nym proof of work of user profiles
+    private static final double NYM_DIFFICULTY = 65536;
+
+    static {
+        ResolverConfig.config();
+    }
+
+    private final Random random = new Random(42);
+    private final List<KeyPair> keyPairs;
+    private final List<AddAuthenticatedDataRequest> userProfileRequests;
+    private final List<AddAuthenticatedDataRequest> offerRequests;
+    private final List<AddMailboxRequest> mailboxRequests;
+
+    public SeedNodeFixtures() {
+        this(NUM_USER_PROFILES, NUM_OFFERS, NUM_MAILBOX_MESSAGES);
+    }
+
+    public SeedNodeFixtures(int numUserProfiles, int numOffers, int numMailboxMessages) {
+        long ts = System.currentTimeMillis();
+        keyPairs = IntStream.range(0, numUserProfiles)
+                .mapToObj(i -> KeyGeneration.generateKeyPair())
+                .toList();
+        userProfileRequests = IntStream.range(0, numUserProfiles)
+                .mapToObj(i -> createAddRequest(createUserProfile(i, keyPairs.get(i)), keyPairs.get(i)))
+                .toList();
+        offerRequests = IntStream.range(0, numOffers)
+                .mapToObj(i -> {
+                    KeyPair makerKeyPair = keyPairs.get(i % numUserProfiles);
+                    return createAddRequest(createOfferMessage(i, makerKeyPair), makerKeyPair);
+                })
+                .toList();
+        mailboxRequests = IntStream.range(0, numMailboxMessages)
+                .mapToObj(i -> createAddMailboxRequest(keyPairs.get(i % numUserProfiles),
+                        keyPairs.get((i + 1) % numUserProfiles)))
+                .toList();
+        log.info("Created {} user profiles, {} offers and {} mailbox messages in {} ms",
+                numUserProfiles, numOffers, numMailboxMessages, System.currentTimeMillis() - ts);
+    }
+
+    public List<AddDataRequest> getAllRequests() {
+        return Stream.of(userProfileRequests, offerRequests, mailboxRequests)
+                .flatMap(List::stream)
+                .map(AddDataRequest.class::cast)
+                .toList();
+    }
+
+    public byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    /* --------------------------------------------------------------------- */
+    // Stores
+    /* --------------------------------------------------------------------- */
+
+    public static StorageService createStorageService(Path appDataDirPath) {
+        return new StorageService(new PersistenceService(appDataDirPath));
+    }
+
+    public static void addAll(StorageService storageService, List<? extends AddDataRequest> requests) {
+        requests.forEach(request -> storageService.onAddDataRequest(request).join());
+    }
+
+    /* --------------------------------------------------------------------- */
+    // Wire format
+    /* --------------------------------------------------------------------- */
+
+    public NetworkEnvelope toNetworkEnvelope(EnvelopePayloadMessage message) {
+        ProofOfWork proofOfWork = new ProofOfWork(randomBytes(20), random.nextLong(), randomBytes(20),
+                NYM_DIFFICULTY, randomBytes(8), 0);
+        return new NetworkEnvelope(new HashCashToken(proofOfWork, 1), message);
+    }
+
+    // Returns the size delimited envelopes as we receive them on a connection
+    public ByteBuffer toWireFormat(List<? extends EnvelopePayloadMessage> messages) {
+        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            for (EnvelopePayloadMessage message : messages) {
+                toNetworkEnvelope(message).completeProto().writeDelimitedTo(outputStream);
+            }
+            return ByteBuffer.wrap(outputStream.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /* --------------------------------------------------------------------- */
+    // Private
+    /* --------------------------------------------------------------------- */
+
+    private UserProfile createUserProfile(int index, KeyPair keyPair) {
+        NetworkId networkId = createNetworkId(keyPair);
+        // Minting a proof of work for each profile would take minutes. The proof of work is not verified by the
+        // storage layer, so a proof of work with a random solution has the same costs.
+        ProofOfWork proofOfWork = new ProofOfWork(networkId.getPubKey().getHash(),
+                random.nextInt(1_000_000),
+                null,
+                NYM_DIFFICULTY,
+                randomBytes(8),
+                0);
+        return UserProfile.createNew("nickName-" + index,
+                proofOfWork,
+                0,
+                networkId,
+                randomText(random.nextInt(UserProfile.MAX_LENGTH_TERMS)),
+                randomText(random.nextInt(UserProfile.MAX_LENGTH_STATEMENT)));
+    }
+
+    private MuSigOfferMessage createOfferMessage(int index, KeyPair makerKeyPair) {
+        long minAmount = 100_0000 + random.nextInt(1000) * 1_0000L;
+        List<PaymentMethod<?>> paymentMethods = new ArrayList<>();
+        paymentMethods.add(FiatPaymentMethod.fromPaymentRail(FiatPaymentRail.SEPA));
+        if (index % 2 == 0) {
+            paymentMethods.add(FiatPaymentMethod.fromPaymentRail(FiatPaymentRail.ZELLE));
+        }
+        MuSigOffer offer = new MuSigOffer(UUID.randomUUID().toString(),
+                createNetworkId(makerKeyPair),
+                index % 2 == 0 ? Direction.BUY : Direction.SELL,
+                MarketRepository.getDefaultBtcFiatMarket(),
+                new QuoteSideRangeAmountSpec(minAmount, minAmount * 5),
+                new MarketPriceSpec(),
+                paymentMethods,
+                List.of(),
+                "1.0.0");
+        return new MuSigOfferMessage(offer);
+    }
+
+    private AddMailboxRequest createAddMailboxRequest(KeyPair senderKeyPair, KeyPair receiverKeyPair) {
+        try {
+            ConfidentialData confidentialData = HybridEncryption.encryptAndSign(randomBytes(MAILBOX_MESSAGE_SIZE),
+                    receiverKeyPair.getPublic(),
+                    senderKeyPair);
+            ConfidentialMessage confidentialMessage = ConfidentialMessage.fromProto(
+                    bisq.network.protobuf.ConfidentialMessage.newBuilder()
+                            .setConfidentialData(confidentialData.toProto(false))
+                            .setReceiverKeyId(getKeyId(receiverKeyPair))
+                            .build());
+            MetaData metaData = new MetaData(MetaData.TTL_15_DAYS, "TwoPartyPrivateChatMessage", MetaData.MAX_MAP_SIZE_10_000);
+            return AddMailboxRequest.from(new MailboxData(metaData, confidentialMessage),
+                    senderKeyPair,
+                    receiverKeyPair.getPublic());
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Same as AddAuthenticatedDataRequest.from for data which is not in any store yet
+    private static AddAuthenticatedDataRequest createAddRequest(DistributedData distributedData, KeyPair keyPair) {
+        try {
+            AuthenticatedData authenticatedData = new DefaultAuthenticatedData(distributedData);
+            byte[] pubKeyHash = DigestUtil.hash(keyPair.getPublic().getEncoded());
+            AuthenticatedSequentialData data =
+                    new AuthenticatedSequentialData(authenticatedData, 1, pubKeyHash, System.currentTimeMillis());
+            byte[] signature = SignatureUtil.sign(data.serializeForHash(), keyPair.getPrivate());
+            return new AddAuthenticatedDataRequest(data, signature, keyPair.getPublic());
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private NetworkId createNetworkId(KeyPair keyPair) {
+        String onionHost = Hex.encode(randomBytes(28)) + ".onion";
+        AddressByTransportTypeMap addressByTransportTypeMap = new AddressByTransportTypeMap();
+        addressByTransportTypeMap.put(TransportType.TOR, Address.from(onionHost, 1000 + random.nextInt(50000)));
+        return new NetworkId(addressByTransportTypeMap, new PubKey(keyPair.getPublic(), getKeyId(keyPair)));
+    }
+
+    private static String getKeyId(KeyPair keyPair) {
+        return Hex.encode(DigestUtil.hash(keyPair.getPublic().getEncoded()));
+    }
+
+    private String randomText(int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+}
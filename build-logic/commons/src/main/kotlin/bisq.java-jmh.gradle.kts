@@ -0,0 +1,61 @@
+plugins {
+    java
+}
+
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+
+val jmhImplementation by configurations.getting {
+    extendsFrom(configurations.implementation.get())
+}
+
+val jmhRuntimeOnly by configurations.getting
+configurations["jmhRuntimeOnly"].extendsFrom(configurations.runtimeOnly.get())
+
+val versionCatalog = extensions.getByType<VersionCatalogsExtension>().named("libs")
+dependencies {
+    versionCatalog.findLibrary("lombok").ifPresent {
+        "jmhAnnotationProcessor"(it)
+        "jmhCompileOnly"(it)
+    }
+
+    versionCatalog.findLibrary("jmh-core").ifPresent {
+        "jmhImplementation"(it)
+    }
+    versionCatalog.findLibrary("jmh-generator-annprocess").ifPresent {
+        "jmhAnnotationProcessor"(it)
+    }
+}
+
+// Runs the benchmarks and writes the results as json to build/reports/jmh, so that runs of different commits can be
+// compared (e.g. with https://jmh.morethan.io).
+// Usage: ./gradlew :benchmarks:jmh -Pjmh.includes=HybridEncryption -Pjmh.args="-f 1 -wi 2 -i 5"
+tasks.register<JavaExec>("jmh") {
+    description = "Runs JMH benchmarks and writes a machine-readable report."
+    group = "verification"
+
+    dependsOn("jmhClasses")
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+
+    val reportDir = layout.buildDirectory.dir("reports/jmh")
+    val resultFileName = providers.gradleProperty("jmh.resultFile").orElse("results.json")
+    val includes = providers.gradleProperty("jmh.includes")
+    val extraArgs = providers.gradleProperty("jmh.args")
+    outputs.dir(reportDir)
+    outputs.upToDateWhen { false }
+
+    doFirst {
+        val resultFile = reportDir.get().file(resultFileName.get()).asFile
+        resultFile.parentFile.mkdirs()
+
+        val jmhArgs = mutableListOf("-rf", "json", "-rff", resultFile.absolutePath)
+        extraArgs.orNull?.let { jmhArgs.addAll(it.trim().split(Regex("\\s+"))) }
+        includes.orNull?.let { jmhArgs.add(it) }
+        args = jmhArgs
+    }
+}
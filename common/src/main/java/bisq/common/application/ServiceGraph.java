@@ -0,0 +1,173 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.common.application;
+
+import bisq.common.threading.ExecutorFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Initializes services concurrently while respecting their declared dependencies. A service gets initialized once
+ * the initialize futures of all its dependencies have completed. If a dependency failed with an exception, the
+ * services depending on it are not initialized. A result of false does not stop the dependent services, like with
+ * the sequential initialization we used before, but the initialize future of the graph completes with false.
+ * <p>
+ * Dependencies have to be added before the services depending on them, so the graph cannot contain cycles.
+ * After initialization, we log the start and duration of each service and the critical path, which is the chain of
+ * dependencies which determined the total initialization time.
+ */
+@Slf4j
+public class ServiceGraph {
+    private static final class Node {
+        private final String name;
+        private final Supplier<CompletableFuture<Boolean>> initializer;
+        private final List<Node> dependencies;
+        private CompletableFuture<Boolean> future;
+        private volatile long startTime;
+        private volatile long endTime;
+
+        private Node(String name, Supplier<CompletableFuture<Boolean>> initializer, List<Node> dependencies) {
+            this.name = name;
+            this.initializer = initializer;
+            this.dependencies = dependencies;
+        }
+
+        private long getDuration() {
+            return endTime - startTime;
+        }
+    }
+
+    private final String name;
+    // Services might override equals, thus we use identity
+    private final Map<Service, Node> nodeByService = new IdentityHashMap<>();
+    private final List<Node> nodes = new ArrayList<>();
+    private boolean initializeCalled;
+
+    public ServiceGraph(String name) {
+        this.name = name;
+    }
+
+    public ServiceGraph add(Service service, Service... dependencies) {
+        return add(service, service::initialize, List.of(dependencies));
+    }
+
+    /**
+     * @param initializer  Initializes the service. Allows to run additional code when the initialization starts.
+     * @param dependencies Services which need to be initialized before this service. Must have been added already.
+     */
+    public ServiceGraph add(Service service,
+                            Supplier<CompletableFuture<Boolean>> initializer,
+                            Collection<? extends Service> dependencies) {
+        checkArgument(!initializeCalled, "Services must be added before initialize got called");
+        checkArgument(!nodeByService.containsKey(service), "Service was already added. service=%s",
+                service.getClass().getSimpleName());
+        List<Node> dependencyNodes = dependencies.stream()
+                .map(dependency -> {
+                    Node node = nodeByService.get(dependency);
+                    checkArgument(node != null, "Dependency %s of %s must be added before",
+                            dependency.getClass().getSimpleName(), service.getClass().getSimpleName());
+                    return node;
+                })
+                .toList();
+        Node node = new Node(service.getClass().getSimpleName(), initializer, dependencyNodes);
+        nodeByService.put(service, node);
+        nodes.add(node);
+        return this;
+    }
+
+    public CompletableFuture<Boolean> initialize() {
+        checkArgument(!initializeCalled, "initialize must not be called twice");
+        initializeCalled = true;
+        // Each service gets initialized by one task, thus the pool never needs more threads than we have services
+        ExecutorService executor = ExecutorFactory.newCachedThreadPool(name, 1, Math.max(1, nodes.size()), 5);
+        long startTime = System.currentTimeMillis();
+        // Nodes are in topological order, thus the futures of the dependencies are already present
+        for (Node node : nodes) {
+            CompletableFuture<?>[] dependencyFutures = node.dependencies.stream()
+                    .map(dependency -> dependency.future)
+                    .toArray(CompletableFuture[]::new);
+            node.future = CompletableFuture.allOf(dependencyFutures)
+                    .thenComposeAsync(nil -> initialize(node), executor);
+        }
+        CompletableFuture<?>[] futures = nodes.stream()
+                .map(node -> node.future)
+                .toArray(CompletableFuture[]::new);
+        // CompletableFuture.allOf completes when all futures are completed, even if some failed
+        return CompletableFuture.allOf(futures)
+                .whenComplete((nil, throwable) -> {
+                    executor.shutdown();
+                    if (throwable == null) {
+                        logReport(startTime);
+                    }
+                })
+                .thenApply(nil -> nodes.stream().allMatch(node -> Boolean.TRUE.equals(node.future.join())));
+    }
+
+    private CompletableFuture<Boolean> initialize(Node node) {
+        node.startTime = System.currentTimeMillis();
+        CompletableFuture<Boolean> future;
+        try {
+            future = node.initializer.get();
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((result, throwable) -> {
+            node.endTime = System.currentTimeMillis();
+            if (throwable != null) {
+                log.error("Initializing {} failed", node.name, throwable);
+            } else if (result == null || !result) {
+                log.warn("Initializing {} completed with result {}", node.name, result);
+            }
+        });
+    }
+
+    private void logReport(long startTime) {
+        if (nodes.isEmpty()) {
+            return;
+        }
+        Comparator<Node> byEndTime = Comparator.comparingLong(node -> node.endTime);
+        List<Node> criticalPath = new ArrayList<>();
+        Node node = nodes.stream().max(byEndTime).orElseThrow();
+        while (node != null) {
+            criticalPath.add(0, node);
+            node = node.dependencies.stream().max(byEndTime).orElse(null);
+        }
+        long totalDuration = criticalPath.get(criticalPath.size() - 1).endTime - startTime;
+        String criticalPathInfo = criticalPath.stream()
+                .map(element -> element.name + " (" + element.getDuration() + " ms)")
+                .collect(Collectors.joining(" -> "));
+        String servicesInfo = nodes.stream()
+                .sorted(Comparator.comparingLong(element -> element.startTime))
+                .map(element -> element.name + ": started after " + (element.startTime - startTime) +
+                        " ms, took " + element.getDuration() + " ms")
+                .collect(Collectors.joining("\n"));
+        log.info("Initializing services took {} ms. Critical path: {}\n{}",
+                totalDuration, criticalPathInfo, servicesInfo);
+    }
+}
@@ -22,12 +22,17 @@ import bisq.common.proto.PersistableProto;
 import com.google.protobuf.ByteString;
 import lombok.Getter;
 
-import java.math.BigInteger;
 import java.util.Arrays;
 
-@Getter
+/**
+ * Wraps a byte array to be used as map key. The array must not be changed after it has been passed to the
+ * constructor, as the hash code is cached.
+ */
 public final class ByteArray implements PersistableProto, Comparable<ByteArray> {
+    @Getter
     private final byte[] bytes;
+    // Lazily computed. Racy single-check as in String#hashCode: worst case it gets computed multiple times.
+    private int hash;
 
     public ByteArray(byte[] bytes) {
         this.bytes = bytes;
@@ -57,7 +62,12 @@ public final class ByteArray implements PersistableProto, Comparable<ByteArray>
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(bytes);
+        int result = hash;
+        if (result == 0) {
+            result = Arrays.hashCode(bytes);
+            hash = result;
+        }
+        return result;
     }
 
     @Override
@@ -65,8 +75,32 @@ public final class ByteArray implements PersistableProto, Comparable<ByteArray>
         return Hex.encode(bytes);
     }
 
+    /**
+     * Compares the bytes as big-endian two's-complement integers, as {@code new BigInteger(bytes)} does, but without
+     * allocating. The order is used for the deterministic sorting of the inventory, which is part of the proof of
+     * work check, so it must not change. An empty array is treated as zero.
+     */
     @Override
     public int compareTo(ByteArray o) {
-        return new BigInteger(this.getBytes()).compareTo(new BigInteger(o.getBytes()));
+        byte[] other = o.bytes;
+        int length = Math.max(bytes.length, other.length);
+        for (int i = 0; i < length; i++) {
+            int a = signExtendedByte(bytes, i, length);
+            int b = signExtendedByte(other, i, length);
+            if (a != b) {
+                // The first byte carries the sign, the following bytes are unsigned
+                return i == 0 ? Integer.compare((byte) a, (byte) b) : Integer.compare(a, b);
+            }
+        }
+        return 0;
+    }
+
+    // Returns the unsigned byte at index of the array sign-extended to the given length
+    private static int signExtendedByte(byte[] array, int index, int length) {
+        int padding = length - array.length;
+        if (index >= padding) {
+            return array[index - padding] & 0xFF;
+        }
+        return array.length > 0 && array[0] < 0 ? 0xFF : 0;
     }
 }
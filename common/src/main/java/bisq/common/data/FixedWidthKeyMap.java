@@ -0,0 +1,594 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.data;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Map with {@link ByteArray} keys of a fixed width, like the 20 byte hashes used as keys in the data stores.
+ * <p>
+ * Keys are stored inline in a {@code long[]} of an open addressing table with linear probing, so an entry costs
+ * about half of the heap of a {@link java.util.concurrent.ConcurrentHashMap} entry with its node, {@link ByteArray}
+ * wrapper and byte array. Keys of a different width are kept in a separate {@link ConcurrentHashMap}. The
+ * {@link ByteArray} keys returned by the views are created on demand.
+ * <p>
+ * Access is guarded by a read-write lock, so reads do not block each other. Removed entries are marked as deleted
+ * instead of moving the following entries, thus entries never move within a table. This allows the views to iterate
+ * the live table without copying it. Like with {@link ConcurrentHashMap}, iteration is weakly consistent: it never
+ * fails with concurrent changes, returns each entry which existed when the iteration started and did not get removed
+ * once, and might or might not return entries added afterwards. Use {@link #immutableCopy()} for a snapshot.
+ * The compound operations like {@link #compute} or {@link #merge} are atomic, as they run with the write lock held.
+ * Null keys and values are not supported.
+ */
+public final class FixedWidthKeyMap<V> extends AbstractMap<ByteArray, V> {
+    private static final int MIN_CAPACITY = 16;
+    // Linear probing degrades quickly with higher load factors. Deleted slots count as used.
+    private static final float MAX_LOAD_FACTOR = 0.6f;
+    // Marks the value of a removed entry. The slot can be reused by an insert, and is dropped at the next resize.
+    private static final Object DELETED = new Object();
+
+    private final Lock readLock;
+    private final Lock writeLock;
+    private final int keyWidth;
+    private final int longsPerKey;
+    private final boolean immutable;
+    // Keys of slot i are stored at [i * longsPerKey, (i + 1) * longsPerKey). A slot is empty if its value is null.
+    // The tables are replaced at resize and clear, but never shrink or move entries in place.
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int numDeleted;
+    private Map<ByteArray, V> otherWidthKeys;
+
+    public FixedWidthKeyMap(int keyWidth) {
+        this(keyWidth, MIN_CAPACITY);
+    }
+
+    public FixedWidthKeyMap(int keyWidth, int expectedSize) {
+        checkArgument(keyWidth > 0, "keyWidth must be positive");
+        this.keyWidth = keyWidth;
+        longsPerKey = (keyWidth + Long.BYTES - 1) / Long.BYTES;
+        immutable = false;
+        ReadWriteLock lock = new ReentrantReadWriteLock();
+        readLock = lock.readLock();
+        writeLock = lock.writeLock();
+        int capacity = tableSizeFor(expectedSize);
+        keys = new long[capacity * longsPerKey];
+        values = new Object[capacity];
+        otherWidthKeys = new ConcurrentHashMap<>();
+    }
+
+    private FixedWidthKeyMap(FixedWidthKeyMap<V> source) {
+        keyWidth = source.keyWidth;
+        longsPerKey = source.longsPerKey;
+        immutable = true;
+        ReadWriteLock lock = new ReentrantReadWriteLock();
+        readLock = lock.readLock();
+        writeLock = lock.writeLock();
+        source.readLock.lock();
+        try {
+            keys = source.keys.clone();
+            values = source.values.clone();
+            size = source.size;
+            numDeleted = source.numDeleted;
+            otherWidthKeys = new ConcurrentHashMap<>(source.otherWidthKeys);
+        } finally {
+            source.readLock.unlock();
+        }
+    }
+
+    /**
+     * @return A copy of the map which does not support changes. Copying the map clones its tables, which is much
+     * cheaper than copying the entries into another map.
+     */
+    public FixedWidthKeyMap<V> immutableCopy() {
+        return immutable ? this : new FixedWidthKeyMap<>(this);
+    }
+
+
+    /* --------------------------------------------------------------------- */
+    // Map
+    /* --------------------------------------------------------------------- */
+
+    @Override
+    public int size() {
+        readLock.lock();
+        try {
+            return size + otherWidthKeys.size();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V get(Object key) {
+        if (!(key instanceof ByteArray byteArray)) {
+            return null;
+        }
+        byte[] bytes = byteArray.getBytes();
+        readLock.lock();
+        try {
+            if (bytes.length != keyWidth) {
+                return otherWidthKeys.get(byteArray);
+            }
+            int slot = findSlot(bytes);
+            return slot >= 0 ? (V) values[slot] : null;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public V put(ByteArray key, V value) {
+        return put(key, value, false);
+    }
+
+    @Override
+    public V putIfAbsent(ByteArray key, V value) {
+        return put(key, value, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V remove(Object key) {
+        checkMutable();
+        if (!(key instanceof ByteArray byteArray)) {
+            return null;
+        }
+        byte[] bytes = byteArray.getBytes();
+        writeLock.lock();
+        try {
+            if (bytes.length != keyWidth) {
+                return otherWidthKeys.remove(byteArray);
+            }
+            int slot = findSlot(bytes);
+            if (slot < 0) {
+                return null;
+            }
+            V previous = (V) values[slot];
+            removeSlot(slot);
+            return previous;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        checkMutable();
+        if (!(key instanceof ByteArray byteArray) || value == null) {
+            return false;
+        }
+        byte[] bytes = byteArray.getBytes();
+        writeLock.lock();
+        try {
+            if (bytes.length != keyWidth) {
+                return otherWidthKeys.remove(byteArray, value);
+            }
+            int slot = findSlot(bytes);
+            if (slot < 0 || !value.equals(values[slot])) {
+                return false;
+            }
+            removeSlot(slot);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // The default implementations of the compound operations are atomic if we hold the write lock, as all changes
+    // need it.
+
+    @Override
+    public V computeIfAbsent(ByteArray key, Function<? super ByteArray, ? extends V> mappingFunction) {
+        checkMutable();
+        writeLock.lock();
+        try {
+            return super.computeIfAbsent(key, mappingFunction);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public V computeIfPresent(ByteArray key,
+                              BiFunction<? super ByteArray, ? super V, ? extends V> remappingFunction) {
+        checkMutable();
+        writeLock.lock();
+        try {
+            return super.computeIfPresent(key, remappingFunction);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public V compute(ByteArray key, BiFunction<? super ByteArray, ? super V, ? extends V> remappingFunction) {
+        checkMutable();
+        writeLock.lock();
+        try {
+            return super.compute(key, remappingFunction);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public V merge(ByteArray key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        checkMutable();
+        writeLock.lock();
+        try {
+            return super.merge(key, value, remappingFunction);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public V replace(ByteArray key, V value) {
+        checkMutable();
+        writeLock.lock();
+        try {
+            return super.replace(key, value);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean replace(ByteArray key, V oldValue, V newValue) {
+        checkMutable();
+        writeLock.lock();
+        try {
+            return super.replace(key, oldValue, newValue);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // The entries of the views are immutable, thus we replace the values in the table
+    @Override
+    public void replaceAll(BiFunction<? super ByteArray, ? super V, ? extends V> function) {
+        checkMutable();
+        writeLock.lock();
+        try {
+            for (int slot = 0; slot < values.length; slot++) {
+                Object value = values[slot];
+                if (value != null && value != DELETED) {
+                    @SuppressWarnings("unchecked")
+                    V newValue = function.apply(keyAt(keys, slot), (V) value);
+                    values[slot] = Objects.requireNonNull(newValue);
+                }
+            }
+            otherWidthKeys.replaceAll(function);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void putAll(Map<? extends ByteArray, ? extends V> map) {
+        checkMutable();
+        map.forEach(this::put);
+    }
+
+    @Override
+    public void clear() {
+        checkMutable();
+        writeLock.lock();
+        try {
+            // New tables, so that running iterations continue on the old ones
+            keys = new long[MIN_CAPACITY * longsPerKey];
+            values = new Object[MIN_CAPACITY];
+            size = 0;
+            numDeleted = 0;
+            otherWidthKeys = new ConcurrentHashMap<>();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Set<Entry<ByteArray, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<ByteArray, V>> iterator() {
+                return new LiveIterator<>(true) {
+                    @Override
+                    Entry<ByteArray, V> toElement(ByteArray key, V value) {
+                        return new SimpleImmutableEntry<>(key, value);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return FixedWidthKeyMap.this.size();
+            }
+        };
+    }
+
+    // Iterating the values does not need to create the keys
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new LiveIterator<>(false) {
+                    @Override
+                    V toElement(ByteArray key, V value) {
+                        return value;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return FixedWidthKeyMap.this.size();
+            }
+        };
+    }
+
+
+    /* --------------------------------------------------------------------- */
+    // Private
+    /* --------------------------------------------------------------------- */
+
+    private V put(ByteArray key, V value, boolean onlyIfAbsent) {
+        checkMutable();
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        byte[] bytes = key.getBytes();
+        writeLock.lock();
+        try {
+            if (bytes.length != keyWidth) {
+                return onlyIfAbsent ? otherWidthKeys.putIfAbsent(key, value) : otherWidthKeys.put(key, value);
+            }
+            int slot = findSlot(bytes);
+            if (slot >= 0) {
+                @SuppressWarnings("unchecked")
+                V previous = (V) values[slot];
+                if (!onlyIfAbsent) {
+                    values[slot] = value;
+                }
+                return previous;
+            }
+            slot = -slot - 1;
+            if (values[slot] == null && size + numDeleted + 1 > values.length * MAX_LOAD_FACTOR) {
+                // If the deleted slots make up most of the used slots, we only drop them
+                resize(size + 1 > values.length * MAX_LOAD_FACTOR / 2 ? values.length * 2 : values.length);
+                slot = -findSlot(bytes) - 1;
+            }
+            if (values[slot] == DELETED) {
+                numDeleted--;
+            }
+            for (int i = 0; i < longsPerKey; i++) {
+                keys[slot * longsPerKey + i] = keyLong(bytes, i);
+            }
+            values[slot] = value;
+            size++;
+            return null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Returns the slot of the key, or (-insertionSlot - 1) if the key is not present. The insertion slot is the first
+    // deleted slot of the probe sequence, or the empty slot at its end.
+    private int findSlot(byte[] bytes) {
+        int mask = values.length - 1;
+        int slot = homeSlot(bytes, mask);
+        int firstDeleted = -1;
+        while (values[slot] != null) {
+            if (values[slot] == DELETED) {
+                if (firstDeleted < 0) {
+                    firstDeleted = slot;
+                }
+            } else if (keyEquals(slot, bytes)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -(firstDeleted >= 0 ? firstDeleted : slot) - 1;
+    }
+
+    private boolean keyEquals(int slot, byte[] bytes) {
+        int offset = slot * longsPerKey;
+        for (int i = 0; i < longsPerKey; i++) {
+            if (keys[offset + i] != keyLong(bytes, i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // We do not move the following entries of the probe sequence into the gap, so that iterators walking the live
+    // table do not miss them.
+    private void removeSlot(int slot) {
+        values[slot] = DELETED;
+        size--;
+        numDeleted++;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity * longsPerKey];
+        values = new Object[capacity];
+        int mask = capacity - 1;
+        for (int oldSlot = 0; oldSlot < oldValues.length; oldSlot++) {
+            if (oldValues[oldSlot] == null || oldValues[oldSlot] == DELETED) {
+                continue;
+            }
+            int slot = homeSlot(oldKeys, oldSlot * longsPerKey, mask);
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            System.arraycopy(oldKeys, oldSlot * longsPerKey, keys, slot * longsPerKey, longsPerKey);
+            values[slot] = oldValues[oldSlot];
+        }
+        numDeleted = 0;
+    }
+
+    private int homeSlot(byte[] bytes, int mask) {
+        long hash = 0;
+        for (int i = 0; i < longsPerKey; i++) {
+            hash = hash * 31 + keyLong(bytes, i);
+        }
+        return mix(hash) & mask;
+    }
+
+    private int homeSlot(long[] keys, int offset, int mask) {
+        long hash = 0;
+        for (int i = 0; i < longsPerKey; i++) {
+            hash = hash * 31 + keys[offset + i];
+        }
+        return mix(hash) & mask;
+    }
+
+    private ByteArray keyAt(long[] keys, int slot) {
+        byte[] bytes = new byte[keyWidth];
+        int offset = slot * longsPerKey;
+        for (int i = 0; i < keyWidth; i++) {
+            bytes[i] = (byte) (keys[offset + i / Long.BYTES] >>> (56 - 8 * (i % Long.BYTES)));
+        }
+        return new ByteArray(bytes);
+    }
+
+    /**
+     * Walks the tables which are current when the iteration starts. A resize or clear replaces the tables, and the old
+     * ones do not change anymore, so we continue on them. Each slot is read with the read lock held, as an insert
+     * might reuse a deleted slot for another key.
+     */
+    private abstract class LiveIterator<T> implements Iterator<T> {
+        private final boolean withKeys;
+        private final long[] tableKeys;
+        private final Object[] tableValues;
+        private final Iterator<Entry<ByteArray, V>> others;
+        private int slot;
+        private T next;
+
+        private LiveIterator(boolean withKeys) {
+            this.withKeys = withKeys;
+            readLock.lock();
+            try {
+                tableKeys = keys;
+                tableValues = values;
+                others = otherWidthKeys.entrySet().iterator();
+            } finally {
+                readLock.unlock();
+            }
+            next = advance();
+        }
+
+        abstract T toElement(ByteArray key, V value);
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            T current = next;
+            next = advance();
+            return current;
+        }
+
+        @SuppressWarnings("unchecked")
+        private T advance() {
+            readLock.lock();
+            try {
+                while (slot < tableValues.length) {
+                    Object value = tableValues[slot];
+                    int current = slot++;
+                    if (value != null && value != DELETED) {
+                        return toElement(withKeys ? keyAt(tableKeys, current) : null, (V) value);
+                    }
+                }
+            } finally {
+                readLock.unlock();
+            }
+            if (others.hasNext()) {
+                Entry<ByteArray, V> entry = others.next();
+                return toElement(entry.getKey(), entry.getValue());
+            }
+            return null;
+        }
+    }
+
+    private void checkMutable() {
+        if (immutable) {
+            throw new UnsupportedOperationException("Map is immutable");
+        }
+    }
+
+    // Big endian, zero padded
+    private static long keyLong(byte[] bytes, int index) {
+        int from = index * Long.BYTES;
+        int to = Math.min(from + Long.BYTES, bytes.length);
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            result = (result << 8) | (bytes[i] & 0xFF);
+        }
+        return result << (8 * (from + Long.BYTES - to));
+    }
+
+    // Finalizer of MurmurHash3, so that keys which are no hashes still get distributed
+    private static int mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * MAX_LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,309 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.data;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Concurrent map which counts its changes and provides immutable snapshots of its content. A snapshot is created
+ * lazily at the first read after a change and gets shared by all readers until the next change, so repeated reads
+ * of an unchanged map do not copy it.
+ * <p>
+ * Changes are only supported via the methods of the map itself. The key, value and entry views are read-only, as
+ * changes applied through them could not be counted. The compound operations like {@link #compute} or
+ * {@link #merge} are as atomic as the ones of the backing map.
+ */
+public final class VersionedMap<K, V> implements Map<K, V> {
+    @Getter
+    public static final class Snapshot<K, V> {
+        private final long version;
+        private final Map<K, V> map;
+
+        private Snapshot(long version, Map<K, V> map) {
+            this.version = version;
+            this.map = map;
+        }
+    }
+
+    /**
+     * @param keyWidth The number of bytes of the keys. Keys with a different width are supported but not stored
+     *                 compactly.
+     * @return A map backed by a {@link FixedWidthKeyMap}, which needs much less heap for many entries and creates its
+     * snapshots by cloning its tables.
+     */
+    public static <V> VersionedMap<ByteArray, V> withFixedWidthKeys(int keyWidth) {
+        return new VersionedMap<>(new FixedWidthKeyMap<>(keyWidth),
+                map -> ((FixedWidthKeyMap<V>) map).immutableCopy());
+    }
+
+    private final Map<K, V> map;
+    private final UnaryOperator<Map<K, V>> snapshotFactory;
+    private final Map<K, V> readOnlyView;
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot<K, V> snapshot = new Snapshot<>(0, Map.of());
+
+    public VersionedMap() {
+        this(new ConcurrentHashMap<>(), map -> Collections.unmodifiableMap(new HashMap<>(map)));
+    }
+
+    public VersionedMap(Map<K, V> map) {
+        this();
+        this.map.putAll(map);
+        version.incrementAndGet();
+    }
+
+    /**
+     * @param map             The thread safe backing map
+     * @param snapshotFactory Creates an immutable copy of the backing map
+     */
+    private VersionedMap(Map<K, V> map, UnaryOperator<Map<K, V>> snapshotFactory) {
+        this.map = map;
+        this.snapshotFactory = snapshotFactory;
+        readOnlyView = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * @return The number of changes applied to the map
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * @return An immutable snapshot of the map. If the map gets changed concurrently, the snapshot might already
+     * contain the change but is tagged with the previous version, thus it gets replaced at the next call.
+     */
+    public Snapshot<K, V> getSnapshot() {
+        Snapshot<K, V> current = snapshot;
+        // We read the version before copying the map and increment it after each change, so a snapshot is never
+        // older than its version.
+        long currentVersion = version.get();
+        if (current.version == currentVersion) {
+            return current;
+        }
+        Snapshot<K, V> updated = new Snapshot<>(currentVersion, snapshotFactory.apply(map));
+        snapshot = updated;
+        return updated;
+    }
+
+    public Map<K, V> getSnapshotMap() {
+        return getSnapshot().getMap();
+    }
+
+
+    /* --------------------------------------------------------------------- */
+    // Map
+    /* --------------------------------------------------------------------- */
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return map.containsValue(value);
+    }
+
+    @Override
+    public V get(Object key) {
+        return map.get(key);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        V previous = map.put(key, value);
+        version.incrementAndGet();
+        return previous;
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        V previous = map.putIfAbsent(key, value);
+        if (previous == null) {
+            version.incrementAndGet();
+        }
+        return previous;
+    }
+
+    @Override
+    public V remove(Object key) {
+        V previous = map.remove(key);
+        if (previous != null) {
+            version.incrementAndGet();
+        }
+        return previous;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        boolean removed = map.remove(key, value);
+        if (removed) {
+            version.incrementAndGet();
+        }
+        return removed;
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        V previous = map.replace(key, value);
+        if (previous != null) {
+            version.incrementAndGet();
+        }
+        return previous;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        boolean replaced = map.replace(key, oldValue, newValue);
+        if (replaced) {
+            version.incrementAndGet();
+        }
+        return replaced;
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        map.replaceAll(function);
+        version.incrementAndGet();
+    }
+
+    // For the compound operations we delegate to the backing map, so they are atomic, and track inside the
+    // functions whether they changed the map. The version gets incremented after the change.
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        AtomicBoolean changed = new AtomicBoolean();
+        V result = map.computeIfAbsent(key, k -> {
+            V value = mappingFunction.apply(k);
+            changed.set(value != null);
+            return value;
+        });
+        if (changed.get()) {
+            version.incrementAndGet();
+        }
+        return result;
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        AtomicBoolean changed = new AtomicBoolean();
+        V result = map.computeIfPresent(key, (k, oldValue) -> {
+            V value = remappingFunction.apply(k, oldValue);
+            changed.set(value != oldValue);
+            return value;
+        });
+        if (changed.get()) {
+            version.incrementAndGet();
+        }
+        return result;
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        AtomicBoolean changed = new AtomicBoolean();
+        V result = map.compute(key, (k, oldValue) -> {
+            V value = remappingFunction.apply(k, oldValue);
+            changed.set(value != oldValue);
+            return value;
+        });
+        if (changed.get()) {
+            version.incrementAndGet();
+        }
+        return result;
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        // If the key is absent, the value gets added without calling the function
+        AtomicBoolean changed = new AtomicBoolean(true);
+        V result = map.merge(key, value, (oldValue, givenValue) -> {
+            V mergedValue = remappingFunction.apply(oldValue, givenValue);
+            changed.set(mergedValue != oldValue);
+            return mergedValue;
+        });
+        if (changed.get()) {
+            version.incrementAndGet();
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> other) {
+        map.putAll(other);
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+        version.incrementAndGet();
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return readOnlyView.keySet();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return readOnlyView.values();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return readOnlyView.entrySet();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o == this || map.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return map.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return map.toString();
+    }
+}
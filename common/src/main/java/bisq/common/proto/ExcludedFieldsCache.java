@@ -0,0 +1,49 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.proto;
+
+import com.google.protobuf.Descriptors;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the field descriptors annotated with ExcludeForHash, so that we do not need to look them up by reflection at
+ * each serializeForHash call.
+ */
+final class ExcludedFieldsCache {
+    private record Key(Class<?> protoClass, int version, Descriptors.Descriptor descriptor) {
+    }
+
+    private static final Map<Key, List<Descriptors.FieldDescriptor>> CACHE = new ConcurrentHashMap<>();
+
+    private ExcludedFieldsCache() {
+    }
+
+    static List<Descriptors.FieldDescriptor> getExcludedFieldDescriptors(Proto proto, Descriptors.Descriptor descriptor) {
+        Key key = new Key(proto.getClass(), proto.getVersion(), descriptor);
+        return CACHE.computeIfAbsent(key, k -> {
+            Set<String> excludedFields = proto.getExcludedFields();
+            return descriptor.getFields().stream()
+                    .filter(fieldDescriptor -> excludedFields.contains(fieldDescriptor.getName()))
+                    .toList();
+        });
+    }
+}
@@ -96,19 +96,16 @@ public interface Proto {
 
     /**
      * Requires that the name of the java fields is the same as the name of the proto definition.
+     * The excluded field descriptors are cached per class, version and message type.
      *
      * @param builder The builder we transform by clearing the ExcludeForHash annotated fields.
      * @return Builder with the fields annotated with ExcludeForHash cleared.
      */
     default <B extends Message.Builder> B clearAnnotatedFields(B builder) {
-        Set<String> excludedFields = getExcludedFields();
-        /*if (!excludedFields.isEmpty()) {
-            getLogger().debug("Clear fields in builder annotated with @ExcludeForHash: {}", excludedFields);
-        }*/
-        for (Descriptors.FieldDescriptor fieldDesc : builder.getAllFields().keySet()) {
-            if (excludedFields.contains(fieldDesc.getName())) {
-                builder.clearField(fieldDesc);
-            }
+        List<Descriptors.FieldDescriptor> excludedFields = ExcludedFieldsCache.getExcludedFieldDescriptors(this,
+                builder.getDescriptorForType());
+        for (Descriptors.FieldDescriptor fieldDesc : excludedFields) {
+            builder.clearField(fieldDesc);
         }
         return builder;
     }
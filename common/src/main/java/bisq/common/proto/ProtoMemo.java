@@ -0,0 +1,54 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.proto;
+
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Holds the lazily computed serialized size and hash of a Proto instance.
+ * Must only be used for immutable objects, as the cached values are never invalidated.
+ * <p>
+ * We do not retain the serialized bytes as the memoized objects are usually long living map entries of the network
+ * data stores, and keeping the bytes would roughly double their memory footprint.
+ */
+public final class ProtoMemo {
+    private volatile byte[] hash;
+    private volatile int serializedSize = -1;
+
+    /**
+     * @return A copy of the cached hash, thus callers can not corrupt the cached value.
+     */
+    public byte[] getHash(Supplier<byte[]> supplier) {
+        byte[] result = hash;
+        if (result == null) {
+            result = supplier.get();
+            hash = result;
+        }
+        return result.clone();
+    }
+
+    public int getSerializedSize(IntSupplier supplier) {
+        int result = serializedSize;
+        if (result < 0) {
+            result = supplier.getAsInt();
+            serializedSize = result;
+        }
+        return result;
+    }
+}
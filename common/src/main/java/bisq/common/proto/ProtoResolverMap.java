@@ -20,15 +20,16 @@ package bisq.common.proto;
 import com.google.protobuf.Any;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 public abstract class ProtoResolverMap<T extends Proto> {
     public ProtoResolverMap() {
     }
 
-    private final Map<String, ProtoResolver<T>> map = new HashMap<>();
+    // Persisted stores are parsed in parallel at startup while resolvers might still get added
+    private final Map<String, ProtoResolver<T>> map = new ConcurrentHashMap<>();
 
     public void addProtoResolver(String protoTypeName, ProtoResolver<T> resolver) {
         map.put(protoTypeName, resolver);
@@ -20,6 +20,8 @@ package bisq.common.threading;
 import bisq.common.platform.PlatformUtils;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.concurrent.CompletableFuture;
@@ -38,6 +40,11 @@ import java.util.concurrent.TimeUnit;
 public class ExecutorFactory {
     public static final int DEFAULT_PRIORITY = 5;
 
+    // If enabled, executors for blocking tasks (e.g. socket IO) use virtual threads. Set at application start.
+    @Getter
+    @Setter
+    private static volatile boolean useVirtualThreads;
+
     /* --------------------------------------------------------------------- */
     // Common ThreadPool Executors
     /* --------------------------------------------------------------------- */
@@ -221,6 +228,32 @@ public class ExecutorFactory {
     }
 
 
+    /* --------------------------------------------------------------------- */
+    // Virtual threads
+    /* --------------------------------------------------------------------- */
+
+    /**
+     * Creates an executor which starts a new virtual thread for each task. Used for tasks which block most of
+     * their time on IO. Tasks are not queued, thus there is no limit on the number of concurrently executed tasks.
+     * Blocking inside a synchronized block pins the carrier thread, so such tasks should use locks from
+     * {@link java.util.concurrent.locks} instead.
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor(String name) {
+        return Executors.newThreadPerTaskExecutor(getVirtualThreadFactory(name));
+    }
+
+    /**
+     * Single thread executor backed by a virtual thread if {@link #isUseVirtualThreads()} is set, otherwise by a
+     * platform thread. Tasks are executed in the order they have been submitted.
+     */
+    public static ExecutorService newSingleThreadExecutorForBlockingTasks(String name) {
+        if (useVirtualThreads) {
+            return Executors.newSingleThreadExecutor(getVirtualThreadFactory(name));
+        }
+        return newSingleThreadExecutor(name);
+    }
+
+
     /* --------------------------------------------------------------------- */
     // ThreadFactory
     /* --------------------------------------------------------------------- */
@@ -229,6 +262,10 @@ public class ExecutorFactory {
         return getThreadFactory(name + "-%d");
     }
 
+    public static ThreadFactory getVirtualThreadFactory(String name) {
+        return Thread.ofVirtual().name(name + "-", 0).factory();
+    }
+
     public static ThreadFactory getThreadFactory(String name) {
         return new ThreadFactoryBuilder()
                 .setNameFormat(name)
@@ -22,30 +22,60 @@ import bisq.common.util.StringUtils;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
 import java.util.Optional;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Runs a task once, repeated or periodically with a fixed delay between the runs. All instances share a single
+ * {@link TimingWheel}, which executes the expired tasks at a bounded thread pool. While the task runs, the thread
+ * is named after the runnableName and host, like the dedicated thread used before.
+ */
 @Slf4j
 public class Scheduler implements TaskScheduler {
-    // We do not use a ScheduledThreadPoolExecutor as the queue cannot be customized. It would cause undesired behaviour
-    // in case we would use a static executor for all Scheduler instances and multiple schedule calls would get 
-    // queued up instead of starting a new scheduler.
-    private Optional<ScheduledExecutorService> executor = Optional.empty();
+    private static final int MAX_POOL_SIZE = 100;
+    private static final TimingWheel TIMING_WHEEL = new TimingWheel("Scheduler.TimingWheel",
+            TimingWheel.DEFAULT_TICK_MS,
+            ExecutorFactory.newCachedThreadPool("Scheduler", 1, MAX_POOL_SIZE, 60));
+
+    private final TimingWheel timingWheel;
     private final Runnable task;
     private volatile boolean stopped;
     @Getter
-    private long counter;
+    private volatile long counter;
     private Optional<String> runnableName = Optional.empty();
     private Optional<String> hostClassName = Optional.empty();
+    @Nullable
+    private volatile TimingWheel.Timeout timeout;
+    @Nullable
+    private volatile Thread executingThread;
 
-    private Scheduler(Runnable task) {
+    private Scheduler(TimingWheel timingWheel, Runnable task) {
+        this.timingWheel = timingWheel;
         this.task = task;
     }
 
     public static Scheduler run(Runnable task) {
-        return new Scheduler(task);
+        return new Scheduler(TIMING_WHEEL, task);
+    }
+
+    static Scheduler run(TimingWheel timingWheel, Runnable task) {
+        return new Scheduler(timingWheel, task);
+    }
+
+    /**
+     * @return Number of tasks of all Scheduler instances waiting for their next execution.
+     */
+    public static int getNumPendingTasks() {
+        return TIMING_WHEEL.getNumPendingTasks();
+    }
+
+    /**
+     * @return Number of task executions of all Scheduler instances which started more than
+     * {@link TimingWheel#LATE_THRESHOLD_MS} after their scheduled time.
+     */
+    public static long getNumLateTasks() {
+        return TIMING_WHEEL.getNumLateTasks();
     }
 
     public Scheduler runnableName(String runnableName) {
@@ -106,37 +136,52 @@ public class Scheduler implements TaskScheduler {
         if (stopped) {
             return this;
         }
-        if (cycles == 1) {
-            executor = Optional.of(ExecutorFactory.newSingleThreadScheduledExecutor(ExecutorFactory.getThreadFactory(getThreadName(false))));
-            executor.get().schedule(() -> {
-                if (stopped) {
-                    return;
-                }
-                try {
-                    task.run();
-                } finally {
-                    stop();
-                }
-            }, delay, timeUnit);
-        } else {
-            executor = Optional.of(ExecutorFactory.newSingleThreadScheduledExecutor(ExecutorFactory.getThreadFactory(getThreadName(true))));
-            executor.get().scheduleWithFixedDelay(() -> {
-                if (stopped) {
-                    return;
-                }
-                try {
-                    task.run();
-                } finally {
-                    counter++;
-                    if (counter >= cycles) {
-                        stop();
-                    }
-                }
-            }, initialDelay, delay, timeUnit);
-        }
+        schedule(initialDelay, delay, timeUnit, cycles);
         return this;
     }
 
+    private void schedule(long delay, long nextDelay, TimeUnit timeUnit, long cycles) {
+        timeout = timingWheel.schedule(() -> execute(nextDelay, timeUnit, cycles), delay, timeUnit);
+        if (stopped) {
+            // stop was called concurrently and might have missed the new timeout
+            cancelTimeout();
+        }
+    }
+
+    private void execute(long delay, TimeUnit timeUnit, long cycles) {
+        if (stopped) {
+            return;
+        }
+        boolean isPeriodic = cycles != 1;
+        Thread thread = Thread.currentThread();
+        String poolThreadName = thread.getName();
+        thread.setName(getThreadName(isPeriodic));
+        executingThread = thread;
+        try {
+            task.run();
+        } catch (Throwable throwable) {
+            // As with a ScheduledExecutorService, a failing task does not get executed again.
+            log.error("Task of {} failed", getThreadName(isPeriodic), throwable);
+            stop();
+        } finally {
+            executingThread = null;
+            thread.setName(poolThreadName);
+            // Clear the interrupt flag in case shutdownNow was called while the task was running.
+            Thread.interrupted();
+        }
+
+        if (!isPeriodic) {
+            stop();
+            return;
+        }
+        counter++;
+        if (counter >= cycles) {
+            stop();
+        } else if (!stopped) {
+            schedule(delay, delay, timeUnit, cycles);
+        }
+    }
+
     private String getThreadName(boolean isPeriodic) {
         String name = isPeriodic ? "PeriodicScheduler" : "Scheduler";
         String host = hostClassName.map(hostClassName -> "." + hostClassName).orElse("");
@@ -147,13 +192,21 @@ public class Scheduler implements TaskScheduler {
     @Override
     public void stop() {
         stopped = true;
-        executor.ifPresent(ExecutorFactory::shutdownAndAwaitTermination);
-        executor = Optional.empty();
+        cancelTimeout();
     }
 
     public void shutdownNow() {
-        stopped = true;
-        executor.ifPresent(ExecutorService::shutdownNow);
-        executor = Optional.empty();
+        stop();
+        Thread thread = executingThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void cancelTimeout() {
+        TimingWheel.Timeout timeout = this.timeout;
+        if (timeout != null) {
+            timeout.cancel();
+        }
     }
 }
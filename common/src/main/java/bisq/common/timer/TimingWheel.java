@@ -0,0 +1,358 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.timer;
+
+import bisq.common.threading.ExecutorFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hierarchical timing wheel (Varghese and Lauck) shared by all {@link Scheduler} instances. A single timer thread
+ * advances the wheel in ticks and hands expired tasks over to a bounded thread pool, so that waiting tasks do not
+ * occupy a thread each.
+ * <p>
+ * Each level has 64 buckets and a bucket covers all 64 buckets of the level below. A task is added to the level of
+ * the highest tick digit (base 64) in which its deadline differs from the current tick. Once the wheel reaches a
+ * bucket of a higher level, its tasks get cascaded down to the lower levels until they expire at level 0. Adding
+ * and cancelling is O(1). The buckets are only accessed by the timer thread.
+ * <p>
+ * If the thread pool rejects an expired task because all its threads are busy, the task is added to the wheel again
+ * and retried after {@link #RETRY_DELAY_MS}, so that e.g. a periodic scheduler does not stop.
+ */
+@Slf4j
+final class TimingWheel {
+    static final long DEFAULT_TICK_MS = 10;
+    // Tasks starting later than that after their deadline are counted as late.
+    static final long LATE_THRESHOLD_MS = 1000;
+    static final long RETRY_DELAY_MS = 100;
+    private static final int BITS_PER_LEVEL = 6;
+    private static final int WHEEL_SIZE = 1 << BITS_PER_LEVEL;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    // 2^36 ticks of 10 ms are about 21 years
+    private static final int NUM_LEVELS = 6;
+    private static final long MAX_TICKS = (1L << (BITS_PER_LEVEL * NUM_LEVELS)) - 1;
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final String name;
+    private final long tickNanos;
+    private final long lateThresholdNanos = TimeUnit.MILLISECONDS.toNanos(LATE_THRESHOLD_MS);
+    private final long retryDelayTicks;
+    private final ExecutorService executor;
+    private final Bucket[][] buckets = new Bucket[NUM_LEVELS][WHEEL_SIZE];
+    private final Queue<Timeout> addedTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger numPendingTasks = new AtomicInteger();
+    private final AtomicLong numLateTasks = new AtomicLong();
+    private final long startTime = System.nanoTime();
+    private volatile boolean idle;
+    @Nullable
+    private volatile Thread timerThread;
+
+    // Only accessed by the timer thread
+    private long currentTick;
+    private int numTimeoutsInBuckets;
+
+    TimingWheel(String name, long tickMs, ExecutorService executor) {
+        this.name = name;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        retryDelayTicks = Math.max(1, RETRY_DELAY_MS / tickMs);
+        this.executor = executor;
+        for (int level = 0; level < NUM_LEVELS; level++) {
+            for (int index = 0; index < WHEEL_SIZE; index++) {
+                buckets[level][index] = new Bucket();
+            }
+        }
+    }
+
+
+    /* --------------------------------------------------------------------- */
+    // API
+    /* --------------------------------------------------------------------- */
+
+    Timeout schedule(Runnable task, long delay, TimeUnit timeUnit) {
+        long delayNanos = Math.min(Math.max(0, timeUnit.toNanos(delay)), MAX_TICKS / 2 * tickNanos);
+        Timeout timeout = new Timeout(task, System.nanoTime() + delayNanos);
+        numPendingTasks.incrementAndGet();
+        addedTimeouts.add(timeout);
+        startOrWakeUpTimerThread();
+        return timeout;
+    }
+
+    /**
+     * @return Number of tasks which are scheduled but did not expire yet.
+     */
+    int getNumPendingTasks() {
+        return numPendingTasks.get();
+    }
+
+    /**
+     * @return Number of tasks which started more than {@link #LATE_THRESHOLD_MS} after their deadline, e.g. because
+     * the thread pool was saturated.
+     */
+    long getNumLateTasks() {
+        return numLateTasks.get();
+    }
+
+
+    /* --------------------------------------------------------------------- */
+    // Timer thread
+    /* --------------------------------------------------------------------- */
+
+    private void startOrWakeUpTimerThread() {
+        if (timerThread == null) {
+            synchronized (this) {
+                if (timerThread == null) {
+                    Thread thread = ExecutorFactory.getThreadFactory(name).newThread(this::runTimerThread);
+                    timerThread = thread;
+                    thread.start();
+                    return;
+                }
+            }
+        }
+        if (idle) {
+            LockSupport.unpark(timerThread);
+        }
+    }
+
+    private void runTimerThread() {
+        while (true) {
+            if (numTimeoutsInBuckets == 0 && addedTimeouts.isEmpty()) {
+                idle = true;
+                // Check again after setting idle to not miss a timeout added in the meantime.
+                if (addedTimeouts.isEmpty()) {
+                    LockSupport.park(this);
+                }
+                idle = false;
+                // As the wheel is empty we can skip the ticks passed while being idle.
+                currentTick = Math.max(currentTick, getElapsedTicks());
+                continue;
+            }
+
+            long sleepNanos = startTime + (currentTick + 1) * tickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                continue;
+            }
+
+            try {
+                removeCancelledTimeouts();
+                addNewTimeouts();
+                currentTick++;
+                cascade();
+                expire();
+            } catch (Throwable throwable) {
+                log.error("Unexpected error at timer thread {}", name, throwable);
+            }
+        }
+    }
+
+    private long getElapsedTicks() {
+        return (System.nanoTime() - startTime) / tickNanos;
+    }
+
+    private void removeCancelledTimeouts() {
+        Timeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+                numTimeoutsInBuckets--;
+            }
+        }
+    }
+
+    private void addNewTimeouts() {
+        Timeout timeout;
+        while ((timeout = addedTimeouts.poll()) != null) {
+            if (timeout.state.get() == PENDING) {
+                // Round up, so that we never expire before the deadline.
+                timeout.deadlineTick = (timeout.deadline - startTime + tickNanos - 1) / tickNanos;
+                add(timeout);
+            }
+        }
+    }
+
+    private void add(Timeout timeout) {
+        long deadlineTick = timeout.deadlineTick;
+        if (deadlineTick <= currentTick) {
+            dispatch(timeout);
+            return;
+        }
+        int highestDifferingBit = Long.SIZE - 1 - Long.numberOfLeadingZeros(deadlineTick ^ currentTick);
+        int level = Math.min(NUM_LEVELS - 1, highestDifferingBit / BITS_PER_LEVEL);
+        int index = (int) (deadlineTick >>> (level * BITS_PER_LEVEL)) & WHEEL_MASK;
+        buckets[level][index].add(timeout);
+        numTimeoutsInBuckets++;
+    }
+
+    private void cascade() {
+        // We cascade from the highest level, so that timeouts moved to a lower level which has to be cascaded at
+        // the same tick get moved further down.
+        for (int level = NUM_LEVELS - 1; level > 0; level--) {
+            long levelMask = (1L << (level * BITS_PER_LEVEL)) - 1;
+            if ((currentTick & levelMask) == 0) {
+                int index = (int) (currentTick >>> (level * BITS_PER_LEVEL)) & WHEEL_MASK;
+                Timeout timeout = buckets[level][index].removeAll();
+                while (timeout != null) {
+                    Timeout next = timeout.next;
+                    timeout.next = null;
+                    numTimeoutsInBuckets--;
+                    add(timeout);
+                    timeout = next;
+                }
+            }
+        }
+    }
+
+    private void expire() {
+        Timeout timeout = buckets[0][(int) currentTick & WHEEL_MASK].removeAll();
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.next = null;
+            numTimeoutsInBuckets--;
+            dispatch(timeout);
+            timeout = next;
+        }
+    }
+
+    private void dispatch(Timeout timeout) {
+        if (!timeout.state.compareAndSet(PENDING, EXPIRED)) {
+            return;
+        }
+        numPendingTasks.decrementAndGet();
+        try {
+            executor.execute(() -> {
+                if (System.nanoTime() - timeout.deadline > lateThresholdNanos) {
+                    numLateTasks.incrementAndGet();
+                }
+                timeout.task.run();
+            });
+        } catch (RejectedExecutionException e) {
+            if (executor.isShutdown()) {
+                log.warn("Executor of {} is shut down. We do not execute the task.", name);
+                return;
+            }
+            log.warn("Executor of {} rejected task. We retry after {} ms. numPendingTasks={}",
+                    name, RETRY_DELAY_MS, numPendingTasks.get());
+            retry(timeout);
+        }
+    }
+
+    private void retry(Timeout timeout) {
+        // We keep the deadline, so that the task gets counted as late if the retries take too long.
+        numPendingTasks.incrementAndGet();
+        timeout.state.set(PENDING);
+        timeout.deadlineTick = currentTick + retryDelayTicks;
+        add(timeout);
+    }
+
+
+    /* --------------------------------------------------------------------- */
+    // Timeout
+    /* --------------------------------------------------------------------- */
+
+    final class Timeout {
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        // Only accessed by the timer thread
+        private long deadlineTick;
+        @Nullable
+        private Bucket bucket;
+        @Nullable
+        private Timeout previous, next;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * @return True if the task was still pending and will not be executed.
+         */
+        boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) {
+                return false;
+            }
+            numPendingTasks.decrementAndGet();
+            cancelledTimeouts.add(this);
+            return true;
+        }
+    }
+
+    // Doubly linked list of timeouts, so that cancelled timeouts can be removed in O(1).
+    private static final class Bucket {
+        @Nullable
+        private Timeout head, tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.previous = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.previous == null) {
+                head = timeout.next;
+            } else {
+                timeout.previous.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.previous;
+            } else {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.bucket = null;
+            timeout.previous = null;
+            timeout.next = null;
+        }
+
+        /**
+         * @return The first timeout of the removed ones, the others are linked by {@code next}.
+         */
+        @Nullable
+        Timeout removeAll() {
+            Timeout first = head;
+            for (Timeout timeout = head; timeout != null; timeout = timeout.next) {
+                timeout.bucket = null;
+                timeout.previous = null;
+            }
+            head = null;
+            tail = null;
+            return first;
+        }
+    }
+}
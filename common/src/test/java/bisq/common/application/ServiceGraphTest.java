@@ -0,0 +1,152 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.common.application;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ServiceGraphTest {
+    private static class TestService implements Service {
+        private final Supplier<CompletableFuture<Boolean>> initializer;
+
+        private TestService(Supplier<CompletableFuture<Boolean>> initializer) {
+            this.initializer = initializer;
+        }
+
+        @Override
+        public CompletableFuture<Boolean> initialize() {
+            return initializer.get();
+        }
+    }
+
+    @Test
+    void initializesDependenciesFirst() {
+        List<String> initialized = new CopyOnWriteArrayList<>();
+        TestService a = new TestService(() -> {
+            initialized.add("a");
+            return CompletableFuture.completedFuture(true);
+        });
+        TestService b = new TestService(() -> CompletableFuture.supplyAsync(() -> {
+            initialized.add("b");
+            return true;
+        }, CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS)));
+        TestService c = new TestService(() -> {
+            initialized.add("c");
+            return CompletableFuture.completedFuture(true);
+        });
+
+        boolean result = new ServiceGraph("test")
+                .add(a)
+                .add(b, a)
+                .add(c, a, b)
+                .initialize()
+                .join();
+
+        assertTrue(result);
+        assertEquals(List.of("a", "b", "c"), initialized);
+    }
+
+    @Test
+    void initializesIndependentServicesConcurrently() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Supplier<CompletableFuture<Boolean>> initializer = () -> {
+            bothStarted.countDown();
+            try {
+                // Only succeeds if the other service gets initialized at the same time
+                return CompletableFuture.completedFuture(bothStarted.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                return CompletableFuture.completedFuture(false);
+            }
+        };
+        TestService a = new TestService(initializer);
+        TestService b = new TestService(initializer);
+        AtomicBoolean bothTrue = new AtomicBoolean();
+        TestService c = new TestService(() -> {
+            bothTrue.set(bothStarted.getCount() == 0);
+            return CompletableFuture.completedFuture(true);
+        });
+
+        new ServiceGraph("test")
+                .add(a)
+                .add(b)
+                .add(c, a, b)
+                .initialize()
+                .join();
+
+        assertTrue(bothTrue.get());
+    }
+
+    @Test
+    void completesWithFalseIfAnyServiceReturnsFalse() {
+        AtomicBoolean dependentInitialized = new AtomicBoolean();
+        TestService a = new TestService(() -> CompletableFuture.completedFuture(true));
+        TestService b = new TestService(() -> CompletableFuture.completedFuture(false));
+        TestService c = new TestService(() -> {
+            dependentInitialized.set(true);
+            return CompletableFuture.completedFuture(true);
+        });
+
+        boolean result = new ServiceGraph("test")
+                .add(a)
+                .add(b, a)
+                .add(c, b)
+                .initialize()
+                .join();
+
+        assertFalse(result);
+        assertTrue(dependentInitialized.get());
+    }
+
+    @Test
+    void doesNotInitializeDependentsOfFailedService() {
+        AtomicBoolean dependentInitialized = new AtomicBoolean();
+        TestService failing = new TestService(() -> CompletableFuture.failedFuture(new RuntimeException("test")));
+        TestService dependent = new TestService(() -> {
+            dependentInitialized.set(true);
+            return CompletableFuture.completedFuture(true);
+        });
+
+        CompletableFuture<Boolean> future = new ServiceGraph("test")
+                .add(failing)
+                .add(dependent, failing)
+                .initialize();
+
+        assertThrows(CompletionException.class, future::join);
+        assertFalse(dependentInitialized.get());
+    }
+
+    @Test
+    void requiresDependenciesToBeAddedFirst() {
+        TestService a = new TestService(() -> CompletableFuture.completedFuture(true));
+        TestService b = new TestService(() -> CompletableFuture.completedFuture(true));
+
+        assertThrows(IllegalArgumentException.class, () -> new ServiceGraph("test").add(b, a));
+    }
+}
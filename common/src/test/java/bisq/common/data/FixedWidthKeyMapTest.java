@@ -0,0 +1,156 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.common.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FixedWidthKeyMapTest {
+    @Test
+    void behavesLikeHashMap() {
+        Random random = new Random(42);
+        FixedWidthKeyMap<Integer> map = new FixedWidthKeyMap<>(20);
+        Map<ByteArray, Integer> expected = new HashMap<>();
+        ByteArray[] keys = new ByteArray[1000];
+        for (int i = 0; i < keys.length; i++) {
+            // Some keys have a different width
+            byte[] bytes = new byte[i % 10 == 0 ? 32 : 20];
+            random.nextBytes(bytes);
+            keys[i] = new ByteArray(bytes);
+        }
+
+        for (int i = 0; i < 100_000; i++) {
+            ByteArray key = keys[random.nextInt(keys.length)];
+            switch (random.nextInt(4)) {
+                case 0, 1 -> assertEquals(expected.put(key, i), map.put(key, i));
+                case 2 -> assertEquals(expected.remove(key), map.remove(key));
+                default -> assertEquals(expected.get(key), map.get(new ByteArray(key.getBytes().clone())));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        assertEquals(expected, map);
+        assertEquals(expected, map.immutableCopy());
+        assertEquals(expected.keySet(), map.keySet());
+    }
+
+    @Test
+    void immutableCopyIsNotAffectedByChanges() {
+        FixedWidthKeyMap<String> map = new FixedWidthKeyMap<>(20);
+        ByteArray key = new ByteArray(new byte[20]);
+        map.put(key, "a");
+        FixedWidthKeyMap<String> copy = map.immutableCopy();
+        map.remove(key);
+
+        assertNull(map.get(key));
+        assertEquals("a", copy.get(key));
+        assertThrows(UnsupportedOperationException.class, () -> copy.put(key, "b"));
+    }
+
+    @Test
+    void iterationToleratesConcurrentChanges() {
+        FixedWidthKeyMap<Integer> map = new FixedWidthKeyMap<>(20);
+        for (int i = 0; i < 100; i++) {
+            byte[] bytes = new byte[20];
+            bytes[0] = (byte) i;
+            map.put(new ByteArray(bytes), i);
+        }
+        for (ByteArray key : map.keySet()) {
+            map.remove(key);
+        }
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    void iterationReturnsEachRemainingEntryOnceWhileMapChanges() {
+        FixedWidthKeyMap<Integer> map = new FixedWidthKeyMap<>(20);
+        for (int i = 0; i < 1000; i++) {
+            map.put(createKey(i), i);
+        }
+        Set<Integer> seen = new HashSet<>();
+        Iterator<Integer> iterator = map.values().iterator();
+        int numIterated = 0;
+        while (iterator.hasNext()) {
+            assertTrue(seen.add(iterator.next()));
+            numIterated++;
+            if (numIterated == 100) {
+                // Removes entries before and after the iterator position and grows the table
+                for (int i = 0; i < 1000; i += 2) {
+                    map.remove(createKey(i));
+                }
+                for (int i = 1000; i < 5000; i++) {
+                    map.put(createKey(i), i);
+                }
+            }
+        }
+        // All entries which were not removed got iterated
+        for (int i = 1; i < 1000; i += 2) {
+            assertTrue(seen.contains(i));
+        }
+    }
+
+    @Test
+    void deletedSlotsGetReused() {
+        FixedWidthKeyMap<Integer> map = new FixedWidthKeyMap<>(20);
+        Map<ByteArray, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            ByteArray key = createKey(i);
+            map.put(key, i);
+            expected.put(key, i);
+            if (i >= 10) {
+                ByteArray removed = createKey(i - 10);
+                map.remove(removed);
+                expected.remove(removed);
+            }
+        }
+        assertEquals(10, map.size());
+        assertEquals(expected, map);
+    }
+
+    @Test
+    void byteArrayCompareToUsesNumericOrder() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            byte[] a = new byte[1 + random.nextInt(4)];
+            byte[] b = new byte[1 + random.nextInt(4)];
+            random.nextBytes(a);
+            random.nextBytes(b);
+            int expected = Integer.signum(new BigInteger(a).compareTo(new BigInteger(b)));
+            assertEquals(expected, Integer.signum(new ByteArray(a).compareTo(new ByteArray(b))));
+        }
+    }
+
+    private static ByteArray createKey(int i) {
+        byte[] bytes = new byte[20];
+        bytes[0] = (byte) (i >>> 24);
+        bytes[1] = (byte) (i >>> 16);
+        bytes[2] = (byte) (i >>> 8);
+        bytes[3] = (byte) i;
+        return new ByteArray(bytes);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class VersionedMapTest {
+    @Test
+    void sharesSnapshotUntilChanged() {
+        VersionedMap<String, Integer> map = new VersionedMap<>();
+        map.put("a", 1);
+        Map<String, Integer> snapshot = map.getSnapshotMap();
+        assertSame(snapshot, map.getSnapshotMap());
+        assertEquals(Map.of("a", 1), snapshot);
+
+        map.put("b", 2);
+        Map<String, Integer> updated = map.getSnapshotMap();
+        assertNotSame(snapshot, updated);
+        assertEquals(Map.of("a", 1), snapshot);
+        assertEquals(Map.of("a", 1, "b", 2), updated);
+    }
+
+    @Test
+    void countsOnlyEffectiveRemovals() {
+        VersionedMap<String, Integer> map = new VersionedMap<>(Map.of("a", 1));
+        long version = map.getVersion();
+        map.remove("b");
+        map.remove("a", 2);
+        assertEquals(version, map.getVersion());
+
+        map.remove("a");
+        assertEquals(version + 1, map.getVersion());
+        assertEquals(Map.of(), map.getSnapshotMap());
+    }
+
+    @Test
+    void snapshotAndViewsAreReadOnly() {
+        VersionedMap<String, Integer> map = new VersionedMap<>(Map.of("a", 1));
+        assertThrows(UnsupportedOperationException.class, () -> map.getSnapshotMap().put("b", 2));
+        assertThrows(UnsupportedOperationException.class, () -> map.values().remove(1));
+        assertThrows(UnsupportedOperationException.class, () -> map.entrySet().iterator().next().setValue(2));
+    }
+
+    @Test
+    void countsOnlyEffectiveCompoundOperations() {
+        VersionedMap<String, Integer> map = new VersionedMap<>(Map.of("a", 1));
+        long version = map.getVersion();
+        assertEquals(1, map.computeIfAbsent("a", key -> 2));
+        assertEquals(1, map.compute("a", (key, value) -> value));
+        assertEquals(null, map.computeIfPresent("b", (key, value) -> 2));
+        assertEquals(false, map.replace("a", 2, 3));
+        assertEquals(null, map.replace("b", 2));
+        assertEquals(version, map.getVersion());
+
+        assertEquals(2, map.computeIfAbsent("b", key -> 2));
+        assertEquals(2, map.compute("a", (key, value) -> value + 1));
+        assertEquals(3, map.merge("a", 1, Integer::sum));
+        assertEquals(1, map.merge("c", 1, Integer::sum));
+        assertEquals(true, map.replace("c", 1, 4));
+        assertEquals(null, map.computeIfPresent("c", (key, value) -> null));
+        assertEquals(version + 6, map.getVersion());
+        assertEquals(Map.of("a", 3, "b", 2), map.getSnapshotMap());
+
+        map.replaceAll((key, value) -> value * 10);
+        assertEquals(version + 7, map.getVersion());
+        assertEquals(Map.of("a", 30, "b", 20), map.getSnapshotMap());
+    }
+
+    @Test
+    void compoundOperationsOnFixedWidthKeysAreAtomic() throws InterruptedException {
+        VersionedMap<ByteArray, Integer> map = VersionedMap.withFixedWidthKeys(4);
+        ByteArray key = new ByteArray(new byte[]{1, 2, 3, 4});
+        ByteArray otherWidthKey = new ByteArray(new byte[]{1, 2});
+        int numThreads = 4;
+        int numIncrements = 10_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < numThreads; i++) {
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < numIncrements; j++) {
+                    map.merge(key, 1, Integer::sum);
+                    map.compute(otherWidthKey, (k, value) -> value == null ? 1 : value + 1);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(numThreads * numIncrements, map.get(key));
+        assertEquals(numThreads * numIncrements, map.get(otherWidthKey));
+        assertEquals(2L * numThreads * numIncrements, map.getVersion());
+
+        map.replaceAll((k, value) -> 0);
+        assertEquals(Map.of(key, 0, otherWidthKey, 0), map.getSnapshotMap());
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.common.proto;
+
+import bisq.common.annotation.ExcludeForHash;
+import bisq.common.proto.mocks.Child;
+import bisq.common.proto.mocks.ChildMock;
+import bisq.common.proto.mocks.Parent;
+import bisq.common.proto.mocks.ParentMock;
+import bisq.common.proto.mocks.ParentMockWithExcludedValue;
+import com.google.protobuf.InvalidProtocolBufferException;
+import lombok.Getter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExcludedFieldsCacheTest {
+    @Getter
+    private static final class VersionedParentMock implements Parent {
+        @ExcludeForHash(excludeOnlyInVersions = {1})
+        private final String parentValue;
+        private final Child child;
+        private final int version;
+
+        private VersionedParentMock(String parentValue, Child child, int version) {
+            this.parentValue = parentValue;
+            this.child = child;
+            this.version = version;
+        }
+
+        @Override
+        public bisq.common.test.protobuf.Parent toProto(boolean serializeForHash) {
+            return resolveProto(serializeForHash);
+        }
+
+        @Override
+        public bisq.common.test.protobuf.Parent.Builder getBuilder(boolean serializeForHash) {
+            return bisq.common.test.protobuf.Parent.newBuilder()
+                    .setParentValue(parentValue)
+                    .setChild(child.toProto(serializeForHash));
+        }
+    }
+
+    @Test
+    void excludedFieldsAreClearedWhenTakenFromCache() throws InvalidProtocolBufferException {
+        Child child = new ChildMock("childValue");
+        byte[] first = new ParentMockWithExcludedValue("parentValue1", child).serializeForHash();
+        // The second call takes the field descriptors from the cache
+        byte[] second = new ParentMockWithExcludedValue("parentValue2", child).serializeForHash();
+
+        assertTrue(parse(second).getParentValue().isEmpty());
+        assertEquals("childValue", parse(second).getChild().getChildValue());
+        assertArrayEquals(first, second);
+        // The complete serialisation is not affected
+        byte[] serialized = new ParentMockWithExcludedValue("parentValue2", child).serialize();
+        assertEquals("parentValue2", parse(serialized).getParentValue());
+    }
+
+    @Test
+    void descriptorsAreCached() {
+        Parent parent = new ParentMockWithExcludedValue("parentValue", new ChildMock("childValue"));
+        var descriptor = bisq.common.test.protobuf.Parent.getDescriptor();
+
+        var descriptors = ExcludedFieldsCache.getExcludedFieldDescriptors(parent, descriptor);
+
+        assertEquals(1, descriptors.size());
+        assertEquals("parentValue", descriptors.get(0).getName());
+        assertSame(descriptors, ExcludedFieldsCache.getExcludedFieldDescriptors(parent, descriptor));
+    }
+
+    @Test
+    void cacheIsKeyedByClass() throws InvalidProtocolBufferException {
+        Child child = new ChildMock("childValue");
+        new ParentMockWithExcludedValue("parentValue", child).serializeForHash();
+
+        // Same message type, but the field is not annotated in ParentMock
+        Parent withExcludedValue = new ParentMockWithExcludedValue("parentValue", child);
+        assertEquals("parentValue", parse(new ParentMock("parentValue", child).serializeForHash()).getParentValue());
+        assertTrue(parse(withExcludedValue.serializeForHash()).getParentValue().isEmpty());
+    }
+
+    @Test
+    void cacheIsKeyedByVersion() throws InvalidProtocolBufferException {
+        Child child = new ChildMock("childValue");
+        for (int i = 0; i < 2; i++) {
+            Parent version1 = new VersionedParentMock("parentValue", child, 1);
+            Parent version2 = new VersionedParentMock("parentValue", child, 2);
+            assertTrue(parse(version1.serializeForHash()).getParentValue().isEmpty());
+            assertEquals("parentValue", parse(version2.serializeForHash()).getParentValue());
+        }
+    }
+
+    private static bisq.common.test.protobuf.Parent parse(byte[] bytes) throws InvalidProtocolBufferException {
+        return bisq.common.test.protobuf.Parent.parseFrom(bytes);
+    }
+}
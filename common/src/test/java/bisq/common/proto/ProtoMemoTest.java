@@ -0,0 +1,106 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.common.proto;
+
+import bisq.common.proto.mocks.Child;
+import bisq.common.proto.mocks.ChildMock;
+import bisq.common.proto.mocks.ParentMock;
+import lombok.Getter;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ProtoMemoTest {
+    private static final class MemoizedParentMock implements MemoizedProto {
+        private final ParentMock parent;
+        @Getter
+        private final ProtoMemo protoMemo = new ProtoMemo();
+
+        private MemoizedParentMock(String parentValue, Child child) {
+            parent = new ParentMock(parentValue, child);
+        }
+
+        @Override
+        public bisq.common.test.protobuf.Parent toProto(boolean serializeForHash) {
+            return resolveProto(serializeForHash);
+        }
+
+        @Override
+        public bisq.common.test.protobuf.Parent.Builder getBuilder(boolean serializeForHash) {
+            return parent.getBuilder(serializeForHash);
+        }
+    }
+
+    @Test
+    void hashIsComputedOnce() {
+        ProtoMemo protoMemo = new ProtoMemo();
+        AtomicInteger numCalls = new AtomicInteger();
+
+        byte[] hash = protoMemo.getHash(() -> {
+            numCalls.incrementAndGet();
+            return new byte[]{1, 2, 3};
+        });
+        byte[] memoized = protoMemo.getHash(() -> {
+            numCalls.incrementAndGet();
+            return new byte[]{4, 5, 6};
+        });
+
+        assertArrayEquals(new byte[]{1, 2, 3}, hash);
+        assertArrayEquals(hash, memoized);
+        assertEquals(1, numCalls.get());
+    }
+
+    @Test
+    void returnedHashCannotCorruptCache() {
+        ProtoMemo protoMemo = new ProtoMemo();
+        byte[] hash = protoMemo.getHash(() -> new byte[]{1, 2, 3});
+        hash[0] = 9;
+
+        assertArrayEquals(new byte[]{1, 2, 3}, protoMemo.getHash(() -> new byte[]{4, 5, 6}));
+    }
+
+    @Test
+    void serializedSizeIsComputedOnce() {
+        ProtoMemo protoMemo = new ProtoMemo();
+        AtomicInteger numCalls = new AtomicInteger();
+
+        assertEquals(0, protoMemo.getSerializedSize(() -> {
+            numCalls.incrementAndGet();
+            return 0;
+        }));
+        assertEquals(0, protoMemo.getSerializedSize(() -> {
+            numCalls.incrementAndGet();
+            return 10;
+        }));
+        assertEquals(1, numCalls.get());
+    }
+
+    @Test
+    void memoizedSerializedSizeEqualsFreshSize() {
+        MemoizedParentMock memoized = new MemoizedParentMock("parentValue", new ChildMock("childValue"));
+        int freshSize = new ParentMock("parentValue", new ChildMock("childValue")).getSerializedSize();
+
+        assertEquals(freshSize, memoized.getSerializedSize());
+        assertEquals(freshSize, memoized.getSerializedSize());
+        assertEquals(memoized.serialize().length, memoized.getSerializedSize());
+        assertArrayEquals(new ParentMock("parentValue", new ChildMock("childValue")).serializeForHash(),
+                memoized.serializeForHash());
+    }
+}
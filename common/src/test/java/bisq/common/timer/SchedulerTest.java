@@ -0,0 +1,139 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.timer;
+
+import bisq.common.threading.ExecutorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SchedulerTest {
+    private final ExecutorService executor = ExecutorFactory.newCachedThreadPool("SchedulerTest", 1, 10, 1);
+    // We use a tick of 1 ms to cover multiple levels of the wheel in short time.
+    private final TimingWheel timingWheel = new TimingWheel("SchedulerTest.TimingWheel", 1, executor);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void runsOnceAfterDelay() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        long ts = System.currentTimeMillis();
+        AtomicInteger numRuns = new AtomicInteger();
+        Scheduler scheduler = Scheduler.run(timingWheel, () -> {
+            numRuns.incrementAndGet();
+            latch.countDown();
+        }).after(100);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - ts >= 100);
+        Thread.sleep(200);
+        assertEquals(1, numRuns.get());
+        assertEquals(0, scheduler.getCounter());
+        assertEquals(0, timingWheel.getNumPendingTasks());
+    }
+
+    @Test
+    void runsRepeatedForGivenCycles() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(5);
+        Scheduler scheduler = Scheduler.run(timingWheel, latch::countDown).repeated(20, 5);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(5, scheduler.getCounter());
+        assertEquals(0, timingWheel.getNumPendingTasks());
+    }
+
+    @Test
+    void stopCancelsPendingTask() throws InterruptedException {
+        AtomicInteger numRuns = new AtomicInteger();
+        Scheduler scheduler = Scheduler.run(timingWheel, numRuns::incrementAndGet).periodically(50);
+        assertEquals(1, timingWheel.getNumPendingTasks());
+
+        scheduler.stop();
+        assertEquals(0, timingWheel.getNumPendingTasks());
+        Thread.sleep(200);
+        assertEquals(0, numRuns.get());
+    }
+
+    @Test
+    void expiresTasksNotBeforeDeadline() throws InterruptedException {
+        // Delays are spread over the first three levels of the wheel (64, 4096 and 262144 ticks)
+        int[] delays = {500, 3, 70, 0, 130, 40, 1000, 4500, 2000, 250};
+        List<Long> earlyBy = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(delays.length);
+        for (int delay : delays) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+            Scheduler.run(timingWheel, () -> {
+                long now = System.nanoTime();
+                if (now < deadline) {
+                    earlyBy.add(deadline - now);
+                }
+                latch.countDown();
+            }).after(delay);
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(List.of(), earlyBy);
+        assertEquals(0, timingWheel.getNumPendingTasks());
+    }
+
+    @Test
+    void retriesTaskRejectedByExecutor() throws InterruptedException {
+        // The pool has only one thread and no queue, thus it rejects tasks while the thread is busy.
+        ExecutorService singleThreadExecutor = ExecutorFactory.newCachedThreadPool("SchedulerTest.single", 1, 1, 1);
+        TimingWheel singleThreadTimingWheel = new TimingWheel("SchedulerTest.single.TimingWheel", 1,
+                singleThreadExecutor);
+        try {
+            CountDownLatch blockingTaskStarted = new CountDownLatch(1);
+            CountDownLatch releaseBlockingTask = new CountDownLatch(1);
+            Scheduler.run(singleThreadTimingWheel, () -> {
+                blockingTaskStarted.countDown();
+                try {
+                    releaseBlockingTask.await();
+                } catch (InterruptedException ignore) {
+                }
+            }).after(1);
+            assertTrue(blockingTaskStarted.await(5, TimeUnit.SECONDS));
+
+            CountDownLatch latch = new CountDownLatch(3);
+            Scheduler scheduler = Scheduler.run(singleThreadTimingWheel, latch::countDown).periodically(10);
+            // Let the periodic task get rejected multiple times
+            Thread.sleep(2 * TimingWheel.RETRY_DELAY_MS + 50);
+            assertEquals(3, latch.getCount());
+            assertEquals(1, singleThreadTimingWheel.getNumPendingTasks());
+
+            releaseBlockingTask.countDown();
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            scheduler.stop();
+        } finally {
+            singleThreadExecutor.shutdownNow();
+        }
+    }
+}
@@ -40,7 +40,11 @@ import static bisq.http_api.auth.WebSocketRequestMetadataFilter.ATTR_WS_USER_AGE
 
 @Slf4j
 public class WebSocketConnectionHandler extends WebSocketApplication implements Service {
-    public final ExecutorService executor = ExecutorFactory.newCachedThreadPool("WebSocketConnectionHandler", 1, 50, 30);
+    // Each request is handled in its own task. With virtual threads a request blocking on the network does not
+    // occupy a platform thread.
+    public final ExecutorService executor = ExecutorFactory.isUseVirtualThreads()
+            ? ExecutorFactory.newVirtualThreadPerTaskExecutor("WebSocketConnectionHandler")
+            : ExecutorFactory.newCachedThreadPool("WebSocketConnectionHandler", 1, 50, 30);
     private final SubscriptionService subscriptionService;
     private final WebSocketRestApiService webSocketRestApiService;
     @Getter
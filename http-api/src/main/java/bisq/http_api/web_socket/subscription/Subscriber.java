@@ -48,7 +48,9 @@ public class Subscriber {
         this.parameter = parameter;
         this.subscriberId = subscriberId;
         this.webSocket = webSocket;
-        executorService = ExecutorFactory.newSingleThreadExecutor("Subscriber-" + topic.name() + "-" + subscriberId);
+        // Sending blocks until the webSocket has sent the data. Events are sent in order.
+        String name = "Subscriber-" + topic.name() + "-" + subscriberId;
+        executorService = ExecutorFactory.newSingleThreadExecutorForBlockingTasks(name);
     }
 
     public int incrementAndGetSequenceNumber() {
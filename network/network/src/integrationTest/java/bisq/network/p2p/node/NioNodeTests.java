@@ -0,0 +1,173 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.node;
+
+import bisq.common.network.Address;
+import bisq.common.network.AddressByTransportTypeMap;
+import bisq.common.network.TransportType;
+import bisq.common.network.clear_net_address_types.ClearNetAddressType;
+import bisq.common.network.clear_net_address_types.LocalHostAddressTypeFacade;
+import bisq.common.util.NetworkUtils;
+import bisq.network.NetworkExecutors;
+import bisq.network.identity.NetworkId;
+import bisq.network.p2p.message.EnvelopePayloadMessage;
+import bisq.network.p2p.node.authorization.AuthorizationService;
+import bisq.network.p2p.node.authorization.AuthorizationTokenType;
+import bisq.network.p2p.node.network_load.NetworkLoadSnapshot;
+import bisq.network.p2p.node.transport.ClearNetTransportService;
+import bisq.network.p2p.services.peer_group.BanList;
+import bisq.network.p2p.services.peer_group.keep_alive.Ping;
+import bisq.security.keys.KeyBundle;
+import bisq.security.keys.KeyBundleService;
+import bisq.security.keys.KeyGeneration;
+import bisq.security.keys.PubKey;
+import bisq.security.keys.TorKeyGeneration;
+import bisq.security.pow.equihash.EquihashProofOfWorkService;
+import bisq.security.pow.hashcash.HashCashProofOfWorkService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class NioNodeTests {
+    private static final int SOCKET_TIMEOUT = 30_000;
+
+    private final List<Node> nodes = new ArrayList<>();
+    private ClearNetTransportService.Config transportConfig;
+    private ClearNetTransportService transportService;
+
+    @BeforeEach
+    void setUp() {
+        NetworkExecutors.initialize(10);
+        transportConfig = new ClearNetTransportService.Config(Path.of("unused"),
+                -1,
+                SOCKET_TIMEOUT,
+                0,
+                0,
+                10_000,
+                ClearNetAddressType.LOCAL_HOST,
+                ClearNetTransportService.IoMode.NIO,
+                1);
+        transportService = new ClearNetTransportService(transportConfig);
+        transportService.initialize();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (Node node : nodes) {
+            node.shutdown().get(30, SECONDS);
+        }
+        transportService.shutdown().get(30, SECONDS);
+        NetworkExecutors.shutdown();
+    }
+
+    @Test
+    void handshakeAndSendMessageBetweenNioNodes() throws Exception {
+        Node serverNode = createNode(NetworkUtils.findFreeSystemPort());
+        Node clientNode = createNode(NetworkUtils.findFreeSystemPort());
+        serverNode.initializeAsync().get(30, SECONDS);
+        clientNode.initializeAsync().get(30, SECONDS);
+        assertThat(transportService.getNioSelectorService()).isPresent();
+
+        CompletableFuture<Connection> inboundConnectionFuture = new CompletableFuture<>();
+        CompletableFuture<Ping> receivedPingFuture = new CompletableFuture<>();
+        serverNode.addListener(new Node.Listener() {
+            @Override
+            public void onMessage(EnvelopePayloadMessage envelopePayloadMessage,
+                                  Connection connection,
+                                  NetworkId networkId) {
+                if (envelopePayloadMessage instanceof Ping ping) {
+                    receivedPingFuture.complete(ping);
+                }
+            }
+
+            @Override
+            public void onConnection(Connection connection) {
+                inboundConnectionFuture.complete(connection);
+            }
+
+            @Override
+            public void onDisconnect(Connection connection, CloseReason closeReason) {
+            }
+        });
+
+        Address serverAddress = serverNode.findMyAddress().orElseThrow();
+        Connection outboundConnection = clientNode.getOrCreateConnectionAsync(serverAddress).get(30, SECONDS);
+        assertThat(outboundConnection).isInstanceOf(OutboundConnection.class);
+        assertThat(outboundConnection.isRunning()).isTrue();
+        assertThat(outboundConnection.getPeerAddress()).isEqualTo(serverAddress);
+
+        Connection inboundConnection = inboundConnectionFuture.get(30, SECONDS);
+        assertThat(inboundConnection).isInstanceOf(InboundConnection.class);
+        assertThat(inboundConnection.getPeerAddress()).isEqualTo(clientNode.findMyAddress().orElseThrow());
+
+        // After the handshake the messages are sent and received over the selector based channels
+        clientNode.sendAsync(new Ping(42), outboundConnection).get(30, SECONDS);
+        assertThat(receivedPingFuture.get(30, SECONDS).getNonce()).isEqualTo(42);
+        assertThat(serverNode.getNumConnections()).isEqualTo(1);
+        assertThat(clientNode.getNumConnections()).isEqualTo(1);
+    }
+
+    private Node createNode(int port) {
+        String keyId = "NioNodeTests-" + port;
+        Address address = LocalHostAddressTypeFacade.toLocalHostAddress(port);
+        NetworkId networkId = new NetworkId(new AddressByTransportTypeMap(Map.of(TransportType.CLEAR, address)),
+                new PubKey(KeyGeneration.generateKeyPair().getPublic(), keyId));
+
+        KeyBundle keyBundle = mock(KeyBundle.class);
+        when(keyBundle.getTorKeyPair()).thenReturn(TorKeyGeneration.generateKeyPair());
+        KeyBundleService keyBundleService = mock(KeyBundleService.class);
+        when(keyBundleService.getKeyBundle(anyString())).thenReturn(keyBundle);
+
+        //noinspection deprecation
+        AuthorizationService authorizationService = new AuthorizationService(
+                new AuthorizationService.Config(List.of(AuthorizationTokenType.HASH_CASH)),
+                new HashCashProofOfWorkService(),
+                new EquihashProofOfWorkService(),
+                Set.of(Feature.AUTHORIZATION_HASH_CASH));
+        Node.Config nodeConfig = new Node.Config(TransportType.CLEAR,
+                Set.of(TransportType.CLEAR),
+                Set.of(Feature.AUTHORIZATION_HASH_CASH),
+                transportConfig,
+                SOCKET_TIMEOUT,
+                0,
+                0,
+                10);
+        Node node = new Node(networkId,
+                true,
+                nodeConfig,
+                new BanList(),
+                keyBundleService,
+                transportService,
+                new NetworkLoadSnapshot(),
+                authorizationService);
+        nodes.add(node);
+        return node;
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.node.nio;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class NioChannelTests {
+    private final List<byte[]> receivedFrames = new CopyOnWriteArrayList<>();
+    private final CompletableFuture<Exception> closedFuture = new CompletableFuture<>();
+    private NioSelectorService nioSelectorService;
+    private ServerSocketChannel serverSocketChannel;
+    private SocketChannel peerSocketChannel;
+    private NioChannel nioChannel;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        nioSelectorService = new NioSelectorService(1, 1, TimeUnit.SECONDS.toMillis(30));
+        serverSocketChannel = ServerSocketChannel.open();
+        serverSocketChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        peerSocketChannel = SocketChannel.open(serverSocketChannel.getLocalAddress());
+        nioChannel = nioSelectorService.createChannel(serverSocketChannel.accept(), new NioChannel.Listener() {
+            @Override
+            public void onFrameReceived(byte[] frame) {
+                receivedFrames.add(frame);
+            }
+
+            @Override
+            public void onClosed(Exception exception) {
+                closedFuture.complete(exception);
+            }
+        });
+        nioChannel.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        nioChannel.close();
+        peerSocketChannel.close();
+        serverSocketChannel.close();
+        nioSelectorService.shutdown();
+    }
+
+    @Test
+    void receiveFramesSplitOverPartialReads() throws Exception {
+        byte[] smallFrame = createBytes(10);
+        // Larger than the read buffer and with a length prefix of 3 bytes
+        byte[] largeFrame = createBytes(200_000);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        outputStream.write(toBytes(NioChannel.toFrame(new byte[]{1, 2}, smallFrame)));
+        outputStream.write(toBytes(NioChannel.toFrame(new byte[]{3}, largeFrame)));
+        outputStream.write(toBytes(NioChannel.toFrame(new byte[0], new byte[0])));
+        byte[] bytes = outputStream.toByteArray();
+
+        // We write the first bytes one by one, so that the length prefix and the frame are split over several reads
+        for (int i = 0; i < 5; i++) {
+            peerSocketChannel.write(ByteBuffer.wrap(bytes, i, 1));
+            Thread.sleep(20);
+        }
+        // The remaining bytes in chunks which do not match the frame boundaries
+        int position = 5;
+        while (position < bytes.length) {
+            int length = Math.min(7_777, bytes.length - position);
+            writeFully(ByteBuffer.wrap(bytes, position, length));
+            position += length;
+        }
+
+        waitUntil(() -> receivedFrames.size() == 3);
+        assertThat(receivedFrames.get(0)).isEqualTo(concat(new byte[]{1, 2}, smallFrame));
+        assertThat(receivedFrames.get(1)).isEqualTo(concat(new byte[]{3}, largeFrame));
+        assertThat(receivedFrames.get(2)).isEmpty();
+        assertThat(closedFuture).isNotDone();
+    }
+
+    @Test
+    void closeIfFrameExceedsMaxSize() throws Exception {
+        // Length prefix of MAX_FRAME_SIZE + 1 as varint
+        int length = NioChannel.MAX_FRAME_SIZE + 1;
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        while ((length & ~0x7F) != 0) {
+            outputStream.write((length & 0x7F) | 0x80);
+            length >>>= 7;
+        }
+        outputStream.write(length);
+        writeFully(ByteBuffer.wrap(outputStream.toByteArray()));
+
+        Exception exception = closedFuture.get(5, TimeUnit.SECONDS);
+        assertThat(exception).isInstanceOf(IOException.class).hasMessageContaining("exceeds the limit");
+        assertThat(nioChannel.isClosed()).isTrue();
+        assertThat(receivedFrames).isEmpty();
+    }
+
+    @Test
+    void rejectSendIfPeerDoesNotRead() throws Exception {
+        byte[] body = createBytes(1024 * 1024);
+        // The peer does not read, so the frames fill the socket buffers and then the write queue
+        int numSent = 0;
+        while (!nioChannel.isWriteQueueFull()) {
+            nioChannel.send(NioChannel.toFrame(new byte[0], body));
+            numSent++;
+            assertThat(numSent).isLessThan(1000);
+        }
+        assertThat(nioChannel.getPendingWriteBytes()).isGreaterThan(NioChannel.MAX_PENDING_WRITE_BYTES);
+        IOException exception = assertThrows(IOException.class,
+                () -> nioChannel.send(NioChannel.toFrame(new byte[0], body)));
+        assertThat(exception).hasMessageContaining("Pending data to write exceeds");
+
+        // Once the peer reads, the queued frames get written and we can send again
+        long expectedNumBytes = (long) numSent * toBytes(NioChannel.toFrame(new byte[0], body)).length;
+        CountDownLatch allBytesRead = new CountDownLatch(1);
+        Thread readerThread = new Thread(() -> {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            long numRead = 0;
+            try {
+                while (numRead < expectedNumBytes) {
+                    buffer.clear();
+                    numRead += peerSocketChannel.read(buffer);
+                }
+                allBytesRead.countDown();
+            } catch (IOException ignore) {
+            }
+        });
+        readerThread.start();
+
+        assertThat(allBytesRead.await(30, TimeUnit.SECONDS)).isTrue();
+        // The selector thread updates the pending bytes after the write returned
+        waitUntil(() -> nioChannel.getPendingWriteBytes() == 0);
+        assertThat(nioChannel.getPendingWriteBytes()).isZero();
+        assertThat(nioChannel.isWriteQueueFull()).isFalse();
+        nioChannel.send(NioChannel.toFrame(new byte[0], createBytes(10)));
+        assertThat(closedFuture).isNotDone();
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            peerSocketChannel.write(buffer);
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static byte[] toBytes(ByteBuffer[] frame) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        for (ByteBuffer buffer : frame) {
+            ByteBuffer duplicate = buffer.duplicate();
+            byte[] bytes = new byte[duplicate.remaining()];
+            duplicate.get(bytes);
+            outputStream.write(bytes, 0, bytes.length);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = new byte[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private static byte[] createBytes(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) i;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers events to listeners in the order they got dispatched, each listener at a time on one thread of the shared
+ * executor. Each listener has its own mailbox, so a slow listener does not delay the events of other listeners.
+ * A mailbox gets drained in batches of up to {@link #MAX_BATCH_SIZE} events per executor task.
+ * <p>
+ * Message events are bounded by {@link #MAX_MAILBOX_SIZE} per mailbox. If a mailbox is full, a new message event gets
+ * dropped and counted. Lifecycle events (e.g. onConnection, onDisconnect or onShutdown) are never dropped, as
+ * listeners would keep a stale state otherwise. They are always added to the mailbox, even if it is full with
+ * message events.
+ * <p>
+ * Message events can be dispatched with the {@link Backlog} of their source (e.g. a connection), which counts the
+ * events of that source not delivered yet. Before messages get dropped, {@link Backlog#isCongested()} signals the
+ * source to read slower. Only sources whose events pile up at a slow listener get slowed down, sources which do not
+ * feed that listener are not affected.
+ * <p>
+ * The executor holds at most one task per mailbox, so its queue does not overflow with the number of events.
+ * If the executor rejects the task of a mailbox, we retry after {@link #RETRY_DELAY} ms, as otherwise the mailbox would
+ * stay scheduled without a task and its events would never get delivered.
+ */
+@Slf4j
+public class ListenerDispatcher {
+    static final int MAX_BATCH_SIZE = 100;
+    static final int MAX_MAILBOX_SIZE = 10_000;
+    static final int CONGESTION_THRESHOLD = 1000;
+    static final long RETRY_DELAY = 100;
+
+    public static final class ListenerStats {
+        private final AtomicInteger queueDepth = new AtomicInteger();
+        private final AtomicInteger maxQueueDepth = new AtomicInteger();
+        private final AtomicLong numDispatched = new AtomicLong();
+        private final AtomicLong numDropped = new AtomicLong();
+        private final AtomicLong totalLatency = new AtomicLong();
+        private final AtomicLong maxLatency = new AtomicLong();
+
+        public int getQueueDepth() {
+            return queueDepth.get();
+        }
+
+        public int getMaxQueueDepth() {
+            return maxQueueDepth.get();
+        }
+
+        public long getNumDispatched() {
+            return numDispatched.get();
+        }
+
+        public long getNumDropped() {
+            return numDropped.get();
+        }
+
+        /**
+         * @return Average time in ms from dispatching an event until it got delivered
+         */
+        public double getAverageLatency() {
+            long num = numDispatched.get();
+            return num == 0 ? 0 : (double) totalLatency.get() / num;
+        }
+
+        public long getMaxLatency() {
+            return maxLatency.get();
+        }
+
+        @Override
+        public String toString() {
+            return "ListenerStats{queueDepth=" + getQueueDepth() +
+                    ", maxQueueDepth=" + getMaxQueueDepth() +
+                    ", numDispatched=" + getNumDispatched() +
+                    ", numDropped=" + getNumDropped() +
+                    ", averageLatency=" + getAverageLatency() +
+                    ", maxLatency=" + getMaxLatency() + "}";
+        }
+    }
+
+    /**
+     * Counts the pending message events of one source over all listeners.
+     */
+    public static final class Backlog {
+        private final AtomicInteger numPending = new AtomicInteger();
+
+        /**
+         * @return True if so many events of the source are pending that it should read slower
+         */
+        public boolean isCongested() {
+            return numPending.get() >= CONGESTION_THRESHOLD;
+        }
+
+        public int getNumPending() {
+            return numPending.get();
+        }
+    }
+
+    private static final class Event {
+        private final Runnable runnable;
+        private final boolean droppable;
+        @Nullable
+        private final Backlog backlog;
+        private final long dispatched;
+
+        private Event(Runnable runnable, boolean droppable, @Nullable Backlog backlog) {
+            this.runnable = runnable;
+            this.droppable = droppable;
+            this.backlog = backlog;
+            dispatched = System.currentTimeMillis();
+        }
+    }
+
+    private final class Mailbox {
+        private final Object listener;
+        private final ListenerStats stats;
+        private final Queue<Event> queue = new ArrayDeque<>();
+        private boolean scheduled;
+        // Set once removed from the map when it got empty. A new mailbox is used for later events.
+        private boolean retired;
+
+        private Mailbox(Object listener) {
+            this.listener = listener;
+            stats = statsByListenerClass.computeIfAbsent(listener.getClass().getName(), key -> new ListenerStats());
+        }
+
+        private void drain() {
+            for (int i = 0; i < MAX_BATCH_SIZE; i++) {
+                Event event;
+                synchronized (this) {
+                    event = queue.poll();
+                    if (event == null) {
+                        scheduled = false;
+                        retired = true;
+                        mailboxByListener.remove(new ListenerKey(listener), this);
+                        return;
+                    }
+                }
+                stats.queueDepth.decrementAndGet();
+                numQueued.decrementAndGet();
+                if (event.backlog != null) {
+                    event.backlog.numPending.decrementAndGet();
+                }
+                long latency = System.currentTimeMillis() - event.dispatched;
+                stats.numDispatched.incrementAndGet();
+                stats.totalLatency.addAndGet(latency);
+                stats.maxLatency.accumulateAndGet(latency, Math::max);
+                try {
+                    event.runnable.run();
+                } catch (Exception e) {
+                    log.error("Listener {} failed to handle event", listener.getClass().getSimpleName(), e);
+                }
+            }
+            // Give other mailboxes a chance before we continue
+            schedule();
+        }
+
+        // The mailbox stays scheduled until the drain task got accepted, so dispatch does not schedule it again
+        private void schedule() {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                if (executor instanceof ExecutorService executorService && executorService.isShutdown()) {
+                    log.info("Executor is shut down. We do not deliver the pending events for {}.",
+                            listener.getClass().getSimpleName());
+                    return;
+                }
+                log.warn("Executor rejected task. We retry to deliver the events for {} after {} ms.",
+                        listener.getClass().getSimpleName(), RETRY_DELAY);
+                CompletableFuture.delayedExecutor(RETRY_DELAY, TimeUnit.MILLISECONDS, Runnable::run)
+                        .execute(this::schedule);
+            }
+        }
+    }
+
+    // Listeners might override equals, but we need one mailbox per listener instance
+    private static final class ListenerKey {
+        private final Object listener;
+
+        private ListenerKey(Object listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ListenerKey other && other.listener == listener;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(listener);
+        }
+    }
+
+    private final Executor executor;
+    private final Map<ListenerKey, Mailbox> mailboxByListener = new ConcurrentHashMap<>();
+    private final Map<String, ListenerStats> statsByListenerClass = new ConcurrentHashMap<>();
+    private final AtomicInteger numQueued = new AtomicInteger();
+
+    public ListenerDispatcher(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Dispatches a lifecycle event, which is never dropped.
+     *
+     * @param listener Events for the same listener instance are delivered one after another in the dispatch order
+     * @param event    Calls the listener
+     */
+    public void dispatch(Object listener, Runnable event) {
+        dispatch(listener, new Event(event, false, null));
+    }
+
+    /**
+     * Dispatches a message event, which gets dropped if the mailbox of the listener is full.
+     *
+     * @param listener Events for the same listener instance are delivered one after another in the dispatch order
+     * @param event    Calls the listener
+     * @param backlog  Backlog of the source of the message, or null if the source is not known
+     */
+    public void dispatchMessage(Object listener, Runnable event, @Nullable Backlog backlog) {
+        dispatch(listener, new Event(event, true, backlog));
+    }
+
+    private void dispatch(Object listener, Event event) {
+        ListenerKey key = new ListenerKey(listener);
+        while (true) {
+            Mailbox mailbox = mailboxByListener.computeIfAbsent(key, k -> new Mailbox(listener));
+            boolean schedule;
+            synchronized (mailbox) {
+                if (mailbox.retired) {
+                    continue;
+                }
+                if (event.droppable && mailbox.queue.size() >= MAX_MAILBOX_SIZE) {
+                    long numDropped = mailbox.stats.numDropped.incrementAndGet();
+                    if (numDropped == 1 || numDropped % 1000 == 0) {
+                        log.warn("Mailbox of {} is full. We drop the message event. numDropped={}",
+                                listener.getClass().getSimpleName(), numDropped);
+                    }
+                    return;
+                }
+                mailbox.queue.add(event);
+                int queueDepth = mailbox.stats.queueDepth.incrementAndGet();
+                mailbox.stats.maxQueueDepth.accumulateAndGet(queueDepth, Math::max);
+                numQueued.incrementAndGet();
+                if (event.backlog != null) {
+                    event.backlog.numPending.incrementAndGet();
+                }
+                schedule = !mailbox.scheduled;
+                mailbox.scheduled = true;
+            }
+            if (schedule) {
+                mailbox.schedule();
+            }
+            return;
+        }
+    }
+
+    public int getNumQueued() {
+        return numQueued.get();
+    }
+
+    public Map<String, ListenerStats> getStatsByListenerClass() {
+        return Map.copyOf(statsByListenerClass);
+    }
+}
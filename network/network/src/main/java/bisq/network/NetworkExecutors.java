@@ -17,24 +17,30 @@
 
 package bisq.network;
 
-import bisq.common.threading.DiscardOldestPolicy;
+import bisq.common.threading.AbortPolicyWithLogging;
 import bisq.common.threading.ExecutorFactory;
 import bisq.common.threading.MaxSizeAwareQueue;
 import lombok.Getter;
 
+import javax.annotation.Nullable;
+import java.util.Collection;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
 public class NetworkExecutors {
     @Getter
     private static ThreadPoolExecutor notifyExecutor;
+    @Getter
+    private static ListenerDispatcher listenerDispatcher;
     private static volatile boolean isInitialized;
 
     public static void initialize(int notifyExecutorMaxPoolSize) {
         checkArgument(!isInitialized, "initialize must not be called twice");
         notifyExecutor = createNotifyExecutor(notifyExecutorMaxPoolSize);
+        listenerDispatcher = new ListenerDispatcher(notifyExecutor);
 
         isInitialized = true;
     }
@@ -44,16 +50,51 @@ public class NetworkExecutors {
             ExecutorFactory.shutdownAndAwaitTermination(notifyExecutor);
 
             notifyExecutor = null;
+            listenerDispatcher = null;
             isInitialized = false;
         }
     }
 
+    /**
+     * Notifies each listener on the notify executor. Events of the same listener are delivered in order and one at a
+     * time, a slow listener does not delay other listeners.
+     */
+    public static <T> void notifyListeners(Collection<T> listeners, Consumer<T> notification) {
+        ListenerDispatcher dispatcher = listenerDispatcher;
+        if (dispatcher == null) {
+            // Not initialized or already shut down
+            return;
+        }
+        listeners.forEach(listener -> dispatcher.dispatch(listener, () -> notification.accept(listener)));
+    }
+
+    public static <T> void notifyListenersOfMessage(Collection<T> listeners, Consumer<T> notification) {
+        notifyListenersOfMessage(listeners, notification, null);
+    }
+
+    /**
+     * Like {@link #notifyListeners} but for received messages, which get dropped if a listener has too many pending
+     * events. Lifecycle and state change events must use {@link #notifyListeners}, so they never get dropped.
+     *
+     * @param backlog Backlog of the connection the message got received from, used to slow down reading from it
+     */
+    public static <T> void notifyListenersOfMessage(Collection<T> listeners,
+                                                    Consumer<T> notification,
+                                                    @Nullable ListenerDispatcher.Backlog backlog) {
+        ListenerDispatcher dispatcher = listenerDispatcher;
+        if (dispatcher == null) {
+            return;
+        }
+        listeners.forEach(listener ->
+                dispatcher.dispatchMessage(listener, () -> notification.accept(listener), backlog));
+    }
+
     private static ThreadPoolExecutor createNotifyExecutor(int maxPoolSize) {
         int queueCapacity = 100000;
         MaxSizeAwareQueue queue = new MaxSizeAwareQueue(queueCapacity);
         String name = "Network.notify";
-        // We use DiscardOldestPolicy instead of AbortPolicyWithLogging as we do not want to handle in the notification
-        // loops the exception, which otherwise would break the loop and escalates up.
+        // The ListenerDispatcher handles a rejected task by retrying it later. With DiscardOldestPolicy a discarded
+        // task would not be noticed and the events of its listener would never get delivered.
         ThreadPoolExecutor executor = new ThreadPoolExecutor(
                 1,
                 maxPoolSize,
@@ -61,7 +102,7 @@ public class NetworkExecutors {
                 TimeUnit.SECONDS,
                 queue,
                 ExecutorFactory.getThreadFactoryWithCounter(name),
-                new DiscardOldestPolicy(name, queueCapacity, maxPoolSize));
+                new AbortPolicyWithLogging(name, queueCapacity, maxPoolSize));
         queue.applyExecutor(executor, maxPoolSize - 2);
         return executor;
     }
@@ -384,7 +384,7 @@ public class ServiceNode implements Node.Listener {
                 "New state %s must have a higher ordinal as the current state %s", newState, state.get());
         state.set(newState);
         log.info("New state {}", newState);
-        listeners.forEach(listener -> NetworkExecutors.getNotifyExecutor().submit(() -> listener.onStateChanged(newState)));
+        NetworkExecutors.notifyListeners(listeners, listener -> listener.onStateChanged(newState));
     }
 
     CompletableFuture<Report> requestReport(Address address) {
@@ -0,0 +1,151 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.message;
+
+import bisq.network.p2p.node.authorization.AuthorizationToken;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Holds the serialized forms of an {@link EnvelopePayloadMessage} so that a message sent to multiple peers (e.g. a
+ * broadcast) gets serialized only once. Per peer only the {@link AuthorizationToken} is serialized and the
+ * NetworkEnvelope is assembled from the encoded fields, which results in the same bytes as serializing a
+ * {@link NetworkEnvelope}.
+ * <p>
+ * Serialization happens lazily at first use. Instances are meant to be short-lived, as they retain the bytes.
+ */
+public final class EncodedEnvelopePayload {
+    @Getter
+    private final EnvelopePayloadMessage envelopePayloadMessage;
+    private byte[] encodedNetworkMessage;
+    private byte[] serializedForHash;
+    private Optional<byte[]> encodedCompressedNetworkMessage;
+
+    public EncodedEnvelopePayload(EnvelopePayloadMessage envelopePayloadMessage) {
+        this.envelopePayloadMessage = envelopePayloadMessage;
+    }
+
+    /**
+     * @return The networkMessage field of the NetworkEnvelope including its tag and length. Must not be modified.
+     */
+    public synchronized byte[] getEncodedNetworkMessage() {
+        if (encodedNetworkMessage == null) {
+            bisq.network.protobuf.EnvelopePayloadMessage proto = envelopePayloadMessage.toProto(false);
+            int fieldNumber = bisq.network.protobuf.NetworkEnvelope.NETWORKMESSAGE_FIELD_NUMBER;
+            byte[] bytes = new byte[CodedOutputStream.computeMessageSize(fieldNumber, proto)];
+            CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(bytes);
+            try {
+                codedOutputStream.writeMessage(fieldNumber, proto);
+                codedOutputStream.checkNoSpaceLeft();
+            } catch (IOException e) {
+                // Cannot happen when writing to a byte array of the computed size
+                throw new IllegalStateException(e);
+            }
+            encodedNetworkMessage = bytes;
+        }
+        return encodedNetworkMessage;
+    }
+
+    /**
+     * @return The compressedNetworkMessage field of the NetworkEnvelope including its tag and length, to be used
+     * instead of {@link #getEncodedNetworkMessage()}. Empty if the message is below {@link EnvelopeCompression#MIN_SIZE}
+     * or compression does not reduce its size. Must not be modified.
+     */
+    public synchronized Optional<byte[]> getEncodedCompressedNetworkMessage() {
+        if (encodedCompressedNetworkMessage == null) {
+            encodedCompressedNetworkMessage = encodeCompressedNetworkMessage();
+        }
+        return encodedCompressedNetworkMessage;
+    }
+
+    /**
+     * @return The message serialized for hash, as used for the proof of work of the AuthorizationToken.
+     * Must not be modified.
+     */
+    public synchronized byte[] getSerializedForHash() {
+        if (serializedForHash == null) {
+            serializedForHash = envelopePayloadMessage.serializeForHash();
+        }
+        return serializedForHash;
+    }
+
+    private Optional<byte[]> encodeCompressedNetworkMessage() {
+        byte[] encoded = getEncodedNetworkMessage();
+        CodedInputStream codedInputStream = CodedInputStream.newInstance(encoded);
+        int messageOffset;
+        int messageLength;
+        try {
+            codedInputStream.readTag();
+            messageLength = codedInputStream.readUInt32();
+            messageOffset = codedInputStream.getTotalBytesRead();
+        } catch (IOException e) {
+            // Cannot happen as we have encoded it ourselves
+            throw new IllegalStateException(e);
+        }
+        if (messageLength < EnvelopeCompression.MIN_SIZE) {
+            return Optional.empty();
+        }
+
+        byte[] compressed = EnvelopeCompression.compress(encoded, messageOffset, messageLength);
+        int fieldNumber = bisq.network.protobuf.NetworkEnvelope.COMPRESSEDNETWORKMESSAGE_FIELD_NUMBER;
+        int size = CodedOutputStream.computeByteArraySize(fieldNumber, compressed);
+        if (size >= encoded.length) {
+            return Optional.empty();
+        }
+        byte[] bytes = new byte[size];
+        CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(bytes);
+        try {
+            codedOutputStream.writeByteArray(fieldNumber, compressed);
+            codedOutputStream.checkNoSpaceLeft();
+        } catch (IOException e) {
+            // Cannot happen when writing to a byte array of the computed size
+            throw new IllegalStateException(e);
+        }
+        return Optional.of(bytes);
+    }
+
+    /**
+     * @return The version and authorizationToken fields of the NetworkEnvelope. Followed by
+     * {@link #getEncodedNetworkMessage()} or {@link #getEncodedCompressedNetworkMessage()} it results in the serialized
+     * NetworkEnvelope.
+     */
+    public static byte[] encodeEnvelopeHeader(int version, AuthorizationToken authorizationToken) {
+        bisq.network.protobuf.AuthorizationToken tokenProto = authorizationToken.toProto(false);
+        int versionFieldNumber = bisq.network.protobuf.NetworkEnvelope.VERSION_FIELD_NUMBER;
+        int tokenFieldNumber = bisq.network.protobuf.NetworkEnvelope.AUTHORIZATIONTOKEN_FIELD_NUMBER;
+        // Default values are not serialized in proto3
+        int versionSize = version != 0 ? CodedOutputStream.computeSInt32Size(versionFieldNumber, version) : 0;
+        byte[] bytes = new byte[versionSize + CodedOutputStream.computeMessageSize(tokenFieldNumber, tokenProto)];
+        CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(bytes);
+        try {
+            if (version != 0) {
+                codedOutputStream.writeSInt32(versionFieldNumber, version);
+            }
+            codedOutputStream.writeMessage(tokenFieldNumber, tokenProto);
+            codedOutputStream.checkNoSpaceLeft();
+        } catch (IOException e) {
+            // Cannot happen when writing to a byte array of the computed size
+            throw new IllegalStateException(e);
+        }
+        return bytes;
+    }
+}
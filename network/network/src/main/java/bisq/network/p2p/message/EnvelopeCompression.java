@@ -0,0 +1,75 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.message;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate compression of the serialized {@link EnvelopePayloadMessage} of a NetworkEnvelope. Only messages above
+ * {@link #MIN_SIZE} get compressed, as for small messages the gain does not justify the CPU costs.
+ * <p>
+ * Only the payload message is compressed. The AuthorizationToken stays uncompressed and the proof of work is still
+ * created and verified on the uncompressed message serialized for hash.
+ */
+public class EnvelopeCompression {
+    public static final int MIN_SIZE = 4 * 1024;
+    // Same as the max. frame size of the NioChannel. Protects against decompression bombs.
+    public static final int MAX_DECOMPRESSED_SIZE = 20 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    public static byte[] compress(byte[] data, int offset, int length) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(data, offset, length);
+            deflater.finish();
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(length / 2);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int numBytes = deflater.deflate(buffer);
+                outputStream.write(buffer, 0, numBytes);
+            }
+            return outputStream.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static byte[] decompress(byte[] compressed) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(Math.min(compressed.length * 4, MAX_DECOMPRESSED_SIZE));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int numBytes = inflater.inflate(buffer);
+                if (numBytes == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Compressed data is truncated");
+                }
+                if (outputStream.size() + numBytes > MAX_DECOMPRESSED_SIZE) {
+                    throw new DataFormatException("Decompressed data exceeds " + MAX_DECOMPRESSED_SIZE + " bytes");
+                }
+                outputStream.write(buffer, 0, numBytes);
+            }
+            return outputStream.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
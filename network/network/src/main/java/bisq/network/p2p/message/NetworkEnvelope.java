@@ -18,14 +18,19 @@
 package bisq.network.p2p.message;
 
 import bisq.common.proto.NetworkProto;
+import bisq.common.proto.UnresolvableProtobufMessageException;
 import bisq.network.p2p.node.ConnectionException;
 import bisq.network.p2p.node.authorization.AuthorizationToken;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.zip.DataFormatException;
+
 import static bisq.network.p2p.node.ConnectionException.Reason.INVALID_NETWORK_VERSION;
 
 /**
@@ -80,9 +85,23 @@ public final class NetworkEnvelope implements NetworkProto {
     }
 
     public static NetworkEnvelope fromProto(bisq.network.protobuf.NetworkEnvelope proto) {
+        bisq.network.protobuf.EnvelopePayloadMessage networkMessage = proto.getCompressedNetworkMessage().isEmpty()
+                ? proto.getNetworkMessage()
+                : decompressNetworkMessage(proto.getCompressedNetworkMessage());
         return new NetworkEnvelope(proto.getVersion(),
                 AuthorizationToken.fromProto(proto.getAuthorizationToken()),
-                EnvelopePayloadMessage.fromProto(proto.getNetworkMessage()));
+                EnvelopePayloadMessage.fromProto(networkMessage));
+    }
+
+    private static bisq.network.protobuf.EnvelopePayloadMessage decompressNetworkMessage(ByteString compressedNetworkMessage) {
+        try {
+            byte[] decompressed = EnvelopeCompression.decompress(compressedNetworkMessage.toByteArray());
+            return bisq.network.protobuf.EnvelopePayloadMessage.parseFrom(decompressed);
+        } catch (InvalidProtocolBufferException e) {
+            throw new UnresolvableProtobufMessageException(e);
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Could not decompress networkMessage", e);
+        }
     }
 
     public void verifyVersion() throws ConnectionException {
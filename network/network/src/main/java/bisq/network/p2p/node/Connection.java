@@ -27,8 +27,10 @@ import bisq.common.threading.MaxSizeAwareDeque;
 import bisq.common.threading.MaxSizeAwareQueue;
 import bisq.common.util.ExceptionUtil;
 import bisq.common.util.StringUtils;
+import bisq.network.ListenerDispatcher;
 import bisq.network.NetworkExecutors;
 import bisq.network.p2p.message.CloseConnectionMessage;
+import bisq.network.p2p.message.EncodedEnvelopePayload;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.message.NetworkEnvelope;
 import bisq.network.p2p.node.authorization.AuthorizationService;
@@ -36,6 +38,10 @@ import bisq.network.p2p.node.authorization.AuthorizationToken;
 import bisq.network.p2p.node.envelope.NetworkEnvelopeSocket;
 import bisq.network.p2p.node.network_load.ConnectionMetrics;
 import bisq.network.p2p.node.network_load.NetworkLoadSnapshot;
+import bisq.network.p2p.node.nio.NioChannel;
+import bisq.network.p2p.node.nio.NioSelectorService;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
@@ -47,14 +53,20 @@ import java.io.IOException;
 import java.net.Socket;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiConsumer;
 
 
@@ -64,6 +76,10 @@ import java.util.function.BiConsumer;
  * Send messages to the peer.
  * Notifies messageListeners on new received messages.
  * Notifies errorHandler on exceptions from the inputHandlerService executor.
+ * <p>
+ * If a NioSelectorService is provided and the socket is backed by a socket channel, the connection does not use its
+ * own read and send executors but a non-blocking channel served by the shared selector threads. Received messages
+ * are then processed in order on the shared processing executor.
  */
 @Slf4j
 public abstract class Connection {
@@ -77,6 +93,9 @@ public abstract class Connection {
 
     @Setter
     private static int executorMaxPoolSize = 5;
+    // If more received messages are pending we stop reading from the socket. With NIO we resume reading once half of
+    // them got processed.
+    private static final int MAX_PENDING_RECEIVED_MESSAGES = 100;
 
     protected interface Handler {
         boolean isMessageAuthorized(EnvelopePayloadMessage envelopePayloadMessage,
@@ -109,18 +128,36 @@ public abstract class Connection {
 
     private NetworkEnvelopeSocket networkEnvelopeSocket;
     private final ConnectionThrottle connectionThrottle;
+    private final SeenMessageFilter seenMessageFilter;
     private final Handler handler;
+    private final BiConsumer<Connection, Exception> errorHandler;
     private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
     @Nullable
     private Future<?> inputHandlerFuture;
     // We use counter value 0 in the handshake, thus we start here with 1 as it's not the first message
     @Getter(AccessLevel.PACKAGE)
     private final AtomicInteger sentMessageCounter = new AtomicInteger(1);
-    private final Object writeLock = new Object();
+    // We use a ReentrantLock instead of synchronized as blocking IO inside a synchronized block would pin the
+    // carrier thread if we run on a virtual thread.
+    private final ReentrantLock writeLock = new ReentrantLock();
     private volatile boolean shutdownStarted;
     private volatile boolean listeningStopped;
-    private final ThreadPoolExecutor readExecutor;
-    private final ThreadPoolExecutor sendExecutor;
+    @Nullable
+    private final ExecutorService readExecutor;
+    @Nullable
+    private final ExecutorService sendExecutor;
+    private final MessageScheduler sendScheduler;
+    private final MessageScheduler receiveScheduler;
+    private final ReceivePipeline<EnvelopePayloadMessage> receivePipeline;
+    // Only used with blocking sockets
+    private final Semaphore pendingReceivedFramesPermits = new Semaphore(MAX_PENDING_RECEIVED_MESSAGES);
+
+    // Only used with a NioSelectorService
+    @Nullable
+    private NioChannel nioChannel;
+    @Nullable
+    private final Executor processingExecutor;
+    private final AtomicInteger numReceivedFrames = new AtomicInteger();
 
     protected Connection(AuthorizationService authorizationService,
                          String connectionId,
@@ -129,6 +166,8 @@ public abstract class Connection {
                          NetworkLoadSnapshot peersNetworkLoadSnapshot,
                          ConnectionMetrics connectionMetrics,
                          ConnectionThrottle connectionThrottle,
+                         @Nullable NioSelectorService nioSelectorService,
+                         SeenMessageFilter seenMessageFilter,
                          Handler handler,
                          BiConsumer<Connection, Exception> errorHandler) {
         this.authorizationService = authorizationService;
@@ -136,12 +175,48 @@ public abstract class Connection {
         this.peersCapability = peersCapability;
         this.peersNetworkLoadSnapshot = peersNetworkLoadSnapshot;
         this.connectionThrottle = connectionThrottle;
+        this.seenMessageFilter = seenMessageFilter;
         this.handler = handler;
+        this.errorHandler = errorHandler;
         this.connectionMetrics = connectionMetrics;
         requestResponseManager = new RequestResponseManager(connectionMetrics);
 
+        if (nioSelectorService != null && socket.getChannel() != null) {
+            readExecutor = null;
+            sendExecutor = null;
+            processingExecutor = nioSelectorService.getProcessingExecutor();
+            sendScheduler = createSendScheduler(processingExecutor);
+            receiveScheduler = createReceiveScheduler(processingExecutor);
+            // The frames get authorized on the processing executor, so the selector thread is not blocked
+            receivePipeline = createReceivePipeline(processingExecutor);
+            try {
+                nioChannel = nioSelectorService.createChannel(socket.getChannel(), new NioChannel.Listener() {
+                    @Override
+                    public void onFrameReceived(byte[] frame) {
+                        Connection.this.onFrameReceived(frame);
+                    }
+
+                    @Override
+                    public void onClosed(Exception exception) {
+                        Connection.this.onChannelClosed(exception);
+                    }
+                });
+                nioChannel.start();
+            } catch (IOException exception) {
+                log.error("Could not register socket channel for socket {}", socket, exception);
+                errorHandler.accept(this, exception);
+                shutdown(CloseReason.EXCEPTION.exception(exception));
+            }
+            return;
+        }
+
+        processingExecutor = null;
         readExecutor = createReadExecutor();
         sendExecutor = createSendExecutor();
+        sendScheduler = createSendScheduler(sendExecutor);
+        receiveScheduler = createReceiveScheduler(readExecutor);
+        // The frames get authorized in the read loop
+        receivePipeline = createReceivePipeline(Runnable::run);
 
         try {
             PeerSocket peerSocket = new DefaultPeerSocket(socket);
@@ -155,64 +230,28 @@ public abstract class Connection {
         try {
             inputHandlerFuture = readExecutor.submit(() -> {
                 try {
-                    long readTs = 0;
                     while (isInputStreamActive()) {
-                        if (readTs != 0) {
-                            log.debug("Processing message took {} ms. Wait for new message from {}. ", System.currentTimeMillis() - readTs, getPeerAddress());
-                        } else {
-                            log.debug("Wait for new message from {}", getPeerAddress());
-                        }
-                        var proto = networkEnvelopeSocket.receiveNextEnvelope();
-                        readTs = System.currentTimeMillis();
-                        if (proto == null) {
-                            log.info("Proto from networkEnvelopeSocket.receiveNextEnvelope() is null. " +
+                        log.debug("Wait for new message from {}", getPeerAddress());
+                        byte[] frame = networkEnvelopeSocket.receiveNextFrame();
+                        if (frame == null) {
+                            log.info("Frame from networkEnvelopeSocket.receiveNextFrame() is null. " +
                                     "This is expected if the input stream has reached EOF. We shut down the connection.");
                             shutdown(CloseReason.EXCEPTION.exception(new EOFException("Input stream reached EOF")));
                             return;
                         }
 
-                        // receiveNextEnvelope might need some time wo we check again if connection is still active
+                        // receiveNextFrame might need some time wo we check again if connection is still active
                         if (!isInputStreamActive()) {
                             return;
                         }
 
-                        connectionThrottle.throttleReceiveMessage();
-                        // ThrottleReceiveMessage can cause a delay by Thread.sleep
-                        if (!isInputStreamActive()) {
-                            return;
-                        }
-                        long ts = System.currentTimeMillis();
-                        NetworkEnvelope networkEnvelope = NetworkEnvelope.fromProto(proto);
-                        long deserializeTime = System.currentTimeMillis() - ts;
-                        networkEnvelope.verifyVersion();
-                        connectionMetrics.onReceived(networkEnvelope, deserializeTime);
-
-                        EnvelopePayloadMessage envelopePayloadMessage = networkEnvelope.getEnvelopePayloadMessage();
-                        log.debug("Received message: {} at: {}",
-                                StringUtils.truncate(envelopePayloadMessage.toString(), 200), this);
-                        requestResponseManager.onReceived(envelopePayloadMessage);
-
-                        if (isInputStreamActive()) {
-                            boolean isMessageAuthorized = handler.isMessageAuthorized(envelopePayloadMessage,
-                                    networkEnvelope.getAuthorizationToken(),
-                                    this);
-                            if (isMessageAuthorized) {
-                                handler.handleNetworkMessage(envelopePayloadMessage, this);
-                                listeners.forEach(listener -> NetworkExecutors.getNotifyExecutor().submit(() -> listener.onNetworkMessage(envelopePayloadMessage)));
-                            }
-                        }
+                        // The authorized messages get processed by the receiveScheduler. If too many are pending, we
+                        // stop reading from the socket until one got processed.
+                        pendingReceivedFramesPermits.acquire();
+                        receivePipeline.onFrameReceived(frame);
                     }
                 } catch (Exception exception) {
-                    //todo (deferred) StreamCorruptedException from i2p at shutdown. prob it send some text data at shut down
-                    if (!shutdownStarted) {
-                        log.debug("Exception at input handler on {}", this, exception);
-                        shutdown(CloseReason.EXCEPTION.exception(exception));
-
-                        // EOFException expected if connection got closed (Socket closed message)
-                        if (!(exception instanceof EOFException)) {
-                            errorHandler.accept(this, exception);
-                        }
-                    }
+                    handleReadException(exception);
                 }
             });
         } catch (RejectedExecutionException e) {
@@ -271,53 +310,100 @@ public abstract class Connection {
     /* --------------------------------------------------------------------- */
 
     CompletableFuture<Connection> sendAsync(EnvelopePayloadMessage envelopePayloadMessage) {
-        try {
-            return CompletableFuture.supplyAsync(() -> {
+        return sendAsync(new EncodedEnvelopePayload(envelopePayloadMessage));
+    }
+
+    /**
+     * Sends the message with its serialized forms shared with other connections, so that e.g. a broadcast gets
+     * serialized only once.
+     */
+    CompletableFuture<Connection> sendAsync(EncodedEnvelopePayload encodedEnvelopePayload) {
+        if (isStopped()) {
+            return CompletableFuture.failedFuture(new ConnectionClosedException(this));
+        }
+        CompletableFuture<Connection> future = new CompletableFuture<>();
+        MessagePriority priority = MessagePriority.fromMessage(encodedEnvelopePayload.getEnvelopePayloadMessage());
+        boolean accepted = sendScheduler.submit(priority, () -> {
+            try {
                 if (isStopped()) {
                     throw new ConnectionClosedException(this);
                 }
+                future.complete(send(encodedEnvelopePayload));
+            } catch (Exception exception) {
+                // Same as if the send had been executed with CompletableFuture.supplyAsync
+                future.completeExceptionally(new CompletionException(exception));
+            }
+        }, () -> future.completeExceptionally(new ConnectionClosedException(this)));
+        if (!accepted) {
+            future.completeExceptionally(new ConnectionException("Send queue for " + priority +
+                    " messages is full or got closed"));
+        }
+        return future;
+    }
 
-                connectionThrottle.throttleSendMessage();
-                if (isStopped()) {
-                    throw new ConnectionClosedException(this);
+    private Connection send(EncodedEnvelopePayload encodedEnvelopePayload) {
+        EnvelopePayloadMessage envelopePayloadMessage = encodedEnvelopePayload.getEnvelopePayloadMessage();
+        try {
+            long spentTime;
+            int serializedSize;
+            // We want to keep the creation of the AuthorizationToken and the sending synchronized to avoid
+            // out of order issues with sentMessageCounter.
+            writeLock.lock();
+            try {
+                if (nioChannel != null && nioChannel.isWriteQueueFull()) {
+                    // We check before creating the AuthorizationToken, so that the message counter is not increased
+                    throw new ConnectionException("Pending data to write exceeds " +
+                            NioChannel.MAX_PENDING_WRITE_BYTES + " bytes. We do not send the message to " +
+                            getPeerAddress());
                 }
-                try {
-                    long spentTime;
-                    NetworkEnvelope networkEnvelope;
-                    // We want to keep the creation of the AuthorizationToken and the sending synchronized to avoid
-                    // out of order issues with sentMessageCounter.
-                    synchronized (writeLock) {
-                        AuthorizationToken authorizationToken = createAuthorizationToken(envelopePayloadMessage);
-                        networkEnvelope = createNetworkEnvelope(envelopePayloadMessage, authorizationToken);
-                        long ts = System.currentTimeMillis();
-                        networkEnvelopeSocket.send(networkEnvelope);
-                        spentTime = System.currentTimeMillis() - ts;
-                    }
-                    connectionMetrics.onSent(networkEnvelope, spentTime);
-                    requestResponseManager.onSent(envelopePayloadMessage);
-                    if (envelopePayloadMessage instanceof CloseConnectionMessage) {
-                        log.info("Sent {} from {}", StringUtils.truncate(envelopePayloadMessage.toString(), 300), this);
-                    }
-                } catch (Exception exception) {
-                    if (exception instanceof ConnectionException connectionException) {
-                        throw connectionException;
-                    }
-                    throw new ConnectionException(exception);
+                AuthorizationToken authorizationToken = createAuthorizationToken(encodedEnvelopePayload);
+                // Only the envelope header with the AuthorizationToken is serialized per connection, the
+                // payload message bytes are shared.
+                byte[] header = createEnvelopeHeader(authorizationToken);
+                byte[] body = getEncodedBody(encodedEnvelopePayload);
+                serializedSize = header.length + body.length;
+                long ts = System.currentTimeMillis();
+                if (nioChannel != null) {
+                    nioChannel.send(NioChannel.toFrame(header, body));
+                } else {
+                    networkEnvelopeSocket.send(header, body);
                 }
-                return this;
-            }, sendExecutor);
-        } catch (RejectedExecutionException e) {
-            log.error("Send executor rejected task", e);
-            return CompletableFuture.failedFuture(new ConnectionException("Send executor rejected task"));
+                spentTime = System.currentTimeMillis() - ts;
+            } finally {
+                writeLock.unlock();
+            }
+            connectionMetrics.onSent(envelopePayloadMessage, serializedSize, spentTime);
+            requestResponseManager.onSent(envelopePayloadMessage);
+            if (envelopePayloadMessage instanceof CloseConnectionMessage) {
+                log.info("Sent {} from {}", StringUtils.truncate(envelopePayloadMessage.toString(), 300), this);
+            }
+        } catch (Exception exception) {
+            if (exception instanceof ConnectionException connectionException) {
+                throw connectionException;
+            }
+            throw new ConnectionException(exception);
         }
+        return this;
     }
 
-    private NetworkEnvelope createNetworkEnvelope(EnvelopePayloadMessage envelopePayloadMessage,
-                                                  AuthorizationToken authorizationToken) {
+    private byte[] getEncodedBody(EncodedEnvelopePayload encodedEnvelopePayload) {
+        byte[] encodedNetworkMessage = encodedEnvelopePayload.getEncodedNetworkMessage();
+        if (!peersCapability.getFeatures().contains(Feature.ENVELOPE_COMPRESSION)) {
+            return encodedNetworkMessage;
+        }
+        return encodedEnvelopePayload.getEncodedCompressedNetworkMessage()
+                .map(compressed -> {
+                    connectionMetrics.onCompressed(encodedEnvelopePayload.getEnvelopePayloadMessage(),
+                            encodedNetworkMessage.length,
+                            compressed.length);
+                    return compressed;
+                })
+                .orElse(encodedNetworkMessage);
+    }
+
+    private byte[] createEnvelopeHeader(AuthorizationToken authorizationToken) {
         try {
-            // The verify method inside NetworkEnvelope constructor could throw an exception.
-            // This would be only the case if our data we want to send is invalid.
-            return new NetworkEnvelope(authorizationToken, envelopePayloadMessage);
+            return EncodedEnvelopePayload.encodeEnvelopeHeader(NetworkEnvelope.networkVersion, authorizationToken);
         } catch (Exception exception) {
             if (isRunning()) {
                 log.warn("Cannot create NetworkEnvelope. {}", ExceptionUtil.getRootCauseMessage(exception));
@@ -328,8 +414,8 @@ public abstract class Connection {
         }
     }
 
-    private AuthorizationToken createAuthorizationToken(EnvelopePayloadMessage envelopePayloadMessage) {
-        return authorizationService.createToken(envelopePayloadMessage,
+    private AuthorizationToken createAuthorizationToken(EncodedEnvelopePayload encodedEnvelopePayload) {
+        return authorizationService.createToken(encodedEnvelopePayload,
                 peersNetworkLoadSnapshot.getCurrentNetworkLoad(),
                 getPeerAddress().getFullAddress(),
                 sentMessageCounter.getAndIncrement(),
@@ -338,6 +424,9 @@ public abstract class Connection {
 
     void stopListening() {
         listeningStopped = true;
+        if (nioChannel != null) {
+            nioChannel.suspendReading();
+        }
     }
 
     void shutdown(CloseReason closeReason) {
@@ -350,10 +439,16 @@ public abstract class Connection {
         }
         shutdownStarted = true;
         requestResponseManager.dispose();
+        // Completes pending sends with a ConnectionClosedException
+        sendScheduler.shutdown();
+        receiveScheduler.shutdown();
         connectionMetrics.clear();
         if (inputHandlerFuture != null) {
             inputHandlerFuture.cancel(true);
         }
+        if (nioChannel != null) {
+            nioChannel.close();
+        }
         try {
             if (networkEnvelopeSocket != null) {
                 networkEnvelopeSocket.close();
@@ -361,20 +456,27 @@ public abstract class Connection {
         } catch (IOException ignore) {
         }
         handler.handleConnectionClosed(this, closeReason);
-        listeners.forEach(listener -> NetworkExecutors.getNotifyExecutor().submit(() -> listener.onConnectionClosed(closeReason)));
+        NetworkExecutors.notifyListeners(listeners, listener -> listener.onConnectionClosed(closeReason));
         listeners.clear();
 
-        ExecutorFactory.shutdownAndAwaitTermination(readExecutor);
-        ExecutorFactory.shutdownAndAwaitTermination(sendExecutor);
+        if (readExecutor != null) {
+            ExecutorFactory.shutdownAndAwaitTermination(readExecutor);
+        }
+        if (sendExecutor != null) {
+            ExecutorFactory.shutdownAndAwaitTermination(sendExecutor);
+        }
     }
 
     boolean isStopped() {
         return shutdownStarted
-                || networkEnvelopeSocket == null
-                || networkEnvelopeSocket.isClosed()
+                || isSocketClosed()
                 || Thread.currentThread().isInterrupted();
     }
 
+    ListenerDispatcher.Backlog getListenerBacklog() {
+        return connectionThrottle.getListenerBacklog();
+    }
+
 
     /* --------------------------------------------------------------------- */
     // Private
@@ -384,7 +486,170 @@ public abstract class Connection {
         return !listeningStopped && isRunning();
     }
 
-    private ThreadPoolExecutor createReadExecutor() {
+    private boolean isSocketClosed() {
+        if (nioChannel != null) {
+            return nioChannel.isClosed();
+        }
+        return networkEnvelopeSocket == null || networkEnvelopeSocket.isClosed();
+    }
+
+    /**
+     * Called in the order the frames were received, as the message counters need to be inside the replay window.
+     *
+     * @return The authorized message, or empty if the frame got dropped
+     */
+    private Optional<EnvelopePayloadMessage> authorizeReceivedFrame(byte[] frame)
+            throws InvalidProtocolBufferException {
+        if (!isInputStreamActive()) {
+            return Optional.empty();
+        }
+
+        Optional<ByteString> networkMessage = EnvelopeFrame.findNetworkMessage(frame);
+        Optional<ByteString> dataRequest = networkMessage.filter(SeenMessageFilter::isDataRequest);
+        if (dataRequest.isPresent() && seenMessageFilter.mightContain(dataRequest.get())) {
+            // Already received data request, most likely re-broadcast by another peer
+            seenMessageFilter.onSkipped(frame.length);
+            connectionMetrics.onSkippedDuplicate(frame.length);
+            return Optional.empty();
+        }
+
+        bisq.network.protobuf.NetworkEnvelope proto = bisq.network.protobuf.NetworkEnvelope.parseFrom(frame);
+        int serializedSize = proto.getSerializedSize();
+        if (networkMessage.isPresent() && !proto.getCompressedNetworkMessage().isEmpty()) {
+            // Already decompressed by reading the frame, so we avoid decompressing it again
+            proto = proto.toBuilder()
+                    .clearCompressedNetworkMessage()
+                    .setNetworkMessage(bisq.network.protobuf.EnvelopePayloadMessage.parseFrom(networkMessage.get()))
+                    .build();
+        }
+        long ts = System.currentTimeMillis();
+        NetworkEnvelope networkEnvelope = NetworkEnvelope.fromProto(proto);
+        long deserializeTime = System.currentTimeMillis() - ts;
+        networkEnvelope.verifyVersion();
+        connectionMetrics.onReceived(networkEnvelope, serializedSize, deserializeTime);
+
+        EnvelopePayloadMessage envelopePayloadMessage = networkEnvelope.getEnvelopePayloadMessage();
+        log.debug("Received message: {} at: {}",
+                StringUtils.truncate(envelopePayloadMessage.toString(), 200), this);
+        requestResponseManager.onReceived(envelopePayloadMessage);
+
+        if (!isInputStreamActive()) {
+            return Optional.empty();
+        }
+        boolean isMessageAuthorized = handler.isMessageAuthorized(envelopePayloadMessage,
+                networkEnvelope.getAuthorizationToken(),
+                this);
+        if (!isMessageAuthorized) {
+            return Optional.empty();
+        }
+        dataRequest.ifPresent(seenMessageFilter::add);
+        return Optional.of(envelopePayloadMessage);
+    }
+
+    // Authorized messages are handled one after another by priority, and in the order they got received within a
+    // priority.
+    private void handleAuthorizedMessage(EnvelopePayloadMessage envelopePayloadMessage) {
+        if (isInputStreamActive()) {
+            handler.handleNetworkMessage(envelopePayloadMessage, this);
+            NetworkExecutors.notifyListenersOfMessage(listeners,
+                    listener -> listener.onNetworkMessage(envelopePayloadMessage),
+                    getListenerBacklog());
+        }
+    }
+
+    private void handleReadException(Exception exception) {
+        //todo (deferred) StreamCorruptedException from i2p at shutdown. prob it send some text data at shut down
+        if (!shutdownStarted) {
+            log.debug("Exception at input handler on {}", this, exception);
+            shutdown(CloseReason.EXCEPTION.exception(exception));
+
+            // EOFException expected if connection got closed (Socket closed message)
+            if (!(exception instanceof EOFException)) {
+                errorHandler.accept(this, exception);
+            }
+        }
+    }
+
+
+    /* --------------------------------------------------------------------- */
+    // NioChannel
+    /* --------------------------------------------------------------------- */
+
+    // Called from the selector thread
+    private void onFrameReceived(byte[] frame) {
+        if (numReceivedFrames.incrementAndGet() >= MAX_PENDING_RECEIVED_MESSAGES) {
+            nioChannel.suspendReading();
+        }
+        receivePipeline.onFrameReceived(frame);
+    }
+
+    // Called from the selector thread
+    private void onChannelClosed(Exception exception) {
+        try {
+            processingExecutor.execute(() -> handleReadException(exception));
+        } catch (RejectedExecutionException e) {
+            handleReadException(exception);
+        }
+    }
+
+    private void onReceivedFrameProcessed() {
+        if (nioChannel != null) {
+            if (numReceivedFrames.decrementAndGet() <= MAX_PENDING_RECEIVED_MESSAGES / 2 && !listeningStopped) {
+                nioChannel.resumeReading();
+            }
+        } else {
+            pendingReceivedFramesPermits.release();
+        }
+    }
+
+    private MessageScheduler createSendScheduler(Executor executor) {
+        return new MessageScheduler("Connection.send-" + getThreadNameDetails(),
+                executor,
+                connectionThrottle::getSendInterval,
+                connectionMetrics::onSendQueueingDelay);
+    }
+
+    private MessageScheduler createReceiveScheduler(Executor executor) {
+        return new MessageScheduler("Connection.receive-" + getThreadNameDetails(),
+                executor,
+                connectionThrottle::getReceiveInterval,
+                connectionMetrics::onReceiveQueueingDelay);
+    }
+
+    private ReceivePipeline<EnvelopePayloadMessage> createReceivePipeline(Executor authorizationExecutor) {
+        return new ReceivePipeline<>(authorizationExecutor, receiveScheduler, new ReceivePipeline.Handler<>() {
+            @Override
+            public Optional<EnvelopePayloadMessage> authorize(byte[] frame) throws InvalidProtocolBufferException {
+                return authorizeReceivedFrame(frame);
+            }
+
+            @Override
+            public MessagePriority getPriority(EnvelopePayloadMessage message) {
+                return MessagePriority.fromMessage(message);
+            }
+
+            @Override
+            public void handle(EnvelopePayloadMessage message) {
+                handleAuthorizedMessage(message);
+            }
+
+            @Override
+            public void onFrameProcessed() {
+                onReceivedFrameProcessed();
+            }
+
+            @Override
+            public void onException(Exception exception) {
+                handleReadException(exception);
+            }
+        });
+    }
+
+    private ExecutorService createReadExecutor() {
+        if (ExecutorFactory.isUseVirtualThreads()) {
+            // The read loop blocks on the socket. A virtual thread does not occupy a platform thread while blocked.
+            return ExecutorFactory.newVirtualThreadPerTaskExecutor("Connection.read-" + getThreadNameDetails());
+        }
         int queueCapacity = 100;
         MaxSizeAwareDeque deque = new MaxSizeAwareDeque(queueCapacity);
         String name = "Connection.read-" + getThreadNameDetails();
@@ -400,7 +665,11 @@ public abstract class Connection {
         return executor;
     }
 
-    private ThreadPoolExecutor createSendExecutor() {
+    private ExecutorService createSendExecutor() {
+        if (ExecutorFactory.isUseVirtualThreads()) {
+            // The sendScheduler runs the send tasks one after another, thus we do not need to limit the threads.
+            return ExecutorFactory.newVirtualThreadPerTaskExecutor("Connection.send-" + getThreadNameDetails());
+        }
         int queueCapacity = 100;
         MaxSizeAwareQueue queue = new MaxSizeAwareQueue(queueCapacity);
         String name = "Connection.send-" + getThreadNameDetails();
@@ -145,7 +145,7 @@ public abstract class ConnectionChannel {
             networkEnvelopeSocketChannel.close();
         } catch (IOException ignore) {
         }
-        listeners.forEach(listener -> NetworkExecutors.getNotifyExecutor().submit(() -> listener.onConnectionClosed(closeReason)));
+        NetworkExecutors.notifyListeners(listeners, listener -> listener.onConnectionClosed(closeReason));
         listeners.clear();
     }
 
@@ -18,42 +18,33 @@
 package bisq.network.p2p.node;
 
 import bisq.common.util.MathUtils;
+import bisq.network.ListenerDispatcher;
 import bisq.network.p2p.node.network_load.NetworkLoadSnapshot;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
-
 /**
- * Checks if time between last send/receive is larger than the throttle time adjusted with the network load.
- * If so we pause the remaining time to ensure only 1 message is sent in that time slot.
- * This should avoid that a node gets flooded (at receive using the peers network load to adjust the throttle time) or
- * flooding their peers (at send using my network load to adjust the throttle time).
- * As larger value in the config for sendMessageTimestamp and receiveMessageTimestamp means it is more likely that
- * message send/receive get paused.
- * Messages are not dropped by we only pause the executing thread. We use lower and upper bounds for the pause, so
- * even with extreme values from the config the throttling should not have severe impacts on the
- * connection (e.g. lead to timeouts).
+ * Provides the interval in which a connection may send or receive a message, adjusted with the network load.
+ * This should avoid that a node gets flooded (at receive using my network load to adjust the interval) or
+ * flooding their peers (at send using the peers network load to adjust the interval).
+ * A larger value in the config for sendMessageThrottleTime and receiveMessageThrottleTime means a lower rate.
+ * Messages are not dropped but deferred by the {@link MessageScheduler} of the connection, which uses the interval as
+ * the refill time of its token bucket. We use lower and upper bounds for the interval, so even with extreme values
+ * from the config the throttling should not have severe impacts on the connection (e.g. lead to timeouts).
+ * If the listeners do not keep up with the messages received from this connection, we use the max. interval at receive
+ * until they caught up. Other connections are not slowed down by that. At blocking connections the deferred frames fill the pending received frames, so we stop reading from the socket.
  */
 @Slf4j
 public class ConnectionThrottle {
     private static final long MIN_THROTTLE_TIME = 20;
     private static final long MAX_THROTTLE_TIME = 1000;
-    private static final long MAX_LOG_FREQUENCY = TimeUnit.SECONDS.toMillis(30);
-
-    // We apply the log throttle globally, so we use static fields
-    private static final AtomicLong lastLoggedTs = new AtomicLong();
-    private static final List<String> LAST_LOGS = new CopyOnWriteArrayList<>();
 
     private final NetworkLoadSnapshot peersNetworkLoadSnapshot;
     private final NetworkLoadSnapshot myNetworkLoadSnapshot;
     private final long sendMessageThrottleTime;
     private final long receiveMessageThrottleTime;
-    private final AtomicLong sendMessageTimestamp = new AtomicLong();
-    private final AtomicLong receiveMessageTimestamp = new AtomicLong();
+    @Getter
+    private final ListenerDispatcher.Backlog listenerBacklog = new ListenerDispatcher.Backlog();
 
     public ConnectionThrottle(NetworkLoadSnapshot peersNetworkLoadSnapshot,
                               NetworkLoadSnapshot myNetworkLoadSnapshot,
@@ -64,55 +55,20 @@ public class ConnectionThrottle {
         receiveMessageThrottleTime = config.getReceiveMessageThrottleTime(); // default 200
     }
 
-    void throttleSendMessage() {
-        throttle(sendMessageTimestamp, peersNetworkLoadSnapshot, sendMessageThrottleTime, "send");
+    long getSendInterval() {
+        return getInterval(peersNetworkLoadSnapshot, sendMessageThrottleTime);
     }
 
-    void throttleReceiveMessage() {
-        throttle(receiveMessageTimestamp, myNetworkLoadSnapshot, receiveMessageThrottleTime, "receive");
+    long getReceiveInterval() {
+        if (listenerBacklog.isCongested()) {
+            return MAX_THROTTLE_TIME;
+        }
+        return getInterval(myNetworkLoadSnapshot, receiveMessageThrottleTime);
     }
 
-    private void throttle(AtomicLong timestamp,
-                          NetworkLoadSnapshot networkLoadSnapshot,
-                          long throttleTime,
-                          String direction) {
-        long now = System.currentTimeMillis();
-        long passed = now - timestamp.get();
+    private static long getInterval(NetworkLoadSnapshot networkLoadSnapshot, long throttleTime) {
         double load = networkLoadSnapshot.getCurrentNetworkLoad().getLoad();
-        throttleTime = MIN_THROTTLE_TIME + Math.round(throttleTime * load);
-        throttleTime = MathUtils.bounded(MIN_THROTTLE_TIME, MAX_THROTTLE_TIME, throttleTime);
-        if (passed < throttleTime) {
-            try {
-                long pause = throttleTime - passed;
-                pause = MathUtils.bounded(1, MAX_THROTTLE_TIME, pause);
-                String logMessage = String.format("Pause %s message for %d ms. Network=%f", direction, pause, load);
-                long passedSinceLastLog = now - lastLoggedTs.get();
-                if (passedSinceLastLog < MAX_LOG_FREQUENCY) {
-                    LAST_LOGS.add(logMessage);
-                    if (lastLoggedTs.get() == 0) {
-                        lastLoggedTs.set(now);
-                    }
-                } else {
-                    if (LAST_LOGS.isEmpty()) {
-                        log.info(logMessage);
-                    } else {
-                        LAST_LOGS.add(logMessage);
-                        List<String> temp = new ArrayList<>(LAST_LOGS);
-                        int size = temp.size();
-                        List<String> subList = temp.subList(0, Math.min(5, size));
-                        log.info("{} accumulated log messages in the past {} sec. Log message (max 5 displayed): {}",
-                                size, passedSinceLastLog / 1000, subList);
-                        LAST_LOGS.clear();
-                    }
-                    lastLoggedTs.set(now);
-                }
-                Thread.sleep(pause);
-            } catch (InterruptedException e) {
-                log.warn("Thread got interrupted at throttle method", e);
-                Thread.currentThread().interrupt(); // Restore interrupted state
-                throw new ConnectionException(e);
-            }
-        }
-        timestamp.set(now);
+        long interval = MIN_THROTTLE_TIME + Math.round(throttleTime * load);
+        return MathUtils.bounded(MIN_THROTTLE_TIME, MAX_THROTTLE_TIME, interval);
     }
 }
@@ -0,0 +1,84 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.node;
+
+import bisq.network.p2p.message.EnvelopeCompression;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.UnsafeByteOperations;
+import com.google.protobuf.WireFormat;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+
+/**
+ * Reads fields of a serialized NetworkEnvelope without parsing the whole message.
+ */
+final class EnvelopeFrame {
+    private static final int NETWORK_MESSAGE_TAG = tag(bisq.network.protobuf.NetworkEnvelope.NETWORKMESSAGE_FIELD_NUMBER);
+    private static final int COMPRESSED_NETWORK_MESSAGE_TAG = tag(bisq.network.protobuf.NetworkEnvelope.COMPRESSEDNETWORKMESSAGE_FIELD_NUMBER);
+
+    private EnvelopeFrame() {
+    }
+
+    /**
+     * @return The serialized payload message. If the envelope contains an uncompressed one, it refers to the bytes of
+     * the frame without copying them, otherwise it is the decompressed one. Empty if the frame is invalid, which we
+     * leave to the regular parsing to report.
+     */
+    static Optional<ByteString> findNetworkMessage(byte[] frame) {
+        try {
+            CodedInputStream envelopeInput = CodedInputStream.newInstance(frame);
+            envelopeInput.enableAliasing(true);
+            while (true) {
+                int tag = envelopeInput.readTag();
+                if (tag == 0) {
+                    return Optional.empty();
+                }
+                if (tag == NETWORK_MESSAGE_TAG) {
+                    return Optional.of(envelopeInput.readBytes());
+                }
+                if (tag == COMPRESSED_NETWORK_MESSAGE_TAG) {
+                    byte[] decompressed = EnvelopeCompression.decompress(envelopeInput.readByteArray());
+                    return Optional.of(UnsafeByteOperations.unsafeWrap(decompressed));
+                }
+                if (!envelopeInput.skipField(tag)) {
+                    return Optional.empty();
+                }
+            }
+        } catch (IOException | DataFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    static bisq.network.protobuf.EnvelopePayloadMessage.MessageCase getMessageCase(ByteString networkMessage) {
+        try {
+            // The payload message consists only of the oneof field
+            int tag = networkMessage.newCodedInput().readTag();
+            bisq.network.protobuf.EnvelopePayloadMessage.MessageCase messageCase =
+                    bisq.network.protobuf.EnvelopePayloadMessage.MessageCase.forNumber(WireFormat.getTagFieldNumber(tag));
+            return messageCase != null ? messageCase : bisq.network.protobuf.EnvelopePayloadMessage.MessageCase.MESSAGE_NOT_SET;
+        } catch (IOException e) {
+            return bisq.network.protobuf.EnvelopePayloadMessage.MessageCase.MESSAGE_NOT_SET;
+        }
+    }
+
+    private static int tag(int fieldNumber) {
+        return fieldNumber << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+    }
+}
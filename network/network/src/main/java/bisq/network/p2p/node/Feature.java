@@ -14,7 +14,8 @@ public enum Feature implements ProtoEnum {
     INVENTORY_MINI_SKETCH,
     AUTHORIZATION_HASH_CASH,
     AUTHORIZATION_EQUI_HASH,
-    AUTHORIZATION_HASH_CASH_V2;
+    AUTHORIZATION_HASH_CASH_V2,
+    ENVELOPE_COMPRESSION;
 
     public static final Set<Feature> DEFAULT_FEATURES = Set.of(INVENTORY_HASH_SET, AUTHORIZATION_HASH_CASH);
 
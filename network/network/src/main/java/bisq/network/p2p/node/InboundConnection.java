@@ -20,8 +20,10 @@ package bisq.network.p2p.node;
 import bisq.network.p2p.node.authorization.AuthorizationService;
 import bisq.network.p2p.node.network_load.ConnectionMetrics;
 import bisq.network.p2p.node.network_load.NetworkLoadSnapshot;
+import bisq.network.p2p.node.nio.NioSelectorService;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
 import java.net.Socket;
 import java.util.function.BiConsumer;
 
@@ -34,6 +36,8 @@ public class InboundConnection extends Connection {
                       NetworkLoadSnapshot peersNetworkLoadSnapshot,
                       ConnectionMetrics connectionMetrics,
                       ConnectionThrottle connectionThrottle,
+                      @Nullable NioSelectorService nioSelectorService,
+                      SeenMessageFilter seenMessageFilter,
                       Handler handler,
                       BiConsumer<Connection, Exception> errorHandler) {
         super(authorizationService,
@@ -43,6 +47,8 @@ public class InboundConnection extends Connection {
                 peersNetworkLoadSnapshot,
                 connectionMetrics,
                 connectionThrottle,
+                nioSelectorService,
+                seenMessageFilter,
                 handler,
                 errorHandler);
     }
@@ -0,0 +1,71 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.node;
+
+import bisq.network.p2p.message.CloseConnectionMessage;
+import bisq.network.p2p.message.EnvelopePayloadMessage;
+import bisq.network.p2p.node.handshake.ConnectionHandshake;
+import bisq.network.p2p.services.data.DataRequest;
+import bisq.network.p2p.services.data.inventory.InventoryRequest;
+import bisq.network.p2p.services.data.inventory.InventoryResponse;
+import bisq.network.p2p.services.peer_group.exchange.PeerExchangeRequest;
+import bisq.network.p2p.services.peer_group.exchange.PeerExchangeResponse;
+import bisq.network.p2p.services.peer_group.keep_alive.Ping;
+import bisq.network.p2p.services.peer_group.keep_alive.Pong;
+import bisq.network.p2p.services.peer_group.network_load.NetworkLoadExchangeRequest;
+import bisq.network.p2p.services.peer_group.network_load.NetworkLoadExchangeResponse;
+import bisq.network.p2p.services.reporting.ReportRequest;
+import bisq.network.p2p.services.reporting.ReportResponse;
+
+/**
+ * Priority classes used for scheduling the messages of a connection, in descending order.
+ */
+public enum MessagePriority {
+    // Keeps the connection alive. Not throttled and overtakes queued messages.
+    CONTROL,
+    // Trade and private chat messages
+    PRIVATE,
+    // Broadcast data
+    GOSSIP,
+    // Inventory, reports and the CloseConnectionMessage. As queued messages are run by priority, the
+    // CloseConnectionMessage gets handled after all messages queued before it.
+    BULK;
+
+    public static MessagePriority fromMessage(EnvelopePayloadMessage message) {
+        if (message instanceof Ping ||
+                message instanceof Pong ||
+                message instanceof ConnectionHandshake.Request ||
+                message instanceof ConnectionHandshake.Response) {
+            return CONTROL;
+        } else if (message instanceof DataRequest ||
+                message instanceof PeerExchangeRequest ||
+                message instanceof PeerExchangeResponse ||
+                message instanceof NetworkLoadExchangeRequest ||
+                message instanceof NetworkLoadExchangeResponse) {
+            return GOSSIP;
+        } else if (message instanceof InventoryRequest ||
+                message instanceof InventoryResponse ||
+                message instanceof ReportRequest ||
+                message instanceof ReportResponse ||
+                message instanceof CloseConnectionMessage) {
+            return BULK;
+        } else {
+            // ConfidentialMessage, AckMessage and external messages
+            return PRIVATE;
+        }
+    }
+}
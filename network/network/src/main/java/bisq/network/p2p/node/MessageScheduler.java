@@ -0,0 +1,299 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.node;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs the message tasks of one direction of a connection one after another, limited by a token bucket.
+ * <p>
+ * A token gets added each interval (provided by the {@link ConnectionThrottle} and adjusted with the network load),
+ * up to {@link #BURST_CAPACITY}. Each task except {@link MessagePriority#CONTROL} tasks takes a token. If no token is
+ * available, the tasks are queued per priority and we schedule the next run at the time the next token gets
+ * available, instead of pausing a thread. Queued tasks are run by priority, and in the order they got submitted within
+ * a priority. Control tasks are never throttled, so that e.g. a Ping does not wait behind a burst of inventory data.
+ * <p>
+ * If the executor rejects a run, we retry after {@link #RETRY_DELAY} unless the executor or the scheduler got shut
+ * down. In that case the queued tasks are dropped and their drop handlers get called.
+ */
+@Slf4j
+public class MessageScheduler {
+    static final int BURST_CAPACITY = 10;
+    static final int MAX_QUEUE_SIZE = 1000;
+    // Used if the executor rejected the task
+    private static final long RETRY_DELAY = 100;
+
+    private enum State {
+        IDLE,
+        RUNNING,
+        // Waiting for the next token
+        WAITING
+    }
+
+    private static final class Task {
+        private final MessagePriority priority;
+        private final Runnable runnable;
+        private final Runnable dropHandler;
+        private final long submitted;
+
+        private Task(MessagePriority priority, Runnable runnable, Runnable dropHandler) {
+            this.priority = priority;
+            this.runnable = runnable;
+            this.dropHandler = dropHandler;
+            submitted = System.currentTimeMillis();
+        }
+    }
+
+    private final String name;
+    private final Executor executor;
+    private final LongSupplier intervalSupplier;
+    private final BiConsumer<MessagePriority, Long> queueingDelayHandler;
+    private final Object lock = new Object();
+    private final Map<MessagePriority, Queue<Task>> queues = new EnumMap<>(MessagePriority.class);
+    private State state = State.IDLE;
+    private double tokens = BURST_CAPACITY;
+    private long lastRefill = System.currentTimeMillis();
+    private boolean isStopped;
+
+    /**
+     * @param intervalSupplier     Time in ms after which a new token gets added
+     * @param queueingDelayHandler Gets called with the time a task has waited before it got run
+     */
+    public MessageScheduler(String name,
+                            Executor executor,
+                            LongSupplier intervalSupplier,
+                            BiConsumer<MessagePriority, Long> queueingDelayHandler) {
+        this.name = name;
+        this.executor = executor;
+        this.intervalSupplier = intervalSupplier;
+        this.queueingDelayHandler = queueingDelayHandler;
+        for (MessagePriority priority : MessagePriority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * @return False if the queue of that priority is full or the scheduler got stopped, in which case the task will
+     * not be run
+     */
+    public boolean submit(MessagePriority priority, Runnable runnable) {
+        return submit(priority, runnable, () -> {
+        });
+    }
+
+    /**
+     * @param dropHandler Gets called instead of the task if the task got queued but cannot be run as the executor got
+     *                    shut down
+     * @return False if the queue of that priority is full or the scheduler got stopped, in which case the task will
+     * not be run
+     */
+    public boolean submit(MessagePriority priority, Runnable runnable, Runnable dropHandler) {
+        synchronized (lock) {
+            if (isStopped) {
+                log.debug("{} got stopped. We do not accept the {} task.", name, priority);
+                return false;
+            }
+            Queue<Task> queue = queues.get(priority);
+            if (queue.size() >= MAX_QUEUE_SIZE) {
+                log.warn("{} queue for {} messages is full", name, priority);
+                return false;
+            }
+            queue.add(new Task(priority, runnable, dropHandler));
+            // Control tasks do not wait for a token
+            if (state == State.IDLE || (state == State.WAITING && priority == MessagePriority.CONTROL)) {
+                state = State.RUNNING;
+            } else {
+                return true;
+            }
+        }
+        dispatch();
+        return true;
+    }
+
+    /**
+     * Runs the remaining tasks in the caller thread without throttling. Tasks are expected to check if the connection
+     * is still running. Tasks submitted afterwards are not accepted.
+     */
+    public void shutdown() {
+        synchronized (lock) {
+            isStopped = true;
+        }
+        while (true) {
+            Task task;
+            synchronized (lock) {
+                task = pollByPriority();
+                if (task == null) {
+                    return;
+                }
+            }
+            runTask(task);
+        }
+    }
+
+    int getNumQueued() {
+        synchronized (lock) {
+            return queues.values().stream().mapToInt(Queue::size).sum();
+        }
+    }
+
+    private void dispatch() {
+        try {
+            executor.execute(this::run);
+        } catch (RejectedExecutionException e) {
+            if (executor instanceof ExecutorService executorService && executorService.isShutdown()) {
+                log.warn("{} executor got shut down. We drop the queued tasks.", name);
+                dropQueuedTasks();
+                return;
+            }
+            synchronized (lock) {
+                if (isStopped) {
+                    // The remaining tasks get run by shutdown
+                    state = State.IDLE;
+                    return;
+                }
+                state = State.WAITING;
+            }
+            log.warn("{} executor rejected task. We retry after {} ms.", name, RETRY_DELAY);
+            scheduleWakeUp(RETRY_DELAY);
+        }
+    }
+
+    private void dropQueuedTasks() {
+        List<Task> droppedTasks = new ArrayList<>();
+        synchronized (lock) {
+            isStopped = true;
+            state = State.IDLE;
+            queues.values().forEach(queue -> {
+                droppedTasks.addAll(queue);
+                queue.clear();
+            });
+        }
+        for (Task task : droppedTasks) {
+            try {
+                task.dropHandler.run();
+            } catch (Exception e) {
+                log.error("{} drop handler failed", name, e);
+            }
+        }
+    }
+
+    private void run() {
+        while (true) {
+            Task task;
+            long delay = 0;
+            synchronized (lock) {
+                task = pollNextTask();
+                if (task == null) {
+                    if (queues.values().stream().allMatch(Queue::isEmpty)) {
+                        state = State.IDLE;
+                        return;
+                    }
+                    state = State.WAITING;
+                    delay = getTimeUntilNextToken();
+                }
+            }
+            if (task == null) {
+                scheduleWakeUp(delay);
+                return;
+            }
+            runTask(task);
+        }
+    }
+
+    private void runTask(Task task) {
+        queueingDelayHandler.accept(task.priority, System.currentTimeMillis() - task.submitted);
+        try {
+            task.runnable.run();
+        } catch (Exception e) {
+            log.error("{} task failed", name, e);
+        }
+    }
+
+    // Runs on the thread of the delayed executor, so we only dispatch from there
+    private void scheduleWakeUp(long delay) {
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, Runnable::run).execute(() -> {
+            synchronized (lock) {
+                // A control task might have started a run in the meantime
+                if (state != State.WAITING) {
+                    return;
+                }
+                if (isStopped) {
+                    state = State.IDLE;
+                    return;
+                }
+                state = State.RUNNING;
+            }
+            dispatch();
+        });
+    }
+
+    // Must be called with the lock held
+    private Task pollNextTask() {
+        Task control = queues.get(MessagePriority.CONTROL).poll();
+        if (control != null) {
+            return control;
+        }
+        refillTokens();
+        if (tokens < 1) {
+            return null;
+        }
+        Task task = pollByPriority();
+        if (task != null) {
+            tokens--;
+        }
+        return task;
+    }
+
+    // Must be called with the lock held
+    private Task pollByPriority() {
+        for (Queue<Task> queue : queues.values()) {
+            Task task = queue.poll();
+            if (task != null) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    // Must be called with the lock held
+    private void refillTokens() {
+        long now = System.currentTimeMillis();
+        long interval = Math.max(1, intervalSupplier.getAsLong());
+        tokens = Math.min(BURST_CAPACITY, tokens + (double) (now - lastRefill) / interval);
+        lastRefill = now;
+    }
+
+    // Must be called with the lock held
+    private long getTimeUntilNextToken() {
+        long interval = Math.max(1, intervalSupplier.getAsLong());
+        return Math.max(1, (long) Math.ceil((1 - tokens) * interval));
+    }
+}
@@ -31,6 +31,7 @@ import bisq.common.util.StringUtils;
 import bisq.network.NetworkExecutors;
 import bisq.network.identity.NetworkId;
 import bisq.network.p2p.message.CloseConnectionMessage;
+import bisq.network.p2p.message.EncodedEnvelopePayload;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.node.authorization.AuthorizationService;
 import bisq.network.p2p.node.authorization.AuthorizationToken;
@@ -62,7 +63,9 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -144,7 +147,7 @@ public class Node implements Connection.Handler {
     }
 
     private final Object executorLock = new Object();
-    private volatile ThreadPoolExecutor executor;
+    private volatile ExecutorService executor;
     private final BanList banList;
     private final TransportService transportService;
     private final AuthorizationService authorizationService;
@@ -167,6 +170,9 @@ public class Node implements Connection.Handler {
     private final Map<Address, InboundConnection> inboundConnectionsByAddress = new ConcurrentHashMap<>();
     private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
     private final Map<String, ConnectionHandshake> connectionHandshakes = new ConcurrentHashMap<>();
+    // The virtual thread executor does not limit the number of concurrent tasks, thus we limit the inbound handshakes,
+    // which are costly due to the proof of work verification, to the max. pool size used with platform threads.
+    private final Semaphore inboundHandshakePermits;
     private Optional<Server> server = Optional.empty();
     private Optional<Capability> myCapability = Optional.empty();
     @Getter
@@ -178,6 +184,8 @@ public class Node implements Connection.Handler {
     @Getter
     private final String nodeId;
     private final Config config;
+    @Getter
+    private final SeenMessageFilter seenMessageFilter = new SeenMessageFilter();
     private Optional<CountDownLatch> startingStateLatch = Optional.empty();
 
     public Node(NetworkId networkId,
@@ -201,6 +209,7 @@ public class Node implements Connection.Handler {
         this.authorizationService = authorizationService;
         this.networkLoadSnapshot = networkLoadSnapshot;
         nodeId = networkId.getId();
+        inboundHandshakePermits = new Semaphore(getMaxPoolSize());
     }
 
 
@@ -279,7 +288,13 @@ public class Node implements Connection.Handler {
         try {
             return CompletableFuture.runAsync(() -> {
                 ConnectionHandshake connectionHandshake = null;
+                boolean hasPermit = false;
                 try {
+                    hasPermit = inboundHandshakePermits.tryAcquire(socketTimeout, TimeUnit.MILLISECONDS);
+                    if (!hasPermit) {
+                        throw new ConnectionException("Too many concurrent inbound handshakes at " +
+                                myCapability.getAddress());
+                    }
                     connectionHandshake = new ConnectionHandshake(socket,
                             banList,
                             myCapability,
@@ -302,7 +317,7 @@ public class Node implements Connection.Handler {
 
                     InboundConnection connection = createInboundConnection(socket, result);
                     inboundConnectionsByAddress.put(connection.getPeerAddress(), connection);
-                    listeners.forEach(listener -> NetworkExecutors.getNotifyExecutor().submit(() -> listener.onConnection(connection)));
+                    NetworkExecutors.notifyListeners(listeners, listener -> listener.onConnection(connection));
                 } catch (Throwable throwable) {
                     try {
                         socket.close();
@@ -315,6 +330,9 @@ public class Node implements Connection.Handler {
                         connectionHandshake.shutdown();
                         connectionHandshakes.remove(connectionHandshake.getId());
                     }
+                    if (hasPermit) {
+                        inboundHandshakePermits.release();
+                    }
                 }
             }, getExecutor());
         } catch (RejectedExecutionException e) {
@@ -333,6 +351,8 @@ public class Node implements Connection.Handler {
                 peersNetworkLoadSnapshot,
                 result.getConnectionMetrics(),
                 connectionThrottle,
+                transportService.getNioSelectorService().orElse(null),
+                seenMessageFilter,
                 this,
                 this::handleException);
     }
@@ -353,8 +373,16 @@ public class Node implements Connection.Handler {
 
     public CompletableFuture<Connection> sendAsync(EnvelopePayloadMessage envelopePayloadMessage,
                                                    Connection connection) {
+        return sendAsync(new EncodedEnvelopePayload(envelopePayloadMessage), connection);
+    }
+
+    /**
+     * Used for sending the same message to multiple connections, so that the message gets serialized only once.
+     */
+    public CompletableFuture<Connection> sendAsync(EncodedEnvelopePayload encodedEnvelopePayload,
+                                                   Connection connection) {
         try {
-            return connection.sendAsync(envelopePayloadMessage)
+            return connection.sendAsync(encodedEnvelopePayload)
                     .handle((con, exception) -> {
                         if (exception != null) {
                             if (connection.isRunning() && !(exception.getCause() instanceof SocketException)) {
@@ -509,12 +537,14 @@ public class Node implements Connection.Handler {
                     peersNetworkLoadSnapshot,
                     result.getConnectionMetrics(),
                     connectionThrottle,
+                    transportService.getNioSelectorService().orElse(null),
+                    seenMessageFilter,
                     this,
                     this::handleException);
             outboundConnectionsByAddress.put(address, connection);
 
             OutboundConnection finalConnection = connection;
-            listeners.forEach(listener -> NetworkExecutors.getNotifyExecutor().submit(() -> listener.onConnection(finalConnection)));
+            NetworkExecutors.notifyListeners(listeners, listener -> listener.onConnection(finalConnection));
             return connection;
         } catch (Exception exception) {
             log.error("Creating outbound connection failed", exception);
@@ -659,7 +689,9 @@ public class Node implements Connection.Handler {
         }
 
         // Even we get a CloseConnectionMessage we notify listeners as we want to track it for instance for metrics
-        listeners.forEach(listener -> NetworkExecutors.getNotifyExecutor().submit(() -> listener.onMessage(envelopePayloadMessage, connection, networkId)));
+        NetworkExecutors.notifyListenersOfMessage(listeners,
+                listener -> listener.onMessage(envelopePayloadMessage, connection, networkId),
+                connection.getListenerBacklog());
     }
 
     @Override
@@ -682,8 +714,9 @@ public class Node implements Connection.Handler {
                         connection, peerAddress);
             }
         }
+        authorizationService.onDisconnect(connection.getId());
         if (wasRemoved) {
-            listeners.forEach(listener -> NetworkExecutors.getNotifyExecutor().submit(() -> listener.onDisconnect(connection, closeReason)));
+            NetworkExecutors.notifyListeners(listeners, listener -> listener.onDisconnect(connection, closeReason));
         }
     }
 
@@ -730,7 +763,7 @@ public class Node implements Connection.Handler {
                     }
                     outboundConnectionsByAddress.clear();
                     inboundConnectionsByAddress.clear();
-                    listeners.forEach(listener -> NetworkExecutors.getNotifyExecutor().submit(() -> listener.onShutdown(this)));
+                    NetworkExecutors.notifyListeners(listeners, listener -> listener.onShutdown(this));
                     listeners.clear();
                     setState(State.TERMINATED);
 
@@ -853,7 +886,7 @@ public class Node implements Connection.Handler {
                 newState, state.get(), networkId);
         state.set(newState);
         observableState.set(newState);
-        listeners.forEach(listener -> NetworkExecutors.getNotifyExecutor().submit(() -> listener.onStateChange(newState)));
+        NetworkExecutors.notifyListeners(listeners, listener -> listener.onStateChange(newState));
     }
 
     private boolean isShutdown() {
@@ -919,13 +952,16 @@ public class Node implements Connection.Handler {
         }
     }
 
-    private ThreadPoolExecutor createExecutor() {
+    private ExecutorService createExecutor() {
+        if (ExecutorFactory.isUseVirtualThreads()) {
+            // Creating outbound connections and handshakes block on the socket. With virtual threads we do not need
+            // to limit the number of threads. Concurrent inbound handshakes are limited by inboundHandshakePermits.
+            return ExecutorFactory.newVirtualThreadPerTaskExecutor("Node-" + printAddresses());
+        }
         int queueCapacity = 100;
         MaxSizeAwareQueue queue = new MaxSizeAwareQueue(queueCapacity);
-        // We use maxNumConnectedPeers (default 12) for the max pool size and add some extra tolerance as at startup we
-        // create many connections in parallel.
         // After startup, it is expected that pool shrinks to 1-3 threads
-        int maximumPoolSize = config.getMaxNumConnectedPeers() + 4;
+        int maximumPoolSize = getMaxPoolSize();
         String name = "Node-" + printAddresses();
         ThreadPoolExecutor executor = new ThreadPoolExecutor(
                 1,
@@ -939,7 +975,13 @@ public class Node implements Connection.Handler {
         return executor;
     }
 
-    private synchronized ThreadPoolExecutor getExecutor() {
+    private int getMaxPoolSize() {
+        // We use maxNumConnectedPeers (default 12) and add some extra tolerance as at startup we create many
+        // connections in parallel.
+        return config.getMaxNumConnectedPeers() + 4;
+    }
+
+    private synchronized ExecutorService getExecutor() {
         synchronized (executorLock) {
             if (executor == null) {
                 executor = createExecutor();
@@ -87,7 +87,7 @@ public class NodesById implements Node.Listener {
         Node node = new Node(networkId, isDefaultNode, nodeConfig, banList, keyBundleService, transportService, networkLoadSnapshot, authorizationService);
         map.put(networkId, node);
         node.addListener(this);
-        listeners.forEach(listener -> NetworkExecutors.getNotifyExecutor().submit(() -> listener.onNodeAdded(node)));
+        NetworkExecutors.notifyListeners(listeners, listener -> listener.onNodeAdded(node));
         return node;
     }
 
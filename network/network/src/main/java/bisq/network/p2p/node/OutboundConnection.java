@@ -21,9 +21,11 @@ import bisq.common.network.Address;
 import bisq.network.p2p.node.authorization.AuthorizationService;
 import bisq.network.p2p.node.network_load.ConnectionMetrics;
 import bisq.network.p2p.node.network_load.NetworkLoadSnapshot;
+import bisq.network.p2p.node.nio.NioSelectorService;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
 import java.net.Socket;
 import java.util.function.BiConsumer;
 
@@ -41,6 +43,8 @@ public class OutboundConnection extends Connection {
                        NetworkLoadSnapshot peersNetworkLoadSnapshot,
                        ConnectionMetrics connectionMetrics,
                        ConnectionThrottle connectionThrottle,
+                       @Nullable NioSelectorService nioSelectorService,
+                       SeenMessageFilter seenMessageFilter,
                        Handler handler,
                        BiConsumer<Connection, Exception> errorHandler) {
         super(authorizationService,
@@ -50,6 +54,8 @@ public class OutboundConnection extends Connection {
                 peersNetworkLoadSnapshot,
                 connectionMetrics,
                 connectionThrottle,
+                nioSelectorService,
+                seenMessageFilter,
                 handler,
                 errorHandler);
 
@@ -0,0 +1,133 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.node;
+
+import bisq.network.p2p.node.authorization.ReplayWindow;
+
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Processes the frames received on a connection in two stages.
+ * <p>
+ * Frames get decoded and authorized one after another in the order they were received, as the {@link ReplayWindow}
+ * rejects message counters which are more than {@link ReplayWindow#WINDOW_SIZE} below the highest received one.
+ * Only the handling of authorized messages is then scheduled by priority with the {@link MessageScheduler}, so a
+ * bulk message which gets passed by many control messages is not rejected as a replay.
+ */
+class ReceivePipeline<M> {
+    interface Handler<M> {
+        /**
+         * Decodes and authorizes the frame.
+         *
+         * @return The message, or empty if the frame gets dropped
+         */
+        Optional<M> authorize(byte[] frame) throws Exception;
+
+        MessagePriority getPriority(M message);
+
+        void handle(M message) throws Exception;
+
+        /**
+         * Gets called once for each received frame after it got handled or dropped.
+         */
+        void onFrameProcessed();
+
+        void onException(Exception exception);
+    }
+
+    private final Executor authorizationExecutor;
+    private final MessageScheduler scheduler;
+    private final Handler<M> handler;
+    private final Queue<byte[]> pendingFrames = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean authorizing = new AtomicBoolean();
+
+    /**
+     * @param authorizationExecutor Runs the authorization of the frames. Can be a direct executor if the frames are
+     *                              received by a single thread which may do the work.
+     */
+    ReceivePipeline(Executor authorizationExecutor, MessageScheduler scheduler, Handler<M> handler) {
+        this.authorizationExecutor = authorizationExecutor;
+        this.scheduler = scheduler;
+        this.handler = handler;
+    }
+
+    /**
+     * Must be called in the order the frames were received.
+     */
+    void onFrameReceived(byte[] frame) {
+        pendingFrames.add(frame);
+        if (authorizing.compareAndSet(false, true)) {
+            try {
+                authorizationExecutor.execute(this::authorizePendingFrames);
+            } catch (RejectedExecutionException exception) {
+                authorizing.set(false);
+                handler.onException(exception);
+            }
+        }
+    }
+
+    private void authorizePendingFrames() {
+        while (true) {
+            byte[] frame;
+            while ((frame = pendingFrames.poll()) != null) {
+                authorizeAndSchedule(frame);
+            }
+            authorizing.set(false);
+            // A frame might have been added after we polled the last one but before we reset the flag
+            if (pendingFrames.isEmpty() || !authorizing.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private void authorizeAndSchedule(byte[] frame) {
+        Optional<M> message;
+        try {
+            message = handler.authorize(frame);
+        } catch (Exception exception) {
+            handler.onFrameProcessed();
+            handler.onException(exception);
+            return;
+        }
+        if (message.isEmpty()) {
+            handler.onFrameProcessed();
+            return;
+        }
+
+        M authorizedMessage = message.get();
+        boolean accepted = scheduler.submit(handler.getPriority(authorizedMessage), () -> {
+            try {
+                handler.handle(authorizedMessage);
+            } catch (Exception exception) {
+                handler.onException(exception);
+            } finally {
+                handler.onFrameProcessed();
+            }
+        }, handler::onFrameProcessed);
+        if (!accepted) {
+            // The queue does not get full as the connection limits the number of pending frames below the queue size,
+            // thus the scheduler got stopped.
+            handler.onFrameProcessed();
+            handler.onException(new ConnectionException("Receive queue is full or got closed"));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.node;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnel;
+import com.google.protobuf.ByteString;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+/**
+ * Detects data requests which we have already received, e.g. by the re-broadcast of other peers. Those get dropped
+ * right after reading, before they get deserialized, their proof of work gets verified and the storage rejects them
+ * as already received.
+ * <p>
+ * We add the serialized payload message to a Bloom filter, so the same message is detected independent of the
+ * envelope it was sent with. Compressed payload messages get added decompressed, so peers with and without support
+ * for compression re-broadcast the same entry. Only messages which passed the authorization get added, thus a peer cannot fill the
+ * filter without doing the proof of work. The filter gets rotated once it reached the expected number of insertions
+ * or its max age, and we keep the previous one. So the false positive rate stays below {@link #FPP} for each filter
+ * and entries get forgotten after 1-2 rotations.
+ * <p>
+ * A false positive drops a new data request. At the chosen rate that happens about once in 500 000 requests, and the
+ * data will still be received at the next inventory request.
+ */
+@Slf4j
+public class SeenMessageFilter {
+    static final int EXPECTED_INSERTIONS = 100_000;
+    static final double FPP = 0.000_001;
+    static final long MAX_AGE = MINUTES.toMillis(30);
+
+    private static final Funnel<ByteString> FUNNEL = (byteString, into) -> into.putBytes(byteString.asReadOnlyByteBuffer());
+
+    private final int expectedInsertions;
+    private final long maxAge;
+    private final Object lock = new Object();
+    private volatile BloomFilter<ByteString> current;
+    private volatile BloomFilter<ByteString> previous;
+    private int numInsertions;
+    private long created;
+
+    // Work saved by dropping already received messages
+    private final AtomicLong numSkippedMessages = new AtomicLong();
+    private final AtomicLong numSkippedBytes = new AtomicLong();
+
+    public SeenMessageFilter() {
+        this(EXPECTED_INSERTIONS, MAX_AGE);
+    }
+
+    SeenMessageFilter(int expectedInsertions, long maxAge) {
+        this.expectedInsertions = expectedInsertions;
+        this.maxAge = maxAge;
+        current = createBloomFilter();
+        previous = createBloomFilter();
+        created = System.currentTimeMillis();
+    }
+
+    /**
+     * @param frame A serialized NetworkEnvelope
+     * @return The serialized payload message if the envelope contains a data request, decompressed if it was
+     * compressed.
+     */
+    public static Optional<ByteString> findDataRequest(byte[] frame) {
+        return EnvelopeFrame.findNetworkMessage(frame).filter(SeenMessageFilter::isDataRequest);
+    }
+
+    /**
+     * @param networkMessage A serialized payload message
+     */
+    public static boolean isDataRequest(ByteString networkMessage) {
+        return EnvelopeFrame.getMessageCase(networkMessage) ==
+                bisq.network.protobuf.EnvelopePayloadMessage.MessageCase.DATAREQUEST;
+    }
+
+    public boolean mightContain(ByteString dataRequest) {
+        return current.mightContain(dataRequest) || previous.mightContain(dataRequest);
+    }
+
+    public void add(ByteString dataRequest) {
+        synchronized (lock) {
+            if (numInsertions >= expectedInsertions || System.currentTimeMillis() - created > maxAge) {
+                previous = current;
+                current = createBloomFilter();
+                numInsertions = 0;
+                created = System.currentTimeMillis();
+            }
+            if (current.put(dataRequest)) {
+                numInsertions++;
+            }
+        }
+    }
+
+    public void onSkipped(int serializedSize) {
+        numSkippedMessages.incrementAndGet();
+        numSkippedBytes.addAndGet(serializedSize);
+    }
+
+    public long getNumSkippedMessages() {
+        return numSkippedMessages.get();
+    }
+
+    public long getNumSkippedBytes() {
+        return numSkippedBytes.get();
+    }
+
+    private BloomFilter<ByteString> createBloomFilter() {
+        return BloomFilter.create(FUNNEL, expectedInsertions, FPP);
+    }
+}
@@ -17,6 +17,7 @@
 
 package bisq.network.p2p.node.authorization;
 
+import bisq.network.p2p.message.EncodedEnvelopePayload;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.node.Feature;
 import bisq.network.p2p.node.authorization.token.equi_hash.EquiHashTokenService;
@@ -91,6 +92,18 @@ public class AuthorizationService {
                 messageCounter);
     }
 
+    public AuthorizationToken createToken(EncodedEnvelopePayload encodedEnvelopePayload,
+                                          NetworkLoad networkLoad,
+                                          String peerAddress,
+                                          int messageCounter,
+                                          Collection<Feature> peersFeatures) {
+        AuthorizationTokenType preferredAuthorizationTokenType = selectAuthorizationTokenType(peersFeatures);
+        return supportedServices.get(preferredAuthorizationTokenType).createToken(encodedEnvelopePayload,
+                networkLoad,
+                peerAddress,
+                messageCounter);
+    }
+
     public boolean isAuthorized(EnvelopePayloadMessage message,
                                 AuthorizationToken authorizationToken,
                                 NetworkLoad currentNetworkLoad,
@@ -123,6 +136,10 @@ public class AuthorizationService {
                 myAddress);
     }
 
+    public void onDisconnect(String connectionId) {
+        supportedServices.values().forEach(service -> service.onDisconnect(connectionId));
+    }
+
     // Get first match with peers feature based on order of myPreferredFilterTypes
     private AuthorizationTokenType selectAuthorizationTokenType(Collection<Feature> peersFeatures) {
         return selectAuthorizationTokenType(myPreferredAuthorizationTokenTypes, peersFeatures);
@@ -1,5 +1,6 @@
 package bisq.network.p2p.node.authorization;
 
+import bisq.network.p2p.message.EncodedEnvelopePayload;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.node.network_load.NetworkLoad;
 import lombok.extern.slf4j.Slf4j;
@@ -14,10 +15,27 @@ public abstract class AuthorizationTokenService<T extends AuthorizationToken> {
                                   String peerAddress,
                                   int messageCounter);
 
+    /**
+     * Allows implementations to use the serialized forms of the message, which are shared by all receivers of a
+     * broadcast.
+     */
+    public T createToken(EncodedEnvelopePayload encodedEnvelopePayload,
+                         NetworkLoad networkLoad,
+                         String peerAddress,
+                         int messageCounter) {
+        return createToken(encodedEnvelopePayload.getEnvelopePayloadMessage(), networkLoad, peerAddress, messageCounter);
+    }
+
     public abstract boolean isAuthorized(EnvelopePayloadMessage message,
                                          AuthorizationToken authorizationToken,
                                          NetworkLoad currentNetworkLoad,
                                          Optional<NetworkLoad> previousNetworkLoad,
                                          String connectionId,
                                          String myAddress);
+
+    /**
+     * Releases the state kept for the given connection.
+     */
+    public void onDisconnect(String connectionId) {
+    }
 }
@@ -0,0 +1,74 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.authorization;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sliding window of the message counters received on a connection, used to detect the reuse of an authorization
+ * token (similar to the IPsec anti-replay window).
+ * <p>
+ * We keep the highest received counter and a bitmap for the {@link #WINDOW_SIZE} counters below it, packed into a
+ * single long so that updates are lock-free. Counters which are older than the window are rejected. As the sender
+ * creates the tokens in the order it sends the messages, counters arrive in increasing order and only get reordered
+ * within a few positions, if at all.
+ */
+public final class ReplayWindow {
+    public static final int WINDOW_SIZE = 32;
+
+    // Upper 32 bits: highest received counter. Lower 32 bits: bit i is set if counter (highest - i) was received.
+    // As the highest counter itself is always marked, a bitmap of 0 means that no counter was received yet.
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * @return True if the counter was not received before and is inside the window. The counter is then marked as
+     * received.
+     */
+    public boolean tryAccept(int counter) {
+        while (true) {
+            long current = state.get();
+            int highest = (int) (current >>> 32);
+            int bitmap = (int) current;
+            int newHighest;
+            int newBitmap;
+            if (bitmap == 0) {
+                newHighest = counter;
+                newBitmap = 1;
+            } else if (counter > highest) {
+                long shift = (long) counter - highest;
+                newHighest = counter;
+                newBitmap = shift >= WINDOW_SIZE ? 1 : (bitmap << shift) | 1;
+            } else {
+                long offset = (long) highest - counter;
+                if (offset >= WINDOW_SIZE) {
+                    return false;
+                }
+                int mask = 1 << offset;
+                if ((bitmap & mask) != 0) {
+                    return false;
+                }
+                newHighest = highest;
+                newBitmap = bitmap | mask;
+            }
+            long next = ((long) newHighest << 32) | (newBitmap & 0xFFFFFFFFL);
+            if (state.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+}
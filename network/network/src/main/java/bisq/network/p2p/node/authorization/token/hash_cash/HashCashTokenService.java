@@ -5,9 +5,11 @@ import bisq.common.encoding.Hex;
 import bisq.common.util.ByteArrayUtils;
 import bisq.common.util.MathUtils;
 import bisq.common.util.StringUtils;
+import bisq.network.p2p.message.EncodedEnvelopePayload;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.node.authorization.AuthorizationToken;
 import bisq.network.p2p.node.authorization.AuthorizationTokenService;
+import bisq.network.p2p.node.authorization.ReplayWindow;
 import bisq.network.p2p.node.network_load.NetworkLoad;
 import bisq.security.DigestUtil;
 import bisq.security.pow.ProofOfWork;
@@ -20,6 +22,7 @@ import java.math.BigInteger;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Deprecated(since = "2.1.2")
@@ -33,7 +36,7 @@ public class HashCashTokenService extends AuthorizationTokenService<HashCashToke
 
     private final HashCashProofOfWorkService proofOfWorkService;
     // Keep track of message counter per connection to avoid reuse of pow
-    private final Map<String, Set<Integer>> receivedMessageCountersByConnectionId = new ConcurrentHashMap<>();
+    private final Map<String, ReplayWindow> replayWindowByConnectionId = new ConcurrentHashMap<>();
     @Getter
     private final Metrics metrics = new Metrics();
 
@@ -46,10 +49,29 @@ public class HashCashTokenService extends AuthorizationTokenService<HashCashToke
                                      NetworkLoad networkLoad,
                                      String peerAddress,
                                      int messageCounter) {
+        return createToken(message, getPayload(message), networkLoad, peerAddress, messageCounter);
+    }
+
+    @Override
+    public HashCashToken createToken(EncodedEnvelopePayload encodedEnvelopePayload,
+                                     NetworkLoad networkLoad,
+                                     String peerAddress,
+                                     int messageCounter) {
+        return createToken(encodedEnvelopePayload.getEnvelopePayloadMessage(),
+                encodedEnvelopePayload.getSerializedForHash(),
+                networkLoad,
+                peerAddress,
+                messageCounter);
+    }
+
+    private HashCashToken createToken(EnvelopePayloadMessage message,
+                                      byte[] payload,
+                                      NetworkLoad networkLoad,
+                                      String peerAddress,
+                                      int messageCounter) {
         long ts = System.currentTimeMillis();
         double difficulty = calculateDifficulty(message, networkLoad);
         byte[] challenge = getChallenge(peerAddress, messageCounter);
-        byte[] payload = getPayload(message);
         ProofOfWork proofOfWork = proofOfWorkService.mint(payload, challenge, difficulty);
         long duration = System.currentTimeMillis() - ts;
         metrics.update(duration, networkLoad.getLoad());
@@ -81,18 +103,13 @@ public class HashCashTokenService extends AuthorizationTokenService<HashCashToke
         int messageCounter = hashCashToken.getMessageCounter();
 
         // Verify that pow is not reused
-        Set<Integer> receivedMessageCounters;
-        if (receivedMessageCountersByConnectionId.containsKey(connectionId)) {
-            receivedMessageCounters = receivedMessageCountersByConnectionId.get(connectionId);
-            if (receivedMessageCounters.contains(messageCounter)) {
-                log.warn("Invalid receivedMessageCounters. We received the proofOfWork for that message already.");
-                return false;
-            }
-        } else {
-            receivedMessageCounters = new HashSet<>();
-            receivedMessageCountersByConnectionId.put(connectionId, receivedMessageCounters);
+        ReplayWindow replayWindow = replayWindowByConnectionId.computeIfAbsent(connectionId, key -> new ReplayWindow());
+        if (!replayWindow.tryAccept(messageCounter)) {
+            metrics.onReplayRejected();
+            log.warn("Invalid messageCounter {}. We received the proofOfWork for that message already or the " +
+                    "messageCounter is outside the replay window.", messageCounter);
+            return false;
         }
-        receivedMessageCounters.add(messageCounter);
 
         // Verify payload
         byte[] payload = getPayload(message);
@@ -133,6 +150,11 @@ public class HashCashTokenService extends AuthorizationTokenService<HashCashToke
         return proofOfWorkService.verify(proofOfWork);
     }
 
+    @Override
+    public void onDisconnect(String connectionId) {
+        replayWindowByConnectionId.remove(connectionId);
+    }
+
     // We check the difficulty used for the proof of work if it matches the current network load or if available the
     // previous network load. If the difference is inside a tolerance range we consider it still valid, but it should
     // be investigated why that happens, thus we log those cases.
@@ -245,6 +267,15 @@ public class HashCashTokenService extends AuthorizationTokenService<HashCashToke
         private long averagePowTimePerMessage;
         @Getter
         private double averageNetworkLoad;
+        private final AtomicLong numRejectedReplays = new AtomicLong();
+
+        public long getNumRejectedReplays() {
+            return numRejectedReplays.get();
+        }
+
+        void onReplayRejected() {
+            numRejectedReplays.incrementAndGet();
+        }
 
         void update(long duration, double networkLoad) {
             accumulatedPoWDuration += duration;
@@ -5,9 +5,11 @@ import bisq.common.encoding.Hex;
 import bisq.common.util.ByteArrayUtils;
 import bisq.common.util.MathUtils;
 import bisq.common.util.StringUtils;
+import bisq.network.p2p.message.EncodedEnvelopePayload;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.node.authorization.AuthorizationToken;
 import bisq.network.p2p.node.authorization.AuthorizationTokenService;
+import bisq.network.p2p.node.authorization.ReplayWindow;
 import bisq.network.p2p.node.network_load.NetworkLoad;
 import bisq.security.DigestUtil;
 import bisq.security.pow.ProofOfWork;
@@ -20,6 +22,7 @@ import java.math.BigInteger;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 public class HashCashV2TokenService extends AuthorizationTokenService<HashCashV2Token> {
@@ -32,7 +35,7 @@ public class HashCashV2TokenService extends AuthorizationTokenService<HashCashV2
 
     private final HashCashProofOfWorkService proofOfWorkService;
     // Keep track of message counter per connection to avoid reuse of pow
-    private final Map<String, Set<Integer>> receivedMessageCountersByConnectionId = new ConcurrentHashMap<>();
+    private final Map<String, ReplayWindow> replayWindowByConnectionId = new ConcurrentHashMap<>();
     @Getter
     private final Metrics metrics = new Metrics();
 
@@ -45,10 +48,29 @@ public class HashCashV2TokenService extends AuthorizationTokenService<HashCashV2
                                        NetworkLoad networkLoad,
                                        String peerAddress,
                                        int messageCounter) {
+        return createToken(message, getPayload(message), networkLoad, peerAddress, messageCounter);
+    }
+
+    @Override
+    public HashCashV2Token createToken(EncodedEnvelopePayload encodedEnvelopePayload,
+                                       NetworkLoad networkLoad,
+                                       String peerAddress,
+                                       int messageCounter) {
+        return createToken(encodedEnvelopePayload.getEnvelopePayloadMessage(),
+                getPayload(encodedEnvelopePayload.getSerializedForHash()),
+                networkLoad,
+                peerAddress,
+                messageCounter);
+    }
+
+    private HashCashV2Token createToken(EnvelopePayloadMessage message,
+                                        byte[] payload,
+                                        NetworkLoad networkLoad,
+                                        String peerAddress,
+                                        int messageCounter) {
         long ts = System.currentTimeMillis();
         double difficulty = calculateDifficulty(message, networkLoad);
         byte[] challenge = getChallenge(peerAddress, messageCounter);
-        byte[] payload = getPayload(message);
         ProofOfWork proofOfWork = proofOfWorkService.mint(payload, challenge, difficulty);
         long duration = System.currentTimeMillis() - ts;
         metrics.update(duration, networkLoad.getLoad());
@@ -79,18 +101,13 @@ public class HashCashV2TokenService extends AuthorizationTokenService<HashCashV2
         int messageCounter = hashCashV2Token.getMessageCounter();
 
         // Verify that pow is not reused
-        Set<Integer> receivedMessageCounters;
-        if (receivedMessageCountersByConnectionId.containsKey(connectionId)) {
-            receivedMessageCounters = receivedMessageCountersByConnectionId.get(connectionId);
-            if (receivedMessageCounters.contains(messageCounter)) {
-                log.warn("Invalid receivedMessageCounters. We received the proofOfWork for that message already.");
-                return false;
-            }
-        } else {
-            receivedMessageCounters = new HashSet<>();
-            receivedMessageCountersByConnectionId.put(connectionId, receivedMessageCounters);
+        ReplayWindow replayWindow = replayWindowByConnectionId.computeIfAbsent(connectionId, key -> new ReplayWindow());
+        if (!replayWindow.tryAccept(messageCounter)) {
+            metrics.onReplayRejected();
+            log.warn("Invalid messageCounter {}. We received the proofOfWork for that message already or the " +
+                    "messageCounter is outside the replay window.", messageCounter);
+            return false;
         }
-        receivedMessageCounters.add(messageCounter);
 
         // Verify payload
         byte[] payload = getPayload(message);
@@ -131,6 +148,11 @@ public class HashCashV2TokenService extends AuthorizationTokenService<HashCashV2
         return proofOfWorkService.verify(proofOfWork);
     }
 
+    @Override
+    public void onDisconnect(String connectionId) {
+        replayWindowByConnectionId.remove(connectionId);
+    }
+
     // We check the difficulty used for the proof of work if it matches the current network load or if available the
     // previous network load. If the difference is inside a tolerance range we consider it still valid, but it should
     // be investigated why that happens, thus we log those cases.
@@ -215,8 +237,12 @@ public class HashCashV2TokenService extends AuthorizationTokenService<HashCashV2
     }
 
     private byte[] getPayload(EnvelopePayloadMessage message) {
+        return getPayload(message.serializeForHash());
+    }
+
+    private byte[] getPayload(byte[] serializedForHash) {
         // In contrast to HashCashTokenService we use the hash of the message to reduce size of the pow object.
-        return DigestUtil.hash(message.serializeForHash());
+        return DigestUtil.hash(serializedForHash);
     }
 
     private byte[] getChallenge(String peerAddress, int messageCounter) {
@@ -244,6 +270,15 @@ public class HashCashV2TokenService extends AuthorizationTokenService<HashCashV2
         private long averagePowTimePerMessage;
         @Getter
         private double averageNetworkLoad;
+        private final AtomicLong numRejectedReplays = new AtomicLong();
+
+        public long getNumRejectedReplays() {
+            return numRejectedReplays.get();
+        }
+
+        void onReplayRejected() {
+            numRejectedReplays.incrementAndGet();
+        }
 
         void update(long duration, double networkLoad) {
             accumulatedPoWDuration += duration;
@@ -19,9 +19,13 @@ package bisq.network.p2p.node.envelope;
 
 import bisq.common.network.PeerSocket;
 import bisq.network.p2p.message.NetworkEnvelope;
+import bisq.network.p2p.node.nio.NioChannel;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.Closeable;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -43,10 +47,45 @@ public class NetworkEnvelopeSocket implements Closeable {
         outputStream.flush();
     }
 
+    /**
+     * Sends a NetworkEnvelope which was serialized in parts, with the same size delimited format as
+     * {@link #send(NetworkEnvelope)}.
+     */
+    public void send(byte[] header, byte[] body) throws IOException {
+        CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(outputStream,
+                CodedOutputStream.computeUInt32SizeNoTag(header.length + body.length));
+        codedOutputStream.writeUInt32NoTag(header.length + body.length);
+        codedOutputStream.flush();
+        outputStream.write(header);
+        outputStream.write(body);
+        outputStream.flush();
+    }
+
     public bisq.network.protobuf.NetworkEnvelope receiveNextEnvelope() throws IOException {
         return bisq.network.protobuf.NetworkEnvelope.parseDelimitedFrom(inputStream);
     }
 
+    /**
+     * Reads the next size delimited NetworkEnvelope without parsing it.
+     *
+     * @return The serialized NetworkEnvelope, or null if the input stream has reached EOF.
+     */
+    public byte[] receiveNextFrame() throws IOException {
+        int firstByte = inputStream.read();
+        if (firstByte == -1) {
+            return null;
+        }
+        int length = CodedInputStream.readRawVarint32(firstByte, inputStream);
+        if (length < 0 || length > NioChannel.MAX_FRAME_SIZE) {
+            throw new IOException("Message length " + length + " exceeds the limit of " + NioChannel.MAX_FRAME_SIZE + " bytes");
+        }
+        byte[] frame = inputStream.readNBytes(length);
+        if (frame.length < length) {
+            throw new EOFException("Input stream reached EOF before the message was complete");
+        }
+        return frame;
+    }
+
     @Override
     public void close() throws IOException {
         socket.close();
@@ -20,35 +20,139 @@ package bisq.network.p2p.node.network_load;
 import bisq.common.util.ClassUtils;
 import bisq.network.p2p.message.EnvelopePayloadMessage;
 import bisq.network.p2p.message.NetworkEnvelope;
+import bisq.network.p2p.node.MessagePriority;
 import bisq.network.p2p.services.data.storage.auth.AddAuthenticatedDataRequest;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.*;
+import java.util.Date;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Getter
 @ToString
 public class ConnectionMetrics {
+    @ToString
+    public static final class CompressionStats {
+        private final AtomicLong numMessages = new AtomicLong();
+        private final AtomicLong uncompressedBytes = new AtomicLong();
+        private final AtomicLong compressedBytes = new AtomicLong();
+
+        private void add(int uncompressedSize, int compressedSize) {
+            numMessages.incrementAndGet();
+            uncompressedBytes.addAndGet(uncompressedSize);
+            compressedBytes.addAndGet(compressedSize);
+        }
+
+        public long getNumMessages() {
+            return numMessages.get();
+        }
+
+        public long getUncompressedBytes() {
+            return uncompressedBytes.get();
+        }
+
+        public long getCompressedBytes() {
+            return compressedBytes.get();
+        }
+
+        /**
+         * @return Compressed size relative to the uncompressed size, e.g. 0.25 if compression saved 75%.
+         */
+        public double getCompressionRatio() {
+            long uncompressed = uncompressedBytes.get();
+            return uncompressed == 0 ? 1 : (double) compressedBytes.get() / uncompressed;
+        }
+    }
+
+    @ToString
+    public static final class QueueingDelayStats {
+        private final AtomicLong numMessages = new AtomicLong();
+        private final AtomicLong totalDelay = new AtomicLong();
+        private final AtomicLong maxDelay = new AtomicLong();
+
+        private void add(long delay) {
+            numMessages.incrementAndGet();
+            totalDelay.addAndGet(delay);
+            maxDelay.accumulateAndGet(delay, Math::max);
+        }
+
+        public long getNumMessages() {
+            return numMessages.get();
+        }
+
+        public double getAverageDelay() {
+            long num = numMessages.get();
+            return num == 0 ? 0 : (double) totalDelay.get() / num;
+        }
+
+        public long getMaxDelay() {
+            return maxDelay.get();
+        }
+    }
+
+    // Weight of a new RTT sample in the smoothed RTT, same as used for the TCP SRTT (RFC 6298).
+    private static final double RTT_ALPHA = 0.125;
+    private static final long NO_RTT = Double.doubleToLongBits(Double.NaN);
+
     private final long created;
     private final AtomicLong lastUpdate = new AtomicLong();
-    private final TreeMap<Integer, AtomicLong> numMessagesSentPerMinute = new TreeMap<>();
-    private final TreeMap<Integer, AtomicLong> sentBytesPerMinute = new TreeMap<>();
-    private final TreeMap<Integer, AtomicLong> spentSendMessageTimePerMinute = new TreeMap<>();
-    private final TreeMap<Integer, AtomicLong> deserializeTimePerMinute = new TreeMap<>();
-    private final TreeMap<Integer, AtomicLong> numMessagesReceivedPerMinute = new TreeMap<>();
-    private final TreeMap<Integer, AtomicLong> receivedBytesPerMinute = new TreeMap<>();
+
+    // Per-minute values of the last hour
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final PerMinuteRingBuffer numMessagesSentPerMinute = new PerMinuteRingBuffer();
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final PerMinuteRingBuffer sentBytesPerMinute = new PerMinuteRingBuffer();
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final PerMinuteRingBuffer spentSendMessageTimePerMinute = new PerMinuteRingBuffer();
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final PerMinuteRingBuffer deserializeTimePerMinute = new PerMinuteRingBuffer();
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final PerMinuteRingBuffer numMessagesReceivedPerMinute = new PerMinuteRingBuffer();
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final PerMinuteRingBuffer receivedBytesPerMinute = new PerMinuteRingBuffer();
+
+    // Totals since creation
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong numMessagesSent = new AtomicLong();
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong sentBytes = new AtomicLong();
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong spentSendMessageTime = new AtomicLong();
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong deserializeTime = new AtomicLong();
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong numMessagesReceived = new AtomicLong();
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong receivedBytes = new AtomicLong();
+    // Already received data requests which we dropped without processing
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong numSkippedDuplicates = new AtomicLong();
+
     private final Map<String, AtomicLong> numSentMessagesByClassName = new ConcurrentHashMap<>();
     private final Map<String, AtomicLong> numReceivedMessagesByClassName = new ConcurrentHashMap<>();
     private final Map<String, AtomicLong> numSentDistributedDataByClassName = new ConcurrentHashMap<>();
     private final Map<String, AtomicLong> numReceivedDistributedDataByClassName = new ConcurrentHashMap<>();
+    // Of messages sent with compressed envelopes
+    private final Map<String, CompressionStats> compressionStatsByClassName = new ConcurrentHashMap<>();
+    // Time messages have waited in the MessageScheduler of the connection
+    private final Map<MessagePriority, QueueingDelayStats> sendQueueingDelayByPriority = new ConcurrentHashMap<>();
+    private final Map<MessagePriority, QueueingDelayStats> receiveQueueingDelayByPriority = new ConcurrentHashMap<>();
 
-    private final AtomicLong numMessagesReceived = new AtomicLong();
-    private final List<Long> rrtList = new CopyOnWriteArrayList<>();
+    // Exponentially weighted moving average of the RTT, stored as double bits
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final AtomicLong smoothedRtt = new AtomicLong(NO_RTT);
 
     public ConnectionMetrics() {
         created = System.currentTimeMillis();
@@ -63,20 +167,23 @@ public class ConnectionMetrics {
     }
 
     public void onSent(NetworkEnvelope networkEnvelope, long spentTime) {
+        onSent(networkEnvelope.getEnvelopePayloadMessage(), networkEnvelope.getSerializedSize(), spentTime);
+    }
+
+    public void onSent(EnvelopePayloadMessage envelopePayloadMessage, int serializedSize, long spentTime) {
         long now = System.currentTimeMillis();
         lastUpdate.set(now);
 
         int ageInMinutes = getAgeInMinutes(now);
-        sentBytesPerMinute.computeIfAbsent(ageInMinutes, key -> new AtomicLong())
-                .addAndGet(networkEnvelope.getSerializedSize());
+        sentBytesPerMinute.add(ageInMinutes, serializedSize);
+        sentBytes.addAndGet(serializedSize);
 
-        numMessagesSentPerMinute.computeIfAbsent(ageInMinutes, key -> new AtomicLong())
-                .incrementAndGet();
+        numMessagesSentPerMinute.add(ageInMinutes, 1);
+        numMessagesSent.incrementAndGet();
 
-        spentSendMessageTimePerMinute.computeIfAbsent(ageInMinutes, key -> new AtomicLong())
-                .addAndGet(spentTime);
+        spentSendMessageTimePerMinute.add(ageInMinutes, spentTime);
+        spentSendMessageTime.addAndGet(spentTime);
 
-        EnvelopePayloadMessage envelopePayloadMessage = networkEnvelope.getEnvelopePayloadMessage();
         String name = ClassUtils.getClassName(envelopePayloadMessage.getClass());
         numSentMessagesByClassName.computeIfAbsent(name, key -> new AtomicLong())
                 .incrementAndGet();
@@ -88,19 +195,33 @@ public class ConnectionMetrics {
         }
     }
 
+    public void onCompressed(EnvelopePayloadMessage envelopePayloadMessage, int uncompressedSize, int compressedSize) {
+        String name = ClassUtils.getClassName(envelopePayloadMessage.getClass());
+        compressionStatsByClassName.computeIfAbsent(name, key -> new CompressionStats())
+                .add(uncompressedSize, compressedSize);
+    }
+
     public void onReceived(NetworkEnvelope networkEnvelope, long deserializeTime) {
+        onReceived(networkEnvelope, networkEnvelope.getSerializedSize(), deserializeTime);
+    }
+
+    /**
+     * @param serializedSize The size as received, which is smaller than the size of the NetworkEnvelope if it was
+     *                       compressed.
+     */
+    public void onReceived(NetworkEnvelope networkEnvelope, int serializedSize, long deserializeTime) {
         long now = System.currentTimeMillis();
         lastUpdate.set(now);
 
         int ageInMinutes = getAgeInMinutes(now);
-        receivedBytesPerMinute.computeIfAbsent(ageInMinutes, key -> new AtomicLong())
-                .addAndGet(networkEnvelope.getSerializedSize());
+        receivedBytesPerMinute.add(ageInMinutes, serializedSize);
+        receivedBytes.addAndGet(serializedSize);
 
-        numMessagesReceivedPerMinute.computeIfAbsent(ageInMinutes, key -> new AtomicLong())
-                .incrementAndGet();
+        numMessagesReceivedPerMinute.add(ageInMinutes, 1);
+        numMessagesReceived.incrementAndGet();
 
-        deserializeTimePerMinute.computeIfAbsent(ageInMinutes, key -> new AtomicLong())
-                .addAndGet(deserializeTime);
+        deserializeTimePerMinute.add(ageInMinutes, deserializeTime);
+        this.deserializeTime.addAndGet(deserializeTime);
 
         EnvelopePayloadMessage envelopePayloadMessage = networkEnvelope.getEnvelopePayloadMessage();
         String name = ClassUtils.getClassName(envelopePayloadMessage.getClass());
@@ -114,38 +235,71 @@ public class ConnectionMetrics {
         }
     }
 
+    public void onSkippedDuplicate(int serializedSize) {
+        long now = System.currentTimeMillis();
+        lastUpdate.set(now);
+
+        int ageInMinutes = getAgeInMinutes(now);
+        receivedBytesPerMinute.add(ageInMinutes, serializedSize);
+        receivedBytes.addAndGet(serializedSize);
+
+        numMessagesReceivedPerMinute.add(ageInMinutes, 1);
+        numMessagesReceived.incrementAndGet();
+
+        numSkippedDuplicates.incrementAndGet();
+    }
+
+    public void onSendQueueingDelay(MessagePriority priority, long delay) {
+        sendQueueingDelayByPriority.computeIfAbsent(priority, key -> new QueueingDelayStats()).add(delay);
+    }
+
+    public void onReceiveQueueingDelay(MessagePriority priority, long delay) {
+        receiveQueueingDelayByPriority.computeIfAbsent(priority, key -> new QueueingDelayStats()).add(delay);
+    }
+
     public void addRtt(long value) {
-        this.rrtList.add(value);
+        smoothedRtt.getAndUpdate(bits -> {
+            double previous = Double.longBitsToDouble(bits);
+            double updated = Double.isNaN(previous) ? value : previous + RTT_ALPHA * (value - previous);
+            return Double.doubleToLongBits(updated);
+        });
     }
 
+    /**
+     * @return The smoothed RTT, weighting recent samples higher. 0 if no RTT has been added yet.
+     */
     public double getAverageRtt() {
-        return rrtList.stream().mapToLong(e -> e).average().orElse(0d);
+        double value = Double.longBitsToDouble(smoothedRtt.get());
+        return Double.isNaN(value) ? 0d : value;
     }
 
     public long getSentBytes() {
-        return sumOf(sentBytesPerMinute);
+        return sentBytes.get();
     }
 
     public long getNumMessagesSent() {
-        return sumOf(numMessagesSentPerMinute);
+        return numMessagesSent.get();
     }
 
     public long getSpentSendMessageTimePerMinute() {
-        return sumOf(spentSendMessageTimePerMinute);
+        return spentSendMessageTime.get();
     }
 
     public long getReceivedBytes() {
-        return sumOf(receivedBytesPerMinute);
+        return receivedBytes.get();
     }
 
     public long getNumMessagesReceived() {
-        return sumOf(numMessagesReceivedPerMinute);
+        return numMessagesReceived.get();
     }
 
-    public long getDeserializeTimePerMinute() {
-        return sumOf(deserializeTimePerMinute);
+    public long getNumSkippedDuplicates() {
+        return numSkippedDuplicates.get();
     }
 
+    public long getDeserializeTimePerMinute() {
+        return deserializeTime.get();
+    }
 
     public long getNumMessagesSentOfLast5Minutes() {
         return getNumMessagesSentOfLastMinutes(5);
@@ -197,27 +351,27 @@ public class ConnectionMetrics {
     }
 
     public long getNumMessagesSentOfLastMinutes(int lastMinutes) {
-        return sumOfLastMinute(numMessagesSentPerMinute, lastMinutes);
+        return sumOfLastMinutes(numMessagesSentPerMinute, lastMinutes);
     }
 
     public long getSentBytesOfLastMinutes(int lastMinutes) {
-        return sumOfLastMinute(sentBytesPerMinute, lastMinutes);
+        return sumOfLastMinutes(sentBytesPerMinute, lastMinutes);
     }
 
     public long getSpentSendMessageTimeOfLastMinutes(int lastMinutes) {
-        return sumOfLastMinute(spentSendMessageTimePerMinute, lastMinutes);
+        return sumOfLastMinutes(spentSendMessageTimePerMinute, lastMinutes);
     }
 
     public long getNumMessagesReceivedOfLastMinutes(int lastMinutes) {
-        return sumOfLastMinute(numMessagesReceivedPerMinute, lastMinutes);
+        return sumOfLastMinutes(numMessagesReceivedPerMinute, lastMinutes);
     }
 
     public long getReceivedBytesOfLastMinutes(int lastMinutes) {
-        return sumOfLastMinute(receivedBytesPerMinute, lastMinutes);
+        return sumOfLastMinutes(receivedBytesPerMinute, lastMinutes);
     }
 
     public long getDeserializeTimeOfLastMinutes(int lastMinutes) {
-        return sumOfLastMinute(deserializeTimePerMinute, lastMinutes);
+        return sumOfLastMinutes(deserializeTimePerMinute, lastMinutes);
     }
 
     public void clear() {
@@ -227,25 +381,28 @@ public class ConnectionMetrics {
         deserializeTimePerMinute.clear();
         numMessagesReceivedPerMinute.clear();
         receivedBytesPerMinute.clear();
+        numMessagesSent.set(0);
+        sentBytes.set(0);
+        spentSendMessageTime.set(0);
+        deserializeTime.set(0);
+        numMessagesReceived.set(0);
+        receivedBytes.set(0);
+        numSkippedDuplicates.set(0);
         numSentMessagesByClassName.clear();
         numReceivedMessagesByClassName.clear();
         numSentDistributedDataByClassName.clear();
         numReceivedDistributedDataByClassName.clear();
-        rrtList.clear();
-    }
-
-    private long sumOf(TreeMap<Integer, AtomicLong> treeMap) {
-        return treeMap.values().stream().mapToLong(AtomicLong::get).sum();
+        compressionStatsByClassName.clear();
+        sendQueueingDelayByPriority.clear();
+        receiveQueueingDelayByPriority.clear();
+        smoothedRtt.set(NO_RTT);
     }
 
-    private long sumOfLastMinute(TreeMap<Integer, AtomicLong> treeMap, int lastMinutes) {
-        // The Treemap returns the values in ascending order of the corresponding keys.
-        int from = Math.max(0, treeMap.size() - lastMinutes);
-        List<AtomicLong> list = new ArrayList<>(treeMap.values()).subList(from, treeMap.size());
-        return list.stream().mapToLong(AtomicLong::get).sum();
+    private long sumOfLastMinutes(PerMinuteRingBuffer perMinuteRingBuffer, int lastMinutes) {
+        return perMinuteRingBuffer.sumOfLastMinutes(getAgeInMinutes(System.currentTimeMillis()), lastMinutes);
     }
 
     private int getAgeInMinutes(long now) {
-        return (int) (now - created) / 60000;
+        return (int) ((now - created) / 60000);
     }
-}
\ No newline at end of file
+}
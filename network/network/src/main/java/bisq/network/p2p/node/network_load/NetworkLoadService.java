@@ -111,24 +111,23 @@ public class NetworkLoadService {
 
     private double calculateLoad(Set<ConnectionMetrics> allConnectionMetrics) {
         // For metrics of last 5 minutes we use metrics from the accumulated connections (closed of past 5 minutes).
-        sentBytesOfLast5Minutes = allConnectionMetrics.stream()
-                .mapToLong(ConnectionMetrics::getSentBytesOfLast5Minutes)
-                .sum();
-        spentSendMessageTimeOfLast5Minutes = allConnectionMetrics.stream()
-                .mapToLong(ConnectionMetrics::getSpentSendMessageTimeOfLast5Minutes)
-                .sum();
-        numMessagesSentOfLast5Minutes = allConnectionMetrics.stream()
-                .mapToLong(ConnectionMetrics::getNumMessagesSentOfLast5Minutes)
-                .sum();
-        receivedBytesOfLast5Minutes = allConnectionMetrics.stream()
-                .mapToLong(ConnectionMetrics::getReceivedBytesOfLast5Minutes)
-                .sum();
-        deserializeTimeOfLast5Minutes = allConnectionMetrics.stream()
-                .mapToLong(ConnectionMetrics::getDeserializeTimeOfLast5Minutes)
-                .sum();
-        numMessagesReceivedOfLast5Minutes = allConnectionMetrics.stream()
-                .mapToLong(ConnectionMetrics::getNumMessagesReceivedOfLast5Minutes)
-                .sum();
+        // Reading the per-minute ring buffers of the metrics does not allocate, so we sum up in a single pass.
+        long sentBytes = 0, spentSendMessageTime = 0, numMessagesSent = 0,
+                receivedBytes = 0, deserializeTime = 0, numMessagesReceived = 0;
+        for (ConnectionMetrics connectionMetrics : allConnectionMetrics) {
+            sentBytes += connectionMetrics.getSentBytesOfLast5Minutes();
+            spentSendMessageTime += connectionMetrics.getSpentSendMessageTimeOfLast5Minutes();
+            numMessagesSent += connectionMetrics.getNumMessagesSentOfLast5Minutes();
+            receivedBytes += connectionMetrics.getReceivedBytesOfLast5Minutes();
+            deserializeTime += connectionMetrics.getDeserializeTimeOfLast5Minutes();
+            numMessagesReceived += connectionMetrics.getNumMessagesReceivedOfLast5Minutes();
+        }
+        sentBytesOfLast5Minutes = sentBytes;
+        spentSendMessageTimeOfLast5Minutes = spentSendMessageTime;
+        numMessagesSentOfLast5Minutes = numMessagesSent;
+        receivedBytesOfLast5Minutes = receivedBytes;
+        deserializeTimeOfLast5Minutes = deserializeTime;
+        numMessagesReceivedOfLast5Minutes = numMessagesReceived;
 
         numSentMessagesByClassName = new TreeMap<>();
         allConnectionMetrics.stream()
@@ -0,0 +1,84 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.network_load;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free ring buffer of per-minute counters covering the last {@link #NUM_SLOTS} minutes.
+ * Each slot packs the minute it belongs to into the upper bits and the accumulated value into the lower bits,
+ * so that a slot gets reset and updated in a single CAS once the ring wraps around. Reading the sum of the last
+ * minutes is O(slots) and does not allocate.
+ */
+final class PerMinuteRingBuffer {
+    static final int NUM_SLOTS = 60;
+    // 24 bits for the minute cover about 31 years, 40 bits for the value about 1 TB per minute.
+    private static final int VALUE_BITS = 40;
+    private static final long VALUE_MASK = (1L << VALUE_BITS) - 1;
+    private static final long MAX_MINUTE = (1L << (Long.SIZE - VALUE_BITS)) - 1;
+
+    private final AtomicLongArray slots = new AtomicLongArray(NUM_SLOTS);
+
+    PerMinuteRingBuffer() {
+        clear();
+    }
+
+    void add(int minute, long value) {
+        if (minute < 0 || minute >= MAX_MINUTE) {
+            return;
+        }
+        int index = minute % NUM_SLOTS;
+        while (true) {
+            long current = slots.get(index);
+            long slotMinute = current >>> VALUE_BITS;
+            if (slotMinute != MAX_MINUTE && slotMinute > minute) {
+                // Slot was already taken by a more recent minute, so our value is outside the window.
+                return;
+            }
+            long previousValue = slotMinute == minute ? current & VALUE_MASK : 0;
+            long updated = ((long) minute << VALUE_BITS) | Math.min(VALUE_MASK, previousValue + value);
+            if (slots.compareAndSet(index, current, updated)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param currentMinute The minute we are in
+     * @param lastMinutes   Number of minutes including the current one. Values above {@link #NUM_SLOTS} are capped.
+     * @return The sum of the values of the requested minutes
+     */
+    long sumOfLastMinutes(int currentMinute, int lastMinutes) {
+        int numMinutes = Math.min(lastMinutes, NUM_SLOTS);
+        long sum = 0;
+        for (int minute = currentMinute; minute > currentMinute - numMinutes && minute >= 0; minute--) {
+            long slot = slots.get(minute % NUM_SLOTS);
+            if (slot >>> VALUE_BITS == minute) {
+                sum += slot & VALUE_MASK;
+            }
+        }
+        return sum;
+    }
+
+    void clear() {
+        // We mark empty slots with MAX_MINUTE as minute 0 is a valid minute.
+        for (int i = 0; i < NUM_SLOTS; i++) {
+            slots.set(i, MAX_MINUTE << VALUE_BITS);
+        }
+    }
+}
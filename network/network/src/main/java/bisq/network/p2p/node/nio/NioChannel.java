@@ -0,0 +1,353 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.nio;
+
+import bisq.network.p2p.node.envelope.parser.ProtoBufMessageLengthParser;
+import bisq.network.p2p.node.envelope.parser.nio.NioProtoBufInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.MessageLite;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Non-blocking socket channel carrying size delimited protobuf messages (frames), as written by
+ * {@link MessageLite#writeDelimitedTo}. Reads and the completion of pending writes are done by the
+ * {@link SelectorLoop} the channel is registered at. Frames are written directly from the sending thread as long as
+ * the socket accepts them, the remaining bytes are queued and written once the socket becomes writable again.
+ * If more than {@link #MAX_PENDING_WRITE_BYTES} are queued because the peer does not read fast enough, further frames
+ * get rejected. Like the send executor in blocking mode, we do not buffer without limits.
+ * <p>
+ * The listener gets called from the selector thread, so it must not block.
+ */
+@Slf4j
+public final class NioChannel {
+    public interface Listener {
+        void onFrameReceived(byte[] frame);
+
+        void onClosed(Exception exception);
+    }
+
+    // We do not expect messages larger than a few MB (inventory responses are limited to 2 MB by default).
+    public static final int MAX_FRAME_SIZE = 20 * 1024 * 1024;
+    public static final long MAX_PENDING_WRITE_BYTES = 16 * 1024 * 1024;
+    // A varint for an int value has max. 5 bytes
+    private static final int MAX_LENGTH_BYTES = 5;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final SocketChannel socketChannel;
+    private final SelectorLoop selectorLoop;
+    private final Listener listener;
+    private final long idleTimeout;
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private final ProtoBufMessageLengthParser messageLengthParser =
+            new ProtoBufMessageLengthParser(new NioProtoBufInputStream(readBuffer));
+    private final Deque<ByteBuffer> writeQueue = new ArrayDeque<>();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    @Getter
+    private volatile long pendingWriteBytes;
+    private volatile SelectionKey selectionKey;
+    private volatile boolean readSuspended;
+    private volatile long lastReadTs = System.currentTimeMillis();
+
+    // Only accessed from the selector thread
+    private int numLengthBytes;
+    private byte[] frame;
+    private int framePosition;
+
+    NioChannel(SocketChannel socketChannel, SelectorLoop selectorLoop, Listener listener, long idleTimeout) throws IOException {
+        this.socketChannel = socketChannel;
+        this.selectorLoop = selectorLoop;
+        this.listener = listener;
+        this.idleTimeout = idleTimeout;
+
+        socketChannel.configureBlocking(false);
+    }
+
+    public static ByteBuffer toFrame(MessageLite message) {
+        int size = message.getSerializedSize();
+        byte[] bytes = new byte[CodedOutputStream.computeUInt32SizeNoTag(size) + size];
+        CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(bytes);
+        try {
+            codedOutputStream.writeUInt32NoTag(size);
+            message.writeTo(codedOutputStream);
+            codedOutputStream.checkNoSpaceLeft();
+        } catch (IOException e) {
+            // Cannot happen when writing to a byte array of the computed size
+            throw new IllegalStateException(e);
+        }
+        return ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * Frame of a message which was already serialized in parts. The parts are not copied, so a part shared by
+     * several frames (e.g. the payload of a broadcast) is not duplicated in memory.
+     */
+    public static ByteBuffer[] toFrame(byte[] header, byte[] body) {
+        int size = header.length + body.length;
+        byte[] headerWithLength = new byte[CodedOutputStream.computeUInt32SizeNoTag(size) + header.length];
+        CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(headerWithLength);
+        try {
+            codedOutputStream.writeUInt32NoTag(size);
+            codedOutputStream.writeRawBytes(header);
+            codedOutputStream.checkNoSpaceLeft();
+        } catch (IOException e) {
+            // Cannot happen when writing to a byte array of the computed size
+            throw new IllegalStateException(e);
+        }
+        return new ByteBuffer[]{ByteBuffer.wrap(headerWithLength), ByteBuffer.wrap(body)};
+    }
+
+
+    /* --------------------------------------------------------------------- */
+    // API
+    /* --------------------------------------------------------------------- */
+
+    /**
+     * Registers the channel at the selector loop. Received frames get delivered to the listener from then on.
+     */
+    public void start() {
+        selectorLoop.execute(this::register);
+    }
+
+    /**
+     * Writes as much of the frame as the socket accepts and queues the rest. Can be called from any thread.
+     *
+     * @throws IOException If the channel is closed or more than {@link #MAX_PENDING_WRITE_BYTES} are queued already
+     */
+    public void send(ByteBuffer frame) throws IOException {
+        send(new ByteBuffer[]{frame});
+    }
+
+    public void send(ByteBuffer[] frame) throws IOException {
+        synchronized (writeQueue) {
+            if (closed.get()) {
+                throw new ClosedChannelException();
+            }
+            if (isWriteQueueFull()) {
+                throw new IOException("Pending data to write exceeds " + MAX_PENDING_WRITE_BYTES + " bytes");
+            }
+            if (writeQueue.isEmpty()) {
+                socketChannel.write(frame);
+            }
+            for (ByteBuffer buffer : frame) {
+                if (buffer.hasRemaining()) {
+                    writeQueue.add(buffer);
+                    pendingWriteBytes += buffer.remaining();
+                }
+            }
+            if (!writeQueue.isEmpty()) {
+                SelectionKey key = selectionKey;
+                if (key != null && key.isValid()) {
+                    key.interestOpsOr(SelectionKey.OP_WRITE);
+                    selectorLoop.wakeup();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops reading from the socket, so that the TCP flow control slows down the peer.
+     */
+    public void suspendReading() {
+        if (readSuspended) {
+            return;
+        }
+        readSuspended = true;
+        SelectionKey key = selectionKey;
+        if (key != null && key.isValid()) {
+            key.interestOpsAnd(~SelectionKey.OP_READ);
+        }
+    }
+
+    public void resumeReading() {
+        if (!readSuspended) {
+            return;
+        }
+        readSuspended = false;
+        lastReadTs = System.currentTimeMillis();
+        SelectionKey key = selectionKey;
+        if (key != null && key.isValid()) {
+            key.interestOpsOr(SelectionKey.OP_READ);
+            selectorLoop.wakeup();
+        }
+    }
+
+    /**
+     * @return True if more than {@link #MAX_PENDING_WRITE_BYTES} are queued, in which case frames get rejected
+     */
+    public boolean isWriteQueueFull() {
+        return pendingWriteBytes > MAX_PENDING_WRITE_BYTES;
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * Closes the channel without notifying the listener.
+     */
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            doClose();
+        }
+    }
+
+
+    /* --------------------------------------------------------------------- */
+    // Package scope API, called from the selector thread
+    /* --------------------------------------------------------------------- */
+
+    void onSelected(SelectionKey key) {
+        try {
+            if (key.isValid() && key.isReadable()) {
+                read();
+            }
+            if (key.isValid() && key.isWritable()) {
+                flush(key);
+            }
+        } catch (Exception exception) {
+            close(exception);
+        }
+    }
+
+    void closeIfIdle(long now) {
+        if (!readSuspended && now - lastReadTs > idleTimeout) {
+            close(new SocketTimeoutException("No data received for " + (now - lastReadTs) + " ms"));
+        }
+    }
+
+    void close(Exception exception) {
+        if (closed.compareAndSet(false, true)) {
+            doClose();
+            listener.onClosed(exception);
+        }
+    }
+
+
+    /* --------------------------------------------------------------------- */
+    // Private
+    /* --------------------------------------------------------------------- */
+
+    private void register() {
+        if (closed.get()) {
+            return;
+        }
+        try {
+            synchronized (writeQueue) {
+                int interestOps = readSuspended ? 0 : SelectionKey.OP_READ;
+                if (!writeQueue.isEmpty()) {
+                    interestOps |= SelectionKey.OP_WRITE;
+                }
+                selectionKey = socketChannel.register(selectorLoop.getSelector(), interestOps, this);
+            }
+        } catch (IOException exception) {
+            close(exception);
+        }
+    }
+
+    private void read() throws IOException {
+        int numRead = socketChannel.read(readBuffer);
+        if (numRead < 0) {
+            throw new EOFException("Input stream reached EOF");
+        }
+        lastReadTs = System.currentTimeMillis();
+        readBuffer.flip();
+        try {
+            while (readBuffer.hasRemaining()) {
+                if (frame == null) {
+                    parseFrameLength();
+                } else {
+                    int length = Math.min(readBuffer.remaining(), frame.length - framePosition);
+                    readBuffer.get(frame, framePosition, length);
+                    framePosition += length;
+                    if (framePosition == frame.length) {
+                        onFrameCompleted();
+                    }
+                }
+            }
+        } finally {
+            readBuffer.clear();
+        }
+    }
+
+    private void parseFrameLength() throws IOException {
+        long length = messageLengthParser.parseMessageLength();
+        if (length == ProtoBufMessageLengthParser.STILL_PARSING_MESSAGE_LENGTH) {
+            if (++numLengthBytes >= MAX_LENGTH_BYTES) {
+                throw new IOException("Invalid message length prefix");
+            }
+            return;
+        }
+        numLengthBytes = 0;
+        if (length < 0 || length > MAX_FRAME_SIZE) {
+            throw new IOException("Message length " + length + " exceeds the limit of " + MAX_FRAME_SIZE + " bytes");
+        }
+        frame = new byte[(int) length];
+        framePosition = 0;
+        if (length == 0) {
+            onFrameCompleted();
+        }
+    }
+
+    private void onFrameCompleted() {
+        byte[] completedFrame = frame;
+        frame = null;
+        framePosition = 0;
+        listener.onFrameReceived(completedFrame);
+    }
+
+    private void flush(SelectionKey key) throws IOException {
+        synchronized (writeQueue) {
+            while (!writeQueue.isEmpty()) {
+                ByteBuffer buffer = writeQueue.peek();
+                pendingWriteBytes -= socketChannel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    return;
+                }
+                writeQueue.poll();
+            }
+            key.interestOpsAnd(~SelectionKey.OP_WRITE);
+        }
+    }
+
+    private void doClose() {
+        SelectionKey key = selectionKey;
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            socketChannel.close();
+        } catch (IOException ignore) {
+        }
+        synchronized (writeQueue) {
+            writeQueue.clear();
+            pendingWriteBytes = 0;
+        }
+    }
+}
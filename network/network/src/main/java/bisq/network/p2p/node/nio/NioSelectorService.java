@@ -0,0 +1,76 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.nio;
+
+import bisq.common.threading.ExecutorFactory;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Shared infrastructure for connections using non-blocking socket channels: a few selector threads doing all the
+ * socket IO and a fixed thread pool for processing the received messages and for sending.
+ * Connections get assigned to the selector loops round-robin.
+ */
+@Slf4j
+public class NioSelectorService {
+    private final List<SelectorLoop> selectorLoops = new ArrayList<>();
+    private final AtomicInteger selectorLoopIndex = new AtomicInteger();
+    private final long idleTimeout;
+    @Getter
+    private final ExecutorService processingExecutor;
+
+    public NioSelectorService(int numSelectorThreads, int numProcessingThreads, long idleTimeout) {
+        checkArgument(numSelectorThreads > 0, "numSelectorThreads must be > 0");
+        checkArgument(numProcessingThreads > 0, "numProcessingThreads must be > 0");
+        this.idleTimeout = idleTimeout;
+        try {
+            for (int i = 0; i < numSelectorThreads; i++) {
+                selectorLoops.add(new SelectorLoop("NioSelectorService.selector-" + (i + 1)));
+            }
+        } catch (IOException e) {
+            selectorLoops.forEach(SelectorLoop::shutdown);
+            throw new RuntimeException("Could not open selector", e);
+        }
+        processingExecutor = ExecutorFactory.newFixedThreadPool("NioSelectorService.processing", numProcessingThreads);
+        log.info("Created NioSelectorService with {} selector threads and {} processing threads",
+                numSelectorThreads, numProcessingThreads);
+    }
+
+    /**
+     * Switches the socket channel to non-blocking mode and assigns it to one of the selector loops.
+     * The channel gets registered at the selector once {@link NioChannel#start()} is called.
+     */
+    public NioChannel createChannel(SocketChannel socketChannel, NioChannel.Listener listener) throws IOException {
+        int index = Math.floorMod(selectorLoopIndex.getAndIncrement(), selectorLoops.size());
+        return new NioChannel(socketChannel, selectorLoops.get(index), listener, idleTimeout);
+    }
+
+    public void shutdown() {
+        selectorLoops.forEach(SelectorLoop::shutdown);
+        ExecutorFactory.shutdownAndAwaitTermination(processingExecutor);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.nio;
+
+import bisq.common.threading.ExecutorFactory;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a selector on its own thread and dispatches the selected keys to the attached {@link NioChannel}.
+ * Tasks which need to run on the selector thread (e.g. registering a channel) are queued and executed after the
+ * selector got woken up.
+ */
+@Slf4j
+final class SelectorLoop {
+    private static final long SELECT_TIMEOUT = TimeUnit.SECONDS.toMillis(1);
+
+    @Getter(AccessLevel.PACKAGE)
+    private final Selector selector;
+    private final ExecutorService executor;
+    private final Queue<Runnable> pendingTasks = new ConcurrentLinkedQueue<>();
+    private volatile boolean stopped;
+    private long lastIdleCheckTs;
+
+    SelectorLoop(String name) throws IOException {
+        selector = Selector.open();
+        executor = ExecutorFactory.newSingleThreadExecutor(name);
+        executor.submit(this::run);
+    }
+
+    void execute(Runnable task) {
+        pendingTasks.add(task);
+        selector.wakeup();
+    }
+
+    void wakeup() {
+        selector.wakeup();
+    }
+
+    void shutdown() {
+        stopped = true;
+        selector.wakeup();
+        ExecutorFactory.shutdownAndAwaitTermination(executor);
+    }
+
+    private void run() {
+        try {
+            while (!stopped && !Thread.currentThread().isInterrupted()) {
+                try {
+                    selector.select(SELECT_TIMEOUT);
+                    runPendingTasks();
+
+                    Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+                    while (iterator.hasNext()) {
+                        SelectionKey key = iterator.next();
+                        iterator.remove();
+                        if (key.attachment() instanceof NioChannel nioChannel) {
+                            nioChannel.onSelected(key);
+                        }
+                    }
+
+                    closeIdleChannels();
+                } catch (ClosedSelectorException e) {
+                    return;
+                } catch (Exception e) {
+                    log.error("Exception at selector loop", e);
+                }
+            }
+        } finally {
+            closeAllChannels();
+        }
+    }
+
+    private void runPendingTasks() {
+        Runnable task;
+        while ((task = pendingTasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.error("Exception at running task on selector thread", e);
+            }
+        }
+    }
+
+    private void closeIdleChannels() {
+        long now = System.currentTimeMillis();
+        if (now - lastIdleCheckTs < SELECT_TIMEOUT) {
+            return;
+        }
+        lastIdleCheckTs = now;
+        for (SelectionKey key : selector.keys()) {
+            if (key.isValid() && key.attachment() instanceof NioChannel nioChannel) {
+                nioChannel.closeIfIdle(now);
+            }
+        }
+    }
+
+    private void closeAllChannels() {
+        try {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof NioChannel nioChannel) {
+                    nioChannel.close();
+                }
+            }
+            selector.close();
+        } catch (ClosedSelectorException | IOException ignore) {
+        }
+    }
+}
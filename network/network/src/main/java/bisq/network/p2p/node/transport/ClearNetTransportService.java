@@ -11,17 +11,22 @@ import bisq.common.network.clear_net_address_types.LANAddressTypeFacade;
 import bisq.common.network.clear_net_address_types.LocalHostAddressTypeFacade;
 import bisq.common.observable.Observable;
 import bisq.common.observable.map.ObservableHashMap;
+import bisq.common.platform.PlatformUtils;
 import bisq.network.identity.NetworkId;
+import bisq.network.p2p.node.nio.NioSelectorService;
+import bisq.network.p2p.node.transport.socket_channel.ClearNetSocketChannelFactory;
 import bisq.security.keys.KeyBundle;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
 import java.nio.file.Path;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
@@ -35,6 +40,15 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 @Slf4j
 public class ClearNetTransportService implements TransportService {
+    /**
+     * BLOCKING: Each connection uses its own threads for reading and sending.
+     * NIO: Connections use non-blocking socket channels served by a few shared selector threads.
+     */
+    public enum IoMode {
+        BLOCKING,
+        NIO
+    }
+
     @Getter
     @ToString
     @EqualsAndHashCode
@@ -46,7 +60,9 @@ public class ClearNetTransportService implements TransportService {
                     config.getInt("sendMessageThrottleTime"),
                     config.getInt("receiveMessageThrottleTime"),
                     config.getInt("connectTimeoutMs"),
-                    config.getEnum(ClearNetAddressType.class, "clearNetAddressType")
+                    config.getEnum(ClearNetAddressType.class, "clearNetAddressType"),
+                    config.hasPath("ioMode") ? config.getEnum(IoMode.class, "ioMode") : IoMode.BLOCKING,
+                    config.hasPath("numSelectorThreads") ? config.getInt("numSelectorThreads") : 2
             );
         }
 
@@ -57,6 +73,8 @@ public class ClearNetTransportService implements TransportService {
         private final int receiveMessageThrottleTime;
         private final int connectTimeoutMs;
         private final ClearNetAddressType clearNetAddressType;
+        private final IoMode ioMode;
+        private final int numSelectorThreads;
 
         public Config(Path dataDirPath,
                       int defaultNodePort,
@@ -64,7 +82,9 @@ public class ClearNetTransportService implements TransportService {
                       int sendMessageThrottleTime,
                       int receiveMessageThrottleTime,
                       int connectTimeoutMs,
-                      ClearNetAddressType clearNetAddressType) {
+                      ClearNetAddressType clearNetAddressType,
+                      IoMode ioMode,
+                      int numSelectorThreads) {
             this.dataDirPath = dataDirPath;
             this.defaultNodePort = defaultNodePort;
             this.socketTimeout = socketTimeout;
@@ -72,11 +92,18 @@ public class ClearNetTransportService implements TransportService {
             this.receiveMessageThrottleTime = receiveMessageThrottleTime;
             this.connectTimeoutMs = connectTimeoutMs;
             this.clearNetAddressType = clearNetAddressType;
+            this.ioMode = ioMode;
+            this.numSelectorThreads = numSelectorThreads;
         }
     }
 
     private final int socketTimeout;
     private final int connectTimeoutMs;
+    private final IoMode ioMode;
+    private final int numSelectorThreads;
+    private final ClearNetSocketChannelFactory socketChannelFactory = new ClearNetSocketChannelFactory();
+    @Nullable
+    private volatile NioSelectorService nioSelectorService;
     private boolean initializeCalled;
     @Getter
     public final Observable<TransportState> transportState = new Observable<>(TransportState.NEW);
@@ -90,6 +117,8 @@ public class ClearNetTransportService implements TransportService {
     public ClearNetTransportService(TransportConfig config) {
         socketTimeout = config.getSocketTimeout();
         connectTimeoutMs = ((Config) config).getConnectTimeoutMs();
+        ioMode = ((Config) config).getIoMode();
+        numSelectorThreads = ((Config) config).getNumSelectorThreads();
         setTransportState(TransportState.NEW);
 
         switch (((Config) config).getClearNetAddressType()) {
@@ -112,6 +141,11 @@ public class ClearNetTransportService implements TransportService {
         }
         setTransportState(TransportState.INITIALIZE);
         initializeCalled = true;
+        if (ioMode == IoMode.NIO) {
+            // Processing of received messages can block (e.g. at storage), so we use more threads than CPU cores.
+            int numProcessingThreads = Math.max(4, 2 * PlatformUtils.availableProcessors());
+            nioSelectorService = new NioSelectorService(numSelectorThreads, numProcessingThreads, socketTimeout);
+        }
         setTransportState(TransportState.INITIALIZED);
     }
 
@@ -122,6 +156,10 @@ public class ClearNetTransportService implements TransportService {
         }
         initializeCalled = false;
         setTransportState(TransportState.STOPPING);
+        if (nioSelectorService != null) {
+            nioSelectorService.shutdown();
+            nioSelectorService = null;
+        }
         initializeServerSocketTimestampByNetworkId.clear();
         initializedServerSocketTimestampByNetworkId.clear();
         timestampByTransportState.clear();
@@ -138,7 +176,15 @@ public class ClearNetTransportService implements TransportService {
         log.info("Create serverSocket at port {}", port);
 
         try {
-            ServerSocket serverSocket = new ServerSocket(port);
+            ServerSocket serverSocket;
+            if (ioMode == IoMode.NIO) {
+                // Accepted sockets are backed by a socket channel, which we use after the handshake
+                ServerSocketChannel serverSocketChannel = ServerSocketChannel.open();
+                serverSocket = serverSocketChannel.socket();
+                serverSocket.bind(new InetSocketAddress(port));
+            } else {
+                serverSocket = new ServerSocket(port);
+            }
             ClearnetAddress address = getClearNetAddressTypeFacade().toMyLocalAddress(port);
             log.debug("ServerSocket created at port {}", port);
             initializedServerSocketTimestampByNetworkId.put(networkId, System.currentTimeMillis());
@@ -154,7 +200,9 @@ public class ClearNetTransportService implements TransportService {
         if (address instanceof ClearnetAddress clearnetAddress) {
             clearnetAddress = getClearNetAddressTypeFacade().toPeersLocalAddress(clearnetAddress);
             log.debug("Create new Socket to {}", clearnetAddress);
-            Socket socket = new Socket();
+            Socket socket = ioMode == IoMode.NIO
+                    ? socketChannelFactory.getSocketChannelForAddress(clearnetAddress).socket()
+                    : new Socket();
             socket.setSoTimeout(socketTimeout);
             socket.connect(new InetSocketAddress(clearnetAddress.getHost(), clearnetAddress.getPort()), connectTimeoutMs);
             return socket;
@@ -163,6 +211,11 @@ public class ClearNetTransportService implements TransportService {
         }
     }
 
+    @Override
+    public Optional<NioSelectorService> getNioSelectorService() {
+        return Optional.ofNullable(nioSelectorService);
+    }
+
     @Override
     public CompletableFuture<Boolean> isPeerOnlineAsync(Address address, String nodeId) {
         if (address instanceof ClearnetAddress clearnetAddress) {
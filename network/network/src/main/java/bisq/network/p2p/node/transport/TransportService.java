@@ -23,6 +23,7 @@ import bisq.common.network.TransportType;
 import bisq.common.observable.Observable;
 import bisq.common.observable.map.ObservableHashMap;
 import bisq.network.identity.NetworkId;
+import bisq.network.p2p.node.nio.NioSelectorService;
 import bisq.security.keys.KeyBundle;
 import com.runjva.sourceforge.jsocks.protocol.Socks5Proxy;
 
@@ -62,6 +63,14 @@ public interface TransportService {
         return Optional.empty();
     }
 
+    /**
+     * If present, connections use non-blocking socket channels served by the shared selector threads instead of
+     * their own read and send threads. Requires that the sockets are backed by a socket channel.
+     */
+    default Optional<NioSelectorService> getNioSelectorService() {
+        return Optional.empty();
+    }
+
     CompletableFuture<Boolean> isPeerOnlineAsync(Address address, String nodeId);
 
     default void setTransportState(TransportState newTransportState) {
@@ -17,8 +17,8 @@
 
 package bisq.network.p2p.services.confidential;
 
+import bisq.common.data.ByteArray;
 import bisq.common.network.Address;
-import bisq.common.threading.ExecutorFactory;
 import bisq.common.util.CompletableFutureUtils;
 import bisq.network.NetworkExecutors;
 import bisq.network.identity.NetworkId;
@@ -47,20 +47,16 @@ import lombok.extern.slf4j.Slf4j;
 import java.security.GeneralSecurityException;
 import java.security.KeyPair;
 import java.security.PublicKey;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
-import static java.util.concurrent.CompletableFuture.supplyAsync;
-
 @Slf4j
 public class ConfidentialMessageService implements Node.Listener, DataService.Listener {
-    private static final ExecutorService EXECUTOR = ExecutorFactory.newSingleThreadExecutor("ConfidentialMessageService");
-
     public interface Listener {
         void onMessage(EnvelopePayloadMessage envelopePayloadMessage);
 
@@ -74,7 +70,10 @@ public class ConfidentialMessageService implements Node.Listener, DataService.Li
     private final Optional<MessageDeliveryStatusService> messageDeliveryStatusService;
     private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
     @Getter
-    private final Set<EnvelopePayloadMessage> processedEnvelopePayloadMessages = new CopyOnWriteArraySet<>();
+    private final ProcessedMessageCache processedMessageCache = new ProcessedMessageCache();
+    // Decryption is expensive, thus we decrypt in parallel but deliver the messages of a sender in the order we
+    // have received them.
+    private final DecryptionPipeline decryptionPipeline = new DecryptionPipeline("ConfidentialMessageService");
     private volatile boolean isShutdownInProgress;
 
     public ConfidentialMessageService(NodesById nodesById,
@@ -95,13 +94,13 @@ public class ConfidentialMessageService implements Node.Listener, DataService.Li
             return;
         }
 
-        ExecutorFactory.shutdownAndAwaitTermination(EXECUTOR, 100);
+        decryptionPipeline.shutdown();
 
         isShutdownInProgress = true;
         nodesById.removeNodeListener(this);
         dataService.ifPresent(service -> service.removeListener(this));
         listeners.clear();
-        processedEnvelopePayloadMessages.clear();
+        processedMessageCache.clear();
     }
 
 
@@ -369,6 +368,13 @@ public class ConfidentialMessageService implements Node.Listener, DataService.Li
         }
     }
 
+    /**
+     * @return The recently processed messages, so that services registering as listener later can process them
+     */
+    public List<EnvelopePayloadMessage> getProcessedEnvelopePayloadMessages() {
+        return processedMessageCache.getMessages();
+    }
+
     public void addListener(Listener listener) {
         listeners.add(listener);
     }
@@ -480,34 +486,58 @@ public class ConfidentialMessageService implements Node.Listener, DataService.Li
 
     private CompletableFuture<Boolean> processConfidentialMessageAsync(ConfidentialMessage confidentialMessage) {
         return keyBundleService.findKeyPair(confidentialMessage.getReceiverKeyId())
-                .map(receiversKeyPair -> supplyAsync(() -> process(confidentialMessage, receiversKeyPair), EXECUTOR))
+                .map(receiversKeyPair -> decryptionPipeline.process(
+                        new ByteArray(confidentialMessage.getConfidentialData().getSenderPublicKey()),
+                        () -> decrypt(confidentialMessage, receiversKeyPair),
+                        this::deliver))
                 .orElse(CompletableFuture.completedFuture(false)); // We don't have a key for that receiverKeyId
     }
 
-    private Boolean process(ConfidentialMessage confidentialMessage, KeyPair receiversKeyPair) {
+    // Called in parallel from the threads of the decryption pipeline
+    private DecryptedMessage decrypt(ConfidentialMessage confidentialMessage, KeyPair receiversKeyPair) {
         try {
             log.info("Found a matching key for processing confidentialMessage. ReceiverKeyId={}", confidentialMessage.getReceiverKeyId());
             ConfidentialData confidentialData = confidentialMessage.getConfidentialData();
             byte[] decryptedBytes = HybridEncryption.decryptAndVerify(confidentialData, receiversKeyPair);
             bisq.network.protobuf.EnvelopePayloadMessage decryptedProto = bisq.network.protobuf.EnvelopePayloadMessage.parseFrom(decryptedBytes);
             EnvelopePayloadMessage decryptedEnvelopePayloadMessage = EnvelopePayloadMessage.fromProto(decryptedProto);
-
-            // For backward compatibility we send 2 versions of mailbox data, thus we will receive each
-            // mailbox data 2 times. We do not want that client code need to deal with duplications,
-            // thus we filter here out the duplicated message.
-            boolean wasNotPresent = processedEnvelopePayloadMessages.add(decryptedEnvelopePayloadMessage);
-            if (wasNotPresent) {
-                PublicKey senderPublicKey = KeyGeneration.generatePublic(confidentialData.getSenderPublicKey());
-                log.info("Decrypted confidentialMessage. decryptedEnvelopePayloadMessage={}", decryptedEnvelopePayloadMessage.getClass().getSimpleName());
-                listeners.forEach(listener -> {
-                    NetworkExecutors.getNotifyExecutor().submit(() -> listener.onMessage(decryptedEnvelopePayloadMessage));
-                    NetworkExecutors.getNotifyExecutor().submit(() -> listener.onConfidentialMessage(decryptedEnvelopePayloadMessage, senderPublicKey));
-                });
-            }
-            return true;
+            PublicKey senderPublicKey = KeyGeneration.generatePublic(confidentialData.getSenderPublicKey());
+            return new DecryptedMessage(decryptedBytes, decryptedEnvelopePayloadMessage, senderPublicKey);
         } catch (Exception e) {
             log.error("Error at decryption using receiversKeyId={}", confidentialMessage.getReceiverKeyId(), e);
             throw new RuntimeException(e);
         }
     }
+
+    // Called in the order the messages of a sender have been received
+    private Boolean deliver(DecryptedMessage decryptedMessage) {
+        EnvelopePayloadMessage envelopePayloadMessage = decryptedMessage.getEnvelopePayloadMessage();
+        // For backward compatibility we send 2 versions of mailbox data, thus we will receive each
+        // mailbox data 2 times. We do not want that client code need to deal with duplications,
+        // thus we filter here out the duplicated message.
+        boolean wasNotPresent = processedMessageCache.add(decryptedMessage.getDecryptedBytes(), envelopePayloadMessage);
+        if (wasNotPresent) {
+            PublicKey senderPublicKey = decryptedMessage.getSenderPublicKey();
+            log.info("Decrypted confidentialMessage. decryptedEnvelopePayloadMessage={}", envelopePayloadMessage.getClass().getSimpleName());
+            NetworkExecutors.notifyListenersOfMessage(listeners, listener -> listener.onMessage(envelopePayloadMessage));
+            NetworkExecutors.notifyListenersOfMessage(listeners,
+                    listener -> listener.onConfidentialMessage(envelopePayloadMessage, senderPublicKey));
+        }
+        return true;
+    }
+
+    @Getter
+    private static final class DecryptedMessage {
+        private final byte[] decryptedBytes;
+        private final EnvelopePayloadMessage envelopePayloadMessage;
+        private final PublicKey senderPublicKey;
+
+        private DecryptedMessage(byte[] decryptedBytes,
+                                 EnvelopePayloadMessage envelopePayloadMessage,
+                                 PublicKey senderPublicKey) {
+            this.decryptedBytes = decryptedBytes;
+            this.envelopePayloadMessage = envelopePayloadMessage;
+            this.senderPublicKey = senderPublicKey;
+        }
+    }
 }
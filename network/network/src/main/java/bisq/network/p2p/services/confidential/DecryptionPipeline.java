@@ -0,0 +1,97 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.confidential;
+
+import bisq.common.data.ByteArray;
+import bisq.common.platform.PlatformUtils;
+import bisq.common.threading.ExecutorFactory;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Decrypts confidential messages in parallel but delivers them per sender in the order they have been passed to
+ * {@link #process}. Messages of different senders are delivered independently of each other.
+ * <p>
+ * Decryption is bounded by the number of threads and the queue capacity. If all threads are busy and the queue is
+ * full, the caller decrypts the message itself, which throttles the producer (e.g. when we receive thousands of
+ * mailbox messages at startup).
+ */
+public class DecryptionPipeline {
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    private final ExecutorService executor;
+    // Last delivery of each sender. The entry is removed once the last delivery of that sender has completed.
+    private final Map<ByteArray, CompletableFuture<Boolean>> lastDeliveryBySender = new ConcurrentHashMap<>();
+
+    public DecryptionPipeline(String name) {
+        this(name, Math.max(1, PlatformUtils.availableProcessors() - 1), DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public DecryptionPipeline(String name, int numThreads, int queueCapacity) {
+        executor = ExecutorFactory.boundedCachedPool(name,
+                numThreads,
+                numThreads,
+                30,
+                queueCapacity,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public void shutdown() {
+        ExecutorFactory.shutdownAndAwaitTermination(executor, 100);
+        lastDeliveryBySender.clear();
+    }
+
+    /**
+     * @param senderKey  Identifies the sender. Deliveries with the same sender key are executed in order.
+     * @param decryption Decrypts the message. Executed in parallel to other decryptions.
+     * @param delivery   Gets called with the result of the decryption once all previous deliveries of that sender
+     *                   have completed. A failed previous delivery does not block later deliveries.
+     * @return The result of the delivery
+     */
+    public <T> CompletableFuture<Boolean> process(ByteArray senderKey,
+                                                  Supplier<T> decryption,
+                                                  Function<T, Boolean> delivery) {
+        CompletableFuture<T> decryptionFuture = CompletableFuture.supplyAsync(decryption, executor);
+
+        CompletableFuture<Boolean> deliveryFuture = new CompletableFuture<>();
+        CompletableFuture<Boolean> previousDelivery = lastDeliveryBySender.put(senderKey, deliveryFuture);
+        CompletableFuture<?> predecessor = previousDelivery == null
+                ? CompletableFuture.completedFuture(null)
+                : previousDelivery.handle((result, throwable) -> null);
+        predecessor.thenCombine(decryptionFuture, (nil, decrypted) -> delivery.apply(decrypted))
+                .whenComplete((result, throwable) -> {
+                    lastDeliveryBySender.remove(senderKey, deliveryFuture);
+                    if (throwable == null) {
+                        deliveryFuture.complete(result);
+                    } else {
+                        deliveryFuture.completeExceptionally(throwable);
+                    }
+                });
+        return deliveryFuture;
+    }
+
+    int getNumPendingSenders() {
+        return lastDeliveryBySender.size();
+    }
+}
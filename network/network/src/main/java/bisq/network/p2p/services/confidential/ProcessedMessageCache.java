@@ -0,0 +1,137 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.confidential;
+
+import bisq.common.data.ByteArray;
+import bisq.common.timer.Clock;
+import bisq.common.timer.SystemClock;
+import bisq.network.p2p.message.EnvelopePayloadMessage;
+import bisq.security.DigestUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded index of the decrypted confidential messages, used to filter out duplicates (e.g. the 2 versions of
+ * mailbox data we receive for backward compatibility) and to deliver the processed messages to services which
+ * register as listener after the messages have been received.
+ * <p>
+ * Messages are keyed by the hash of their decrypted bytes. Entries are kept in insertion order and get evicted once
+ * they are older than {@link #MAX_AGE} or the number of entries exceeds {@link #MAX_SIZE}.
+ */
+@Slf4j
+public class ProcessedMessageCache {
+    static final int MAX_SIZE = 10_000;
+    static final long MAX_AGE = TimeUnit.DAYS.toMillis(1);
+
+    private static final class Entry {
+        private final EnvelopePayloadMessage message;
+        private final long timestamp;
+
+        private Entry(EnvelopePayloadMessage message, long timestamp) {
+            this.message = message;
+            this.timestamp = timestamp;
+        }
+    }
+
+    private final Clock clock;
+    private final int maxSize;
+    private final long maxAge;
+    private final Map<ByteArray, Entry> entryByHash = new LinkedHashMap<>();
+    private long numHits;
+    private long numMisses;
+
+    public ProcessedMessageCache() {
+        this(new SystemClock(), MAX_SIZE, MAX_AGE);
+    }
+
+    ProcessedMessageCache(Clock clock, int maxSize, long maxAge) {
+        this.clock = clock;
+        this.maxSize = maxSize;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * @param decryptedBytes The decrypted bytes the message was parsed from
+     * @param message        The decrypted message
+     * @return True if the message was not already processed
+     */
+    public synchronized boolean add(byte[] decryptedBytes, EnvelopePayloadMessage message) {
+        long now = clock.now();
+        evict(now);
+        ByteArray hash = new ByteArray(DigestUtil.sha256(decryptedBytes));
+        if (entryByHash.containsKey(hash)) {
+            numHits++;
+            return false;
+        }
+        numMisses++;
+        entryByHash.put(hash, new Entry(message, now));
+        if (entryByHash.size() > maxSize) {
+            Iterator<Entry> iterator = entryByHash.values().iterator();
+            iterator.next();
+            iterator.remove();
+        }
+        return true;
+    }
+
+    /**
+     * @return The processed messages in the order they have been received
+     */
+    public synchronized List<EnvelopePayloadMessage> getMessages() {
+        evict(clock.now());
+        List<EnvelopePayloadMessage> messages = new ArrayList<>(entryByHash.size());
+        entryByHash.values().forEach(entry -> messages.add(entry.message));
+        return messages;
+    }
+
+    public synchronized int getSize() {
+        return entryByHash.size();
+    }
+
+    public synchronized long getNumHits() {
+        return numHits;
+    }
+
+    public synchronized long getNumMisses() {
+        return numMisses;
+    }
+
+    /**
+     * @return Share of added messages which were duplicates
+     */
+    public synchronized double getHitRate() {
+        long total = numHits + numMisses;
+        return total == 0 ? 0 : numHits / (double) total;
+    }
+
+    public synchronized void clear() {
+        entryByHash.clear();
+    }
+
+    private void evict(long now) {
+        Iterator<Entry> iterator = entryByHash.values().iterator();
+        while (iterator.hasNext() && now - iterator.next().timestamp > maxAge) {
+            iterator.remove();
+        }
+    }
+}
@@ -59,6 +59,11 @@ public interface DataRequest extends BroadcastMessage {
 
     boolean isExpired();
 
+    /**
+     * @return The date after which the request is expired, or Long.MAX_VALUE if it never expires.
+     */
+    long getExpiryDate();
+
     long getCreated();
 
     int getMaxMapSize();
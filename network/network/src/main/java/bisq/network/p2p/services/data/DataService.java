@@ -19,6 +19,7 @@ package bisq.network.p2p.services.data;
 
 import bisq.network.p2p.services.data.broadcast.Broadcaster;
 import bisq.network.p2p.services.data.storage.DataStorageResult;
+import bisq.network.p2p.services.data.storage.DistributedData;
 import bisq.network.p2p.services.data.storage.StorageData;
 import bisq.network.p2p.services.data.storage.StorageService;
 import bisq.network.p2p.services.data.storage.append.AddAppendOnlyDataRequest;
@@ -28,6 +29,7 @@ import bisq.network.p2p.services.data.storage.auth.AuthenticatedData;
 import bisq.network.p2p.services.data.storage.auth.RefreshAuthenticatedDataRequest;
 import bisq.network.p2p.services.data.storage.auth.RemoveAuthenticatedDataRequest;
 import bisq.network.p2p.services.data.storage.auth.authorized.AuthorizedData;
+import bisq.network.p2p.services.data.storage.auth.authorized.AuthorizedDistributedData;
 import bisq.network.p2p.services.data.storage.mailbox.AddMailboxRequest;
 import bisq.network.p2p.services.data.storage.mailbox.MailboxData;
 import bisq.network.p2p.services.data.storage.mailbox.RemoveMailboxRequest;
@@ -211,6 +213,28 @@ public class DataService implements StorageService.Listener {
         return storageService.getAuthenticatedData(storeName);
     }
 
+    // Stores are keyed by the class name in the MetaData, which is the simple class name for all our data. Thus, we
+    // only need to iterate the store of the requested type.
+    public <T extends DistributedData> Stream<T> getDistributedData(Class<T> distributedDataClass) {
+        return getAuthenticatedPayloadStreamByStoreName(distributedDataClass.getSimpleName())
+                .map(AuthenticatedData::getDistributedData)
+                .filter(distributedDataClass::isInstance)
+                .map(distributedDataClass::cast);
+    }
+
+    public <T extends AuthorizedDistributedData> Stream<T> getAuthorizedDistributedData(Class<T> authorizedDistributedDataClass) {
+        return getAuthenticatedPayloadStreamByStoreName(authorizedDistributedDataClass.getSimpleName())
+                .filter(authenticatedData -> authenticatedData instanceof AuthorizedData)
+                .map(authenticatedData -> ((AuthorizedData) authenticatedData).getAuthorizedDistributedData())
+                .filter(authorizedDistributedDataClass::isInstance)
+                .map(authorizedDistributedDataClass::cast);
+    }
+
+    public Stream<AuthenticatedData> getAuthenticatedDataByOwner(Class<? extends DistributedData> distributedDataClass,
+                                                                 byte[] ownerPubKeyHash) {
+        return storageService.getAuthenticatedDataByOwner(distributedDataClass.getSimpleName(), ownerPubKeyHash);
+    }
+
 
     /* --------------------------------------------------------------------- */
     // Add data
@@ -19,6 +19,7 @@ package bisq.network.p2p.services.data.broadcast;
 
 import bisq.common.util.CollectionUtil;
 import bisq.common.util.CompletableFutureUtils;
+import bisq.network.p2p.message.EncodedEnvelopePayload;
 import bisq.network.p2p.node.Connection;
 import bisq.network.p2p.node.Node;
 import lombok.extern.slf4j.Slf4j;
@@ -58,10 +59,12 @@ public class Broadcaster {
             return CompletableFuture.completedFuture(new BroadcastResult(0, 0, 0));
         } else {
             long ts = System.currentTimeMillis();
+            // The message gets serialized once for all connections, only the AuthorizationToken is created per connection.
+            EncodedEnvelopePayload encodedEnvelopePayload = new EncodedEnvelopePayload(broadcastMessage);
             List<CompletableFuture<Boolean>> sendFutures = connections.stream()
                     .map(connection -> {
                         log.debug("Broadcast {} to {}", broadcastMessage.getClass().getSimpleName(), connection.getPeerAddress());
-                        return node.sendAsync(broadcastMessage, connection)
+                        return node.sendAsync(encodedEnvelopePayload, connection)
                                 .handle((result, throwable) -> {
                                     if (throwable == null) {
                                         return true;
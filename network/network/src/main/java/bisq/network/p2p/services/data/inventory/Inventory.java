@@ -29,7 +29,9 @@ import lombok.extern.slf4j.Slf4j;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -45,6 +47,12 @@ public final class Inventory implements NetworkProto {
 
     private final List<? extends DataRequest> entries;
     private final boolean maxSizeReached;
+    // Set by the responder if it could not decode the requester's filter (e.g. the difference exceeded the capacity
+    // of a MiniSketchFilter). The requester is expected to repeat the request with another filter type.
+    private final boolean filterDecodingFailed;
+    // Set by the responder if maxSizeReached is set and it keeps the remaining data for the next request of the
+    // requester.
+    private final Optional<InventoryCursor> cursor;
     // transient fields are excluded by default for EqualsAndHashCode
     private transient final Optional<Integer> cachedSerializedSize;
 
@@ -52,11 +60,25 @@ public final class Inventory implements NetworkProto {
         this(entries, maxSizeReached, Optional.empty());
     }
 
+    public Inventory(Collection<? extends DataRequest> entries,
+                     boolean maxSizeReached,
+                     Optional<InventoryCursor> cursor) {
+        this(entries, maxSizeReached, false, cursor, Optional.empty());
+    }
+
+    public static Inventory filterDecodingFailed() {
+        return new Inventory(List.of(), false, true, Optional.empty(), Optional.empty());
+    }
+
     private Inventory(Collection<? extends DataRequest> entries,
                       boolean maxSizeReached,
+                      boolean filterDecodingFailed,
+                      Optional<InventoryCursor> cursor,
                       Optional<Integer> cachedSerializedSize) {
         this.entries = new ArrayList<>(entries);
         this.maxSizeReached = maxSizeReached;
+        this.filterDecodingFailed = filterDecodingFailed;
+        this.cursor = cursor;
         this.cachedSerializedSize = cachedSerializedSize;
 
         // We need to sort deterministically as the data is used in the proof of work check
@@ -64,7 +86,10 @@ public final class Inventory implements NetworkProto {
         //  This could be used and combined with the other remaining data, like signature and pubkey
         // We set serializeForHash to false to ensure that we get the same order in case the peer has different data in the
         // annotated fields
-        this.entries.sort(Comparator.comparing((DataRequest dataRequest) -> new ByteArray(dataRequest.serializeForHash())));
+        // We serialize each entry only once and not at each comparison.
+        Map<DataRequest, ByteArray> sortKeys = new IdentityHashMap<>(this.entries.size());
+        this.entries.forEach(dataRequest -> sortKeys.put(dataRequest, new ByteArray(dataRequest.serializeForHash())));
+        this.entries.sort(Comparator.comparing(sortKeys::get));
 
         verify();
     }
@@ -82,11 +107,14 @@ public final class Inventory implements NetworkProto {
 
     @Override
     public bisq.network.protobuf.Inventory.Builder getBuilder(boolean serializeForHash) {
-        return bisq.network.protobuf.Inventory.newBuilder()
+        bisq.network.protobuf.Inventory.Builder builder = bisq.network.protobuf.Inventory.newBuilder()
                 .addAllEntries(entries.stream()
                         .map(e -> e.toProto(serializeForHash).getDataRequest())
                         .collect(Collectors.toList()))
-                .setMaxSizeReached(maxSizeReached);
+                .setMaxSizeReached(maxSizeReached)
+                .setFilterDecodingFailed(filterDecodingFailed);
+        cursor.ifPresent(e -> builder.setCursor(e.toProto(serializeForHash)));
+        return builder;
     }
 
     public static Inventory fromProto(bisq.network.protobuf.Inventory proto) {
@@ -94,7 +122,11 @@ public final class Inventory implements NetworkProto {
         List<DataRequest> entries = entriesList.stream()
                 .map(DataRequest::fromProto)
                 .collect(Collectors.toList());
-        return new Inventory(entries, proto.getMaxSizeReached(), Optional.of(proto.getSerializedSize()));
+        return new Inventory(entries,
+                proto.getMaxSizeReached(),
+                proto.getFilterDecodingFailed(),
+                proto.hasCursor() ? Optional.of(InventoryCursor.fromProto(proto.getCursor())) : Optional.empty(),
+                Optional.of(proto.getSerializedSize()));
     }
 
     // It can be a node has not sent any data but maxSizeReached is false.
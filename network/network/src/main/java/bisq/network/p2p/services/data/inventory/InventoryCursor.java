@@ -0,0 +1,67 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.services.data.inventory;
+
+import bisq.common.proto.NetworkProto;
+import bisq.common.validation.NetworkDataValidation;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Position in the missing data of a requester, which the responder has collected at the first request. The requester
+ * passes the cursor of a response with its next request, so that the responder continues with the next chunk of
+ * the same data instead of applying a fresh filter.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class InventoryCursor implements NetworkProto {
+    private final String sessionId;
+    private final int offset;
+
+    public InventoryCursor(String sessionId, int offset) {
+        this.sessionId = sessionId;
+        this.offset = offset;
+
+        verify();
+    }
+
+    @Override
+    public void verify() {
+        NetworkDataValidation.validateId(sessionId);
+        checkArgument(offset >= 0, "Offset must not be negative");
+    }
+
+    @Override
+    public bisq.network.protobuf.InventoryCursor toProto(boolean serializeForHash) {
+        return resolveProto(serializeForHash);
+    }
+
+    @Override
+    public bisq.network.protobuf.InventoryCursor.Builder getBuilder(boolean serializeForHash) {
+        return bisq.network.protobuf.InventoryCursor.newBuilder()
+                .setSessionId(sessionId)
+                .setOffset(offset);
+    }
+
+    public static InventoryCursor fromProto(bisq.network.protobuf.InventoryCursor proto) {
+        return new InventoryCursor(proto.getSessionId(), proto.getOffset());
+    }
+}
@@ -17,6 +17,7 @@
 
 package bisq.network.p2p.services.data.inventory;
 
+import bisq.common.data.ByteArray;
 import bisq.common.data.ByteUnit;
 import bisq.network.p2p.node.Connection;
 import bisq.network.p2p.node.Feature;
@@ -24,43 +25,66 @@ import bisq.network.p2p.services.data.DataService;
 import bisq.network.p2p.services.data.inventory.filter.FilterService;
 import bisq.network.p2p.services.data.inventory.filter.InventoryFilter;
 import bisq.network.p2p.services.data.inventory.filter.InventoryFilterType;
+import bisq.network.p2p.services.data.inventory.filter.InventoryIndex;
 import bisq.network.p2p.services.data.inventory.filter.hash_set.HashSetFilterService;
+import bisq.network.p2p.services.data.inventory.filter.mini_sketch.MiniSketchFilterService;
 import bisq.network.p2p.services.data.storage.StorageService;
+import bisq.security.DigestUtil;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
 @Slf4j
 class InventoryFilterFactory {
+    // Decoding a MiniSketchFilter costs CPU, and more if it fails. Honest peers fall back to the HashSetFilter after
+    // a failed decoding, thus we limit the failed decodings of all peers.
+    private static final int MAX_MINI_SKETCH_DECODING_FAILURES = 10;
+    private static final long MINI_SKETCH_DECODING_FAILURES_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
     private final Map<InventoryFilterType, FilterService<? extends InventoryFilter>> mySupportedFilterServices = new HashMap<>();
     private final InventoryService.Config config;
+    private final int maxSize;
+    private final InventorySessions inventorySessions = new InventorySessions();
+    // Connection IDs of peers which failed to decode our MiniSketchFilter
+    private final Set<String> hashSetFallbackConnectionIds = new CopyOnWriteArraySet<>();
+    // Connection IDs of peers whose MiniSketchFilter we failed to decode. We do not decode their filters again.
+    private final Set<String> miniSketchDecodingFailedConnectionIds = new CopyOnWriteArraySet<>();
+    // Times of the recent failed decodings of MiniSketchFilters
+    private final Deque<Long> miniSketchDecodingFailureTimes = new ArrayDeque<>();
 
     InventoryFilterFactory(Set<Feature> myFeatures,
                            DataService dataService,
                            InventoryService.Config config) {
         this.config = config;
-        int maxSize = (int) Math.round(ByteUnit.KB.toBytes(config.getMaxSizeInKb()));
+        maxSize = (int) Math.round(ByteUnit.KB.toBytes(config.getMaxSizeInKb()));
         Inventory.setMaxSize(maxSize);
         StorageService storageService = dataService.getStorageService();
+        // Shared by all filter services
+        InventoryIndex inventoryIndex = new InventoryIndex(storageService);
 
         myFeatures.stream()
                 .flatMap(feature -> InventoryFilterType.fromFeature(feature).stream())
                 .forEach(inventoryFilterType -> {
                     switch (inventoryFilterType) {
                         case HASH_SET:
-                            mySupportedFilterServices.put(inventoryFilterType, new HashSetFilterService(storageService, maxSize));
+                            mySupportedFilterServices.put(inventoryFilterType, new HashSetFilterService(storageService, inventoryIndex, maxSize));
                             break;
                         case MINI_SKETCH:
-                            //  map.put(inventoryFilterType, new MiniSketchFilterService(storageService, maxSize));
-                            //  break;
-                            throw new IllegalArgumentException("MINI_SKETCH not implemented yet");
+                            mySupportedFilterServices.put(inventoryFilterType, new MiniSketchFilterService(storageService, inventoryIndex, maxSize));
+                            break;
                         default:
                             throw new IllegalArgumentException("Undefined filterType " + inventoryFilterType);
 
@@ -71,20 +95,49 @@ class InventoryFilterFactory {
     InventoryFilter createInventoryFilterForRequest(Connection connection) {
         List<Feature> peersFeatures = connection.getPeersCapability().getFeatures();
         InventoryFilterType inventoryFilterType = getPreferredFilterType(peersFeatures).orElse(InventoryFilterType.HASH_SET);
+        if (inventoryFilterType == InventoryFilterType.MINI_SKETCH && useHashSetFallback(connection, peersFeatures)) {
+            inventoryFilterType = InventoryFilterType.HASH_SET;
+        }
         FilterService<? extends InventoryFilter> filterService = mySupportedFilterServices.get(inventoryFilterType);
         return filterService.getFilter();
     }
 
-    Inventory createInventoryForResponse(InventoryRequest request) {
+    void onFilterDecodingFailed(Connection connection) {
+        log.info("Peer {} could not decode our inventory filter. We use the HashSetFilter for further requests " +
+                "to that peer.", connection.getPeerAddress());
+        hashSetFallbackConnectionIds.add(connection.getId());
+    }
+
+    void onDisconnect(Connection connection) {
+        hashSetFallbackConnectionIds.remove(connection.getId());
+        miniSketchDecodingFailedConnectionIds.remove(connection.getId());
+        inventorySessions.onDisconnect(connection.getId());
+    }
+
+    Inventory createInventoryForResponse(Connection connection, InventoryRequest request) {
+        String connectionId = connection.getId();
+        Optional<Inventory> continuedInventory = request.getCursor()
+                .flatMap(cursor -> inventorySessions.continueInventory(connectionId, cursor, maxSize));
+        if (continuedInventory.isPresent()) {
+            return continuedInventory.get();
+        }
+
         InventoryFilter inventoryFilter = request.getInventoryFilter();
         InventoryFilterType inventoryFilterType = inventoryFilter.getInventoryFilterType();
         checkArgument(mySupportedFilterServices.containsKey(inventoryFilterType),
                 "We got an inventoryRequest with filterType {} which we do not support." +
                         "This should never happen if our feature entries are correct and if the peers code is executed as expected.", inventoryFilterType);
         FilterService<? extends InventoryFilter> filterService = mySupportedFilterServices.get(inventoryFilterType);
-        int requestersVersion = request.getVersion();
-
-        return filterService.createInventory(inventoryFilter);
+        ByteArray filterDigest = new ByteArray(DigestUtil.hash(inventoryFilter.serializeForHash()));
+        Supplier<Optional<Predicate<InventoryIndex.Entry>>> isMissingSupplier =
+                inventoryFilterType == InventoryFilterType.MINI_SKETCH
+                        ? () -> findMissingDataPredicateOfMiniSketchFilter(connectionId, filterService, inventoryFilter)
+                        : () -> filterService.findMissingDataPredicate(inventoryFilter);
+        return inventorySessions.createInventory(connectionId,
+                filterDigest,
+                filterService.getInventoryIndex().getSnapshot(),
+                isMissingSupplier,
+                maxSize);
     }
 
     // Get first match with peers feature based on order of myPreferredFilterTypes
@@ -96,6 +149,55 @@ class InventoryFilterFactory {
                 .findFirst();
     }
 
+    // Returns empty without decoding if the limit of failed decodings is reached, so that the requester falls back to
+    // the HashSetFilter.
+    private Optional<Predicate<InventoryIndex.Entry>> findMissingDataPredicateOfMiniSketchFilter(
+            String connectionId,
+            FilterService<? extends InventoryFilter> filterService,
+            InventoryFilter inventoryFilter) {
+        if (miniSketchDecodingFailedConnectionIds.contains(connectionId)) {
+            log.info("Decoding a MiniSketchFilter of that peer failed before. We do not decode it again.");
+            return Optional.empty();
+        }
+        synchronized (miniSketchDecodingFailureTimes) {
+            pruneMiniSketchDecodingFailureTimes();
+            if (miniSketchDecodingFailureTimes.size() >= MAX_MINI_SKETCH_DECODING_FAILURES) {
+                log.warn("Decoding MiniSketchFilters failed {} times within {} sec. We do not decode it.",
+                        miniSketchDecodingFailureTimes.size(),
+                        TimeUnit.MILLISECONDS.toSeconds(MINI_SKETCH_DECODING_FAILURES_INTERVAL));
+                return Optional.empty();
+            }
+        }
+        Optional<Predicate<InventoryIndex.Entry>> isMissing = filterService.findMissingDataPredicate(inventoryFilter);
+        if (isMissing.isEmpty()) {
+            miniSketchDecodingFailedConnectionIds.add(connectionId);
+            synchronized (miniSketchDecodingFailureTimes) {
+                miniSketchDecodingFailureTimes.add(System.currentTimeMillis());
+            }
+        }
+        return isMissing;
+    }
+
+    // Must be called with the lock of miniSketchDecodingFailureTimes held
+    private void pruneMiniSketchDecodingFailureTimes() {
+        long oldest = System.currentTimeMillis() - MINI_SKETCH_DECODING_FAILURES_INTERVAL;
+        while (!miniSketchDecodingFailureTimes.isEmpty() && miniSketchDecodingFailureTimes.peekFirst() < oldest) {
+            miniSketchDecodingFailureTimes.pollFirst();
+        }
+    }
+
+    private boolean useHashSetFallback(Connection connection, List<Feature> peersFeatures) {
+        if (!mySupportedFilterServices.containsKey(InventoryFilterType.HASH_SET) ||
+                !peersFeatures.contains(Feature.INVENTORY_HASH_SET)) {
+            return false;
+        }
+        if (hashSetFallbackConnectionIds.contains(connection.getId())) {
+            return true;
+        }
+        MiniSketchFilterService miniSketchFilterService = (MiniSketchFilterService) mySupportedFilterServices.get(InventoryFilterType.MINI_SKETCH);
+        return miniSketchFilterService.isDifferenceLikelyExceedingCapacity();
+    }
+
     private List<InventoryFilterType> toFilterTypes(List<Feature> features) {
         return features.stream()
                 .flatMap(feature -> InventoryFilterType.fromFeature(feature).stream())
@@ -84,7 +84,9 @@ public class InventoryPrinter {
             report = "No items received";
         }
         int numEntries = inventory.getEntries().size();
-        String maxSizeReached = inventory.isMaxSizeReached()
+        String maxSizeReached = inventory.isFilterDecodingFailed()
+                ? "Peer could not decode our inventory filter. We repeat the request with the fallback filter."
+                : inventory.isMaxSizeReached()
                 ? "Still missing data. Response got truncated because max size was reached"
                 : numEntries == 0 ? "No data received from peer." : "All data received from peer. Num entries: " + numEntries;
         String size = ByteUnit.BYTE.toKB((double) inventory.getCachedSerializedSize().orElse(0)) + " KB";
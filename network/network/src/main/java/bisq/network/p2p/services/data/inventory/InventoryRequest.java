@@ -26,6 +26,8 @@ import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Optional;
+
 @Slf4j
 @Getter
 @ToString
@@ -38,15 +40,22 @@ public final class InventoryRequest implements BroadcastMessage, Request {
     private final int version;
     private final InventoryFilter inventoryFilter;
     private final int nonce;
+    // Cursor of the previous response of that peer if we request the next chunk of the inventory
+    private final Optional<InventoryCursor> cursor;
 
     public InventoryRequest(InventoryFilter inventoryFilter, int nonce) {
-        this(VERSION, inventoryFilter, nonce);
+        this(inventoryFilter, nonce, Optional.empty());
+    }
+
+    public InventoryRequest(InventoryFilter inventoryFilter, int nonce, Optional<InventoryCursor> cursor) {
+        this(VERSION, inventoryFilter, nonce, cursor);
     }
 
-    private InventoryRequest(int version, InventoryFilter inventoryFilter, int nonce) {
+    private InventoryRequest(int version, InventoryFilter inventoryFilter, int nonce, Optional<InventoryCursor> cursor) {
         this.version = version;
         this.inventoryFilter = inventoryFilter;
         this.nonce = nonce;
+        this.cursor = cursor;
 
         verify();
     }
@@ -67,16 +76,19 @@ public final class InventoryRequest implements BroadcastMessage, Request {
 
     @Override
     public bisq.network.protobuf.InventoryRequest.Builder getValueBuilder(boolean serializeForHash) {
-        return bisq.network.protobuf.InventoryRequest.newBuilder()
+        bisq.network.protobuf.InventoryRequest.Builder builder = bisq.network.protobuf.InventoryRequest.newBuilder()
                 .setVersion(version)
                 .setInventoryFilter(inventoryFilter.toProto(serializeForHash))
                 .setNonce(nonce);
+        cursor.ifPresent(e -> builder.setCursor(e.toProto(serializeForHash)));
+        return builder;
     }
 
     public static InventoryRequest fromProto(bisq.network.protobuf.InventoryRequest proto) {
         return new InventoryRequest(proto.getVersion(),
                 InventoryFilter.fromProto(proto.getInventoryFilter()),
-                proto.getNonce());
+                proto.getNonce(),
+                proto.hasCursor() ? Optional.of(InventoryCursor.fromProto(proto.getCursor())) : Optional.empty());
     }
 
     @Override
@@ -162,6 +162,11 @@ class InventoryRequestPolicy {
             return belowMaxPendingRequests ? RETRY_REQUEST_WITH_NEW_CONNECTION : DO_NOTHING;
         }
 
+        if (inventory.isFilterDecodingFailed()) {
+            // Peer could not decode our filter. We retry with the fallback filter type.
+            return belowMaxPendingRequests ? RETRY_REQUEST_WITH_SAME_CONNECTION : DO_NOTHING;
+        }
+
         boolean finalDataDelivered = inventory.finalDataDelivered();
         if (finalDataDelivered) {
             int numInventoryRequestsCompleted = inventoryRequestModel.getNumInventoryRequestsCompleted().incrementAndGet();
@@ -151,6 +151,7 @@ public class InventoryService extends RequestResponseHandler<InventoryRequest, I
 
     @Override
     public void onDisconnect(Connection connection, CloseReason closeReason) {
+        inventoryFilterFactory.onDisconnect(connection);
         if (node.getNumConnections() == 0) {
             policy.onAllConnectionsLost();
         }
@@ -175,7 +176,7 @@ public class InventoryService extends RequestResponseHandler<InventoryRequest, I
 
     @Override
     protected InventoryResponse createResponse(Connection connection, InventoryRequest request) {
-        Inventory inventory = inventoryFilterFactory.createInventoryForResponse(request);
+        Inventory inventory = inventoryFilterFactory.createInventoryForResponse(connection, request);
         return new InventoryResponse(request.getVersion(), inventory, request.getNonce());
     }
 
@@ -231,7 +232,14 @@ public class InventoryService extends RequestResponseHandler<InventoryRequest, I
     /* --------------------------------------------------------------------- */
 
     private void requestWithRetry(Connection connection) {
-        request(connection)
+        InventoryFilter inventoryFilter = inventoryFilterFactory.createInventoryFilterForRequest(connection);
+        requestWithRetry(connection, inventoryFilter, Optional.empty());
+    }
+
+    private void requestWithRetry(Connection connection,
+                                  InventoryFilter inventoryFilter,
+                                  Optional<InventoryCursor> cursor) {
+        request(connection, inventoryFilter, cursor)
                 .whenComplete((inventory, throwable) -> {
                     if (shutdownInProgress) {
                         return;
@@ -244,7 +252,18 @@ public class InventoryService extends RequestResponseHandler<InventoryRequest, I
                     InventoryRequestPolicy.NextTaskAfterRequestCompleted nextTask = policy.onRequestCompleted(connection, inventory, throwable);
                     switch (nextTask) {
                         case START_PERIODIC_REQUESTS -> startPeriodicRequests(config.getRepeatRequestInterval());
-                        case RETRY_REQUEST_WITH_SAME_CONNECTION -> requestWithRetry(connection);
+                        case RETRY_REQUEST_WITH_SAME_CONNECTION -> {
+                            // If the peer keeps the remaining data for us, we continue with the next chunk. We pass
+                            // the same filter in case the peer has dropped the session in the meantime.
+                            Optional<InventoryCursor> nextCursor = inventory != null
+                                    ? inventory.getCursor()
+                                    : Optional.empty();
+                            if (nextCursor.isPresent()) {
+                                requestWithRetry(connection, inventoryFilter, nextCursor);
+                            } else {
+                                requestWithRetry(connection);
+                            }
+                        }
                         case RETRY_REQUEST_WITH_NEW_CONNECTION ->
                                 policy.getFreshCandidate(connection).ifPresent(this::requestWithRetry);
                         case DO_NOTHING -> {
@@ -255,7 +274,13 @@ public class InventoryService extends RequestResponseHandler<InventoryRequest, I
 
     private CompletableFuture<Inventory> request(Connection connection) {
         InventoryFilter inventoryFilter = inventoryFilterFactory.createInventoryFilterForRequest(connection);
-        InventoryRequest request = new InventoryRequest(inventoryFilter, createNonce());
+        return request(connection, inventoryFilter, Optional.empty());
+    }
+
+    private CompletableFuture<Inventory> request(Connection connection,
+                                                 InventoryFilter inventoryFilter,
+                                                 Optional<InventoryCursor> cursor) {
+        InventoryRequest request = new InventoryRequest(inventoryFilter, createNonce(), cursor);
         model.getRequestTimestampByConnectionId().put(connection.getId(), System.currentTimeMillis());
         CompletableFuture<InventoryResponse> requestFuture = request(connection, request);
         updateNumPendingRequests();
@@ -269,6 +294,9 @@ public class InventoryService extends RequestResponseHandler<InventoryRequest, I
                 })
                 .thenApply(response -> {
                     Inventory inventory = response.getInventory();
+                    if (inventory.isFilterDecodingFailed()) {
+                        inventoryFilterFactory.onFilterDecodingFailed(connection);
+                    }
                     inventory.getEntries().forEach(dataRequest -> {
                         if (dataRequest instanceof AddDataRequest) {
                             dataService.processAddDataRequest((AddDataRequest) dataRequest, false);
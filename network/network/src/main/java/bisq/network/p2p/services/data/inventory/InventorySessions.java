@@ -0,0 +1,188 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.services.data.inventory;
+
+import bisq.common.data.ByteArray;
+import bisq.common.util.StringUtils;
+import bisq.network.p2p.services.data.inventory.filter.FilterService;
+import bisq.network.p2p.services.data.inventory.filter.InventoryIndex;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Delivers the missing data of a requester in chunks limited by the max size of an inventory. At the first request we
+ * walk the inventory index with the requesters filter until the max size is reached. If there is more data, the
+ * response carries a cursor with the position in the index. When the requester sends that cursor with its next
+ * request, we continue the walk from there on the same index snapshot.
+ * <p>
+ * We keep at most one session per connection, so a session holds only references to the index snapshot and is
+ * bounded by the number of connections. Sessions expire if not continued in time.
+ * <p>
+ * Seed nodes get many requests with the same filter (e.g. from new users which have no data yet). We cache the first
+ * chunk by the digest of the filter for a short time as long as the index has not changed.
+ */
+@Slf4j
+class InventorySessions {
+    static final long SESSION_TTL = MINUTES.toMillis(3);
+    static final long RESPONSE_CACHE_TTL = SECONDS.toMillis(30);
+    static final int MAX_RESPONSE_CACHE_SIZE = 100;
+
+    private static final class Session {
+        private final String sessionId;
+        private final List<InventoryIndex.Entry> entries;
+        private final Predicate<InventoryIndex.Entry> isMissing;
+        private volatile long lastUsed;
+
+        private Session(String sessionId, List<InventoryIndex.Entry> entries, Predicate<InventoryIndex.Entry> isMissing) {
+            this.sessionId = sessionId;
+            this.entries = entries;
+            this.isMissing = isMissing;
+            lastUsed = System.currentTimeMillis();
+        }
+    }
+
+    private static final class CachedResponse {
+        private final long indexVersion;
+        private final long created;
+        private final Inventory inventory;
+        // Present if the inventory has a cursor
+        private final Optional<Session> session;
+
+        private CachedResponse(long indexVersion, Inventory inventory, Optional<Session> session) {
+            this.indexVersion = indexVersion;
+            this.inventory = inventory;
+            this.session = session;
+            created = System.currentTimeMillis();
+        }
+    }
+
+    private final Map<String, Session> sessionByConnectionId = new ConcurrentHashMap<>();
+    private final Map<ByteArray, CachedResponse> responseCache = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ByteArray, CachedResponse> eldest) {
+            return size() > MAX_RESPONSE_CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Starts a new session for the connection, replacing any previous one.
+     *
+     * @param filterDigest       Hash of the requesters filter, used as key for the response cache
+     * @param isMissingSupplier  Provides the predicate for the missing data, or empty if the filter could not be
+     *                           decoded. Only called if we have no cached response.
+     * @return The first chunk of the missing data
+     */
+    Inventory createInventory(String connectionId,
+                              ByteArray filterDigest,
+                              InventoryIndex.Snapshot indexSnapshot,
+                              Supplier<Optional<Predicate<InventoryIndex.Entry>>> isMissingSupplier,
+                              int maxSize) {
+        pruneExpiredSessions();
+        Optional<CachedResponse> cachedResponse = getCachedResponse(filterDigest, indexSnapshot.getVersion());
+        if (cachedResponse.isPresent()) {
+            log.info("We use the cached inventory for a request with the same filter");
+            cachedResponse.get().session.ifPresentOrElse(session -> {
+                        session.lastUsed = System.currentTimeMillis();
+                        sessionByConnectionId.put(connectionId, session);
+                    },
+                    () -> sessionByConnectionId.remove(connectionId));
+            return cachedResponse.get().inventory;
+        }
+
+        Optional<Predicate<InventoryIndex.Entry>> isMissing = isMissingSupplier.get();
+        if (isMissing.isEmpty()) {
+            sessionByConnectionId.remove(connectionId);
+            return Inventory.filterDecodingFailed();
+        }
+        Session session = new Session(StringUtils.createUid(), indexSnapshot.getEntries(), isMissing.get());
+        Inventory inventory = createChunk(connectionId, session, 0, maxSize);
+        Optional<Session> sessionOfCursor = inventory.getCursor().map(cursor -> session);
+        synchronized (responseCache) {
+            responseCache.put(filterDigest, new CachedResponse(indexSnapshot.getVersion(), inventory, sessionOfCursor));
+        }
+        return inventory;
+    }
+
+    /**
+     * @return The chunk at the cursor position, or empty if we do not have a matching session for that connection.
+     */
+    Optional<Inventory> continueInventory(String connectionId, InventoryCursor cursor, int maxSize) {
+        Session session = sessionByConnectionId.get(connectionId);
+        if (session == null ||
+                !session.sessionId.equals(cursor.getSessionId()) ||
+                isExpired(session) ||
+                cursor.getOffset() > session.entries.size()) {
+            log.info("No inventory session found for cursor {}. We apply the requesters filter.", cursor);
+            return Optional.empty();
+        }
+        return Optional.of(createChunk(connectionId, session, cursor.getOffset(), maxSize));
+    }
+
+    void onDisconnect(String connectionId) {
+        sessionByConnectionId.remove(connectionId);
+    }
+
+    int getNumSessions() {
+        return sessionByConnectionId.size();
+    }
+
+    private Inventory createChunk(String connectionId, Session session, int offset, int maxSize) {
+        FilterService.Chunk chunk = FilterService.createChunk(session.entries, offset, session.isMissing, maxSize);
+        if (!chunk.isMaxSizeReached()) {
+            sessionByConnectionId.remove(connectionId);
+            return new Inventory(chunk.getDataRequests(), false);
+        }
+        session.lastUsed = System.currentTimeMillis();
+        sessionByConnectionId.put(connectionId, session);
+        return new Inventory(chunk.getDataRequests(),
+                true,
+                Optional.of(new InventoryCursor(session.sessionId, chunk.getEndIndex())));
+    }
+
+    private Optional<CachedResponse> getCachedResponse(ByteArray filterDigest, long indexVersion) {
+        synchronized (responseCache) {
+            CachedResponse cachedResponse = responseCache.get(filterDigest);
+            if (cachedResponse == null) {
+                return Optional.empty();
+            }
+            if (cachedResponse.indexVersion != indexVersion ||
+                    System.currentTimeMillis() - cachedResponse.created > RESPONSE_CACHE_TTL) {
+                responseCache.remove(filterDigest);
+                return Optional.empty();
+            }
+            return Optional.of(cachedResponse);
+        }
+    }
+
+    private void pruneExpiredSessions() {
+        sessionByConnectionId.values().removeIf(this::isExpired);
+    }
+
+    private boolean isExpired(Session session) {
+        return System.currentTimeMillis() - session.lastUsed > SESSION_TTL;
+    }
+}
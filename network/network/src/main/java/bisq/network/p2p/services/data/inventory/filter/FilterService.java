@@ -14,175 +14,133 @@
  * You should have received a copy of the GNU Affero General Public License
  * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
  */
-
 package bisq.network.p2p.services.data.inventory.filter;
 
 import bisq.common.data.ByteArray;
 import bisq.common.data.ByteUnit;
 import bisq.network.p2p.services.data.DataRequest;
 import bisq.network.p2p.services.data.inventory.Inventory;
-import bisq.network.p2p.services.data.storage.DistributedData;
 import bisq.network.p2p.services.data.storage.StorageService;
-import bisq.network.p2p.services.data.storage.append.AddAppendOnlyDataRequest;
 import bisq.network.p2p.services.data.storage.auth.AddAuthenticatedDataRequest;
-import bisq.network.p2p.services.data.storage.auth.AuthenticatedDataRequest;
+import bisq.network.p2p.services.data.storage.auth.RefreshAuthenticatedDataRequest;
 import bisq.network.p2p.services.data.storage.auth.RemoveAuthenticatedDataRequest;
 import bisq.network.p2p.services.data.storage.mailbox.AddMailboxRequest;
-import bisq.network.p2p.services.data.storage.mailbox.MailboxRequest;
 import bisq.network.p2p.services.data.storage.mailbox.RemoveMailboxRequest;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.function.Predicate;
 
 @Slf4j
 public abstract class FilterService<T extends InventoryFilter> {
+    /**
+     * The missing data of a requester found by a walk over the inventory index, limited by the max size.
+     */
+    @Getter
+    public static final class Chunk {
+        private final List<DataRequest> dataRequests;
+        // Index of the inventory index entry at which the walk for the next chunk continues
+        private final int endIndex;
+        private final boolean maxSizeReached;
+
+        private Chunk(List<DataRequest> dataRequests, int endIndex, boolean maxSizeReached) {
+            this.dataRequests = dataRequests;
+            this.endIndex = endIndex;
+            this.maxSizeReached = maxSizeReached;
+        }
+    }
+
     protected final StorageService storageService;
+    @Getter
+    protected final InventoryIndex inventoryIndex;
     protected final int maxSize;
 
     public FilterService(StorageService storageService, int maxSize) {
+        this(storageService, new InventoryIndex(storageService), maxSize);
+    }
+
+    public FilterService(StorageService storageService, InventoryIndex inventoryIndex, int maxSize) {
         this.storageService = storageService;
+        this.inventoryIndex = inventoryIndex;
         this.maxSize = maxSize;
     }
 
     abstract public T getFilter();
 
-    abstract protected boolean isAuthenticatedDataRequestMissing(T filter,
-                                                                 Map.Entry<ByteArray, AuthenticatedDataRequest> mapEntry);
+    abstract protected boolean isMissing(T filter, Map.Entry<ByteArray, ? extends DataRequest> mapEntry);
 
-    abstract protected boolean isMailboxRequestMissing(T filter, Map.Entry<ByteArray, MailboxRequest> mapEntry);
-
-    abstract protected boolean isAddAppendOnlyDataRequestMissing(T filter,
-                                                                 Map.Entry<ByteArray, AddAppendOnlyDataRequest> entry);
+    abstract protected T safeCast(InventoryFilter inventoryFilter);
 
+    /**
+     * @return The first chunk of the missing data of the requester
+     */
     public Inventory createInventory(InventoryFilter inventoryFilter) {
-        final AtomicInteger accumulatedSize = new AtomicInteger();
-        final AtomicBoolean maxSizeReached = new AtomicBoolean();
+        return findMissingDataPredicate(inventoryFilter)
+                .map(isMissing -> {
+                    Chunk chunk = createChunk(inventoryIndex.getSnapshot().getEntries(), 0, isMissing, maxSize);
+                    return new Inventory(chunk.getDataRequests(), chunk.isMaxSizeReached());
+                })
+                .orElseGet(Inventory::filterDecodingFailed);
+    }
+
+    /**
+     * @return A predicate which tests if the requester is missing an entry of the inventory index, or empty if the
+     * filter could not be decoded.
+     */
+    public Optional<Predicate<InventoryIndex.Entry>> findMissingDataPredicate(InventoryFilter inventoryFilter) {
         // The type is not defined at compile time, thus we do a safe cast
         T filter = safeCast(inventoryFilter);
-        List<DataRequest> dataRequests = getAuthenticatedDataRequests(filter, accumulatedSize, maxSizeReached);
-
-        if (!maxSizeReached.get()) {
-            dataRequests.addAll(getMailboxRequests(filter, accumulatedSize, maxSizeReached));
-        }
-
-        if (!maxSizeReached.get()) {
-            dataRequests.addAll(getAppendOnlyDataRequests(filter, accumulatedSize, maxSizeReached));
-        }
-
-        log.info("Inventory with {} items and accumulatedSize of {} kb. maxSizeReached={}",
-                dataRequests.size(), ByteUnit.BYTE.toKB(accumulatedSize.get()), maxSizeReached.get());
-        return new Inventory(dataRequests, maxSizeReached.get());
+        return Optional.of(entry -> isMissing(filter, entry));
     }
 
-    abstract protected T safeCast(InventoryFilter inventoryFilter);
-
-    private List<DataRequest> getAuthenticatedDataRequests(T filter,
-                                                           AtomicInteger accumulatedSize,
-                                                           AtomicBoolean maxSizeReached) {
-        List<AddAuthenticatedDataRequest> addRequests = new ArrayList<>();
-        List<RemoveAuthenticatedDataRequest> removeRequests = new ArrayList<>();
-        storageService.getAuthenticatedDataStoreMaps().flatMap(map -> map.entrySet().stream())
-                .forEach(mapEntry -> {
-                    if (isAuthenticatedDataRequestMissing(filter, mapEntry)) {
-                        AuthenticatedDataRequest dataRequest = mapEntry.getValue();
-                        if (dataRequest instanceof AddAuthenticatedDataRequest addAuthenticatedDataRequest) {
-                            DistributedData distributedData = addAuthenticatedDataRequest.getDistributedData();
-                            addRequests.add(addAuthenticatedDataRequest);
-                        } else if (dataRequest instanceof RemoveAuthenticatedDataRequest removeAuthenticatedDataRequest) {
-                            removeRequests.add(removeAuthenticatedDataRequest);
-                        }
-                        // Refresh is ignored
-                    }
-                });
-
-        List<DataRequest> sortedAndFilteredRequests = addRequests.stream()
-                .sorted((o1, o2) -> Integer.compare(o2.getDistributedData().getMetaData().getPriority(),
-                        o1.getDistributedData().getMetaData().getPriority()))
-                .filter(request -> {
-                    if (!maxSizeReached.get()) {
-                        maxSizeReached.set(accumulatedSize.addAndGet(request.getSerializedSize()) > maxSize);
-                    }
-                    return !maxSizeReached.get();
-                })
-                .collect(Collectors.toList());
-
-
-        if (!maxSizeReached.get()) {
-            sortedAndFilteredRequests.addAll(removeRequests.stream()
-                    .sorted((o1, o2) -> Integer.compare(o2.getMetaData().getPriority(), o1.getMetaData().getPriority()))
-                    .filter(request -> {
-                        if (!maxSizeReached.get()) {
-                            maxSizeReached.set(accumulatedSize.addAndGet(request.getSerializedSize()) > maxSize);
-                        }
-                        return !maxSizeReached.get();
-                    })
-                    .toList());
+    /**
+     * Walks the entries from fromIndex on and collects the missing ones until the accumulated serialized size would
+     * exceed maxSize. A chunk contains at least one entry if there is any missing, so that delivering the data in
+     * chunks always makes progress.
+     */
+    public static Chunk createChunk(List<InventoryIndex.Entry> entries,
+                                    int fromIndex,
+                                    Predicate<InventoryIndex.Entry> isMissing,
+                                    int maxSize) {
+        List<DataRequest> dataRequests = new ArrayList<>();
+        long accumulatedSize = 0;
+        boolean maxSizeReached = false;
+        int index = fromIndex;
+        for (; index < entries.size(); index++) {
+            InventoryIndex.Entry entry = entries.get(index);
+            if (!isMissing.test(entry)) {
+                continue;
+            }
+            int serializedSize = entry.getSerializedSize();
+            if (accumulatedSize + serializedSize > maxSize && !dataRequests.isEmpty()) {
+                maxSizeReached = true;
+                break;
+            }
+            accumulatedSize += serializedSize;
+            dataRequests.add(entry.getValue());
         }
-        return sortedAndFilteredRequests;
+        log.info("Inventory with {} items and accumulatedSize of {} kb. maxSizeReached={}",
+                dataRequests.size(), ByteUnit.BYTE.toKB(accumulatedSize), maxSizeReached);
+        return new Chunk(dataRequests, index, maxSizeReached);
     }
 
-
-    private List<DataRequest> getMailboxRequests(T filter,
-                                                 AtomicInteger accumulatedSize,
-                                                 AtomicBoolean maxSizeReached) {
-        List<AddMailboxRequest> addRequests = new ArrayList<>();
-        List<RemoveMailboxRequest> removeRequests = new ArrayList<>();
-        storageService.getMailboxStoreMaps().flatMap(map -> map.entrySet().stream())
-                .forEach(mapEntry -> {
-                    if (isMailboxRequestMissing(filter, mapEntry)) {
-                        MailboxRequest dataRequest = mapEntry.getValue();
-                        if (dataRequest instanceof AddMailboxRequest addMailboxRequest) {
-                            addRequests.add(addMailboxRequest);
-                        } else if (dataRequest instanceof RemoveMailboxRequest removeMailboxRequest) {
-                            removeRequests.add(removeMailboxRequest);
-                        }
-                    }
-                });
-        List<DataRequest> sortedAndFilteredRequests = addRequests.stream()
-                .sorted((o1, o2) -> Integer.compare(o2.getMailboxSequentialData().getMailboxData().getMetaData().getPriority(),
-                        o1.getMailboxSequentialData().getMailboxData().getMetaData().getPriority()))
-                .filter(request -> {
-                    if (!maxSizeReached.get()) {
-                        maxSizeReached.set(accumulatedSize.addAndGet(request.getSerializedSize()) > maxSize);
-                    }
-                    return !maxSizeReached.get();
-                })
-                .collect(Collectors.toList());
-
-        if (!maxSizeReached.get()) {
-            sortedAndFilteredRequests.addAll(removeRequests.stream()
-                    .sorted((o1, o2) -> Integer.compare(o2.getMetaData().getPriority(), o1.getMetaData().getPriority()))
-                    .filter(request -> {
-                        if (!maxSizeReached.get()) {
-                            maxSizeReached.set(accumulatedSize.addAndGet(request.getSerializedSize()) > maxSize);
-                        }
-                        return !maxSizeReached.get();
-                    })
-                    .toList());
+    protected static int getSequenceNumber(DataRequest dataRequest) {
+        if (dataRequest instanceof AddAuthenticatedDataRequest addAuthenticatedDataRequest) {
+            return addAuthenticatedDataRequest.getAuthenticatedSequentialData().getSequenceNumber();
+        } else if (dataRequest instanceof RemoveAuthenticatedDataRequest removeAuthenticatedDataRequest) {
+            return removeAuthenticatedDataRequest.getSequenceNumber();
+        } else if (dataRequest instanceof RefreshAuthenticatedDataRequest refreshAuthenticatedDataRequest) {
+            return refreshAuthenticatedDataRequest.getSequenceNumber();
+        } else if (dataRequest instanceof AddMailboxRequest addMailboxRequest) {
+            return addMailboxRequest.getSequenceNumber();
+        } else if (dataRequest instanceof RemoveMailboxRequest removeMailboxRequest) {
+            return removeMailboxRequest.getSequenceNumber();
         }
-        return sortedAndFilteredRequests;
-    }
-
-    private List<DataRequest> getAppendOnlyDataRequests(T filter,
-                                                        AtomicInteger accumulatedSize,
-                                                        AtomicBoolean maxSizeReached) {
-        return storageService.getAddAppendOnlyDataStoreMaps().flatMap(map -> map.entrySet().stream())
-                .filter(entry -> isAddAppendOnlyDataRequestMissing(filter, entry))
-                //hashSetFilter.getFilterEntries().contains(toFilterEntry(mapEntry)))
-                .map(Map.Entry::getValue)
-                .sorted((o1, o2) -> Integer.compare(o2.getAppendOnlyData().getMetaData().getPriority(),
-                        o1.getAppendOnlyData().getMetaData().getPriority()))
-                .filter(request -> {
-                    if (!maxSizeReached.get()) {
-                        maxSizeReached.set(accumulatedSize.addAndGet(request.getSerializedSize()) > maxSize);
-                    }
-                    return !maxSizeReached.get();
-                })
-                .collect(Collectors.toList());
+        // AddAppendOnlyDataRequest does not use a seq nr.
+        return 0;
     }
 }
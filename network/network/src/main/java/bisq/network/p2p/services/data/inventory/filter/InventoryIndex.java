@@ -0,0 +1,211 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.services.data.inventory.filter;
+
+import bisq.common.data.ByteArray;
+import bisq.common.data.VersionedMap;
+import bisq.network.p2p.services.data.DataRequest;
+import bisq.network.p2p.services.data.storage.DataStorageService;
+import bisq.network.p2p.services.data.storage.StorageService;
+import bisq.network.p2p.services.data.storage.append.AddAppendOnlyDataRequest;
+import bisq.network.p2p.services.data.storage.auth.AddAuthenticatedDataRequest;
+import bisq.network.p2p.services.data.storage.auth.RemoveAuthenticatedDataRequest;
+import bisq.network.p2p.services.data.storage.mailbox.AddMailboxRequest;
+import bisq.network.p2p.services.data.storage.mailbox.RemoveMailboxRequest;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static bisq.network.p2p.services.data.storage.StoreType.ALL;
+
+/**
+ * All data requests of our stores in the order we deliver them in an inventory: adds before removes, authenticated
+ * data before mailbox and append-only data, and within those by priority and then newest first.
+ * <p>
+ * The index is updated lazily at {@link #getSnapshot()}. Only stores which have changed since the last call (detected
+ * by the version of their map) get re-indexed, and the unchanged entries of such a store are kept together with their
+ * cached serialized size. So an inventory can be created by a single walk over the index which stops once the max
+ * size is reached, instead of filtering, sorting and serializing all data at each request.
+ */
+@Slf4j
+public class InventoryIndex {
+    public enum Group {
+        AUTHENTICATED_ADD,
+        AUTHENTICATED_REMOVE,
+        MAILBOX_ADD,
+        MAILBOX_REMOVE,
+        APPEND_ONLY
+    }
+
+    static final Comparator<Entry> ORDER = Comparator.comparing(Entry::getGroup)
+            .thenComparing(Comparator.comparingInt(Entry::getPriority).reversed())
+            .thenComparing(Comparator.comparingLong(Entry::getCreated).reversed());
+
+    public static final class Entry implements Map.Entry<ByteArray, DataRequest> {
+        private final ByteArray key;
+        private final DataRequest dataRequest;
+        @Getter
+        private final Group group;
+        @Getter
+        private final int priority;
+        @Getter
+        private final long created;
+        // Lazily computed, as with early termination we only need the size of delivered entries.
+        // Racy single-check: worst case it gets computed multiple times.
+        private int serializedSize = -1;
+
+        public Entry(ByteArray key, DataRequest dataRequest, Group group, int priority) {
+            this.key = key;
+            this.dataRequest = dataRequest;
+            this.group = group;
+            this.priority = priority;
+            created = dataRequest.getCreated();
+        }
+
+        public int getSerializedSize() {
+            int result = serializedSize;
+            if (result < 0) {
+                result = dataRequest.getSerializedSize();
+                serializedSize = result;
+            }
+            return result;
+        }
+
+        @Override
+        public ByteArray getKey() {
+            return key;
+        }
+
+        @Override
+        public DataRequest getValue() {
+            return dataRequest;
+        }
+
+        @Override
+        public DataRequest setValue(DataRequest value) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @Getter
+    public static final class Snapshot {
+        // Gets incremented if any store has changed
+        private final long version;
+        private final List<Entry> entries;
+
+        public Snapshot(long version, List<Entry> entries) {
+            this.version = version;
+            this.entries = entries;
+        }
+    }
+
+    private static final class StoreIndex {
+        private final long version;
+        private final List<Entry> entries;
+
+        private StoreIndex(long version, List<Entry> entries) {
+            this.version = version;
+            this.entries = entries;
+        }
+    }
+
+    private final StorageService storageService;
+    private final Map<DataStorageService<? extends DataRequest>, StoreIndex> storeIndexByStore = new IdentityHashMap<>();
+    private Snapshot snapshot = new Snapshot(0, List.of());
+
+    public InventoryIndex(StorageService storageService) {
+        this.storageService = storageService;
+    }
+
+    public synchronized Snapshot getSnapshot() {
+        List<DataStorageService<? extends DataRequest>> stores = storageService.getStoresByStoreType(ALL).toList();
+        Set<DataStorageService<? extends DataRequest>> currentStores = Collections.newSetFromMap(new IdentityHashMap<>());
+        currentStores.addAll(stores);
+        boolean changed = storeIndexByStore.keySet().retainAll(currentStores);
+        for (DataStorageService<? extends DataRequest> store : stores) {
+            VersionedMap.Snapshot<ByteArray, ? extends DataRequest> mapSnapshot = store.getPersistableStore().getMap().getSnapshot();
+            StoreIndex previous = storeIndexByStore.get(store);
+            if (previous == null || previous.version != mapSnapshot.getVersion()) {
+                storeIndexByStore.put(store, createStoreIndex(mapSnapshot, Optional.ofNullable(previous)));
+                changed = true;
+            }
+        }
+        if (changed) {
+            List<Entry> entries = new ArrayList<>();
+            storeIndexByStore.values().forEach(storeIndex -> entries.addAll(storeIndex.entries));
+            // Each store index is already sorted, so sorting only merges those runs
+            entries.sort(ORDER);
+            snapshot = new Snapshot(snapshot.version + 1, Collections.unmodifiableList(entries));
+        }
+        return snapshot;
+    }
+
+    private static StoreIndex createStoreIndex(VersionedMap.Snapshot<ByteArray, ? extends DataRequest> mapSnapshot,
+                                               Optional<StoreIndex> previous) {
+        Map<ByteArray, ? extends DataRequest> map = mapSnapshot.getMap();
+        Set<DataRequest> previousDataRequests = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Entry> entries = new ArrayList<>(map.size());
+        // Unchanged entries keep their order and cached size
+        previous.ifPresent(storeIndex -> storeIndex.entries.forEach(entry -> {
+            if (map.get(entry.getKey()) == entry.getValue()) {
+                entries.add(entry);
+                previousDataRequests.add(entry.getValue());
+            }
+        }));
+        int numUnchanged = entries.size();
+        map.forEach((key, dataRequest) -> {
+            if (!previousDataRequests.contains(dataRequest)) {
+                toEntry(key, dataRequest).ifPresent(entries::add);
+            }
+        });
+        if (entries.size() > numUnchanged) {
+            // Merges the sorted unchanged entries with the sorted new entries
+            entries.subList(numUnchanged, entries.size()).sort(ORDER);
+            entries.sort(ORDER);
+        }
+        return new StoreIndex(mapSnapshot.getVersion(), entries);
+    }
+
+    // Refresh requests are not delivered in an inventory
+    private static Optional<Entry> toEntry(ByteArray key, DataRequest dataRequest) {
+        if (dataRequest instanceof AddAuthenticatedDataRequest request) {
+            return Optional.of(new Entry(key, request, Group.AUTHENTICATED_ADD,
+                    request.getDistributedData().getMetaData().getPriority()));
+        } else if (dataRequest instanceof RemoveAuthenticatedDataRequest request) {
+            return Optional.of(new Entry(key, request, Group.AUTHENTICATED_REMOVE,
+                    request.getMetaData().getPriority()));
+        } else if (dataRequest instanceof AddMailboxRequest request) {
+            return Optional.of(new Entry(key, request, Group.MAILBOX_ADD,
+                    request.getMailboxSequentialData().getMailboxData().getMetaData().getPriority()));
+        } else if (dataRequest instanceof RemoveMailboxRequest request) {
+            return Optional.of(new Entry(key, request, Group.MAILBOX_REMOVE,
+                    request.getMetaData().getPriority()));
+        } else if (dataRequest instanceof AddAppendOnlyDataRequest request) {
+            return Optional.of(new Entry(key, request, Group.APPEND_ONLY,
+                    request.getAppendOnlyData().getMetaData().getPriority()));
+        }
+        return Optional.empty();
+    }
+}
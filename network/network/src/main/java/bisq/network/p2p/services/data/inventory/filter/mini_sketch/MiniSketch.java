@@ -0,0 +1,433 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.inventory.filter.mini_sketch;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * PinSketch based set sketch over GF(2^64), following the design of
+ * <a href="https://github.com/sipa/minisketch">https://github.com/sipa/minisketch</a>.
+ * <p>
+ * A sketch with capacity c stores the odd power sums x, x^3, ..., x^(2c-1) of all added (non-zero) elements.
+ * Adding an element twice removes it again, so merging (XOR) the sketches of two sets results in the sketch of the
+ * symmetric difference of those sets. As long as the difference is not larger than the capacity it can be decoded
+ * with Berlekamp-Massey and a root finding of the resulting locator polynomial.
+ * <p>
+ * The serialized size depends only on the capacity (8 bytes per capacity unit), not on the number of elements.
+ * Not thread safe.
+ */
+public final class MiniSketch {
+    // x^64 + x^4 + x^3 + x + 1
+    private static final long MODULUS = 0x1BL;
+    private static final int FIELD_BITS = 64;
+    private static final int MAX_ROOT_FINDING_ATTEMPTS = 128;
+    // Reduction of the 4 bits shifted out at the top: h * MODULUS (carry-less) for h in [0, 15]
+    private static final long[] REDUCTION = new long[16];
+    // Squaring is linear in characteristic 2, thus we use a nibble table as for multiplication with a fixed factor
+    private static final long[] SQUARE_TABLE = new long[256];
+
+    static {
+        for (int h = 0; h < 16; h++) {
+            long reduction = 0;
+            for (int bit = 0; bit < 4; bit++) {
+                if ((h & (1 << bit)) != 0) {
+                    reduction ^= MODULUS << bit;
+                }
+            }
+            REDUCTION[h] = reduction;
+        }
+        for (int position = 0; position < 16; position++) {
+            for (int nibble = 0; nibble < 16; nibble++) {
+                long value = (long) nibble << (position * 4);
+                SQUARE_TABLE[position * 16 + nibble] = mul(value, value);
+            }
+        }
+    }
+
+    private final long[] syndromes;
+    // Reused nibble table for multiplication with x^2 of the element to add. 16 nibble positions with 16 entries each.
+    private final long[] mulTable = new long[256];
+
+    public MiniSketch(int capacity) {
+        this(new long[capacity]);
+    }
+
+    private MiniSketch(long[] syndromes) {
+        checkArgument(syndromes.length > 0, "Capacity must be > 0");
+        this.syndromes = syndromes;
+    }
+
+    public static MiniSketch fromBytes(byte[] bytes) {
+        checkArgument(bytes.length > 0 && bytes.length % Long.BYTES == 0,
+                "Sketch bytes must be a multiple of 8. bytes.length=" + bytes.length);
+        long[] syndromes = new long[bytes.length / Long.BYTES];
+        ByteBuffer.wrap(bytes).asLongBuffer().get(syndromes);
+        return new MiniSketch(syndromes);
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(syndromes.length * Long.BYTES);
+        byteBuffer.asLongBuffer().put(syndromes);
+        return byteBuffer.array();
+    }
+
+    public int getCapacity() {
+        return syndromes.length;
+    }
+
+    /**
+     * Adds the element if it is not contained, otherwise removes it.
+     */
+    public void add(long element) {
+        checkArgument(element != 0, "Element must not be 0");
+        long square = mulByTable(SQUARE_TABLE, element);
+        buildMulTable(square, mulTable);
+        long power = element;
+        for (int i = 0; i < syndromes.length; i++) {
+            syndromes[i] ^= power;
+            power = mulByTable(mulTable, power);
+        }
+    }
+
+    /**
+     * Merges the other sketch into this sketch. The result is the sketch of the symmetric difference of both sets.
+     * If the other sketch has a higher capacity the additional syndromes are ignored.
+     */
+    public void merge(MiniSketch other) {
+        int capacity = Math.min(syndromes.length, other.syndromes.length);
+        for (int i = 0; i < capacity; i++) {
+            syndromes[i] ^= other.syndromes[i];
+        }
+    }
+
+    /**
+     * @return A copy with the given capacity. As syndromes of a lower capacity are a prefix of the syndromes of a
+     * higher capacity, the copy is the same as if we had added the elements to a sketch of that capacity.
+     */
+    public MiniSketch truncate(int capacity) {
+        checkArgument(capacity <= syndromes.length, "Capacity must not be larger than the sketch capacity");
+        return new MiniSketch(Arrays.copyOf(syndromes, capacity));
+    }
+
+    public MiniSketch copy() {
+        return truncate(syndromes.length);
+    }
+
+    /**
+     * @return The elements of the sketch, or empty if the number of elements exceeds the capacity and the sketch cannot
+     * be decoded.
+     */
+    public Optional<long[]> decode() {
+        int capacity = syndromes.length;
+        // Reconstruct all power sums. In characteristic 2 the even ones are the squares: S(2i) = S(i)^2
+        long[] powerSums = new long[2 * capacity];
+        for (int i = 0; i < capacity; i++) {
+            powerSums[2 * i] = syndromes[i];
+        }
+        for (int i = 1; i < 2 * capacity; i += 2) {
+            long half = powerSums[i / 2];
+            powerSums[i] = mulByTable(SQUARE_TABLE, half);
+        }
+
+        long[] locator = berlekampMassey(powerSums);
+        if (locator == null) {
+            return Optional.empty();
+        }
+        int degree = degree(locator);
+        if (degree == 0) {
+            return Optional.of(new long[0]);
+        }
+        if (degree > capacity) {
+            return Optional.empty();
+        }
+
+        // The locator has the roots 1/x_i. The reversed polynomial has the roots x_i and is monic as locator[0] is 1.
+        long[] poly = new long[degree + 1];
+        for (int i = 0; i <= degree; i++) {
+            poly[i] = locator[degree - i];
+        }
+        if (poly[0] == 0) {
+            // 0 would be a root, but 0 is not a valid element.
+            return Optional.empty();
+        }
+
+        if (!hasAllDistinctRoots(poly)) {
+            return Optional.empty();
+        }
+
+        long[] roots = new long[degree];
+        int numRoots = findRoots(poly, roots, 0, 1);
+        if (numRoots != degree) {
+            return Optional.empty();
+        }
+        return Optional.of(roots);
+    }
+
+
+    /* --------------------------------------------------------------------- */
+    // Decoding
+    /* --------------------------------------------------------------------- */
+
+    private static long[] berlekampMassey(long[] powerSums) {
+        int n = powerSums.length;
+        long[] current = new long[n + 1];
+        long[] previous = new long[n + 1];
+        current[0] = 1;
+        previous[0] = 1;
+        int length = 0;
+        int shift = 1;
+        long previousDiscrepancyInverse = 1;
+        long[] factorMulTable = new long[256];
+
+        for (int i = 0; i < n; i++) {
+            long discrepancy = powerSums[i];
+            for (int j = 1; j <= length; j++) {
+                discrepancy ^= mul(current[j], powerSums[i - j]);
+            }
+            if (discrepancy == 0) {
+                shift++;
+                continue;
+            }
+
+            buildMulTable(mul(discrepancy, previousDiscrepancyInverse), factorMulTable);
+            if (2 * length <= i) {
+                long[] temp = current.clone();
+                for (int j = 0; j + shift <= n; j++) {
+                    current[j + shift] ^= mulByTable(factorMulTable, previous[j]);
+                }
+                length = i + 1 - length;
+                previous = temp;
+                previousDiscrepancyInverse = inverse(discrepancy);
+                shift = 1;
+            } else {
+                for (int j = 0; j + shift <= n; j++) {
+                    current[j + shift] ^= mulByTable(factorMulTable, previous[j]);
+                }
+                shift++;
+            }
+        }
+        // If the degree is lower than the length, the locator has a root at infinity and the sketch is not decodable.
+        return degree(current) == length ? Arrays.copyOf(current, length + 1) : null;
+    }
+
+    // A polynomial divides x^(2^64) - x if and only if it factors into distinct linear factors over GF(2^64).
+    private static boolean hasAllDistinctRoots(long[] poly) {
+        long[] x = {0, 1};
+        long[] power = polyMod(x, poly);
+        for (int i = 0; i < FIELD_BITS; i++) {
+            power = polySquareMod(power, poly);
+        }
+        return Arrays.equals(trim(power), trim(polyMod(x, poly)));
+    }
+
+    // Berlekamp trace algorithm. Splits the polynomial into gcd(poly, Tr(beta * x)) and the remaining factor.
+    private static int findRoots(long[] poly, long[] roots, int offset, long seed) {
+        int degree = degree(poly);
+        if (degree == 0) {
+            return 0;
+        }
+        if (degree == 1) {
+            // Monic x + a has the root a in characteristic 2
+            roots[offset] = mul(poly[0], inverse(poly[1]));
+            return 1;
+        }
+
+        long beta = seed;
+        for (int attempt = 0; attempt < MAX_ROOT_FINDING_ATTEMPTS; attempt++) {
+            beta = mix(beta + attempt);
+            if (beta == 0) {
+                continue;
+            }
+            long[] betaX = polyMod(new long[]{0, beta}, poly);
+            long[] trace = betaX.clone();
+            long[] term = betaX;
+            for (int i = 1; i < FIELD_BITS; i++) {
+                term = polySquareMod(term, poly);
+                trace = polyAdd(trace, term);
+            }
+            long[] factor = polyGcd(poly, trace);
+            int factorDegree = degree(factor);
+            if (factorDegree > 0 && factorDegree < degree) {
+                long[] remainder = polyDiv(poly, factor);
+                int found = findRoots(factor, roots, offset, beta);
+                return found + findRoots(remainder, roots, offset + found, ~beta);
+            }
+        }
+        return 0;
+    }
+
+
+    /* --------------------------------------------------------------------- */
+    // Polynomials over GF(2^64), coefficients in ascending order
+    /* --------------------------------------------------------------------- */
+
+    private static int degree(long[] poly) {
+        for (int i = poly.length - 1; i >= 0; i--) {
+            if (poly[i] != 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static long[] trim(long[] poly) {
+        return Arrays.copyOf(poly, degree(poly) + 1);
+    }
+
+    private static long[] polyAdd(long[] a, long[] b) {
+        long[] result = Arrays.copyOf(a, Math.max(a.length, b.length));
+        for (int i = 0; i < b.length; i++) {
+            result[i] ^= b[i];
+        }
+        return result;
+    }
+
+    private static long[] polySquareMod(long[] poly, long[] modulus) {
+        long[] square = new long[2 * poly.length];
+        for (int i = 0; i < poly.length; i++) {
+            square[2 * i] = mulByTable(SQUARE_TABLE, poly[i]);
+        }
+        return polyMod(square, modulus);
+    }
+
+    private static long[] polyMod(long[] poly, long[] modulus) {
+        int modulusDegree = degree(modulus);
+        long leadInverse = inverse(modulus[modulusDegree]);
+        long[] result = poly.clone();
+        long[] factorMulTable = new long[256];
+        for (int i = degree(result); i >= modulusDegree; i--) {
+            long lead = result[i];
+            if (lead == 0) {
+                continue;
+            }
+            buildMulTable(mul(lead, leadInverse), factorMulTable);
+            for (int j = 0; j <= modulusDegree; j++) {
+                result[i - modulusDegree + j] ^= mulByTable(factorMulTable, modulus[j]);
+            }
+        }
+        return Arrays.copyOf(result, Math.max(1, modulusDegree));
+    }
+
+    private static long[] polyDiv(long[] poly, long[] divisor) {
+        int divisorDegree = degree(divisor);
+        long leadInverse = inverse(divisor[divisorDegree]);
+        long[] remainder = trim(poly);
+        int polyDegree = remainder.length - 1;
+        long[] quotient = new long[polyDegree - divisorDegree + 1];
+        long[] factorMulTable = new long[256];
+        for (int i = polyDegree; i >= divisorDegree; i--) {
+            long lead = remainder[i];
+            if (lead == 0) {
+                continue;
+            }
+            long factor = mul(lead, leadInverse);
+            quotient[i - divisorDegree] = factor;
+            buildMulTable(factor, factorMulTable);
+            for (int j = 0; j <= divisorDegree; j++) {
+                remainder[i - divisorDegree + j] ^= mulByTable(factorMulTable, divisor[j]);
+            }
+        }
+        return quotient;
+    }
+
+    private static long[] polyGcd(long[] a, long[] b) {
+        long[] x = trim(a);
+        long[] y = trim(b);
+        while (!(y.length == 1 && y[0] == 0)) {
+            if (degree(y) == 0) {
+                // Non-zero constant, gcd is 1
+                return new long[]{1};
+            }
+            long[] remainder = trim(polyMod(x, y));
+            x = y;
+            y = remainder;
+        }
+        return x;
+    }
+
+
+    /* --------------------------------------------------------------------- */
+    // GF(2^64) arithmetic
+    /* --------------------------------------------------------------------- */
+
+    // Windowed carry-less multiplication, processing 4 bits of b per step. It is the innermost operation of decoding,
+    // thus we select the multiples of a with bit masks instead of allocating a table of them.
+    static long mul(long a, long b) {
+        long a2 = (a << 1) ^ (MODULUS & (a >> 63));
+        long a4 = (a2 << 1) ^ (MODULUS & (a2 >> 63));
+        long a8 = (a4 << 1) ^ (MODULUS & (a4 >> 63));
+        long result = 0;
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            result = (result << 4) ^ REDUCTION[(int) (result >>> 60)];
+            long nibble = (b >>> shift) & 0xF;
+            result ^= (a & -(nibble & 1)) ^
+                    (a2 & -((nibble >>> 1) & 1)) ^
+                    (a4 & -((nibble >>> 2) & 1)) ^
+                    (a8 & -(nibble >>> 3));
+        }
+        return result;
+    }
+
+    // a^(2^64 - 2)
+    static long inverse(long a) {
+        checkArgument(a != 0, "0 has no inverse");
+        long result = 1;
+        long square = a;
+        for (int i = 1; i < FIELD_BITS; i++) {
+            square = mulByTable(SQUARE_TABLE, square);
+            result = mul(result, square);
+        }
+        return result;
+    }
+
+    // Multiplication with a fixed factor is linear, so we precompute the products for each nibble position.
+    // The table has 16 nibble positions with 16 entries each. Used if we multiply many values with the same factor.
+    private static void buildMulTable(long factor, long[] table) {
+        long base = factor;
+        for (int position = 0; position < 16; position++) {
+            int offset = position * 16;
+            table[offset] = 0;
+            for (int bit = 0; bit < 4; bit++) {
+                int step = 1 << bit;
+                for (int n = 0; n < step; n++) {
+                    table[offset + step + n] = table[offset + n] ^ base;
+                }
+                base = (base << 1) ^ (MODULUS & (base >> 63));
+            }
+        }
+    }
+
+    private static long mulByTable(long[] table, long value) {
+        long result = 0;
+        for (int position = 0; position < 16; position++) {
+            result ^= table[position * 16 + (int) ((value >>> (position * 4)) & 0xF)];
+        }
+        return result;
+    }
+
+    // SplitMix64 finalizer
+    static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
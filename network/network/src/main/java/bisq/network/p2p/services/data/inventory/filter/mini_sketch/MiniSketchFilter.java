@@ -18,37 +18,67 @@
 package bisq.network.p2p.services.data.inventory.filter.mini_sketch;
 
 
+import bisq.common.data.ByteUnit;
 import bisq.network.p2p.services.data.inventory.filter.InventoryFilter;
 import bisq.network.p2p.services.data.inventory.filter.InventoryFilterType;
+import com.google.protobuf.ByteString;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Optional;
+import java.util.Set;
+
 import static com.google.common.base.Preconditions.checkArgument;
 
 /**
- * Skeleton for planned MiniSketch implementation based on <a href="https://github.com/sipa/minisketch">https://github.com/sipa/minisketch</a>
+ * Set reconciliation filter based on <a href="https://github.com/sipa/minisketch">https://github.com/sipa/minisketch</a>.
+ * Contains the sketch of the requester's data request elements (see {@link MiniSketchFilterService#toElement}) and
+ * the number of those elements. The size depends only on the sketch capacity, not on the size of the network database.
  */
 @Slf4j
 @Getter
 @ToString
 @EqualsAndHashCode(callSuper = true)
 public final class MiniSketchFilter extends InventoryFilter {
+    public final static int MIN_CAPACITY = 8;
+    // Decoding costs grow quadratic with the capacity and the responder decodes the sketch with the capacity chosen
+    // by the requester. Decoding a garbage sketch with a capacity of 512 takes about a second of CPU, thus we do not
+    // accept a larger capacity than the one we use for our requests.
+    public final static int MAX_CAPACITY = MiniSketchFilterService.DEFAULT_CAPACITY;
+
+    @ToString.Exclude
+    private final byte[] sketch;
+    private final int numElements;
 
-    public MiniSketchFilter() {
-        this(InventoryFilterType.MINI_SKETCH);
+    // Set by the responder after decoding. As decoding costs resources we cache it.
+    @Setter
+    @ToString.Exclude
+    private transient Optional<Set<Long>> missingElements = Optional.empty();
+
+    public MiniSketchFilter(MiniSketch miniSketch, int numElements) {
+        this(InventoryFilterType.MINI_SKETCH, miniSketch.toBytes(), numElements);
     }
 
-    private MiniSketchFilter(InventoryFilterType inventoryFilterType) {
+    private MiniSketchFilter(InventoryFilterType inventoryFilterType, byte[] sketch, int numElements) {
         super(inventoryFilterType);
 
+        this.sketch = sketch;
+        this.numElements = numElements;
+
         verify();
     }
 
     @Override
     public void verify() {
         checkArgument(inventoryFilterType == InventoryFilterType.MINI_SKETCH);
+        checkArgument(sketch.length % Long.BYTES == 0, "Sketch size must be a multiple of 8");
+        int capacity = getCapacity();
+        checkArgument(capacity >= MIN_CAPACITY && capacity <= MAX_CAPACITY,
+                "Sketch capacity out of range. capacity=" + capacity);
+        checkArgument(numElements >= 0);
     }
 
     @Override
@@ -59,15 +89,29 @@ public final class MiniSketchFilter extends InventoryFilter {
     @Override
     public bisq.network.protobuf.InventoryFilter.Builder getBuilder(boolean serializeForHash) {
         return getInventoryFilterBuilder().setMiniSketchFilter(
-                bisq.network.protobuf.MiniSketchFilter.newBuilder());
+                bisq.network.protobuf.MiniSketchFilter.newBuilder()
+                        .setSketch(ByteString.copyFrom(sketch))
+                        .setNumElements(numElements));
     }
 
     public static MiniSketchFilter fromProto(bisq.network.protobuf.InventoryFilter proto) {
-        return new MiniSketchFilter(InventoryFilterType.fromProto(proto.getInventoryFilterType()));
+        bisq.network.protobuf.MiniSketchFilter miniSketchFilter = proto.getMiniSketchFilter();
+        return new MiniSketchFilter(InventoryFilterType.fromProto(proto.getInventoryFilterType()),
+                miniSketchFilter.getSketch().toByteArray(),
+                miniSketchFilter.getNumElements());
+    }
+
+    public int getCapacity() {
+        return sketch.length / Long.BYTES;
+    }
+
+    public MiniSketch getMiniSketch() {
+        return MiniSketch.fromBytes(sketch);
     }
 
     @Override
     public String getDetails() {
-        return "MiniSketchFilter";
+        return "MiniSketchFilter with capacity " + getCapacity() + " for " + numElements + " elements and size of " +
+                ByteUnit.BYTE.toKB(getSerializedSize()) + " KB";
     }
-}
\ No newline at end of file
+}
@@ -18,43 +18,78 @@
 package bisq.network.p2p.services.data.inventory.filter.mini_sketch;
 
 import bisq.common.data.ByteArray;
+import bisq.network.p2p.services.data.DataRequest;
+import bisq.network.p2p.services.data.inventory.Inventory;
 import bisq.network.p2p.services.data.inventory.filter.FilterService;
 import bisq.network.p2p.services.data.inventory.filter.InventoryFilter;
 import bisq.network.p2p.services.data.inventory.filter.InventoryFilterType;
+import bisq.network.p2p.services.data.inventory.filter.InventoryIndex;
 import bisq.network.p2p.services.data.storage.StorageService;
-import bisq.network.p2p.services.data.storage.append.AddAppendOnlyDataRequest;
-import bisq.network.p2p.services.data.storage.auth.AuthenticatedDataRequest;
-import bisq.network.p2p.services.data.storage.mailbox.MailboxRequest;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
 
 /**
- * Skeleton for planned MiniSketch implementation based on <a href="https://github.com/sipa/minisketch">https://github.com/sipa/minisketch</a>
+ * Set reconciliation based on <a href="https://github.com/sipa/minisketch">https://github.com/sipa/minisketch</a>.
+ * <p>
+ * Each data request is mapped to a 64 bit element derived from its map key (hash) and sequence number. The requester
+ * sends the sketch of its elements. The responder merges it with the sketch of its own elements and decodes the
+ * symmetric difference. The elements of the difference which we have are the missing data of the requester.
+ * If the difference exceeds the capacity of the sketch, decoding fails and we respond with
+ * {@link Inventory#filterDecodingFailed()}, so that the requester can fall back to the HashSetFilter.
+ * <p>
+ * As creating the sketch of all elements is expensive, we keep our sketch and only apply the changes since the last
+ * usage.
  */
 @Slf4j
 public class MiniSketchFilterService extends FilterService<MiniSketchFilter> {
+    // 128 * 8 bytes = 1 KB
+    public final static int DEFAULT_CAPACITY = 128;
+
+    private long[] sketchElements = new long[0];
+    private Optional<MiniSketch> sketch = Optional.empty();
+
     public MiniSketchFilterService(StorageService storageService, int maxSize) {
         super(storageService, maxSize);
     }
 
-    public MiniSketchFilter getFilter() {
-        return new MiniSketchFilter();
+    public MiniSketchFilterService(StorageService storageService, InventoryIndex inventoryIndex, int maxSize) {
+        super(storageService, inventoryIndex, maxSize);
     }
 
-    @Override
-    protected boolean isAuthenticatedDataRequestMissing(MiniSketchFilter filter, Map.Entry<ByteArray, AuthenticatedDataRequest> mapEntry) {
-        return true;
+    public MiniSketchFilter getFilter() {
+        long[] elements = getSortedElements();
+        return new MiniSketchFilter(getSketch(elements, DEFAULT_CAPACITY), elements.length);
     }
 
-    @Override
-    protected boolean isMailboxRequestMissing(MiniSketchFilter filter, Map.Entry<ByteArray, MailboxRequest> mapEntry) {
-        return true;
+    /**
+     * If we have fewer elements than the sketch capacity, we are likely bootstrapping and the difference to the
+     * peers data would exceed the capacity. In that case the HashSetFilter is small anyway and should be preferred.
+     */
+    public boolean isDifferenceLikelyExceedingCapacity() {
+        return storageService.getAllDataRequestMapEntries().limit(DEFAULT_CAPACITY).count() < DEFAULT_CAPACITY;
     }
 
     @Override
-    protected boolean isAddAppendOnlyDataRequestMissing(MiniSketchFilter filter, Map.Entry<ByteArray, AddAppendOnlyDataRequest> mapEntry) {
-        return true;
+    public Optional<Predicate<InventoryIndex.Entry>> findMissingDataPredicate(InventoryFilter inventoryFilter) {
+        MiniSketchFilter filter = safeCast(inventoryFilter);
+        Optional<Set<Long>> missingElements = decodeMissingElements(filter);
+        if (missingElements.isEmpty()) {
+            log.info("Decoding the MiniSketchFilter failed. The difference to the requesters data is likely larger " +
+                    "than the capacity of {}", filter.getCapacity());
+            return Optional.empty();
+        }
+        if (missingElements.get().isEmpty()) {
+            return Optional.of(entry -> false);
+        }
+
+        filter.setMissingElements(missingElements);
+        return super.findMissingDataPredicate(filter);
     }
 
     @Override
@@ -65,4 +100,95 @@ public class MiniSketchFilterService extends FilterService<MiniSketchFilter> {
         }
         throw new IllegalArgumentException("InventoryFilter not of expected type. inventoryFilter=" + inventoryFilter);
     }
+
+    @Override
+    protected boolean isMissing(MiniSketchFilter filter, Map.Entry<ByteArray, ? extends DataRequest> mapEntry) {
+        return filter.getMissingElements()
+                .map(missingElements -> missingElements.contains(toElement(mapEntry)))
+                .orElse(false);
+    }
+
+    private Optional<Set<Long>> decodeMissingElements(MiniSketchFilter filter) {
+        long[] elements = getSortedElements();
+        MiniSketch difference = getSketch(elements, filter.getCapacity());
+        difference.merge(filter.getMiniSketch());
+        Optional<long[]> decoded = difference.decode();
+        if (decoded.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Set<Long> missingElements = new HashSet<>();
+        for (long element : decoded.get()) {
+            if (Arrays.binarySearch(elements, element) >= 0) {
+                missingElements.add(element);
+            }
+        }
+        // If the difference exceeds the capacity there is a small chance that the decoding results in a wrong set.
+        // We verify the result with the number of elements the requester has.
+        int numElementsOnlyAtRequester = decoded.get().length - missingElements.size();
+        int expectedNumElements = elements.length - missingElements.size() + numElementsOnlyAtRequester;
+        if (expectedNumElements != filter.getNumElements()) {
+            log.info("Decoded difference does not match requesters number of elements. " +
+                    "expectedNumElements={}; filter.getNumElements()={}", expectedNumElements, filter.getNumElements());
+            return Optional.empty();
+        }
+        return Optional.of(missingElements);
+    }
+
+    private long[] getSortedElements() {
+        return storageService.getAllDataRequestMapEntries()
+                .mapToLong(MiniSketchFilterService::toElement)
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+
+    // Applies the difference between the elements used at the last call and the given elements to our sketch.
+    private synchronized MiniSketch getSketch(long[] sortedElements, int capacity) {
+        if (sketch.isEmpty() || sketch.get().getCapacity() < capacity) {
+            MiniSketch newSketch = new MiniSketch(Math.max(capacity, DEFAULT_CAPACITY));
+            for (long element : sortedElements) {
+                newSketch.add(element);
+            }
+            sketch = Optional.of(newSketch);
+        } else {
+            MiniSketch existingSketch = sketch.get();
+            int i = 0;
+            int j = 0;
+            while (i < sketchElements.length || j < sortedElements.length) {
+                if (j == sortedElements.length || (i < sketchElements.length && sketchElements[i] < sortedElements[j])) {
+                    // Removed since last call. Adding it again removes it from the sketch.
+                    existingSketch.add(sketchElements[i++]);
+                } else if (i == sketchElements.length || sortedElements[j] < sketchElements[i]) {
+                    existingSketch.add(sortedElements[j++]);
+                } else {
+                    i++;
+                    j++;
+                }
+            }
+        }
+        sketchElements = sortedElements;
+        return sketch.get().truncate(capacity);
+    }
+
+    private static long toElement(Map.Entry<ByteArray, ? extends DataRequest> mapEntry) {
+        return toElement(mapEntry.getKey().getBytes(), getSequenceNumber(mapEntry.getValue()));
+    }
+
+    /**
+     * Maps the hash and sequence number to a non-zero 64 bit element. Changing that mapping breaks compatibility with
+     * peers using the MINI_SKETCH feature.
+     */
+    static long toElement(byte[] hash, int sequenceNumber) {
+        long element = sequenceNumber;
+        long chunk = 0;
+        for (int i = 0; i < hash.length; i++) {
+            chunk = (chunk << 8) | (hash[i] & 0xFF);
+            if (i % Long.BYTES == Long.BYTES - 1 || i == hash.length - 1) {
+                element = MiniSketch.mix(element ^ chunk);
+                chunk = 0;
+            }
+        }
+        return element == 0 ? 1 : element;
+    }
 }
@@ -27,24 +27,39 @@ import bisq.network.p2p.services.data.storage.auth.RemoveAuthenticatedDataReques
 import bisq.network.p2p.services.data.storage.mailbox.AddMailboxRequest;
 import bisq.network.p2p.services.data.storage.mailbox.RemoveMailboxRequest;
 import bisq.persistence.DbSubDirectory;
-import bisq.persistence.Persistence;
+import bisq.persistence.PersistenceClient;
 import bisq.persistence.PersistenceService;
-import bisq.persistence.RateLimitedPersistenceClient;
 import bisq.persistence.backup.MaxBackupSize;
+import bisq.persistence.journal.JournaledPersistence;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
-public abstract class DataStorageService<T extends DataRequest> extends RateLimitedPersistenceClient<DataStore<T>> {
+public abstract class DataStorageService<T extends DataRequest> implements PersistenceClient<DataStore<T>> {
     public static final String STORE_POST_FIX = "Store";
+    private static final int NUM_LOCK_STRIPES = 64;
+
+    // Notifications of the map updates under one lock stripe, delivered in the order the map got updated
+    private static final class NotificationQueue {
+        private final Queue<Runnable> pending = new ArrayDeque<>();
+        private boolean isDelivering;
+    }
 
     @Getter
-    protected final Persistence<DataStore<T>> persistence;
+    protected final JournaledPersistence<DataStore<T>> persistence;
     @Getter
     protected final DataStore<T> persistableStore = new DataStore<>();
     @Getter
@@ -54,15 +69,26 @@ public abstract class DataStorageService<T extends DataRequest> extends RateLimi
     @Getter
     protected final ObservableSet<DataRequest> prunedAndExpiredDataRequests = new ObservableSet<>();
     protected Optional<Integer> maxMapSize = Optional.empty();
+    // Locks for the compare-and-set of map entries, striped by key so that writes of different entries do not block
+    // each other.
+    private final Object[] lockStripes = new Object[NUM_LOCK_STRIPES];
+    private final NotificationQueue[] notificationQueues = new NotificationQueue[NUM_LOCK_STRIPES];
+    // Taken after the lock of the key, so that the size check and the put of a new key are atomic across all stripes
+    private final Object mapSizeLock = new Object();
+    private final ExpiryIndex<T> expiryIndex = new ExpiryIndex<>();
+    // Only used for logging. All entries of a store have the same type, thus we look it up only once.
+    private volatile Optional<String> storeClassName = Optional.empty();
 
     public DataStorageService(PersistenceService persistenceService, String storeName, String storeKey) {
-        super();
-
         this.storeKey = storeKey;
+        for (int i = 0; i < lockStripes.length; i++) {
+            lockStripes[i] = new Object();
+            notificationQueues[i] = new NotificationQueue();
+        }
         String storageFileName = storeKey + STORE_POST_FIX;
         DbSubDirectory dbSubDirectory = DbSubDirectory.NETWORK_DB;
         subDirPath = dbSubDirectory.getDbPath().resolve(storeName);
-        persistence = persistenceService.getOrCreatePersistence(this,
+        persistence = persistenceService.getOrCreateJournaledPersistence(this,
                 subDirPath,
                 storageFileName,
                 persistableStore,
@@ -72,6 +98,123 @@ public abstract class DataStorageService<T extends DataRequest> extends RateLimi
     public void shutdown() {
         prunedAndExpiredDataRequests.clear();
         maxMapSize = Optional.empty();
+        expiryIndex.clear();
+    }
+
+    // Writes a new snapshot of the whole store. Should be only used after bulk changes, otherwise use persistEntry.
+    @Override
+    public CompletableFuture<Boolean> persist() {
+        return persistence.compactAsync()
+                .handle((nil, throwable) -> throwable == null);
+    }
+
+    protected void persistEntry(ByteArray key) {
+        persistence.persistEntry(key);
+    }
+
+    protected Object getLock(ByteArray key) {
+        return lockStripes[getStripeIndex(key)];
+    }
+
+    /**
+     * Puts the request into the map unless the key is new and the map has reached the max size.
+     * Must be called with the lock of the key held.
+     *
+     * @return False if the request was not put because of the max map size
+     */
+    protected boolean putIfNotExceedingMapSize(ByteArray key, T dataRequest) {
+        Map<ByteArray, T> map = persistableStore.getMap();
+        if (map.containsKey(key)) {
+            map.put(key, dataRequest);
+            return true;
+        }
+        synchronized (mapSizeLock) {
+            if (isExceedingMapSize()) {
+                return false;
+            }
+            map.put(key, dataRequest);
+            return true;
+        }
+    }
+
+    /**
+     * Queues the notification of the listeners about a map update. Must be called with the lock of the key held, so
+     * that the notifications of a key are queued in the same order as the map updates. The notification gets
+     * delivered by {@link #deliverNotifications(ByteArray)}.
+     */
+    protected void queueNotification(ByteArray key, Runnable notification) {
+        NotificationQueue queue = notificationQueues[getStripeIndex(key)];
+        synchronized (queue) {
+            queue.pending.add(notification);
+        }
+    }
+
+    /**
+     * Delivers the queued notifications of the lock stripe of the key. Must be called after the lock of the key got
+     * released, so that listeners do not block writers. If another thread is delivering the notifications of that
+     * stripe already, it delivers ours as well, thus listeners never see the updates of a key out of order.
+     */
+    protected void deliverNotifications(ByteArray key) {
+        NotificationQueue queue = notificationQueues[getStripeIndex(key)];
+        synchronized (queue) {
+            if (queue.isDelivering) {
+                return;
+            }
+            queue.isDelivering = true;
+        }
+        while (true) {
+            Runnable notification;
+            synchronized (queue) {
+                notification = queue.pending.poll();
+                if (notification == null) {
+                    queue.isDelivering = false;
+                    return;
+                }
+            }
+            try {
+                notification.run();
+            } catch (Exception e) {
+                log.error("Notifying listeners failed", e);
+            }
+        }
+    }
+
+    private int getStripeIndex(ByteArray key) {
+        return Math.floorMod(key.hashCode(), lockStripes.length);
+    }
+
+    // Needs to be called whenever a request is put into the map, so that it gets pruned once expired.
+    protected void addToExpiryIndex(ByteArray key, T dataRequest) {
+        expiryIndex.add(key, dataRequest);
+    }
+
+    // Needs to be called after the map has been replaced as a whole.
+    protected void rebuildExpiryIndex() {
+        expiryIndex.rebuild(persistableStore.getMap());
+    }
+
+    /**
+     * Removes the expired entries from the map. Only the entries which are due according to the expiry index are
+     * checked.
+     *
+     * @return The removed entries
+     */
+    protected List<Map.Entry<ByteArray, T>> removeExpired() {
+        Map<ByteArray, T> map = persistableStore.getMap();
+        List<Map.Entry<ByteArray, T>> removed = new ArrayList<>();
+        for (Map.Entry<ByteArray, T> entry : expiryIndex.pollExpired(map, System.currentTimeMillis())) {
+            ByteArray key = entry.getKey();
+            synchronized (getLock(key)) {
+                // The entry might have been replaced since it was polled from the index
+                if (!map.remove(key, entry.getValue())) {
+                    continue;
+                }
+            }
+            prunedAndExpiredDataRequests.add(entry.getValue());
+            persistEntry(key);
+            removed.add(entry);
+        }
+        return removed;
     }
 
     @Override
@@ -81,21 +224,34 @@ public abstract class DataStorageService<T extends DataRequest> extends RateLimi
             return persisted;
         }
 
-        int maxSize = getMaxMapSize();
-        Map<ByteArray, T> pruned = map.entrySet().stream()
-                .filter(entry -> {
-                    T dataRequest = entry.getValue();
-                    boolean isExpired = dataRequest.isExpired();
-                    if (isExpired) {
-                        prunedAndExpiredDataRequests.add(dataRequest);
-                    }
-                    return !isExpired;
-                })
-                .sorted((o1, o2) -> Long.compare(o2.getValue().getCreated(), o1.getValue().getCreated()))
-                .limit(maxSize)
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-        map.clear();
-        map.putAll(pruned);
+        List<ByteArray> keysToRemove = new ArrayList<>();
+        map.forEach((key, dataRequest) -> {
+            if (dataRequest.isExpired()) {
+                prunedAndExpiredDataRequests.add(dataRequest);
+                keysToRemove.add(key);
+            }
+        });
+
+        // If we exceed the max size, we remove the oldest entries. We keep only the entries to remove in a heap with
+        // the newest at the head, so the cost depends on the number of exceeding entries, not on the size of the map.
+        int numExceeding = map.size() - keysToRemove.size() - getMaxMapSize();
+        if (numExceeding > 0) {
+            Set<ByteArray> expiredKeys = new HashSet<>(keysToRemove);
+            Comparator<Map.Entry<ByteArray, T>> byCreated =
+                    Comparator.comparingLong(entry -> entry.getValue().getCreated());
+            PriorityQueue<Map.Entry<ByteArray, T>> oldest = new PriorityQueue<>(numExceeding + 1, byCreated.reversed());
+            map.entrySet().stream()
+                    .filter(entry -> !expiredKeys.contains(entry.getKey()))
+                    .forEach(entry -> {
+                        oldest.add(Map.entry(entry.getKey(), entry.getValue()));
+                        if (oldest.size() > numExceeding) {
+                            oldest.poll();
+                        }
+                    });
+            oldest.forEach(entry -> keysToRemove.add(entry.getKey()));
+        }
+
+        keysToRemove.forEach(map::remove);
         return persisted;
     }
 
@@ -111,52 +267,43 @@ public abstract class DataStorageService<T extends DataRequest> extends RateLimi
         return maxMapSize.get();
     }
 
+    // Returns true if the map has reached the max size, thus adding a new entry would exceed it
     protected boolean isExceedingMapSize() {
         int size = persistableStore.getMap().size();
-        boolean isExceeding = size > getMaxMapSize();
+        boolean isExceeding = size >= getMaxMapSize();
         if (isExceeding) {
-            String className = persistableStore.getMap().values().stream()
-                    .findFirst()
-                    .map(dataRequest -> {
-                        if (dataRequest instanceof AddAuthenticatedDataRequest addRequest) {
-                            return addRequest.getDistributedData().getClass().getSimpleName();
-                        } else if (dataRequest instanceof RemoveAuthenticatedDataRequest removeRequest) {
-                            return removeRequest.getClassName();
-                        } else if (dataRequest instanceof RefreshAuthenticatedDataRequest request) {
-                            return request.getClassName();
-                        } else if (dataRequest instanceof AddAppendOnlyDataRequest addRequest) {
-                            return addRequest.getAppendOnlyData().getClass().getSimpleName();
-                        } else if (dataRequest instanceof AddMailboxRequest addRequest) {
-                            return addRequest.getMailboxSequentialData().getMailboxData().getClassName();
-                        } else if (dataRequest instanceof RemoveMailboxRequest removeRequest) {
-                            return removeRequest.getClassName();
-                        }
-                        return "N/A";
-                    }).orElse("N/A");
             log.warn("Max. map size reached for {}. map.size()={}, getMaxMapSize={}",
-                    className, size, getMaxMapSize());
+                    getStoreClassName(), size, getMaxMapSize());
         }
         if (size > 20_000) {
-            String className = persistableStore.getMap().values().stream()
-                    .findFirst()
-                    .map(dataRequest -> {
-                        if (dataRequest instanceof AddAuthenticatedDataRequest addRequest) {
-                            return addRequest.getDistributedData().getClass().getSimpleName();
-                        } else if (dataRequest instanceof RemoveAuthenticatedDataRequest removeRequest) {
-                            return removeRequest.getClassName();
-                        } else if (dataRequest instanceof RefreshAuthenticatedDataRequest request) {
-                            return request.getClassName();
-                        } else if (dataRequest instanceof AddAppendOnlyDataRequest addRequest) {
-                            return addRequest.getAppendOnlyData().getClass().getSimpleName();
-                        } else if (dataRequest instanceof AddMailboxRequest addRequest) {
-                            return addRequest.getMailboxSequentialData().getMailboxData().getClassName();
-                        } else if (dataRequest instanceof RemoveMailboxRequest removeRequest) {
-                            return removeRequest.getClassName();
-                        }
-                        return "N/A";
-                    }).orElse("N/A");
-            log.info("Map size for {} reached > 20 000 entries. map.size()={}", className, size);
+            log.info("Map size for {} reached > 20 000 entries. map.size()={}", getStoreClassName(), size);
         }
         return isExceeding;
     }
+
+    private String getStoreClassName() {
+        if (storeClassName.isEmpty()) {
+            storeClassName = persistableStore.getMap().values().stream()
+                    .findFirst()
+                    .map(DataStorageService::getClassName);
+        }
+        return storeClassName.orElse("N/A");
+    }
+
+    private static String getClassName(DataRequest dataRequest) {
+        if (dataRequest instanceof AddAuthenticatedDataRequest addRequest) {
+            return addRequest.getDistributedData().getClass().getSimpleName();
+        } else if (dataRequest instanceof RemoveAuthenticatedDataRequest removeRequest) {
+            return removeRequest.getClassName();
+        } else if (dataRequest instanceof RefreshAuthenticatedDataRequest request) {
+            return request.getClassName();
+        } else if (dataRequest instanceof AddAppendOnlyDataRequest addRequest) {
+            return addRequest.getAppendOnlyData().getClass().getSimpleName();
+        } else if (dataRequest instanceof AddMailboxRequest addRequest) {
+            return addRequest.getMailboxSequentialData().getMailboxData().getClassName();
+        } else if (dataRequest instanceof RemoveMailboxRequest removeRequest) {
+            return removeRequest.getClassName();
+        }
+        return "N/A";
+    }
 }
@@ -18,10 +18,12 @@
 package bisq.network.p2p.services.data.storage;
 
 import bisq.common.data.ByteArray;
+import bisq.common.data.VersionedMap;
 import bisq.common.proto.ProtoResolver;
 import bisq.common.proto.UnresolvableProtobufMessageException;
 import bisq.network.p2p.services.data.DataRequest;
 import bisq.persistence.PersistableStore;
+import bisq.persistence.journal.JournaledPersistableStore;
 import com.google.protobuf.InvalidProtocolBufferException;
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -29,19 +31,23 @@ import lombok.NoArgsConstructor;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @NoArgsConstructor(access = AccessLevel.PACKAGE)
 @Slf4j
 @ToString
-public final class DataStore<T extends DataRequest> implements PersistableStore<DataStore<T>> {
+public final class DataStore<T extends DataRequest> implements JournaledPersistableStore<DataStore<T>> {
+    // Keys are RIPEMD160 hashes of the data
+    private static final int KEY_WIDTH = 20;
+
+    // Changes are counted, so that readers can share an immutable snapshot as long as the map is not changed.
+    // Keys are stored inline as there are hundreds of thousands of entries on seed nodes.
     @Getter(AccessLevel.PUBLIC)
-    private final Map<ByteArray, T> map = new ConcurrentHashMap<>();
+    private final VersionedMap<ByteArray, T> map = VersionedMap.withFixedWidthKeys(KEY_WIDTH);
 
     DataStore(Map<ByteArray, T> map) {
         this.map.putAll(map);
@@ -95,15 +101,37 @@ public final class DataStore<T extends DataRequest> implements PersistableStore<
         map.putAll(persisted.getMap());
     }
 
+    @Override
+    public Optional<byte[]> serializeEntry(ByteArray key) {
+        return Optional.ofNullable(map.get(key))
+                .map(dataRequest -> dataRequest.toDataRequestProto(false).toByteArray());
+    }
+
+    @Override
+    public void applyJournalRecord(ByteArray key, Optional<byte[]> value) {
+        if (value.isEmpty()) {
+            map.remove(key);
+            return;
+        }
+        try {
+            //noinspection unchecked
+            T dataRequest = (T) DataRequest.fromProto(bisq.network.protobuf.DataRequest.parseFrom(value.get()));
+            map.put(key, dataRequest);
+        } catch (Exception e) {
+            log.warn("Could not apply journal record for key {}", key, e);
+        }
+    }
+
     @Override
     public DataStore<T> getClone() {
-        return new DataStore<>(Map.copyOf(map));
+        return new DataStore<>(map.getSnapshotMap());
     }
 
-    // This is only temporary to not risk that we get an exception if a client mutates
-    // the map which is a not valid case, but we the mobile release we prefer to avoid the risk to run into an exception.
-    // For main and for a major mobile update we should remove that.
-    public DataStore<T> getMutableClone() {
-        return new DataStore<>(new HashMap<>(map));
+    /**
+     * @return An immutable view of the map. It is shared by all readers until the map gets changed, so it is cheap
+     * to call it repeatedly.
+     */
+    public Map<ByteArray, T> getSnapshot() {
+        return map.getSnapshotMap();
     }
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.services.data.storage;
+
+import bisq.common.data.ByteArray;
+import bisq.network.p2p.services.data.DataRequest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Entries of a store ordered by their expiry date, so that pruning only needs to look at the entries which are due
+ * instead of checking the whole map.
+ * <p>
+ * Entries are added whenever a request is put into the map. Replaced or removed entries are not removed from the
+ * index but skipped at polling, as we only prune the request if it is still the one in the map. If the index grows
+ * much larger than the map due to such stale entries, it gets rebuilt from the map.
+ */
+final class ExpiryIndex<T extends DataRequest> {
+    private static final int MIN_SIZE_FOR_REBUILD = 1000;
+
+    private record Entry<T>(long expiryDate, ByteArray key, T dataRequest) {
+    }
+
+    private final PriorityQueue<Entry<T>> queue = new PriorityQueue<>(Comparator.comparingLong(Entry::expiryDate));
+
+    synchronized void add(ByteArray key, T dataRequest) {
+        long expiryDate = dataRequest.getExpiryDate();
+        if (expiryDate != Long.MAX_VALUE) {
+            queue.add(new Entry<>(expiryDate, key, dataRequest));
+        }
+    }
+
+    synchronized void rebuild(Map<ByteArray, T> map) {
+        queue.clear();
+        map.forEach(this::add);
+    }
+
+    synchronized void clear() {
+        queue.clear();
+    }
+
+    synchronized int size() {
+        return queue.size();
+    }
+
+    /**
+     * Removes the entries which are due and returns those which are still present in the map and are expired.
+     * The caller is responsible for removing them from the map.
+     */
+    synchronized List<Map.Entry<ByteArray, T>> pollExpired(Map<ByteArray, T> map, long now) {
+        List<Map.Entry<ByteArray, T>> expired = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().expiryDate() < now) {
+            Entry<T> entry = queue.poll();
+            // Identity check as the entry might have been replaced by an equal request with a different expiry date
+            if (map.get(entry.key()) == entry.dataRequest() && entry.dataRequest().isExpired()) {
+                expired.add(Map.entry(entry.key(), entry.dataRequest()));
+            }
+        }
+        if (queue.size() > MIN_SIZE_FOR_REBUILD && queue.size() > 2 * map.size()) {
+            rebuild(map);
+        }
+        return expired;
+    }
+}
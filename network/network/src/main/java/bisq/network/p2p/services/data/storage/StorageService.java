@@ -20,6 +20,7 @@ package bisq.network.p2p.services.data.storage;
 
 import bisq.common.data.ByteArray;
 import bisq.common.proto.NetworkStorageWhiteList;
+import bisq.common.threading.ExecutorFactory;
 import bisq.common.util.StringUtils;
 import bisq.network.p2p.services.data.AddDataRequest;
 import bisq.network.p2p.services.data.DataRequest;
@@ -57,6 +58,8 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -68,6 +71,8 @@ import static bisq.network.p2p.services.data.storage.StoreType.MAILBOX_DATA_STOR
 
 @Slf4j
 public class StorageService {
+    private static final int VERIFICATION_QUEUE_CAPACITY = 1000;
+
     // TODO Use a field for a single handler as only one listener is used by DataService
     public interface Listener {
         void onAdded(StorageData storageData);
@@ -89,10 +94,21 @@ public class StorageService {
     private final PersistenceService persistenceService;
     private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
     private final PruneExpiredEntriesService pruneExpiredEntriesService = new PruneExpiredEntriesService();
+    // Requests are validated in parallel as signature verification is expensive. If all threads are busy and the queue
+    // is full, the caller runs the task itself, which throttles the producer (e.g. processing an inventory response).
+    private final ExecutorService verificationExecutor;
 
     public StorageService(PersistenceService persistenceService) {
         this.persistenceService = persistenceService;
 
+        int numVerificationThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        verificationExecutor = ExecutorFactory.boundedCachedPool("StorageService.verification",
+                numVerificationThreads,
+                numVerificationThreads,
+                30,
+                VERIFICATION_QUEUE_CAPACITY,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
         pruneExpiredEntriesService.initialize();
 
         // We create all stores for those files we have already persisted.
@@ -230,6 +246,8 @@ public class StorageService {
         appendOnlyDataStores.values().forEach(DataStorageService::shutdown);
         appendOnlyDataStores.clear();
         listeners.clear();
+
+        ExecutorFactory.shutdownAndAwaitTermination(verificationExecutor);
     }
 
 
@@ -241,17 +259,19 @@ public class StorageService {
         return authenticatedDataStores.values().stream().flatMap(this::getAuthenticatedData);
     }
 
+    // Stores are keyed by the class name of the distributed data, so we only iterate the store of that class
     public Stream<AuthenticatedData> getAuthenticatedData(String storeKey) {
-        return getAuthenticatedData(getStoreByFileName(storeKey));
+        return Optional.ofNullable(authenticatedDataStores.get(storeKey)).stream()
+                .flatMap(this::getAuthenticatedData);
     }
 
-    private Stream<AuthenticatedData> getAuthenticatedData(Stream<DataStorageService<? extends DataRequest>> stores) {
-        return stores.flatMap(this::getAuthenticatedData);
+    public Stream<AuthenticatedData> getAuthenticatedDataByOwner(String storeKey, byte[] ownerPubKeyHash) {
+        return Optional.ofNullable(authenticatedDataStores.get(storeKey)).stream()
+                .flatMap(store -> store.getAuthenticatedDataByOwner(ownerPubKeyHash).stream());
     }
 
     private Stream<AuthenticatedData> getAuthenticatedData(DataStorageService<? extends DataRequest> store) {
-        // todo use getClone once tested enough on main
-        return store.getPersistableStore().getMutableClone().getMap().values().stream()
+        return store.getPersistableStore().getSnapshot().values().stream()
                 .filter(e -> e instanceof AddAuthenticatedDataRequest)
                 .map(e -> (AddAuthenticatedDataRequest) e)
                 .map(e -> e.getAuthenticatedSequentialData().getAuthenticatedData());
@@ -279,7 +299,7 @@ public class StorageService {
     private CompletableFuture<Optional<StorageData>> onAddMailboxRequest(AddMailboxRequest request) {
         MailboxData mailboxData = request.getMailboxSequentialData().getMailboxData();
         return getOrCreateMailboxDataStore(mailboxData.getClassName())
-                .thenApply(store -> {
+                .thenApplyAsync(store -> {
                     DataStorageResult dataStorageResult = store.add(request);
                     if (dataStorageResult.isSuccess()) {
                         return Optional.of(mailboxData);
@@ -289,13 +309,13 @@ public class StorageService {
                         }
                         return Optional.empty();
                     }
-                });
+                }, verificationExecutor);
     }
 
     private CompletableFuture<Optional<StorageData>> onAddAuthenticatedDataRequest(AddAuthenticatedDataRequest request) {
         AuthenticatedData authenticatedData = request.getAuthenticatedSequentialData().getAuthenticatedData();
         return getOrCreateAuthenticatedDataStore(authenticatedData.getClassName())
-                .thenApply(store -> {
+                .thenApplyAsync(store -> {
                     DataStorageResult dataStorageResult = store.add(request);
                     if (dataStorageResult.isSuccess()) {
                         return Optional.of(authenticatedData);
@@ -305,7 +325,7 @@ public class StorageService {
                         }
                         return Optional.empty();
                     }
-                });
+                }, verificationExecutor);
     }
 
     private CompletableFuture<Optional<StorageData>> onAddAppendOnlyDataRequest(AddAppendOnlyDataRequest request) {
@@ -343,7 +363,7 @@ public class StorageService {
 
     private CompletableFuture<Optional<StorageData>> onRemoveMailboxRequest(RemoveMailboxRequest request) {
         return getOrCreateMailboxDataStore(request.getClassName())
-                .thenApply(store -> {
+                .thenApplyAsync(store -> {
                     DataStorageResult dataStorageResult = store.remove(request);
                     if (dataStorageResult.isSuccess()) {
                         return Optional.ofNullable(dataStorageResult.getRemovedData());
@@ -353,12 +373,12 @@ public class StorageService {
                         }
                         return Optional.empty();
                     }
-                });
+                }, verificationExecutor);
     }
 
     private CompletableFuture<Optional<StorageData>> onRemoveAuthenticatedDataRequest(RemoveAuthenticatedDataRequest request) {
         return getOrCreateAuthenticatedDataStore(request.getClassName())
-                .thenApply(store -> {
+                .thenApplyAsync(store -> {
                     DataStorageResult dataStorageResult = store.remove(request);
                     if (dataStorageResult.isSuccess()) {
                         return Optional.ofNullable(dataStorageResult.getRemovedData());
@@ -368,26 +388,23 @@ public class StorageService {
                         }
                         return Optional.empty();
                     }
-                });
+                }, verificationExecutor);
     }
 
     public Stream<Map<ByteArray, AuthenticatedDataRequest>> getAuthenticatedDataStoreMaps() {
-        // todo use getClone once tested enough on main
-        return authenticatedDataStores.values().stream().map(store -> store.getPersistableStore().getMutableClone().getMap());
+        return authenticatedDataStores.values().stream().map(store -> store.getPersistableStore().getSnapshot());
     }
 
     public Stream<Map<ByteArray, MailboxRequest>> getMailboxStoreMaps() {
-        // todo use getClone once tested enough on main
-        return mailboxStores.values().stream().map(store -> store.getPersistableStore().getMutableClone().getMap());
+        return mailboxStores.values().stream().map(store -> store.getPersistableStore().getSnapshot());
     }
 
     public Stream<Map<ByteArray, AddAppendOnlyDataRequest>> getAddAppendOnlyDataStoreMaps() {
-        // todo use getClone once tested enough on main
-        return appendOnlyDataStores.values().stream().map(store -> store.getPersistableStore().getMutableClone().getMap());
+        return appendOnlyDataStores.values().stream().map(store -> store.getPersistableStore().getSnapshot());
     }
 
     public Stream<Map.Entry<ByteArray, ? extends DataRequest>> getAllDataRequestMapEntries() {
-        return getStoresByStoreType(ALL).flatMap(store -> new HashMap<>(store.getPersistableStore().getMap()).entrySet().stream());
+        return getStoresByStoreType(ALL).flatMap(store -> store.getPersistableStore().getSnapshot().entrySet().stream());
     }
 
     public long getNetworkDatabaseSize() {
@@ -401,8 +418,7 @@ public class StorageService {
     }
 
     private Stream<MailboxData> getMailboxData(DataStorageService<? extends DataRequest> store) {
-        // todo use getClone once tested enough on main
-        return store.getPersistableStore().getMutableClone().getMap().values().stream()
+        return store.getPersistableStore().getSnapshot().values().stream()
                 .filter(e -> e instanceof AddMailboxRequest)
                 .map(e -> (AddMailboxRequest) e)
                 .map(e -> e.getMailboxSequentialData().getMailboxData());
@@ -580,6 +596,7 @@ public class StorageService {
             log.info("cleanupMap for {}: size of cleaned map {}; size of original map={}", storeKey, cleaned.size(), map.size());
             map.clear();
             map.putAll(cleaned);
+            authenticatedDataStorageService.rebuildExpiryIndex();
             authenticatedDataStorageService.persist();
         } catch (Exception e) {
             e.printStackTrace();
@@ -607,11 +624,6 @@ public class StorageService {
         return dataStorageServiceStream.stream();
     }
 
-    private Stream<DataStorageService<? extends DataRequest>> getStoreByFileName(String storeKey) {
-        return getAllStores()
-                .filter(store -> storeKey.equals(store.getStoreKey()));
-    }
-
     private Set<String> getExistingStoreKeys(Path dirPath) {
         return NetworkStorageWhiteList.getClassNames().stream()
                 .filter(className -> {
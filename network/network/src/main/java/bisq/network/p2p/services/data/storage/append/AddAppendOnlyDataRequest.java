@@ -17,6 +17,8 @@
 
 package bisq.network.p2p.services.data.storage.append;
 
+import bisq.common.proto.MemoizedProto;
+import bisq.common.proto.ProtoMemo;
 import bisq.common.util.MathUtils;
 import bisq.network.p2p.services.data.AddDataRequest;
 import bisq.network.p2p.services.data.storage.DistributedData;
@@ -30,8 +32,11 @@ import lombok.extern.slf4j.Slf4j;
 @Getter
 @ToString
 @EqualsAndHashCode
-public final class AddAppendOnlyDataRequest implements AddDataRequest {
+public final class AddAppendOnlyDataRequest implements AddDataRequest, MemoizedProto {
     private final AppendOnlyData appendOnlyData;
+    // transient fields are excluded by default for EqualsAndHashCode
+    @ToString.Exclude
+    private transient final ProtoMemo protoMemo = new ProtoMemo();
 
     public AddAppendOnlyDataRequest(AppendOnlyData appendOnlyData) {
         this.appendOnlyData = appendOnlyData;
@@ -74,6 +79,11 @@ public final class AddAppendOnlyDataRequest implements AddDataRequest {
         return false;
     }
 
+    @Override
+    public long getExpiryDate() {
+        return Long.MAX_VALUE;
+    }
+
     @Override
     public long getCreated() {
         // Used for sorting at pruning, but AppendOnlyData does not get pruned 
@@ -42,7 +42,6 @@ public class AppendOnlyDataStorageService extends DataStorageService<AddAppendOn
 
     // TODO Use a field for a single handler as only one listener is used by StorageService
     private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
-    private final Object mapAccessLock = new Object();
 
     public AppendOnlyDataStorageService(PersistenceService persistenceService, String storeName, String storeKey) {
         super(persistenceService, storeName, storeKey);
@@ -54,29 +53,21 @@ public class AppendOnlyDataStorageService extends DataStorageService<AddAppendOn
         return persisted;
     }
 
-    @SuppressWarnings("RedundantMethodOverride")
-    @Override
-    protected long getMaxWriteRateInMs() {
-        return 1000;
-    }
-
     public DataStorageResult add(AddAppendOnlyDataRequest addAppendOnlyDataRequest) {
         AppendOnlyData appendOnlyData = addAppendOnlyDataRequest.getAppendOnlyData();
         Map<ByteArray, AddAppendOnlyDataRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
-            if (isExceedingMapSize()) {
-                return new DataStorageResult(false).maxMapSizeReached();
-            }
-
-            byte[] hash = DigestUtil.hash(appendOnlyData.serializeForHash());
-            ByteArray byteArray = new ByteArray(hash);
+        byte[] hash = DigestUtil.hash(appendOnlyData.serializeForHash());
+        ByteArray byteArray = new ByteArray(hash);
+        synchronized (getLock(byteArray)) {
             if (map.containsKey(byteArray)) {
                 return new DataStorageResult(false).payloadAlreadyStored();
             }
 
-            map.put(byteArray, addAppendOnlyDataRequest);
+            if (!putIfNotExceedingMapSize(byteArray, addAppendOnlyDataRequest)) {
+                return new DataStorageResult(false).maxMapSizeReached();
+            }
         }
-        persist();
+        persistEntry(byteArray);
         listeners.forEach(listener -> {
             try {
                 listener.onAppended(appendOnlyData);
@@ -18,6 +18,8 @@
 package bisq.network.p2p.services.data.storage.auth;
 
 import bisq.common.encoding.Hex;
+import bisq.common.proto.MemoizedProto;
+import bisq.common.proto.ProtoMemo;
 import bisq.common.util.MathUtils;
 import bisq.common.validation.NetworkDataValidation;
 import bisq.network.p2p.services.data.AddDataRequest;
@@ -43,13 +45,13 @@ import java.util.Optional;
  * The data gets compared with existing map entries and need to be deterministic.
  */
 @Slf4j
-public final class AddAuthenticatedDataRequest implements AuthenticatedDataRequest, AddDataRequest {
+public final class AddAuthenticatedDataRequest implements AuthenticatedDataRequest, AddDataRequest, MemoizedProto {
     public static AddAuthenticatedDataRequest from(AuthenticatedDataStorageService store,
                                                    AuthenticatedData authenticatedData,
                                                    KeyPair keyPair)
             throws GeneralSecurityException {
 
-        byte[] hashForStoreMap = DigestUtil.hash(authenticatedData.serializeForHash());
+        byte[] hashForStoreMap = authenticatedData.getHashForStoreMap();
         byte[] pubKeyHash = DigestUtil.hash(keyPair.getPublic().getEncoded());
         int sequenceNumber = store.getSequenceNumber(hashForStoreMap) + 1;
         AuthenticatedSequentialData data =
@@ -75,6 +77,8 @@ public final class AddAuthenticatedDataRequest implements AuthenticatedDataReque
     private final byte[] ownerPublicKeyBytes;
     // transient fields are excluded by default for EqualsAndHashCode
     private transient final PublicKey ownerPublicKey;
+    @Getter
+    private transient final ProtoMemo protoMemo = new ProtoMemo();
 
     public AddAuthenticatedDataRequest(AuthenticatedSequentialData authenticatedSequentialData,
                                        byte[] signature,
@@ -195,6 +199,11 @@ public final class AddAuthenticatedDataRequest implements AuthenticatedDataReque
         return authenticatedSequentialData.isExpired();
     }
 
+    @Override
+    public long getExpiryDate() {
+        return authenticatedSequentialData.getExpiryDate();
+    }
+
     public DistributedData getDistributedData() {
         return authenticatedSequentialData.getDistributedData();
     }
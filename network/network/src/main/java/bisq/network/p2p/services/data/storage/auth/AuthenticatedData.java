@@ -17,11 +17,14 @@
 
 package bisq.network.p2p.services.data.storage.auth;
 
+import bisq.common.proto.MemoizedProto;
+import bisq.common.proto.ProtoMemo;
 import bisq.common.proto.UnresolvableProtobufMessageException;
 import bisq.network.p2p.services.data.storage.DistributedData;
 import bisq.network.p2p.services.data.storage.MetaData;
 import bisq.network.p2p.services.data.storage.StorageData;
 import bisq.network.p2p.services.data.storage.auth.authorized.AuthorizedData;
+import bisq.security.DigestUtil;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -32,9 +35,12 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 @EqualsAndHashCode
-public abstract class AuthenticatedData implements StorageData {
+public abstract class AuthenticatedData implements StorageData, MemoizedProto {
     @Getter
     protected final DistributedData distributedData;
+    // transient fields are excluded by default for EqualsAndHashCode
+    @Getter
+    private transient final ProtoMemo protoMemo = new ProtoMemo();
 
     public AuthenticatedData(DistributedData distributedData) {
         this.distributedData = distributedData;
@@ -66,6 +72,13 @@ public abstract class AuthenticatedData implements StorageData {
         return distributedData.getClassName();
     }
 
+    /**
+     * @return The hash of the data used as key in the storage map. It is computed only once per instance.
+     */
+    public byte[] getHashForStoreMap() {
+        return protoMemo.getHash(() -> DigestUtil.hash(serializeForHash()));
+    }
+
     @Override
     public String toString() {
         return "AuthenticatedData{" +
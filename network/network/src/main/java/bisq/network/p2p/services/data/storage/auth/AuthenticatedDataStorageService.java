@@ -19,6 +19,7 @@ package bisq.network.p2p.services.data.storage.auth;
 
 import bisq.common.application.DevMode;
 import bisq.common.data.ByteArray;
+import bisq.common.data.VersionedMap;
 import bisq.common.formatter.DataSizeFormatter;
 import bisq.common.util.StringUtils;
 import bisq.network.p2p.services.data.storage.DataStorageResult;
@@ -30,17 +31,18 @@ import bisq.network.p2p.services.data.storage.PruneExpiredEntriesService;
 import bisq.network.p2p.services.data.storage.PublishDateAware;
 import bisq.network.p2p.services.data.storage.auth.authorized.AuthorizedData;
 import bisq.persistence.PersistenceService;
-import bisq.security.DigestUtil;
 import com.google.common.annotations.VisibleForTesting;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -57,9 +59,21 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
         }
     }
 
+    private static final class OwnerIndex {
+        private final long version;
+        private final Map<ByteArray, List<AuthenticatedData>> dataByOwner;
+
+        private OwnerIndex(long version, Map<ByteArray, List<AuthenticatedData>> dataByOwner) {
+            this.version = version;
+            this.dataByOwner = dataByOwner;
+        }
+    }
+
     // TODO Use a field for a single handler as only one listener is used by StorageService
     private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
-    private final Object mapAccessLock = new Object();
+    // Added data by the hash of the owners public key. Built from the map snapshot at the first read after the map
+    // has changed.
+    private volatile OwnerIndex ownerIndex = new OwnerIndex(-1, Map.of());
 
     public AuthenticatedDataStorageService(PersistenceService persistenceService,
                                            PruneExpiredEntriesService pruneExpiredEntriesService,
@@ -74,6 +88,7 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
         maybeLogMapState("onPersistedApplied", persisted);
         pruneInvalidAuthorizedData();
         handlePersistedPublishDateAware(persisted);
+        rebuildExpiryIndex();
     }
 
     @Override
@@ -83,81 +98,95 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
         listeners.clear();
     }
 
+    public List<AuthenticatedData> getAuthenticatedDataByOwner(byte[] ownerPubKeyHash) {
+        return getOwnerIndex().dataByOwner.getOrDefault(new ByteArray(ownerPubKeyHash), List.of());
+    }
+
     public DataStorageResult add(AddAuthenticatedDataRequest request) {
         maybeLogMapState("add", persistableStore);
         AuthenticatedSequentialData authenticatedSequentialData = request.getAuthenticatedSequentialData();
         AuthenticatedData authenticatedData = authenticatedSequentialData.getAuthenticatedData();
         DistributedData distributedData = authenticatedData.distributedData;
-        byte[] hash = DigestUtil.hash(authenticatedData.serializeForHash());
+        byte[] hash = authenticatedData.getHashForStoreMap();
         ByteArray byteArray = new ByteArray(hash);
-        AuthenticatedDataRequest requestFromMap;
         Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
-            if (isExceedingMapSize()) {
-                return new DataStorageResult(false).maxMapSizeReached();
-            }
 
-            requestFromMap = map.get(byteArray);
-            if (request.equals(requestFromMap)) {
-                return new DataStorageResult(false).requestAlreadyReceived();
-            }
+        // The validation of the request does not depend on the state of the map. We do it outside the lock, so that
+        // the expensive signature verification does not block other writers. The cheap checks for duplicates, the
+        // sequence number and the map size are done before to avoid verifying requests we would reject anyway, and
+        // are repeated inside the lock.
+        AuthenticatedDataRequest requestFromMap = map.get(byteArray);
+        if (requestFromMap == null && isExceedingMapSize()) {
+            return new DataStorageResult(false).maxMapSizeReached();
+        }
 
-            if (requestFromMap != null && authenticatedSequentialData.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
-                return new DataStorageResult(false).sequenceNrInvalid();
-            }
+        if (request.equals(requestFromMap)) {
+            return new DataStorageResult(false).requestAlreadyReceived();
+        }
 
-            if (authenticatedSequentialData.isExpired()) {
-                log.debug("AddAuthenticatedDataRequest with {} is expired on {}",
-                        distributedData.getClass().getSimpleName(),
-                        new Date(authenticatedSequentialData.getCreated() + distributedData.getMetaData().getTtl())
-                );
-                log.debug("Data is expired at add. request={}", request);
-                return new DataStorageResult(false).expired();
-            }
+        if (requestFromMap != null && authenticatedSequentialData.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
+            return new DataStorageResult(false).sequenceNrInvalid();
+        }
 
-            if (authenticatedData.isDataInvalid(authenticatedSequentialData.getPubKeyHash())) {
-                log.warn("AuthenticatedData is invalid at add. request={}", request);
-                return new DataStorageResult(false).dataInvalid();
-            }
+        if (authenticatedSequentialData.isExpired()) {
+            log.debug("AddAuthenticatedDataRequest with {} is expired on {}",
+                    distributedData.getClass().getSimpleName(),
+                    new Date(authenticatedSequentialData.getCreated() + distributedData.getMetaData().getTtl())
+            );
+            log.debug("Data is expired at add. request={}", request);
+            return new DataStorageResult(false).expired();
+        }
 
-            if (authenticatedData instanceof AuthorizedData authorizedData) {
-                if (authorizedData.isNotAuthorized()) {
-                    log.warn("AuthorizedData is not authorized. request={}", StringUtils.truncate(request.toString(), 1500));
-                    return new DataStorageResult(false).isNotAuthorized();
-                }
+        if (authenticatedData.isDataInvalid(authenticatedSequentialData.getPubKeyHash())) {
+            log.warn("AuthenticatedData is invalid at add. request={}", request);
+            return new DataStorageResult(false).dataInvalid();
+        }
+
+        if (authenticatedData instanceof AuthorizedData authorizedData) {
+            if (authorizedData.isNotAuthorized()) {
+                log.warn("AuthorizedData is not authorized. request={}", StringUtils.truncate(request.toString(), 1500));
+                return new DataStorageResult(false).isNotAuthorized();
             }
+        }
 
-            if (request.isPublicKeyInvalid()) {
-                log.warn("PublicKey is invalid at add. request={}", request);
-                return new DataStorageResult(false).publicKeyHashInvalid();
+        if (request.isPublicKeyInvalid()) {
+            log.warn("PublicKey is invalid at add. request={}", request);
+            return new DataStorageResult(false).publicKeyHashInvalid();
+        }
+
+        if (request.isSignatureInvalid()) {
+            log.warn("Signature is invalid at add. request={}", request);
+            return new DataStorageResult(false).signatureInvalid();
+        }
+
+        synchronized (getLock(byteArray)) {
+            requestFromMap = map.get(byteArray);
+            if (request.equals(requestFromMap)) {
+                return new DataStorageResult(false).requestAlreadyReceived();
             }
 
-            if (request.isSignatureInvalid()) {
-                log.warn("Signature is invalid at add. request={}", request);
-                return new DataStorageResult(false).signatureInvalid();
+            if (requestFromMap != null && authenticatedSequentialData.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
+                return new DataStorageResult(false).sequenceNrInvalid();
             }
 
             if (distributedData instanceof PublishDateAware publishDateAware) {
                 publishDateAware.setPublishDate(authenticatedSequentialData.getCreated());
             }
 
-            map.put(byteArray, request);
+            if (!putIfNotExceedingMapSize(byteArray, request)) {
+                return new DataStorageResult(false).maxMapSizeReached();
+            }
+            addToExpiryIndex(byteArray, request);
 
             // In case we only updated the seq number we still want to broadcast and update the listeners.
             // It is a valid use case that we have both an add and remove data request, and we get repeated sequences
             // of add/remove events. In that case only the sequence number changes, but we still want to notify our
             // listeners.
+            queueNotification(byteArray, () -> notifyListeners(authenticatedData, Listener::onAdded, "onAdded"));
         }
 
-        persist();
-
-        listeners.forEach(listener -> {
-            try {
-                listener.onAdded(authenticatedData);
-            } catch (Exception e) {
-                log.error("Calling onAdded at listener {} failed", listener, e);
-            }
-        });
+        persistEntry(byteArray);
+        deliverNotifications(byteArray);
         maybeLogMapState("add success", persistableStore);
         return new DataStorageResult(true);
     }
@@ -167,14 +196,30 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
         ByteArray byteArray = new ByteArray(request.getHash());
         AuthenticatedData authenticatedDataFromMap;
         Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
+
+        // We verify the signature outside the lock if the request would pass the cheap checks against the current
+        // entry. The checks get repeated inside the lock.
+        boolean isSignatureVerified = false;
+        if (map.get(byteArray) instanceof AddAuthenticatedDataRequest addRequest) {
+            AuthenticatedSequentialData data = addRequest.getAuthenticatedSequentialData();
+            if (!request.isSequenceNrInvalid(data.getSequenceNumber()) && !request.isPublicKeyHashInvalid(data)) {
+                if (request.isSignatureInvalid()) {
+                    log.warn("Signature is invalid at remove. request={}", request);
+                    return new DataStorageResult(false).signatureInvalid();
+                }
+                isSignatureVerified = true;
+            }
+        }
+
+        synchronized (getLock(byteArray)) {
             AuthenticatedDataRequest requestFromMap = map.get(byteArray);
             if (requestFromMap == null) {
                 log.debug("No entry at remove. hash={}", byteArray);
                 // We don't have any entry, but it might be that we would receive later an add request, so we need to keep
                 // track of the sequence number
                 map.put(byteArray, request);
-                persist();
+                addToExpiryIndex(byteArray, request);
+                persistEntry(byteArray);
                 return new DataStorageResult(true).noEntry();
             }
 
@@ -184,7 +229,8 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
                 if (!request.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
                     // We update the map with the new request with the fresh sequence number.
                     map.put(byteArray, request);
-                    persist();
+                    addToExpiryIndex(byteArray, request);
+                    persistEntry(byteArray);
                 }
                 return new DataStorageResult(true).alreadyRemoved();
             }
@@ -207,7 +253,7 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
                 return new DataStorageResult(false).publicKeyHashInvalid();
             }
 
-            if (request.isSignatureInvalid()) {
+            if (!isSignatureVerified && request.isSignatureInvalid()) {
                 log.warn("Signature is invalid at remove. request={}", request);
                 return new DataStorageResult(false).signatureInvalid();
             }
@@ -227,17 +273,13 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
             }
 
             map.put(byteArray, request);
+            addToExpiryIndex(byteArray, request);
+            queueNotification(byteArray,
+                    () -> notifyListeners(authenticatedDataFromMap, Listener::onRemoved, "onRemoved"));
         }
 
-        persist();
-
-        listeners.forEach(listener -> {
-            try {
-                listener.onRemoved(authenticatedDataFromMap);
-            } catch (Exception e) {
-                log.error("Calling onRemoved at listener {} failed", listener, e);
-            }
-        });
+        persistEntry(byteArray);
+        deliverNotifications(byteArray);
         maybeLogMapState("remove success", persistableStore);
         return new DataStorageResult(true).removedData(authenticatedDataFromMap);
     }
@@ -247,7 +289,22 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
         ByteArray byteArray = new ByteArray(request.getHash());
         AddAuthenticatedDataRequest updatedRequest;
         Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
+
+        // We verify the signature outside the lock if the request would pass the cheap checks against the current
+        // entry. The checks get repeated inside the lock.
+        boolean isSignatureVerified = false;
+        if (map.get(byteArray) instanceof AddAuthenticatedDataRequest addRequest) {
+            AuthenticatedSequentialData data = addRequest.getAuthenticatedSequentialData();
+            if (!request.isSequenceNrInvalid(data.getSequenceNumber()) && !request.isPublicKeyInvalid(data)) {
+                if (request.isSignatureInvalid()) {
+                    log.warn("Signature is invalid at refresh. request={}", request);
+                    return new DataStorageResult(false).signatureInvalid();
+                }
+                isSignatureVerified = true;
+            }
+        }
+
+        synchronized (getLock(byteArray)) {
             AuthenticatedDataRequest requestFromMap = map.get(byteArray);
 
             if (requestFromMap == null) {
@@ -276,7 +333,7 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
                 return new DataStorageResult(false).publicKeyHashInvalid();
             }
 
-            if (request.isSignatureInvalid()) {
+            if (!isSignatureVerified && request.isSignatureInvalid()) {
                 log.warn("Signature is invalid at refresh. request={}", request);
                 return new DataStorageResult(false).signatureInvalid();
             }
@@ -291,16 +348,13 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
                     addRequestFromMap.getOwnerPublicKey());
 
             map.put(byteArray, updatedRequest);
+            addToExpiryIndex(byteArray, updatedRequest);
+            AuthenticatedData refreshedData = updatedData.getAuthenticatedData();
+            queueNotification(byteArray, () -> notifyListeners(refreshedData, Listener::onRefreshed, "onRefreshed"));
         }
 
-        persist();
-        listeners.forEach(listener -> {
-            try {
-                listener.onRefreshed(updatedRequest.getAuthenticatedSequentialData().getAuthenticatedData());
-            } catch (Exception e) {
-                log.error("Calling onRefreshed at listener {} failed", listener, e);
-            }
-        });
+        persistEntry(byteArray);
+        deliverNotifications(byteArray);
         maybeLogMapState("refresh success", persistableStore);
         return new DataStorageResult(true);
     }
@@ -318,7 +372,7 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
         ByteArray byteArray = new ByteArray(hash);
         int sequenceNumber = 0;
         Map<ByteArray, AuthenticatedDataRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
+        synchronized (getLock(byteArray)) {
             if (map.containsKey(byteArray)) {
                 sequenceNumber = map.get(byteArray).getSequenceNumber();
             }
@@ -326,30 +380,42 @@ public class AuthenticatedDataStorageService extends DataStorageService<Authenti
         return sequenceNumber;
     }
 
+    private OwnerIndex getOwnerIndex() {
+        VersionedMap.Snapshot<ByteArray, AuthenticatedDataRequest> snapshot = persistableStore.getMap().getSnapshot();
+        OwnerIndex current = ownerIndex;
+        if (current.version == snapshot.getVersion()) {
+            return current;
+        }
+        Map<ByteArray, List<AuthenticatedData>> dataByOwner = snapshot.getMap().values().stream()
+                .filter(AddAuthenticatedDataRequest.class::isInstance)
+                .map(request -> ((AddAuthenticatedDataRequest) request).getAuthenticatedSequentialData())
+                .collect(Collectors.groupingBy(data -> new ByteArray(data.getPubKeyHash()),
+                        Collectors.mapping(AuthenticatedSequentialData::getAuthenticatedData, Collectors.toUnmodifiableList())));
+        OwnerIndex updated = new OwnerIndex(snapshot.getVersion(), dataByOwner);
+        ownerIndex = updated;
+        return updated;
+    }
+
+    private void notifyListeners(AuthenticatedData authenticatedData,
+                                 BiConsumer<Listener, AuthenticatedData> handler,
+                                 String methodName) {
+        listeners.forEach(listener -> {
+            try {
+                handler.accept(listener, authenticatedData);
+            } catch (Exception e) {
+                log.error("Calling {} at listener {} failed", methodName, listener, e);
+            }
+        });
+    }
+
     private void pruneExpired() {
-        Set<Map.Entry<ByteArray, AuthenticatedDataRequest>> expiredEntries = persistableStore.getMap().entrySet().stream()
-                .filter(entry -> {
-                    AuthenticatedDataRequest dataRequest = entry.getValue();
-                    boolean isExpired = dataRequest.isExpired();
-                    if (isExpired) {
-                        prunedAndExpiredDataRequests.add(dataRequest);
-                    }
-                    return isExpired;
-                })
-                .collect(Collectors.toSet());
+        List<Map.Entry<ByteArray, AuthenticatedDataRequest>> expiredEntries = removeExpired();
         if (!expiredEntries.isEmpty()) {
-            log.info("We remove {} expired entries from our {} map", expiredEntries.size(), getStoreKey());
+            log.info("We removed {} expired entries from our {} map", expiredEntries.size(), getStoreKey());
             expiredEntries.forEach(entry -> {
-                persistableStore.getMap().remove(entry.getKey());
                 if (entry.getValue() instanceof AddAuthenticatedDataRequest) {
                     AuthenticatedData data = ((AddAuthenticatedDataRequest) entry.getValue()).getAuthenticatedSequentialData().getAuthenticatedData();
-                    listeners.forEach(listener -> {
-                        try {
-                            listener.onRemoved(data);
-                        } catch (Exception e) {
-                            log.error("Calling onRemoved at listener {} failed", listener, e);
-                        }
-                    });
+                    notifyListeners(data, Listener::onRemoved, "onRemoved");
                 }
             });
         }
@@ -45,7 +45,7 @@ public final class RefreshAuthenticatedDataRequest implements AuthenticatedDataR
                                                        AuthenticatedData authenticatedData,
                                                        KeyPair keyPair)
             throws GeneralSecurityException {
-        byte[] hash = DigestUtil.hash(authenticatedData.serializeForHash());
+        byte[] hash = authenticatedData.getHashForStoreMap();
         byte[] signature = SignatureUtil.sign(hash, keyPair.getPrivate());
         int sequenceNumber = store.getSequenceNumber(hash) + 1;
         PublicKey publicKey = keyPair.getPublic();
@@ -174,6 +174,11 @@ public final class RefreshAuthenticatedDataRequest implements AuthenticatedDataR
         return false;
     }
 
+    @Override
+    public long getExpiryDate() {
+        return Long.MAX_VALUE;
+    }
+
     @Override
     public int getMaxMapSize() {
         return metaData.getMaxMapSize();
@@ -50,7 +50,7 @@ public final class RemoveAuthenticatedDataRequest implements AuthenticatedDataRe
                                                       AuthenticatedData authenticatedData,
                                                       KeyPair keyPair)
             throws GeneralSecurityException {
-        byte[] hash = DigestUtil.hash(authenticatedData.serializeForHash());
+        byte[] hash = authenticatedData.getHashForStoreMap();
         byte[] signature = SignatureUtil.sign(hash, keyPair.getPrivate());
         int sequenceNumber = store.getSequenceNumber(hash) + 1;
         PublicKey publicKey = keyPair.getPublic();
@@ -203,7 +203,12 @@ public final class RemoveAuthenticatedDataRequest implements AuthenticatedDataRe
 
     @Override
     public boolean isExpired() {
-        return (System.currentTimeMillis() - created) > getMetaData().getTtl();
+        return System.currentTimeMillis() > getExpiryDate();
+    }
+
+    @Override
+    public long getExpiryDate() {
+        return created + getMetaData().getTtl();
     }
 
     @Override
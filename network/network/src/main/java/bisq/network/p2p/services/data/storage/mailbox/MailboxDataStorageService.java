@@ -29,12 +29,14 @@ import bisq.persistence.PersistenceService;
 import bisq.security.DigestUtil;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -48,7 +50,6 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
 
     // TODO Use a field for a single handler as only one listener is used by StorageService
     private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
-    private final Object mapAccessLock = new Object();
 
     public MailboxDataStorageService(PersistenceService persistenceService,
                                      PruneExpiredEntriesService pruneExpiredEntriesService,
@@ -61,6 +62,7 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
     @Override
     public void onPersistedApplied(DataStore<MailboxRequest> persisted) {
         maybeLogMapState("onPersistedApplied", persisted);
+        rebuildExpiryIndex();
     }
 
     @Override
@@ -76,50 +78,56 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
         MailboxData mailboxData = mailboxSequentialData.getMailboxData();
         byte[] hash = DigestUtil.hash(mailboxData.serializeForHash());
         ByteArray byteArray = new ByteArray(hash);
-        MailboxRequest requestFromMap;
         Map<ByteArray, MailboxRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
-            if (isExceedingMapSize()) {
-                return new DataStorageResult(false).maxMapSizeReached();
-            }
 
+        // Validation of the request is done outside the lock (see AuthenticatedDataStorageService.add).
+        MailboxRequest requestFromMap = map.get(byteArray);
+        if (requestFromMap == null && isExceedingMapSize()) {
+            return new DataStorageResult(false).maxMapSizeReached();
+        }
+
+        if (request.equals(requestFromMap)) {
+            return new DataStorageResult(false).requestAlreadyReceived();
+        }
+
+        if (requestFromMap != null && mailboxSequentialData.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
+            return new DataStorageResult(false).sequenceNrInvalid();
+        }
+
+        if (mailboxSequentialData.isExpired()) {
+            return new DataStorageResult(false).expired();
+        }
+
+        if (mailboxData.isDataInvalid(mailboxSequentialData.getSenderPublicKeyHash())) {
+            return new DataStorageResult(false).dataInvalid();
+        }
+
+        if (request.isPublicKeyInvalid()) {
+            return new DataStorageResult(false).publicKeyHashInvalid();
+        }
+
+        if (request.isSignatureInvalid()) {
+            return new DataStorageResult(false).signatureInvalid();
+        }
+
+        synchronized (getLock(byteArray)) {
             requestFromMap = map.get(byteArray);
             if (request.equals(requestFromMap)) {
                 return new DataStorageResult(false).requestAlreadyReceived();
             }
 
-            int sequenceNumberFromMap = requestFromMap != null ? requestFromMap.getSequenceNumber() : 0;
-            if (requestFromMap != null && mailboxSequentialData.isSequenceNrInvalid(sequenceNumberFromMap)) {
+            if (requestFromMap != null && mailboxSequentialData.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
                 return new DataStorageResult(false).sequenceNrInvalid();
             }
-
-            if (mailboxSequentialData.isExpired()) {
-                return new DataStorageResult(false).expired();
-            }
-
-            if (mailboxData.isDataInvalid(mailboxSequentialData.getSenderPublicKeyHash())) {
-                return new DataStorageResult(false).dataInvalid();
-            }
-
-            if (request.isPublicKeyInvalid()) {
-                return new DataStorageResult(false).publicKeyHashInvalid();
-            }
-
-            if (request.isSignatureInvalid()) {
-                return new DataStorageResult(false).signatureInvalid();
+            if (!putIfNotExceedingMapSize(byteArray, request)) {
+                return new DataStorageResult(false).maxMapSizeReached();
             }
-            map.put(byteArray, request);
+            addToExpiryIndex(byteArray, request);
+            queueNotification(byteArray, () -> notifyListeners(mailboxData, Listener::onAdded, "onAdded"));
         }
 
-        persist();
-
-        listeners.forEach(listener -> {
-            try {
-                listener.onAdded(mailboxData);
-            } catch (Exception e) {
-                log.error("Calling onAdded at listener {} failed", listener, e);
-            }
-        });
+        persistEntry(byteArray);
+        deliverNotifications(byteArray);
         maybeLogMapState("add success", persistableStore);
         return new DataStorageResult(true);
     }
@@ -129,14 +137,29 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
         maybeLogMapState("remove ", persistableStore);
         ByteArray byteArray = new ByteArray(request.getHash());
         Map<ByteArray, MailboxRequest> map = persistableStore.getMap();
-        MailboxRequest requestFromMap = map.get(byteArray);
         MailboxSequentialData sequentialDataFromMap;
-        synchronized (mapAccessLock) {
+
+        // We verify the signature outside the lock if the request would pass the cheap checks against the current
+        // entry. The checks get repeated inside the lock.
+        boolean isSignatureVerified = false;
+        if (map.get(byteArray) instanceof AddMailboxRequest addMailboxRequest) {
+            MailboxSequentialData data = addMailboxRequest.getMailboxSequentialData();
+            if (!request.isSequenceNrInvalid(data.getSequenceNumber()) && !request.isPublicKeyHashInvalid(data)) {
+                if (request.isSignatureInvalid()) {
+                    return new DataStorageResult(false).signatureInvalid();
+                }
+                isSignatureVerified = true;
+            }
+        }
+
+        synchronized (getLock(byteArray)) {
+            MailboxRequest requestFromMap = map.get(byteArray);
             if (requestFromMap == null) {
                 // We don't have any entry, but it might be that we would receive later an add request, so we need to keep
                 // track of the sequence number
                 map.put(byteArray, request);
-                persist();
+                addToExpiryIndex(byteArray, request);
+                persistEntry(byteArray);
                 return new DataStorageResult(true).noEntry();
             }
 
@@ -145,7 +168,8 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
                 if (!request.isSequenceNrInvalid(requestFromMap.getSequenceNumber())) {
                     // We update the request, so we have the latest sequence number.
                     map.put(byteArray, request);
-                    persist();
+                    addToExpiryIndex(byteArray, request);
+                    persistEntry(byteArray);
                 }
                 return new DataStorageResult(true).alreadyRemoved();
             }
@@ -164,7 +188,7 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
                 return new DataStorageResult(false).publicKeyHashInvalid();
             }
 
-            if (request.isSignatureInvalid()) {
+            if (!isSignatureVerified && request.isSignatureInvalid()) {
                 return new DataStorageResult(false).signatureInvalid();
             }
 
@@ -183,16 +207,13 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
             }
 
             map.put(byteArray, request);
-            listeners.forEach(listener -> {
-                try {
-                    listener.onRemoved(sequentialDataFromMap.getMailboxData());
-                } catch (Exception e) {
-                    log.error("Calling onRemoved at listener {} failed", listener, e);
-                }
-            });
+            addToExpiryIndex(byteArray, request);
+            MailboxData removedData = sequentialDataFromMap.getMailboxData();
+            queueNotification(byteArray, () -> notifyListeners(removedData, Listener::onRemoved, "onRemoved"));
         }
 
-        persist();
+        persistEntry(byteArray);
+        deliverNotifications(byteArray);
         maybeLogMapState("remove success", persistableStore);
         return new DataStorageResult(true).removedData(sequentialDataFromMap.getMailboxData());
     }
@@ -214,7 +235,7 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
         ByteArray byteArray = new ByteArray(hash);
         int sequenceNumber = 0;
         Map<ByteArray, MailboxRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
+        synchronized (getLock(byteArray)) {
             if (map.containsKey(byteArray)) {
                 sequenceNumber = map.get(byteArray).getSequenceNumber();
             }
@@ -223,10 +244,7 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
     }
 
     boolean contains(byte[] hash) {
-        Map<ByteArray, MailboxRequest> map = persistableStore.getMap();
-        synchronized (mapAccessLock) {
-            return map.containsKey(new ByteArray(hash));
-        }
+        return persistableStore.getMap().containsKey(new ByteArray(hash));
     }
 
     boolean canAddMailboxMessage(MailboxData mailboxData) {
@@ -234,20 +252,22 @@ public class MailboxDataStorageService extends DataStorageService<MailboxRequest
         return getSequenceNumber(hash) < Integer.MAX_VALUE;
     }
 
+    private void notifyListeners(MailboxData mailboxData,
+                                 BiConsumer<Listener, MailboxData> handler,
+                                 String methodName) {
+        listeners.forEach(listener -> {
+            try {
+                handler.accept(listener, mailboxData);
+            } catch (Exception e) {
+                log.error("Calling {} at listener {} failed", methodName, listener, e);
+            }
+        });
+    }
+
     private void pruneExpired() {
-        Set<Map.Entry<ByteArray, MailboxRequest>> expiredEntries = persistableStore.getMap().entrySet().stream()
-                .filter(entry -> {
-                    MailboxRequest dataRequest = entry.getValue();
-                    boolean isExpired = dataRequest.isExpired();
-                    if (isExpired) {
-                        prunedAndExpiredDataRequests.add(dataRequest);
-                    }
-                    return isExpired;
-                })
-                .collect(Collectors.toSet());
+        List<Map.Entry<ByteArray, MailboxRequest>> expiredEntries = removeExpired();
         if (!expiredEntries.isEmpty()) {
-            log.info("We remove {} expired entries from our {} map", expiredEntries.size(), getStoreKey());
-            expiredEntries.forEach(entry -> persistableStore.getMap().remove(entry.getKey()));
+            log.info("We removed {} expired entries from our {} map", expiredEntries.size(), getStoreKey());
         }
     }
 
@@ -135,8 +135,11 @@ public final class MailboxSequentialData implements NetworkProto {
     }
 
     public boolean isExpired() {
-        return (System.currentTimeMillis() - created) >
-                Math.min(MailboxData.MAX_TLL, mailboxData.getMetaData().getTtl());
+        return System.currentTimeMillis() > getExpiryDate();
+    }
+
+    public long getExpiryDate() {
+        return created + Math.min(MailboxData.MAX_TLL, mailboxData.getMetaData().getTtl());
     }
 
     @Override
@@ -190,7 +190,12 @@ public final class RemoveMailboxRequest implements MailboxRequest, RemoveDataReq
 
     @Override
     public boolean isExpired() {
-        return (System.currentTimeMillis() - created) > Math.min(MailboxData.MAX_TLL, getMetaData().getTtl());
+        return System.currentTimeMillis() > getExpiryDate();
+    }
+
+    @Override
+    public long getExpiryDate() {
+        return created + Math.min(MailboxData.MAX_TLL, getMetaData().getTtl());
     }
 
     @Override
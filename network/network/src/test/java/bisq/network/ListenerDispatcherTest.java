@@ -0,0 +1,221 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ListenerDispatcherTest {
+    private ExecutorService executor;
+    private ListenerDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        dispatcher = new ListenerDispatcher(executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void deliversEventsOfOneListenerInOrder() throws InterruptedException {
+        Object listener = new Object();
+        List<Integer> received = new CopyOnWriteArrayList<>();
+        int numEvents = 1000;
+        CountDownLatch latch = new CountDownLatch(numEvents);
+        for (int i = 0; i < numEvents; i++) {
+            int value = i;
+            dispatcher.dispatch(listener, () -> {
+                received.add(value);
+                latch.countDown();
+            });
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(IntStream.range(0, numEvents).boxed().toList(), received);
+        assertEquals(numEvents, dispatcher.getStatsByListenerClass().get(Object.class.getName()).getNumDispatched());
+    }
+
+    @Test
+    void slowListenerDoesNotBlockOtherListeners() throws InterruptedException {
+        CountDownLatch blockSlowListener = new CountDownLatch(1);
+        CountDownLatch fastListenerNotified = new CountDownLatch(1);
+        dispatcher.dispatch(new Object(), () -> {
+            try {
+                blockSlowListener.await();
+            } catch (InterruptedException ignore) {
+            }
+        });
+        dispatcher.dispatch(new Object(), fastListenerNotified::countDown);
+
+        assertTrue(fastListenerNotified.await(5, TimeUnit.SECONDS));
+        blockSlowListener.countDown();
+    }
+
+    @Test
+    void failingEventDoesNotBlockLaterEvents() throws InterruptedException {
+        Object listener = new Object();
+        CountDownLatch latch = new CountDownLatch(1);
+        dispatcher.dispatch(listener, () -> {
+            throw new RuntimeException("test");
+        });
+        dispatcher.dispatch(listener, latch::countDown);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void dropsEventsWhenMailboxIsFull() throws InterruptedException {
+        Object listener = new Object();
+        CountDownLatch blockListener = new CountDownLatch(1);
+        dispatcher.dispatch(listener, () -> {
+            try {
+                blockListener.await();
+            } catch (InterruptedException ignore) {
+            }
+        });
+        // Wait until the blocking event got taken from the mailbox
+        long timeout = System.currentTimeMillis() + 5000;
+        while (dispatcher.getNumQueued() > 0 && System.currentTimeMillis() < timeout) {
+            Thread.sleep(1);
+        }
+        ListenerDispatcher.Backlog backlog = new ListenerDispatcher.Backlog();
+        assertFalse(backlog.isCongested());
+
+        for (int i = 0; i < ListenerDispatcher.MAX_MAILBOX_SIZE + 10; i++) {
+            dispatcher.dispatchMessage(listener, () -> {
+            }, backlog);
+        }
+
+        assertTrue(backlog.isCongested());
+        assertEquals(ListenerDispatcher.MAX_MAILBOX_SIZE, backlog.getNumPending());
+        ListenerDispatcher.ListenerStats stats = dispatcher.getStatsByListenerClass().get(Object.class.getName());
+        assertEquals(10, stats.getNumDropped());
+        assertEquals(ListenerDispatcher.MAX_MAILBOX_SIZE, stats.getQueueDepth());
+
+        blockListener.countDown();
+        timeout = System.currentTimeMillis() + 5000;
+        while (dispatcher.getNumQueued() > 0 && System.currentTimeMillis() < timeout) {
+            Thread.sleep(1);
+        }
+        assertEquals(0, dispatcher.getNumQueued());
+        assertEquals(0, backlog.getNumPending());
+        assertFalse(backlog.isCongested());
+    }
+
+    @Test
+    void slowListenerOnlyCongestsSourcesFeedingIt() throws InterruptedException {
+        Object slowListener = new Object();
+        Object fastListener = new Object();
+        CountDownLatch blockSlowListener = new CountDownLatch(1);
+        dispatcher.dispatch(slowListener, () -> {
+            try {
+                blockSlowListener.await();
+            } catch (InterruptedException ignore) {
+            }
+        });
+        ListenerDispatcher.Backlog feedingSlowListener = new ListenerDispatcher.Backlog();
+        ListenerDispatcher.Backlog feedingFastListener = new ListenerDispatcher.Backlog();
+        int numEvents = ListenerDispatcher.CONGESTION_THRESHOLD;
+        CountDownLatch fastListenerNotified = new CountDownLatch(numEvents);
+        for (int i = 0; i < numEvents; i++) {
+            dispatcher.dispatchMessage(slowListener, () -> {
+            }, feedingSlowListener);
+            dispatcher.dispatchMessage(fastListener, fastListenerNotified::countDown, feedingFastListener);
+        }
+
+        assertTrue(fastListenerNotified.await(5, TimeUnit.SECONDS));
+        assertTrue(feedingSlowListener.isCongested());
+        assertFalse(feedingFastListener.isCongested());
+        blockSlowListener.countDown();
+    }
+
+    @Test
+    void lifecycleEventsAreNotDroppedWhenMailboxIsFull() throws InterruptedException {
+        Object listener = new Object();
+        CountDownLatch blockListener = new CountDownLatch(1);
+        dispatcher.dispatch(listener, () -> {
+            try {
+                blockListener.await();
+            } catch (InterruptedException ignore) {
+            }
+        });
+        long timeout = System.currentTimeMillis() + 5000;
+        while (dispatcher.getNumQueued() > 0 && System.currentTimeMillis() < timeout) {
+            Thread.sleep(1);
+        }
+        for (int i = 0; i < ListenerDispatcher.MAX_MAILBOX_SIZE; i++) {
+            dispatcher.dispatchMessage(listener, () -> {
+            }, null);
+        }
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch lifecycleEventsDelivered = new CountDownLatch(2);
+        dispatcher.dispatchMessage(listener, () -> received.add("message"), null);
+        dispatcher.dispatch(listener, () -> {
+            received.add("onDisconnect");
+            lifecycleEventsDelivered.countDown();
+        });
+        dispatcher.dispatch(listener, () -> {
+            received.add("onShutdown");
+            lifecycleEventsDelivered.countDown();
+        });
+
+        blockListener.countDown();
+        assertTrue(lifecycleEventsDelivered.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("onDisconnect", "onShutdown"), received);
+        assertEquals(1, dispatcher.getStatsByListenerClass().get(Object.class.getName()).getNumDropped());
+    }
+
+    @Test
+    void rejectedDrainTaskGetsRetried() throws InterruptedException {
+        AtomicInteger numExecuteCalls = new AtomicInteger();
+        Executor rejectingExecutor = runnable -> {
+            if (numExecuteCalls.getAndIncrement() < 2) {
+                throw new RejectedExecutionException("test");
+            }
+            executor.execute(runnable);
+        };
+        ListenerDispatcher rejectingDispatcher = new ListenerDispatcher(rejectingExecutor);
+        Object listener = new Object();
+        CountDownLatch latch = new CountDownLatch(2);
+        rejectingDispatcher.dispatch(listener, latch::countDown);
+        rejectingDispatcher.dispatch(listener, latch::countDown);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(3, numExecuteCalls.get());
+        assertEquals(0, rejectingDispatcher.getNumQueued());
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.message;
+
+import bisq.common.application.ApplicationVersion;
+import bisq.common.network.Address;
+import bisq.common.network.TransportType;
+import bisq.common.network.clear_net_address_types.LocalHostAddressTypeFacade;
+import bisq.common.util.ByteArrayUtils;
+import bisq.network.p2p.node.Capability;
+import bisq.network.p2p.node.Feature;
+import bisq.network.p2p.node.authorization.AuthorizationService;
+import bisq.network.p2p.node.authorization.AuthorizationToken;
+import bisq.network.p2p.node.authorization.AuthorizationTokenType;
+import bisq.network.p2p.node.handshake.ConnectionHandshake;
+import bisq.network.p2p.node.network_load.NetworkLoad;
+import bisq.security.pow.equihash.EquihashProofOfWorkService;
+import bisq.security.pow.hashcash.HashCashProofOfWorkService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class EncodedEnvelopePayloadTest {
+    private final AuthorizationService authorizationService = new AuthorizationService(
+            new AuthorizationService.Config(List.of(AuthorizationTokenType.HASH_CASH_V2)),
+            new HashCashProofOfWorkService(),
+            new EquihashProofOfWorkService(),
+            Set.of(Feature.AUTHORIZATION_HASH_CASH_V2));
+
+    @Test
+    void assembledEnvelopeMatchesSerializedNetworkEnvelope() {
+        ConnectionHandshake.Request request = createRequest();
+        EncodedEnvelopePayload encodedEnvelopePayload = new EncodedEnvelopePayload(request);
+        String peerAddress = LocalHostAddressTypeFacade.toLocalHostAddress(1234).getFullAddress();
+
+        for (int messageCounter = 0; messageCounter < 3; messageCounter++) {
+            AuthorizationToken token = authorizationService.createToken(encodedEnvelopePayload,
+                    new NetworkLoad(),
+                    peerAddress,
+                    messageCounter,
+                    new ArrayList<>());
+            for (int version : new int[]{0, 1}) {
+                byte[] expected = new NetworkEnvelope(version, token, request).completeProto().toByteArray();
+                byte[] assembled = ByteArrayUtils.concat(EncodedEnvelopePayload.encodeEnvelopeHeader(version, token),
+                        encodedEnvelopePayload.getEncodedNetworkMessage());
+                assertThat(assembled).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void tokenOfEncodedPayloadIsAuthorized() {
+        ConnectionHandshake.Request request = createRequest();
+        String myAddress = LocalHostAddressTypeFacade.toLocalHostAddress(1234).getFullAddress();
+        AuthorizationToken token = authorizationService.createToken(new EncodedEnvelopePayload(request),
+                new NetworkLoad(),
+                myAddress,
+                0,
+                new ArrayList<>());
+        assertThat(authorizationService.isAuthorized(request, token, new NetworkLoad(), "connectionId", myAddress)).isTrue();
+    }
+
+    @Test
+    void smallMessageIsNotCompressed() {
+        assertThat(new EncodedEnvelopePayload(createRequest()).getEncodedCompressedNetworkMessage()).isEmpty();
+    }
+
+    @Test
+    void compressedEnvelopeContainsNetworkMessage() throws Exception {
+        bisq.network.protobuf.EnvelopePayloadMessage proto = bisq.network.protobuf.EnvelopePayloadMessage.newBuilder()
+                .setCloseConnectionMessage(bisq.network.protobuf.CloseConnectionMessage.newBuilder()
+                        .setCloseReason("closeReason".repeat(1000)))
+                .build();
+        EnvelopePayloadMessage message = mock(EnvelopePayloadMessage.class);
+        when(message.toProto(false)).thenReturn(proto);
+        EncodedEnvelopePayload encodedEnvelopePayload = new EncodedEnvelopePayload(message);
+        String peerAddress = LocalHostAddressTypeFacade.toLocalHostAddress(1234).getFullAddress();
+        AuthorizationToken token = authorizationService.createToken(new EncodedEnvelopePayload(createRequest()),
+                new NetworkLoad(),
+                peerAddress,
+                0,
+                new ArrayList<>());
+
+        byte[] compressed = encodedEnvelopePayload.getEncodedCompressedNetworkMessage().orElseThrow();
+        assertThat(compressed.length).isLessThan(encodedEnvelopePayload.getEncodedNetworkMessage().length / 10);
+        byte[] assembled = ByteArrayUtils.concat(EncodedEnvelopePayload.encodeEnvelopeHeader(1, token), compressed);
+        bisq.network.protobuf.NetworkEnvelope envelope = bisq.network.protobuf.NetworkEnvelope.parseFrom(assembled);
+        assertThat(envelope.hasNetworkMessage()).isFalse();
+        assertThat(envelope.getAuthorizationToken()).isEqualTo(token.toProto(false));
+        byte[] decompressed = EnvelopeCompression.decompress(envelope.getCompressedNetworkMessage().toByteArray());
+        assertThat(bisq.network.protobuf.EnvelopePayloadMessage.parseFrom(decompressed)).isEqualTo(proto);
+    }
+
+    @Test
+    void decompressionIsLimited() {
+        byte[] data = new byte[EnvelopeCompression.MAX_DECOMPRESSED_SIZE + 1];
+        byte[] compressed = EnvelopeCompression.compress(data, 0, data.length);
+        assertThatThrownBy(() -> EnvelopeCompression.decompress(compressed)).isInstanceOf(DataFormatException.class);
+
+        byte[] truncated = Arrays.copyOf(compressed, compressed.length / 2);
+        assertThatThrownBy(() -> EnvelopeCompression.decompress(truncated)).isInstanceOf(DataFormatException.class);
+    }
+
+    private static ConnectionHandshake.Request createRequest() {
+        Address address = LocalHostAddressTypeFacade.toLocalHostAddress(2345);
+        Capability capability = new Capability(Capability.VERSION,
+                address,
+                List.of(TransportType.CLEAR),
+                new ArrayList<>(),
+                ApplicationVersion.getVersion().getVersionAsString());
+        return new ConnectionHandshake.Request(capability, Optional.empty(), new NetworkLoad(), 0);
+    }
+}
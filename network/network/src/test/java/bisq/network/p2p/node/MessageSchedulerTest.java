@@ -0,0 +1,180 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.node;
+
+import bisq.network.p2p.message.CloseConnectionMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MessageSchedulerTest {
+    private static final Executor DIRECT = Runnable::run;
+
+    @Test
+    void runsBurstWithoutDelay() {
+        List<Integer> executed = new ArrayList<>();
+        MessageScheduler scheduler = new MessageScheduler("test", DIRECT, () -> 10_000, (priority, delay) -> {
+        });
+        for (int i = 0; i < MessageScheduler.BURST_CAPACITY + 2; i++) {
+            int index = i;
+            assertTrue(scheduler.submit(MessagePriority.GOSSIP, () -> executed.add(index)));
+        }
+        assertEquals(MessageScheduler.BURST_CAPACITY, executed.size());
+        assertEquals(2, scheduler.getNumQueued());
+    }
+
+    @Test
+    void controlMessagesAreNotThrottled() {
+        List<String> executed = new ArrayList<>();
+        MessageScheduler scheduler = new MessageScheduler("test", DIRECT, () -> 10_000, (priority, delay) -> {
+        });
+        for (int i = 0; i < MessageScheduler.BURST_CAPACITY + 1; i++) {
+            scheduler.submit(MessagePriority.BULK, () -> executed.add("bulk"));
+        }
+        scheduler.submit(MessagePriority.CONTROL, () -> executed.add("ping"));
+
+        assertEquals(MessageScheduler.BURST_CAPACITY + 1, executed.size());
+        assertEquals("ping", executed.get(executed.size() - 1));
+        assertEquals(1, scheduler.getNumQueued());
+    }
+
+    @Test
+    void queuedMessagesRunByPriority() throws InterruptedException {
+        List<MessagePriority> executed = new ArrayList<>();
+        CountDownLatch latch = new CountDownLatch(MessageScheduler.BURST_CAPACITY + 3);
+        List<MessagePriority> delayed = new ArrayList<>();
+        MessageScheduler scheduler = new MessageScheduler("test", DIRECT, () -> 20, (priority, delay) -> {
+            if (delay > 0) {
+                delayed.add(priority);
+            }
+        });
+        for (int i = 0; i < MessageScheduler.BURST_CAPACITY; i++) {
+            scheduler.submit(MessagePriority.GOSSIP, () -> {
+                executed.add(MessagePriority.GOSSIP);
+                latch.countDown();
+            });
+        }
+        for (MessagePriority priority : List.of(MessagePriority.BULK, MessagePriority.GOSSIP, MessagePriority.PRIVATE)) {
+            scheduler.submit(priority, () -> {
+                synchronized (executed) {
+                    executed.add(priority);
+                }
+                latch.countDown();
+            });
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(MessagePriority.PRIVATE, MessagePriority.GOSSIP, MessagePriority.BULK),
+                executed.subList(MessageScheduler.BURST_CAPACITY, executed.size()));
+        assertFalse(delayed.isEmpty());
+        assertEquals(0, scheduler.getNumQueued());
+    }
+
+    @Test
+    void shutdownRunsQueuedTasks() {
+        List<Integer> executed = new ArrayList<>();
+        MessageScheduler scheduler = new MessageScheduler("test", DIRECT, () -> 10_000, (priority, delay) -> {
+        });
+        for (int i = 0; i < MessageScheduler.BURST_CAPACITY + 5; i++) {
+            int index = i;
+            scheduler.submit(MessagePriority.PRIVATE, () -> executed.add(index));
+        }
+        scheduler.shutdown();
+
+        assertEquals(MessageScheduler.BURST_CAPACITY + 5, executed.size());
+        assertEquals(0, scheduler.getNumQueued());
+    }
+
+    @Test
+    void rejectsIfQueueIsFull() {
+        MessageScheduler scheduler = new MessageScheduler("test", DIRECT, () -> 10_000, (priority, delay) -> {
+        });
+        for (int i = 0; i < MessageScheduler.BURST_CAPACITY + MessageScheduler.MAX_QUEUE_SIZE; i++) {
+            assertTrue(scheduler.submit(MessagePriority.BULK, () -> {
+            }));
+        }
+        assertFalse(scheduler.submit(MessagePriority.BULK, () -> {
+        }));
+        assertTrue(scheduler.submit(MessagePriority.GOSSIP, () -> {
+        }));
+    }
+
+    @Test
+    void closeConnectionMessageRunsAfterQueuedMessages() {
+        List<String> executed = new ArrayList<>();
+        MessageScheduler scheduler = new MessageScheduler("test", DIRECT, () -> 10_000, (priority, delay) -> {
+        });
+        for (int i = 0; i < MessageScheduler.BURST_CAPACITY; i++) {
+            scheduler.submit(MessagePriority.BULK, () -> executed.add("bulk"));
+        }
+        scheduler.submit(MessagePriority.PRIVATE, () -> executed.add("private"));
+        MessagePriority closePriority = MessagePriority.fromMessage(new CloseConnectionMessage(CloseReason.SHUTDOWN));
+        scheduler.submit(closePriority, () -> executed.add("close"));
+        scheduler.submit(MessagePriority.CONTROL, () -> executed.add("ping"));
+        scheduler.shutdown();
+
+        assertEquals(MessagePriority.BULK, closePriority);
+        assertEquals(List.of("ping", "private", "close"),
+                executed.subList(MessageScheduler.BURST_CAPACITY, executed.size()));
+    }
+
+    @Test
+    void dropsQueuedTasksIfExecutorIsShutDown() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+        AtomicInteger numDropped = new AtomicInteger();
+        MessageScheduler scheduler = new MessageScheduler("test", executor, () -> 10_000, (priority, delay) -> {
+        });
+        assertTrue(scheduler.submit(MessagePriority.PRIVATE, () -> {
+        }, numDropped::incrementAndGet));
+
+        assertEquals(1, numDropped.get());
+        assertEquals(0, scheduler.getNumQueued());
+        assertFalse(scheduler.submit(MessagePriority.PRIVATE, () -> {
+        }));
+    }
+
+    @Test
+    void stopsRetryingAfterShutdown() throws InterruptedException {
+        AtomicInteger numAttempts = new AtomicInteger();
+        Executor executor = runnable -> {
+            numAttempts.incrementAndGet();
+            throw new RejectedExecutionException();
+        };
+        List<Integer> executed = new ArrayList<>();
+        MessageScheduler scheduler = new MessageScheduler("test", executor, () -> 10_000, (priority, delay) -> {
+        });
+        scheduler.submit(MessagePriority.PRIVATE, () -> executed.add(1));
+        scheduler.shutdown();
+        Thread.sleep(300);
+
+        assertEquals(List.of(1), executed);
+        assertEquals(1, numAttempts.get());
+    }
+}
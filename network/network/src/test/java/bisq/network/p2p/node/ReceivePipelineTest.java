@@ -0,0 +1,139 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.node;
+
+import bisq.network.p2p.node.authorization.ReplayWindow;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReceivePipelineTest {
+    private static final Executor DIRECT = Runnable::run;
+
+    // Frames of the test consist of the priority and the message counter
+    private record Message(MessagePriority priority, int counter) {
+    }
+
+    private static final class TestHandler implements ReceivePipeline.Handler<Message> {
+        private final ReplayWindow replayWindow = new ReplayWindow();
+        private final List<Message> handled = new CopyOnWriteArrayList<>();
+        private final AtomicInteger numRejected = new AtomicInteger();
+        private final AtomicInteger numProcessed = new AtomicInteger();
+        private final CountDownLatch bulkHandled = new CountDownLatch(1);
+
+        @Override
+        public Optional<Message> authorize(byte[] frame) {
+            Message message = new Message(MessagePriority.values()[frame[0]], frame[1]);
+            if (!replayWindow.tryAccept(message.counter())) {
+                numRejected.incrementAndGet();
+                return Optional.empty();
+            }
+            return Optional.of(message);
+        }
+
+        @Override
+        public MessagePriority getPriority(Message message) {
+            return message.priority();
+        }
+
+        @Override
+        public void handle(Message message) {
+            handled.add(message);
+            if (message.priority() == MessagePriority.BULK) {
+                bulkHandled.countDown();
+            }
+        }
+
+        @Override
+        public void onFrameProcessed() {
+            numProcessed.incrementAndGet();
+        }
+
+        @Override
+        public void onException(Exception exception) {
+            throw new AssertionError(exception);
+        }
+    }
+
+    @Test
+    void bulkMessagePassedByMoreThanReplayWindowIsDelivered() throws InterruptedException {
+        TestHandler handler = new TestHandler();
+        // No token gets added until we have received all frames
+        AtomicLong interval = new AtomicLong(60_000);
+        MessageScheduler scheduler = new MessageScheduler("test", DIRECT, interval::get, (priority, delay) -> {
+        });
+        ReceivePipeline<Message> pipeline = new ReceivePipeline<>(DIRECT, scheduler, handler);
+
+        int counter = 1;
+        // Use up the tokens, so that the bulk message gets queued
+        for (int i = 0; i < MessageScheduler.BURST_CAPACITY; i++) {
+            pipeline.onFrameReceived(frame(MessagePriority.GOSSIP, counter++));
+        }
+        pipeline.onFrameReceived(frame(MessagePriority.BULK, counter++));
+        int numPassing = ReplayWindow.WINDOW_SIZE + 8;
+        for (int i = 0; i < numPassing; i++) {
+            MessagePriority priority = i % 2 == 0 ? MessagePriority.CONTROL : MessagePriority.PRIVATE;
+            pipeline.onFrameReceived(frame(priority, counter++));
+        }
+        interval.set(1);
+        // Triggers a run of the scheduler with the shorter interval
+        pipeline.onFrameReceived(frame(MessagePriority.CONTROL, counter));
+
+        assertTrue(handler.bulkHandled.await(5, TimeUnit.SECONDS));
+        assertEquals(0, handler.numRejected.get());
+        int numFrames = MessageScheduler.BURST_CAPACITY + numPassing + 2;
+        assertEquals(numFrames, handler.handled.size());
+        // The bulk message is reported as processed after it got handled
+        long deadline = System.currentTimeMillis() + 5000;
+        while (handler.numProcessed.get() < numFrames && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(numFrames, handler.numProcessed.get());
+        // The bulk message got passed by all control and private messages
+        assertEquals(MessagePriority.BULK, handler.handled.get(numFrames - 1).priority());
+    }
+
+    @Test
+    void droppedFramesAreReportedAsProcessed() {
+        TestHandler handler = new TestHandler();
+        MessageScheduler scheduler = new MessageScheduler("test", DIRECT, () -> 20, (priority, delay) -> {
+        });
+        ReceivePipeline<Message> pipeline = new ReceivePipeline<>(DIRECT, scheduler, handler);
+
+        pipeline.onFrameReceived(frame(MessagePriority.CONTROL, 1));
+        // Replayed counter
+        pipeline.onFrameReceived(frame(MessagePriority.CONTROL, 1));
+
+        assertEquals(1, handler.handled.size());
+        assertEquals(1, handler.numRejected.get());
+        assertEquals(2, handler.numProcessed.get());
+    }
+
+    private static byte[] frame(MessagePriority priority, int counter) {
+        return new byte[]{(byte) priority.ordinal(), (byte) counter};
+    }
+}
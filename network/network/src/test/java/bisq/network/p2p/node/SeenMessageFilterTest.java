@@ -0,0 +1,127 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.node;
+
+import bisq.network.p2p.message.EnvelopeCompression;
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SeenMessageFilterTest {
+    @Test
+    void findDataRequest() {
+        bisq.network.protobuf.EnvelopePayloadMessage dataRequest = createDataRequest(1);
+        Optional<ByteString> found = SeenMessageFilter.findDataRequest(createFrame(dataRequest));
+        assertEquals(Optional.of(dataRequest.toByteString()), found);
+
+        bisq.network.protobuf.EnvelopePayloadMessage ping = bisq.network.protobuf.EnvelopePayloadMessage.newBuilder()
+                .setPing(bisq.network.protobuf.Ping.newBuilder().setNonce(1))
+                .build();
+        assertEquals(Optional.empty(), SeenMessageFilter.findDataRequest(createFrame(ping)));
+        assertEquals(Optional.empty(), SeenMessageFilter.findDataRequest(new byte[]{(byte) 0xff}));
+    }
+
+    @Test
+    void sameDataRequestInOtherEnvelopeIsDetected() {
+        SeenMessageFilter filter = new SeenMessageFilter();
+        bisq.network.protobuf.EnvelopePayloadMessage dataRequest = createDataRequest(1);
+        ByteString first = SeenMessageFilter.findDataRequest(createFrame(dataRequest, 1)).orElseThrow();
+        ByteString second = SeenMessageFilter.findDataRequest(createFrame(dataRequest, 2)).orElseThrow();
+
+        assertFalse(filter.mightContain(first));
+        filter.add(first);
+        assertTrue(filter.mightContain(second));
+        assertFalse(filter.mightContain(createDataRequest(2).toByteString()));
+    }
+
+    @Test
+    void compressedDuplicateIsDetected() {
+        SeenMessageFilter filter = new SeenMessageFilter();
+        bisq.network.protobuf.EnvelopePayloadMessage dataRequest = createDataRequest(1);
+        ByteString compressed = SeenMessageFilter.findDataRequest(createCompressedFrame(dataRequest, 1)).orElseThrow();
+        assertEquals(dataRequest.toByteString(), compressed);
+
+        assertFalse(filter.mightContain(compressed));
+        filter.add(compressed);
+        ByteString compressedDuplicate = SeenMessageFilter.findDataRequest(createCompressedFrame(dataRequest, 2)).orElseThrow();
+        assertTrue(filter.mightContain(compressedDuplicate));
+        ByteString uncompressedDuplicate = SeenMessageFilter.findDataRequest(createFrame(dataRequest, 3)).orElseThrow();
+        assertTrue(filter.mightContain(uncompressedDuplicate));
+        ByteString other = SeenMessageFilter.findDataRequest(createCompressedFrame(createDataRequest(2), 4)).orElseThrow();
+        assertFalse(filter.mightContain(other));
+    }
+
+    @Test
+    void entriesGetForgottenAfterTwoRotations() {
+        SeenMessageFilter filter = new SeenMessageFilter(10, Long.MAX_VALUE);
+        ByteString dataRequest = createDataRequest(0).toByteString();
+        filter.add(dataRequest);
+        for (int i = 1; i < 10; i++) {
+            filter.add(createDataRequest(i).toByteString());
+        }
+        // Rotates and keeps the full filter as previous filter
+        filter.add(createDataRequest(10).toByteString());
+        assertTrue(filter.mightContain(dataRequest));
+
+        for (int i = 11; i < 21; i++) {
+            filter.add(createDataRequest(i).toByteString());
+        }
+        assertFalse(filter.mightContain(dataRequest));
+    }
+
+    private static bisq.network.protobuf.EnvelopePayloadMessage createDataRequest(int sequenceNumber) {
+        return bisq.network.protobuf.EnvelopePayloadMessage.newBuilder()
+                .setDataRequest(bisq.network.protobuf.DataRequest.newBuilder()
+                        .setRemoveAuthenticatedDataRequest(bisq.network.protobuf.RemoveAuthenticatedDataRequest.newBuilder()
+                                .setSequenceNumber(sequenceNumber)))
+                .build();
+    }
+
+    private static byte[] createFrame(bisq.network.protobuf.EnvelopePayloadMessage networkMessage) {
+        return createFrame(networkMessage, 0);
+    }
+
+    private static byte[] createFrame(bisq.network.protobuf.EnvelopePayloadMessage networkMessage, int messageCounter) {
+        return bisq.network.protobuf.NetworkEnvelope.newBuilder()
+                .setVersion(1)
+                .setAuthorizationToken(bisq.network.protobuf.AuthorizationToken.newBuilder()
+                        .setHashCashToken(bisq.network.protobuf.HashCashToken.newBuilder()
+                                .setMessageCounter(messageCounter)))
+                .setNetworkMessage(networkMessage)
+                .build()
+                .toByteArray();
+    }
+
+    private static byte[] createCompressedFrame(bisq.network.protobuf.EnvelopePayloadMessage networkMessage,
+                                                int messageCounter) {
+        byte[] serialized = networkMessage.toByteArray();
+        byte[] compressed = EnvelopeCompression.compress(serialized, 0, serialized.length);
+        return bisq.network.protobuf.NetworkEnvelope.newBuilder()
+                .setVersion(1)
+                .setAuthorizationToken(bisq.network.protobuf.AuthorizationToken.newBuilder()
+                        .setHashCashToken(bisq.network.protobuf.HashCashToken.newBuilder()
+                                .setMessageCounter(messageCounter)))
+                .setCompressedNetworkMessage(ByteString.copyFrom(compressed))
+                .build()
+                .toByteArray();
+    }
+}
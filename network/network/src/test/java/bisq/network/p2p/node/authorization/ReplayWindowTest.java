@@ -0,0 +1,63 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.authorization;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReplayWindowTest {
+    @Test
+    void rejectsReplayedCounters() {
+        ReplayWindow replayWindow = new ReplayWindow();
+        for (int counter = 0; counter < 100; counter++) {
+            assertTrue(replayWindow.tryAccept(counter));
+            assertFalse(replayWindow.tryAccept(counter));
+        }
+        assertFalse(replayWindow.tryAccept(99));
+        assertFalse(replayWindow.tryAccept(80));
+    }
+
+    @Test
+    void acceptsReorderedCountersInsideWindow() {
+        ReplayWindow replayWindow = new ReplayWindow();
+        assertTrue(replayWindow.tryAccept(10));
+        assertTrue(replayWindow.tryAccept(12));
+        assertTrue(replayWindow.tryAccept(11));
+        assertFalse(replayWindow.tryAccept(11));
+        assertTrue(replayWindow.tryAccept(9));
+
+        // Oldest counter inside the window
+        assertTrue(replayWindow.tryAccept(12 - ReplayWindow.WINDOW_SIZE + 1));
+        // Outside the window
+        assertFalse(replayWindow.tryAccept(12 - ReplayWindow.WINDOW_SIZE));
+    }
+
+    @Test
+    void handlesLargeJumps() {
+        ReplayWindow replayWindow = new ReplayWindow();
+        assertTrue(replayWindow.tryAccept(1));
+        assertTrue(replayWindow.tryAccept(1000));
+        assertFalse(replayWindow.tryAccept(1));
+        assertTrue(replayWindow.tryAccept(999));
+        assertTrue(replayWindow.tryAccept(Integer.MAX_VALUE));
+        assertFalse(replayWindow.tryAccept(Integer.MAX_VALUE));
+        assertFalse(replayWindow.tryAccept(1000));
+    }
+}
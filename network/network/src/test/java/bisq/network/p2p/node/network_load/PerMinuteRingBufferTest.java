@@ -0,0 +1,55 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.node.network_load;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PerMinuteRingBufferTest {
+    @Test
+    void sumsValuesOfLastMinutes() {
+        PerMinuteRingBuffer ringBuffer = new PerMinuteRingBuffer();
+        ringBuffer.add(0, 1);
+        ringBuffer.add(0, 2);
+        ringBuffer.add(3, 10);
+        ringBuffer.add(4, 100);
+
+        assertEquals(100, ringBuffer.sumOfLastMinutes(4, 1));
+        assertEquals(110, ringBuffer.sumOfLastMinutes(4, 2));
+        assertEquals(113, ringBuffer.sumOfLastMinutes(4, 5));
+        assertEquals(113, ringBuffer.sumOfLastMinutes(4, 1000));
+        // No values added in the minutes after the last update
+        assertEquals(0, ringBuffer.sumOfLastMinutes(10, 5));
+    }
+
+    @Test
+    void overwritesSlotsOfMinutesOutsideWindow() {
+        PerMinuteRingBuffer ringBuffer = new PerMinuteRingBuffer();
+        ringBuffer.add(5, 7);
+        ringBuffer.add(5 + PerMinuteRingBuffer.NUM_SLOTS, 3);
+        assertEquals(3, ringBuffer.sumOfLastMinutes(5 + PerMinuteRingBuffer.NUM_SLOTS, PerMinuteRingBuffer.NUM_SLOTS));
+
+        // Late update of a minute which is already outside the window gets ignored
+        ringBuffer.add(5, 7);
+        assertEquals(3, ringBuffer.sumOfLastMinutes(5 + PerMinuteRingBuffer.NUM_SLOTS, PerMinuteRingBuffer.NUM_SLOTS));
+
+        ringBuffer.clear();
+        assertEquals(0, ringBuffer.sumOfLastMinutes(5 + PerMinuteRingBuffer.NUM_SLOTS, PerMinuteRingBuffer.NUM_SLOTS));
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.confidential;
+
+import bisq.common.data.ByteArray;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DecryptionPipelineTest {
+    private final DecryptionPipeline pipeline = new DecryptionPipeline("DecryptionPipelineTest", 4, 10);
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void deliversInOrderPerSender() {
+        int numSenders = 5;
+        int numMessagesPerSender = 100;
+        Random random = new Random(42);
+        Map<Integer, List<Integer>> deliveredBySender = new ConcurrentHashMap<>();
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < numMessagesPerSender; i++) {
+            for (int sender = 0; sender < numSenders; sender++) {
+                int senderId = sender;
+                int sequenceNumber = i;
+                long decryptionTimeNanos = random.nextInt(200_000);
+                futures.add(pipeline.process(new ByteArray(new byte[]{(byte) sender}),
+                        () -> {
+                            LockSupport.parkNanos(decryptionTimeNanos);
+                            return sequenceNumber;
+                        },
+                        decrypted -> deliveredBySender
+                                .computeIfAbsent(senderId, key -> new CopyOnWriteArrayList<>())
+                                .add(decrypted)));
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < numMessagesPerSender; i++) {
+            expected.add(i);
+        }
+        assertEquals(numSenders, deliveredBySender.size());
+        deliveredBySender.values().forEach(delivered -> assertEquals(expected, delivered));
+        assertEquals(0, pipeline.getNumPendingSenders());
+    }
+
+    @Test
+    void failedDecryptionDoesNotBlockSender() {
+        ByteArray sender = new ByteArray(new byte[]{1});
+        List<Integer> delivered = new CopyOnWriteArrayList<>();
+        Supplier<Integer> failingDecryption = () -> {
+            throw new RuntimeException("Decryption failed");
+        };
+        CompletableFuture<Boolean> failed = pipeline.process(sender, failingDecryption, delivered::add);
+        CompletableFuture<Boolean> succeeded = pipeline.process(sender, () -> 2, delivered::add);
+
+        assertTrue(succeeded.join());
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals(List.of(2), delivered);
+    }
+
+    @Test
+    void callerRunsDecryptionIfQueueIsFull() {
+        DecryptionPipeline singleThreadPipeline = new DecryptionPipeline("DecryptionPipelineTest.single", 1, 1);
+        try {
+            CompletableFuture<Void> blocker = new CompletableFuture<>();
+            List<String> decryptionThreads = new CopyOnWriteArrayList<>();
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                futures.add(singleThreadPipeline.process(new ByteArray(new byte[]{(byte) i}),
+                        () -> {
+                            decryptionThreads.add(Thread.currentThread().getName());
+                            if (!Thread.currentThread().getName().startsWith("DecryptionPipelineTest")) {
+                                return true;
+                            }
+                            blocker.join();
+                            return true;
+                        },
+                        decrypted -> decrypted));
+            }
+            // The first task blocks the only thread, the second is queued, so the third runs in the caller thread
+            assertTrue(decryptionThreads.contains(Thread.currentThread().getName()));
+            assertFalse(futures.get(0).isDone());
+            blocker.complete(null);
+            futures.forEach(future -> assertTrue(future.join()));
+        } finally {
+            singleThreadPipeline.shutdown();
+        }
+    }
+}
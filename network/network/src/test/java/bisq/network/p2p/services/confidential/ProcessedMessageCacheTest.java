@@ -0,0 +1,76 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.confidential;
+
+import bisq.network.p2p.message.EnvelopePayloadMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class ProcessedMessageCacheTest {
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void filtersDuplicates() {
+        ProcessedMessageCache cache = new ProcessedMessageCache(now::get, 100, 1000);
+        EnvelopePayloadMessage message = mock(EnvelopePayloadMessage.class);
+        assertTrue(cache.add(new byte[]{1, 2, 3}, message));
+        assertFalse(cache.add(new byte[]{1, 2, 3}, message));
+        assertTrue(cache.add(new byte[]{1, 2, 4}, message));
+
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getNumHits());
+        assertEquals(2, cache.getNumMisses());
+        assertEquals(1 / 3d, cache.getHitRate(), 1e-9);
+    }
+
+    @Test
+    void evictsOldestEntriesBySize() {
+        ProcessedMessageCache cache = new ProcessedMessageCache(now::get, 2, 1000);
+        EnvelopePayloadMessage message1 = mock(EnvelopePayloadMessage.class);
+        EnvelopePayloadMessage message2 = mock(EnvelopePayloadMessage.class);
+        EnvelopePayloadMessage message3 = mock(EnvelopePayloadMessage.class);
+        cache.add(new byte[]{1}, message1);
+        cache.add(new byte[]{2}, message2);
+        cache.add(new byte[]{3}, message3);
+
+        assertEquals(List.of(message2, message3), cache.getMessages());
+        assertTrue(cache.add(new byte[]{1}, message1));
+    }
+
+    @Test
+    void evictsEntriesByAge() {
+        ProcessedMessageCache cache = new ProcessedMessageCache(now::get, 100, 1000);
+        EnvelopePayloadMessage message1 = mock(EnvelopePayloadMessage.class);
+        EnvelopePayloadMessage message2 = mock(EnvelopePayloadMessage.class);
+        cache.add(new byte[]{1}, message1);
+        now.set(600);
+        cache.add(new byte[]{2}, message2);
+        now.set(1200);
+
+        assertEquals(List.of(message2), cache.getMessages());
+        assertTrue(cache.add(new byte[]{1}, message1));
+        assertFalse(cache.add(new byte[]{2}, message2));
+    }
+}
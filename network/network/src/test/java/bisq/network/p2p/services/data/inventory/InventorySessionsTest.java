@@ -0,0 +1,149 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.services.data.inventory;
+
+import bisq.common.data.ByteArray;
+import bisq.network.p2p.services.data.DataRequest;
+import bisq.network.p2p.services.data.inventory.filter.InventoryIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class InventorySessionsTest {
+    private static final int MAX_SIZE = 1000;
+    private static final ByteArray FILTER_DIGEST = new ByteArray(new byte[]{1});
+    private static final Supplier<Optional<Predicate<InventoryIndex.Entry>>> ALL_MISSING = () -> Optional.of(entry -> true);
+
+    @Test
+    void deliversAllDataInChunks() {
+        InventorySessions sessions = new InventorySessions();
+        InventoryIndex.Snapshot index = createIndex(25, 100);
+
+        Inventory first = sessions.createInventory("connection", FILTER_DIGEST, index, ALL_MISSING, MAX_SIZE);
+        assertEquals(10, first.getEntries().size());
+        assertTrue(first.isMaxSizeReached());
+        assertEquals(10, first.getCursor().orElseThrow().getOffset());
+
+        Inventory second = sessions.continueInventory("connection", first.getCursor().orElseThrow(), MAX_SIZE).orElseThrow();
+        assertEquals(10, second.getEntries().size());
+        assertTrue(second.isMaxSizeReached());
+
+        Inventory last = sessions.continueInventory("connection", second.getCursor().orElseThrow(), MAX_SIZE).orElseThrow();
+        assertEquals(5, last.getEntries().size());
+        assertFalse(last.isMaxSizeReached());
+        assertTrue(last.getCursor().isEmpty());
+        assertEquals(0, sessions.getNumSessions());
+    }
+
+    @Test
+    void skipsDataTheRequesterHas() {
+        InventorySessions sessions = new InventorySessions();
+        InventoryIndex.Snapshot index = createIndex(25, 100);
+        List<InventoryIndex.Entry> entries = index.getEntries();
+        Predicate<InventoryIndex.Entry> isMissing = entry -> entries.indexOf(entry) % 2 == 0;
+
+        Inventory inventory = sessions.createInventory("connection", FILTER_DIGEST, index, () -> Optional.of(isMissing), MAX_SIZE);
+        assertEquals(10, inventory.getEntries().size());
+        // The walk stops at the 11th missing entry
+        assertEquals(20, inventory.getCursor().orElseThrow().getOffset());
+
+        Inventory last = sessions.continueInventory("connection", inventory.getCursor().orElseThrow(), MAX_SIZE).orElseThrow();
+        assertEquals(3, last.getEntries().size());
+        assertFalse(last.isMaxSizeReached());
+    }
+
+    @Test
+    void doesNotKeepSessionIfAllDataFits() {
+        InventorySessions sessions = new InventorySessions();
+        Inventory inventory = sessions.createInventory("connection", FILTER_DIGEST, createIndex(5, 100), ALL_MISSING, MAX_SIZE);
+
+        assertEquals(5, inventory.getEntries().size());
+        assertTrue(inventory.getCursor().isEmpty());
+        assertEquals(0, sessions.getNumSessions());
+    }
+
+    @Test
+    void rejectsUnknownCursor() {
+        InventorySessions sessions = new InventorySessions();
+        Inventory inventory = sessions.createInventory("connection", FILTER_DIGEST, createIndex(25, 100), ALL_MISSING, MAX_SIZE);
+        InventoryCursor cursor = inventory.getCursor().orElseThrow();
+
+        assertEquals(Optional.empty(), sessions.continueInventory("otherConnection", cursor, MAX_SIZE));
+        assertEquals(Optional.empty(), sessions.continueInventory("connection", new InventoryCursor("unknown", 10), MAX_SIZE));
+        assertEquals(Optional.empty(), sessions.continueInventory("connection", new InventoryCursor(cursor.getSessionId(), 26), MAX_SIZE));
+
+        sessions.onDisconnect("connection");
+        assertEquals(Optional.empty(), sessions.continueInventory("connection", cursor, MAX_SIZE));
+    }
+
+    @Test
+    void chunkContainsAtLeastOneEntry() {
+        InventorySessions sessions = new InventorySessions();
+        Inventory inventory = sessions.createInventory("connection", FILTER_DIGEST, createIndex(2, 2 * MAX_SIZE), ALL_MISSING, MAX_SIZE);
+
+        assertEquals(1, inventory.getEntries().size());
+        assertTrue(inventory.isMaxSizeReached());
+    }
+
+    @Test
+    void cachesResponseForSameFilterAndIndex() {
+        InventorySessions sessions = new InventorySessions();
+        InventoryIndex.Snapshot index = createIndex(25, 100);
+        AtomicInteger numFilterApplied = new AtomicInteger();
+        Supplier<Optional<Predicate<InventoryIndex.Entry>>> countingSupplier = () -> {
+            numFilterApplied.incrementAndGet();
+            return ALL_MISSING.get();
+        };
+
+        Inventory first = sessions.createInventory("connection1", FILTER_DIGEST, index, countingSupplier, MAX_SIZE);
+        Inventory second = sessions.createInventory("connection2", FILTER_DIGEST, index, countingSupplier, MAX_SIZE);
+        assertSame(first, second);
+        assertEquals(1, numFilterApplied.get());
+        // Both connections can continue
+        assertTrue(sessions.continueInventory("connection2", second.getCursor().orElseThrow(), MAX_SIZE).isPresent());
+        assertTrue(sessions.continueInventory("connection1", first.getCursor().orElseThrow(), MAX_SIZE).isPresent());
+
+        sessions.createInventory("connection3", new ByteArray(new byte[]{2}), index, countingSupplier, MAX_SIZE);
+        assertEquals(2, numFilterApplied.get());
+    }
+
+    private static InventoryIndex.Snapshot createIndex(int numEntries, int size) {
+        List<InventoryIndex.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < numEntries; i++) {
+            DataRequest dataRequest = mock(DataRequest.class);
+            when(dataRequest.getSerializedSize()).thenReturn(size);
+            when(dataRequest.serializeForHash()).thenReturn(new byte[]{(byte) i});
+            entries.add(new InventoryIndex.Entry(new ByteArray(new byte[]{(byte) i}),
+                    dataRequest,
+                    InventoryIndex.Group.AUTHENTICATED_ADD,
+                    0));
+        }
+        return new InventoryIndex.Snapshot(1, entries);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.services.data.inventory.filter.mini_sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MiniSketchTest {
+    private final Random random = new Random(42);
+
+    @Test
+    void inverse() {
+        for (int i = 0; i < 100; i++) {
+            long value = random.nextLong() | 1;
+            assertThat(MiniSketch.mul(value, MiniSketch.inverse(value))).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void mulMatchesBitwiseMultiplication() {
+        for (int i = 0; i < 1000; i++) {
+            long a = random.nextLong();
+            long b = random.nextLong();
+            long expected = 0;
+            long shifted = a;
+            for (int bit = 0; bit < 64; bit++) {
+                if ((b >>> bit & 1) != 0) {
+                    expected ^= shifted;
+                }
+                // Multiply with x and reduce with x^64 + x^4 + x^3 + x + 1
+                shifted = (shifted << 1) ^ (shifted < 0 ? 0x1BL : 0);
+            }
+            assertThat(MiniSketch.mul(a, b)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void decodeSymmetricDifference() {
+        for (int capacity : new int[]{8, 32, 128}) {
+            for (int trial = 0; trial < 5; trial++) {
+                MiniSketch sketchA = new MiniSketch(capacity);
+                MiniSketch sketchB = new MiniSketch(capacity);
+                for (int i = 0; i < 1000; i++) {
+                    long element = random.nextLong() | 1;
+                    sketchA.add(element);
+                    sketchB.add(element);
+                }
+                Set<Long> expected = new HashSet<>();
+                int numDifferences = random.nextInt(capacity + 1);
+                for (int i = 0; i < numDifferences; i++) {
+                    long element = random.nextLong() | 1;
+                    if (random.nextBoolean()) {
+                        sketchA.add(element);
+                    } else {
+                        sketchB.add(element);
+                    }
+                    expected.add(element);
+                }
+
+                MiniSketch received = MiniSketch.fromBytes(sketchA.toBytes());
+                received.merge(sketchB);
+                Optional<long[]> decoded = received.decode();
+                assertThat(decoded).isPresent();
+                assertThat(Arrays.stream(decoded.get()).boxed().collect(Collectors.toSet())).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void decodeFailsIfCapacityExceeded() {
+        MiniSketch sketch = new MiniSketch(32);
+        for (int i = 0; i < 40; i++) {
+            sketch.add(random.nextLong() | 1);
+        }
+        assertThat(sketch.decode()).isEmpty();
+    }
+
+    @Test
+    void addTwiceRemoves() {
+        MiniSketch sketch = new MiniSketch(16);
+        long element = random.nextLong() | 1;
+        sketch.add(element);
+        sketch.add(element);
+        assertThat(sketch.decode()).hasValueSatisfying(elements -> assertThat(elements).isEmpty());
+    }
+
+    @Test
+    void truncate() {
+        MiniSketch large = new MiniSketch(64);
+        MiniSketch small = new MiniSketch(16);
+        for (int i = 0; i < 10; i++) {
+            long element = random.nextLong() | 1;
+            large.add(element);
+            small.add(element);
+        }
+        assertThat(large.truncate(16).toBytes()).isEqualTo(small.toBytes());
+    }
+
+    @Test
+    void toElementIsNotZero() {
+        byte[] hash = new byte[20];
+        assertThat(MiniSketchFilterService.toElement(hash, 0)).isNotZero();
+        assertThat(MiniSketchFilterService.toElement(hash, 1)).isNotEqualTo(MiniSketchFilterService.toElement(hash, 2));
+    }
+
+    @Test
+    void filterWithCapacityAboveDefaultCapacityIsRejected() {
+        MiniSketch sketch = new MiniSketch(MiniSketchFilterService.DEFAULT_CAPACITY + 1);
+        assertThrows(IllegalArgumentException.class, () -> new MiniSketchFilter(sketch, 0));
+        assertThat(new MiniSketchFilter(new MiniSketch(MiniSketchFilterService.DEFAULT_CAPACITY), 0).getCapacity())
+                .isEqualTo(MiniSketchFilterService.DEFAULT_CAPACITY);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.services.data.storage;
+
+import bisq.common.data.ByteArray;
+import bisq.network.p2p.services.data.DataRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ExpiryIndexTest {
+    private static final long NOW = 1_000_000;
+
+    @Test
+    void pollsOnlyDueEntriesInOrder() {
+        ExpiryIndex<DataRequest> index = new ExpiryIndex<>();
+        Map<ByteArray, DataRequest> map = new HashMap<>();
+        put(index, map, key(1), request(NOW - 1000, true));
+        put(index, map, key(2), request(NOW + 1000, false));
+        put(index, map, key(3), request(NOW - 2000, true));
+
+        List<Map.Entry<ByteArray, DataRequest>> expired = index.pollExpired(map, NOW);
+
+        assertEquals(List.of(key(3), key(1)), expired.stream().map(Map.Entry::getKey).toList());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void skipsReplacedAndRemovedEntries() {
+        ExpiryIndex<DataRequest> index = new ExpiryIndex<>();
+        Map<ByteArray, DataRequest> map = new HashMap<>();
+        put(index, map, key(1), request(NOW - 1000, true));
+        put(index, map, key(1), request(NOW + 1000, false));
+        put(index, map, key(2), request(NOW - 1000, true));
+        map.remove(key(2));
+
+        assertTrue(index.pollExpired(map, NOW).isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void doesNotIndexRequestsWhichNeverExpire() {
+        ExpiryIndex<DataRequest> index = new ExpiryIndex<>();
+        Map<ByteArray, DataRequest> map = new HashMap<>();
+        put(index, map, key(1), request(Long.MAX_VALUE, false));
+
+        assertEquals(0, index.size());
+        assertTrue(index.pollExpired(map, Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    void rebuildsIfMostEntriesAreStale() {
+        ExpiryIndex<DataRequest> index = new ExpiryIndex<>();
+        Map<ByteArray, DataRequest> map = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            put(index, map, key(1), request(NOW + 1000, false));
+        }
+
+        index.pollExpired(map, NOW);
+
+        assertEquals(1, index.size());
+    }
+
+    private static void put(ExpiryIndex<DataRequest> index, Map<ByteArray, DataRequest> map, ByteArray key,
+                            DataRequest request) {
+        map.put(key, request);
+        index.add(key, request);
+    }
+
+    private static DataRequest request(long expiryDate, boolean isExpired) {
+        DataRequest request = mock(DataRequest.class);
+        when(request.getExpiryDate()).thenReturn(expiryDate);
+        when(request.isExpired()).thenReturn(isExpired);
+        return request;
+    }
+
+    private static ByteArray key(int value) {
+        return new ByteArray(new byte[]{(byte) value});
+    }
+}
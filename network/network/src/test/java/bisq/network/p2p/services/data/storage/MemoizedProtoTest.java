@@ -0,0 +1,208 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.services.data.storage;
+
+import bisq.common.encoding.Hex;
+import bisq.common.proto.MemoizedProto;
+import bisq.common.proto.Proto;
+import bisq.common.protobuf.StringLongPair;
+import bisq.network.p2p.services.confidential.ConfidentialMessage;
+import bisq.network.p2p.services.data.storage.append.AddAppendOnlyDataRequest;
+import bisq.network.p2p.services.data.storage.append.AppendOnlyData;
+import bisq.network.p2p.services.data.storage.auth.AddAuthenticatedDataRequest;
+import bisq.network.p2p.services.data.storage.auth.AuthenticatedData;
+import bisq.network.p2p.services.data.storage.auth.AuthenticatedSequentialData;
+import bisq.network.p2p.services.data.storage.auth.DefaultAuthenticatedData;
+import bisq.network.p2p.services.data.storage.auth.RemoveAuthenticatedDataRequest;
+import bisq.network.p2p.services.data.storage.mailbox.AddMailboxRequest;
+import bisq.network.p2p.services.data.storage.mailbox.MailboxData;
+import bisq.network.protobuf.EnvelopePayloadMessage;
+import bisq.security.ConfidentialData;
+import bisq.security.DigestUtil;
+import bisq.security.HybridEncryption;
+import bisq.security.SignatureUtil;
+import bisq.security.keys.KeyGeneration;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.junit.jupiter.api.Test;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MemoizedProtoTest {
+    private record TestData(String text) implements AppendOnlyData {
+        @Override
+        public void verify() {
+        }
+
+        @Override
+        public StringLongPair.Builder getBuilder(boolean serializeForHash) {
+            return StringLongPair.newBuilder().setKey(text);
+        }
+
+        @Override
+        public StringLongPair toProto(boolean serializeForHash) {
+            return resolveProto(serializeForHash);
+        }
+
+        @Override
+        public MetaData getMetaData() {
+            return new MetaData(TimeUnit.DAYS.toMillis(1), TestData.class.getSimpleName());
+        }
+
+        @Override
+        public boolean isDataInvalid(byte[] pubKeyHash) {
+            return false;
+        }
+
+        @Override
+        public double getCostFactor() {
+            return 0;
+        }
+    }
+
+    private final KeyPair keyPair = KeyGeneration.generateKeyPair();
+
+    @Test
+    void authenticatedData() {
+        AuthenticatedData memoized = new DefaultAuthenticatedData(new TestData("data"));
+        AuthenticatedData fresh = new DefaultAuthenticatedData(new TestData("data"));
+
+        assertMemoizedEqualsFresh(memoized, fresh);
+        byte[] hash = memoized.getHashForStoreMap();
+        assertArrayEquals(DigestUtil.hash(fresh.serializeForHash()), hash);
+        // Modifying the returned hash must not change the memoized one
+        hash[0] = (byte) ~hash[0];
+        assertArrayEquals(DigestUtil.hash(fresh.serializeForHash()), memoized.getHashForStoreMap());
+    }
+
+    @Test
+    void addAuthenticatedDataRequest() throws GeneralSecurityException {
+        long created = System.currentTimeMillis();
+        AddAuthenticatedDataRequest memoized = createAddAuthenticatedDataRequest(created);
+        AddAuthenticatedDataRequest fresh = createAddAuthenticatedDataRequest(created);
+        memoized.getAuthenticatedSequentialData().getAuthenticatedData().getHashForStoreMap();
+
+        assertMemoizedEqualsFresh(memoized, fresh);
+    }
+
+    @Test
+    void addMailboxRequest() throws GeneralSecurityException {
+        KeyPair receiverKeyPair = KeyGeneration.generateKeyPair();
+        ConfidentialData confidentialData = HybridEncryption.encryptAndSign(new byte[]{1, 2, 3},
+                receiverKeyPair.getPublic(),
+                keyPair);
+        ConfidentialMessage confidentialMessage = ConfidentialMessage.fromProto(
+                bisq.network.protobuf.ConfidentialMessage.newBuilder()
+                        .setConfidentialData(confidentialData.toProto(false))
+                        .setReceiverKeyId(Hex.encode(DigestUtil.hash(receiverKeyPair.getPublic().getEncoded())))
+                        .build());
+        MetaData metaData = new MetaData(MetaData.TTL_15_DAYS, "TestMessage", MetaData.MAX_MAP_SIZE_10_000);
+        AddMailboxRequest memoized = AddMailboxRequest.from(new MailboxData(metaData, confidentialMessage),
+                keyPair,
+                receiverKeyPair.getPublic());
+        AddMailboxRequest fresh = AddMailboxRequest.fromProto(memoized.toValueProto(false));
+
+        assertMemoizedEqualsFresh(memoized, fresh);
+    }
+
+    @Test
+    void addAppendOnlyDataRequest() {
+        assertMemoizedEqualsFresh(new AddAppendOnlyDataRequest(new TestData("data")),
+                new AddAppendOnlyDataRequest(new TestData("data")));
+    }
+
+    @Test
+    void excludedFieldsAreClearedWhenTakenFromCache() throws GeneralSecurityException, InvalidProtocolBufferException {
+        AuthenticatedData authenticatedData = new DefaultAuthenticatedData(new TestData("data"));
+        byte[] hash = authenticatedData.getHashForStoreMap();
+        byte[] signature = SignatureUtil.sign(hash, keyPair.getPrivate());
+        // The metaData field is only excluded in versions 1 to 3, the version field is always excluded
+        RemoveAuthenticatedDataRequest version1 = createRemoveRequest(authenticatedData, signature, 1);
+        RemoveAuthenticatedDataRequest version4 = createRemoveRequest(authenticatedData, signature, 4);
+
+        // The second round takes the excluded fields from the cache
+        for (int i = 0; i < 2; i++) {
+            bisq.network.protobuf.RemoveAuthenticatedDataRequest forHash =
+                    parseRemoveRequest(version1.serializeForHash());
+            assertFalse(forHash.hasMetaData());
+            assertEquals(0, forHash.getVersion());
+            assertArrayEquals(hash, forHash.getHash().toByteArray());
+
+            forHash = parseRemoveRequest(version4.serializeForHash());
+            assertTrue(forHash.hasMetaData());
+            assertEquals(0, forHash.getVersion());
+
+            bisq.network.protobuf.RemoveAuthenticatedDataRequest complete = parseRemoveRequest(version1.serialize());
+            assertTrue(complete.hasMetaData());
+            assertEquals(1, complete.getVersion());
+        }
+    }
+
+    private static void assertMemoizedEqualsFresh(MemoizedProto memoized, Proto fresh) {
+        byte[] freshForHash = fresh.serializeForHash();
+        int freshSize = fresh.resolveProto(false).getSerializedSize();
+        assertNotEquals(0, freshSize);
+
+        // First call fills the memo, second call takes the memoized values
+        for (int i = 0; i < 2; i++) {
+            assertEquals(freshSize, memoized.getSerializedSize());
+            assertEquals(memoized.serialize().length, memoized.getSerializedSize());
+            assertArrayEquals(freshForHash, memoized.serializeForHash());
+            assertArrayEquals(fresh.serialize(), memoized.serialize());
+        }
+    }
+
+    private AddAuthenticatedDataRequest createAddAuthenticatedDataRequest(long created)
+            throws GeneralSecurityException {
+        byte[] pubKeyHash = DigestUtil.hash(keyPair.getPublic().getEncoded());
+        AuthenticatedSequentialData data = new AuthenticatedSequentialData(
+                new DefaultAuthenticatedData(new TestData("data")),
+                1,
+                pubKeyHash,
+                created);
+        byte[] signature = SignatureUtil.sign(data.serializeForHash(), keyPair.getPrivate());
+        return new AddAuthenticatedDataRequest(data, signature, keyPair.getPublic());
+    }
+
+    private RemoveAuthenticatedDataRequest createRemoveRequest(AuthenticatedData authenticatedData,
+                                                               byte[] signature,
+                                                               int version) {
+        var proto = bisq.network.protobuf.RemoveAuthenticatedDataRequest.newBuilder()
+                .setVersion(version)
+                .setMetaData(authenticatedData.getMetaData().toProto(false))
+                .setHash(ByteString.copyFrom(authenticatedData.getHashForStoreMap()))
+                .setOwnerPublicKeyBytes(ByteString.copyFrom(keyPair.getPublic().getEncoded()))
+                .setSequenceNumber(1)
+                .setSignature(ByteString.copyFrom(signature))
+                .setCreated(System.currentTimeMillis())
+                .build();
+        return RemoveAuthenticatedDataRequest.fromProto(proto);
+    }
+
+    private static bisq.network.protobuf.RemoveAuthenticatedDataRequest parseRemoveRequest(byte[] bytes)
+            throws InvalidProtocolBufferException {
+        return EnvelopePayloadMessage.parseFrom(bytes).getDataRequest().getRemoveAuthenticatedDataRequest();
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.network.p2p.services.data.storage.auth;
+
+import bisq.common.data.ByteArray;
+import bisq.common.protobuf.StringLongPair;
+import bisq.network.p2p.services.data.storage.DataStorageResult;
+import bisq.network.p2p.services.data.storage.DistributedData;
+import bisq.network.p2p.services.data.storage.MetaData;
+import bisq.network.p2p.services.data.storage.PruneExpiredEntriesService;
+import bisq.persistence.PersistenceService;
+import bisq.security.DigestUtil;
+import bisq.security.SignatureUtil;
+import bisq.security.keys.KeyGeneration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AuthenticatedDataStorageServiceTest {
+    private static final int NUM_THREADS = 8;
+
+    private record TestData(String text) implements DistributedData {
+        @Override
+        public void verify() {
+        }
+
+        @Override
+        public StringLongPair.Builder getBuilder(boolean serializeForHash) {
+            return StringLongPair.newBuilder().setKey(text);
+        }
+
+        @Override
+        public StringLongPair toProto(boolean serializeForHash) {
+            return resolveProto(serializeForHash);
+        }
+
+        @Override
+        public MetaData getMetaData() {
+            return new MetaData(TimeUnit.DAYS.toMillis(1), TestData.class.getSimpleName());
+        }
+
+        @Override
+        public boolean isDataInvalid(byte[] pubKeyHash) {
+            return false;
+        }
+
+        @Override
+        public double getCostFactor() {
+            return 0;
+        }
+    }
+
+    @TempDir
+    private Path tempDir;
+    private PersistenceService persistenceService;
+    private KeyPair keyPair;
+
+    @BeforeEach
+    void setUp() {
+        persistenceService = new PersistenceService(tempDir);
+        keyPair = KeyGeneration.generateKeyPair();
+    }
+
+    @Test
+    void listenersSeeConcurrentAddAndRemoveOfSameKeyInOrder() throws Exception {
+        AuthenticatedDataStorageService store = createStore(Optional.empty());
+        List<String> events = new ArrayList<>();
+        store.addListener(new AuthenticatedDataStorageService.Listener() {
+            @Override
+            public void onAdded(AuthenticatedData authenticatedData) {
+                Thread.yield();
+                synchronized (events) {
+                    events.add("added");
+                }
+            }
+
+            @Override
+            public void onRemoved(AuthenticatedData authenticatedData) {
+                Thread.yield();
+                synchronized (events) {
+                    events.add("removed");
+                }
+            }
+        });
+
+        AuthenticatedData authenticatedData = new DefaultAuthenticatedData(new TestData("data"));
+        RemoveAuthenticatedDataRequest removeRequest =
+                RemoveAuthenticatedDataRequest.from(store, authenticatedData, keyPair);
+        int numRounds = 200;
+        List<AddAuthenticatedDataRequest> addRequests = new ArrayList<>();
+        List<RemoveAuthenticatedDataRequest> removeRequests = new ArrayList<>();
+        for (int i = 0; i < numRounds; i++) {
+            addRequests.add(createAddRequest(authenticatedData, 2 * i + 1));
+            removeRequests.add(RemoveAuthenticatedDataRequest.fromProto(removeRequest.toValueProto(false).toBuilder()
+                    .setSequenceNumber(2 * i + 2)
+                    .build()));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> adding = executor.submit(() -> {
+                await(start);
+                addRequests.forEach(store::add);
+            });
+            Future<?> removing = executor.submit(() -> {
+                await(start);
+                removeRequests.forEach(store::remove);
+            });
+            start.countDown();
+            adding.get(30, TimeUnit.SECONDS);
+            removing.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // A remove only notifies if the entry got added before, thus two consecutive removed events would mean that
+        // the listener has seen the updates out of order.
+        for (int i = 1; i < events.size(); i++) {
+            assertFalse(events.get(i - 1).equals("removed") && events.get(i).equals("removed"),
+                    "Events out of order: " + events);
+        }
+        // The last event matches the final state of the map
+        boolean isAdded = store.getPersistableStore().getMap().get(new ByteArray(authenticatedData.getHashForStoreMap()))
+                instanceof AddAuthenticatedDataRequest;
+        String lastEvent = events.isEmpty() ? "removed" : events.get(events.size() - 1);
+        assertEquals(isAdded ? "added" : "removed", lastEvent);
+    }
+
+    @Test
+    void concurrentAddsDoNotExceedMaxMapSize() throws Exception {
+        int maxMapSize = 50;
+        AuthenticatedDataStorageService store = createStore(Optional.of(maxMapSize));
+        AtomicInteger numAddedEvents = new AtomicInteger();
+        store.addListener(new AuthenticatedDataStorageService.Listener() {
+            @Override
+            public void onAdded(AuthenticatedData authenticatedData) {
+                numAddedEvents.incrementAndGet();
+            }
+
+            @Override
+            public void onRemoved(AuthenticatedData authenticatedData) {
+            }
+        });
+
+        int numRequests = 200;
+        List<AddAuthenticatedDataRequest> requests = new ArrayList<>();
+        for (int i = 0; i < numRequests; i++) {
+            requests.add(createAddRequest(new DefaultAuthenticatedData(new TestData("data-" + i)), 1));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        List<Future<DataStorageResult>> futures = new ArrayList<>();
+        try {
+            for (AddAuthenticatedDataRequest request : requests) {
+                futures.add(executor.submit(() -> {
+                    await(start);
+                    return store.add(request);
+                }));
+            }
+            start.countDown();
+            int numAdded = 0;
+            int numRejected = 0;
+            for (Future<DataStorageResult> future : futures) {
+                DataStorageResult result = future.get(30, TimeUnit.SECONDS);
+                if (result.isSuccess()) {
+                    numAdded++;
+                } else if (result.isMaxMapSizeReached()) {
+                    numRejected++;
+                }
+            }
+
+            assertEquals(maxMapSize, store.getPersistableStore().getMap().size());
+            assertEquals(maxMapSize, numAdded);
+            assertEquals(numRequests - maxMapSize, numRejected);
+            assertEquals(maxMapSize, numAddedEvents.get());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Updates of existing entries are still accepted if the map is full
+        AddAuthenticatedDataRequest existing = store.getPersistableStore().getMap().values().stream()
+                .map(AddAuthenticatedDataRequest.class::cast)
+                .findFirst()
+                .orElseThrow();
+        AuthenticatedData authenticatedData = existing.getAuthenticatedSequentialData().getAuthenticatedData();
+        assertTrue(store.add(createAddRequest(authenticatedData, 2)).isSuccess());
+        assertEquals(maxMapSize, store.getPersistableStore().getMap().size());
+    }
+
+    private AuthenticatedDataStorageService createStore(Optional<Integer> optionalMaxMapSize) {
+        return new AuthenticatedDataStorageService(persistenceService,
+                new PruneExpiredEntriesService(),
+                "AuthenticatedDataStore",
+                "TestData") {
+            {
+                maxMapSize = optionalMaxMapSize;
+            }
+        };
+    }
+
+    private AddAuthenticatedDataRequest createAddRequest(AuthenticatedData authenticatedData, int sequenceNumber)
+            throws GeneralSecurityException {
+        byte[] pubKeyHash = DigestUtil.hash(keyPair.getPublic().getEncoded());
+        AuthenticatedSequentialData data = new AuthenticatedSequentialData(authenticatedData,
+                sequenceNumber,
+                pubKeyHash,
+                System.currentTimeMillis());
+        byte[] signature = SignatureUtil.sign(data.serializeForHash(), keyPair.getPrivate());
+        return new AddAuthenticatedDataRequest(data, signature, keyPair.getPublic());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
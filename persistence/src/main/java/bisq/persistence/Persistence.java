@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 public class Persistence<T extends PersistableStore<T>> {
@@ -42,6 +43,8 @@ public class Persistence<T extends PersistableStore<T>> {
     private final String fileName;
 
     private final PersistableStoreReaderWriter<T> persistableStoreReaderWriter;
+    // Result of a read done ahead of applying it. Taken by the next readPrefetchedOrRead call.
+    private final AtomicReference<Optional<T>> prefetched = new AtomicReference<>();
 
     public Persistence(Path directoryPath, String fileName, MaxBackupSize maxBackupSize, RestoreService restoreService) {
         this.fileName = fileName;
@@ -55,12 +58,29 @@ public class Persistence<T extends PersistableStore<T>> {
         return persistableStoreReaderWriter.read();
     }
 
+    /**
+     * Reads the persisted data, so that the file access and parsing can be done in parallel for multiple stores
+     * while the data gets applied later in the required order.
+     */
+    public void prefetch() {
+        prefetched.set(read());
+    }
+
+    public Optional<T> readPrefetchedOrRead() {
+        Optional<T> result = prefetched.getAndSet(null);
+        return result != null ? result : read();
+    }
+
     public CompletableFuture<Void> persistAsync(T serializable) {
         return CompletableFuture.runAsync(() -> persist(serializable), EXECUTOR);
     }
 
     protected void persist(T persistableStore) {
-        persistableStoreReaderWriter.write(persistableStore);
+        write(persistableStore);
+    }
+
+    protected boolean write(T persistableStore) {
+        return persistableStoreReaderWriter.write(persistableStore);
     }
 
     public CompletableFuture<Void> pruneBackups() {
@@ -22,7 +22,7 @@ import java.util.concurrent.CompletableFuture;
 
 public interface PersistenceClient<T extends PersistableStore<T>> {
     default Optional<T> readPersisted() {
-        return getPersistence().read()
+        return getPersistence().readPrefetchedOrRead()
                 .map(persisted -> {
                     persisted = preProcessPersisted(persisted);
                     persisted = prunePersisted(persisted);
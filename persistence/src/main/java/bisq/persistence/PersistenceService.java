@@ -23,22 +23,25 @@ import bisq.common.util.CompletableFutureUtils;
 import bisq.persistence.backup.BackupFileInfo;
 import bisq.persistence.backup.MaxBackupSize;
 import bisq.persistence.backup.RestoreService;
+import bisq.persistence.journal.JournaledPersistableStore;
+import bisq.persistence.journal.JournaledPersistence;
 import com.google.common.base.Joiner;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 @Slf4j
 public class PersistenceService {
     private static final ExecutorService EXECUTOR = ExecutorFactory.newSingleThreadExecutor("PersistenceService");
+    private static final int NUM_READ_THREADS = 4;
 
     @Getter
     private final Path appDataDirPath;
@@ -111,6 +114,26 @@ public class PersistenceService {
         return persistence;
     }
 
+    public <T extends JournaledPersistableStore<T>> JournaledPersistence<T> getOrCreateJournaledPersistence(PersistenceClient<T> client,
+                                                                                                           Path subDirPath,
+                                                                                                           String fileName,
+                                                                                                           T persistableStore,
+                                                                                                           MaxBackupSize maxBackupSize) {
+        PersistableStoreResolver.addResolver(persistableStore.getResolver());
+        clients.add(client);
+        Path normalizedPath = subDirPath.normalize();
+        if (normalizedPath.isAbsolute()) {
+            throw new IllegalArgumentException("subDir must be relative to appDataDirPath");
+        }
+        JournaledPersistence<T> persistence = new JournaledPersistence<>(appDataDirPath.resolve(normalizedPath),
+                fileName,
+                persistableStore,
+                maxBackupSize,
+                restoreService);
+        persistenceInstances.add(persistence);
+        return persistence;
+    }
+
     public CompletableFuture<Void> pruneAllBackups() {
         List<CompletableFuture<Void>> list = clients.stream()
                 .map(PersistenceClient::getPersistence)
@@ -136,26 +159,45 @@ public class PersistenceService {
             log.debug("Read persisted data from:\n{}", Joiner.on("\n").join(storagePaths));
         }
         return CompletableFuture.supplyAsync(() -> {
-            // We read sequentially as we need to ensure that low level data is present before higher level data
-            // potentially access it.
+            // We apply the persisted data sequentially as we need to ensure that low level data is present before
+            // higher level data potentially access it. Reading and parsing the files does not depend on other
+            // stores, thus we do that in parallel ahead of applying. We prefetch at most NUM_READ_THREADS stores
+            // ahead of the one we apply, so that we do not hold all parsed stores in memory at once.
             long ts = System.currentTimeMillis();
-            AtomicBoolean result = new AtomicBoolean(true);
-            clients.forEach(client -> {
-                String storagePath = client.getPersistence().getStorePath().toAbsolutePath().toString();
-                try {
-                    Optional<? extends PersistableProto> optionalResult = client.readPersisted();
-                    if (optionalResult.isPresent()) {
-                        log.debug("Read persisted data from {}", storagePath);
-                    } else {
-                        log.debug("No persisted data at {} found", storagePath);
+            List<PersistenceClient<? extends PersistableProto>> clientsToRead = List.copyOf(clients);
+            ExecutorService readExecutor = ExecutorFactory.newFixedThreadPool("PersistenceService.read",
+                    NUM_READ_THREADS);
+            try {
+                List<CompletableFuture<Void>> prefetchFutures = new ArrayList<>(clientsToRead.size());
+                for (int i = 0; i < Math.min(NUM_READ_THREADS, clientsToRead.size()); i++) {
+                    prefetchFutures.add(prefetch(clientsToRead.get(i), readExecutor));
+                }
+                boolean result = true;
+                for (int i = 0; i < clientsToRead.size(); i++) {
+                    prefetchFutures.get(i).join();
+                    int next = i + NUM_READ_THREADS;
+                    if (next < clientsToRead.size()) {
+                        prefetchFutures.add(prefetch(clientsToRead.get(next), readExecutor));
+                    }
+                    PersistenceClient<? extends PersistableProto> client = clientsToRead.get(i);
+                    String storagePath = client.getPersistence().getStorePath().toAbsolutePath().toString();
+                    try {
+                        Optional<? extends PersistableProto> optionalResult = client.readPersisted();
+                        if (optionalResult.isPresent()) {
+                            log.debug("Read persisted data from {}", storagePath);
+                        } else {
+                            log.debug("No persisted data at {} found", storagePath);
+                        }
+                    } catch (Exception e) {
+                        log.error("Error at read persisted data from: {}", storagePath, e);
+                        result = false;
                     }
-                } catch (Exception e) {
-                    log.error("Error at read persisted data from: {}", storagePath, e);
-                    result.set(false);
                 }
-            });
-            log.info("Reading all persisted data took {} ms", System.currentTimeMillis() - ts);
-            return result.get();
+                log.info("Reading all persisted data took {} ms", System.currentTimeMillis() - ts);
+                return result;
+            } finally {
+                readExecutor.shutdown();
+            }
         }, EXECUTOR);
     }
 
@@ -171,4 +213,11 @@ public class PersistenceService {
                                 })))
                 .thenApply(list -> true);
     }
+
+    // If prefetching fails, readPersisted reads the file again and handles the error
+    private static CompletableFuture<Void> prefetch(PersistenceClient<? extends PersistableProto> client,
+                                                    ExecutorService executor) {
+        return CompletableFuture.runAsync(() -> client.getPersistence().prefetch(), executor)
+                .exceptionally(throwable -> null);
+    }
 }
\ No newline at end of file
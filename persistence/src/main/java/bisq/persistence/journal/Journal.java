@@ -0,0 +1,176 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.persistence.journal;
+
+import bisq.common.data.ByteArray;
+import bisq.common.file.FileMutatorUtils;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append only log of put and delete records.
+ * Each record is written as [payload length][CRC32 of payload][payload] with the payload being
+ * [type][key length][key][value]. At replay, we stop at the first incomplete or corrupted record (e.g. caused by a
+ * crash while writing) and truncate the file at that position.
+ */
+@Slf4j
+class Journal {
+    static final String EXTENSION = ".journal";
+    private static final int HEADER_SIZE = 8;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+
+    @Getter
+    private final Path path;
+    private FileChannel channel;
+    @Getter
+    private long size;
+
+    Journal(Path path) {
+        this.path = path;
+    }
+
+    boolean exists() {
+        return Files.exists(path);
+    }
+
+    int replay(BiConsumer<ByteArray, Optional<byte[]>> recordHandler) throws IOException {
+        if (!exists()) {
+            return 0;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        int numRecords = 0;
+        int validPosition = 0;
+        CRC32 crc32 = new CRC32();
+        while (buffer.remaining() >= HEADER_SIZE) {
+            int payloadLength = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (payloadLength < 5 || payloadLength > buffer.remaining()) {
+                break;
+            }
+
+            byte[] payload = new byte[payloadLength];
+            buffer.get(payload);
+            crc32.reset();
+            crc32.update(payload);
+            if ((int) crc32.getValue() != checksum) {
+                break;
+            }
+
+            ByteBuffer payloadBuffer = ByteBuffer.wrap(payload);
+            byte type = payloadBuffer.get();
+            int keyLength = payloadBuffer.getInt();
+            if (keyLength < 0 || keyLength > payloadBuffer.remaining()) {
+                break;
+            }
+            byte[] key = new byte[keyLength];
+            payloadBuffer.get(key);
+            if (type == PUT) {
+                byte[] value = new byte[payloadBuffer.remaining()];
+                payloadBuffer.get(value);
+                recordHandler.accept(new ByteArray(key), Optional.of(value));
+            } else if (type == DELETE) {
+                recordHandler.accept(new ByteArray(key), Optional.empty());
+            } else {
+                break;
+            }
+            numRecords++;
+            validPosition = buffer.position();
+        }
+
+        if (validPosition < buffer.limit()) {
+            log.warn("Journal {} has an incomplete or corrupted tail. We truncate it at position {} of {} bytes",
+                    path, validPosition, buffer.limit());
+            getChannel().truncate(validPosition);
+        }
+        size = validPosition;
+        return numRecords;
+    }
+
+    void append(ByteArray key, Optional<byte[]> value) throws IOException {
+        byte[] keyBytes = key.getBytes();
+        byte[] valueBytes = value.orElse(new byte[0]);
+        int payloadLength = 1 + 4 + keyBytes.length + valueBytes.length;
+        ByteBuffer payload = ByteBuffer.allocate(payloadLength);
+        payload.put(value.isPresent() ? PUT : DELETE);
+        payload.putInt(keyBytes.length);
+        payload.put(keyBytes);
+        payload.put(valueBytes);
+
+        CRC32 crc32 = new CRC32();
+        crc32.update(payload.array());
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + payloadLength);
+        record.putInt(payloadLength);
+        record.putInt((int) crc32.getValue());
+        record.put(payload.array());
+        record.flip();
+
+        FileChannel fileChannel = getChannel();
+        while (record.hasRemaining()) {
+            size += fileChannel.write(record);
+        }
+    }
+
+    void sync() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+        }
+    }
+
+    void truncate() throws IOException {
+        if (exists()) {
+            FileChannel fileChannel = getChannel();
+            fileChannel.truncate(0);
+            fileChannel.force(false);
+        }
+        size = 0;
+    }
+
+    void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Closing journal {} failed", path, e);
+            }
+            channel = null;
+        }
+    }
+
+    private FileChannel getChannel() throws IOException {
+        if (channel == null) {
+            if (!Files.exists(path)) {
+                FileMutatorUtils.createRestrictedDirectories(path.getParent());
+                FileMutatorUtils.createRestrictedFile(path);
+            }
+            channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.persistence.journal;
+
+import bisq.common.data.ByteArray;
+import bisq.persistence.PersistableStore;
+
+import java.util.Optional;
+
+/**
+ * A map based PersistableStore which supports writing single entries to a journal instead of rewriting the whole store.
+ */
+public interface JournaledPersistableStore<T> extends PersistableStore<T> {
+    /**
+     * @return The serialized value of the entry with the given key or empty if there is no such entry.
+     */
+    Optional<byte[]> serializeEntry(ByteArray key);
+
+    /**
+     * Applies a journal record to this store. An empty value means the entry has been removed.
+     */
+    void applyJournalRecord(ByteArray key, Optional<byte[]> value);
+}
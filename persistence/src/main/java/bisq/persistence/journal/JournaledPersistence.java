@@ -0,0 +1,175 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.persistence.journal;
+
+import bisq.common.data.ByteArray;
+import bisq.common.threading.ExecutorFactory;
+import bisq.persistence.Persistence;
+import bisq.persistence.backup.MaxBackupSize;
+import bisq.persistence.backup.RestoreService;
+import com.google.common.annotations.VisibleForTesting;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Persistence for map based stores with a high write frequency (e.g. network data stores).
+ * Changed entries are collected and appended to a journal file next to the store file in short intervals. Only the
+ * changed entries get serialized, thus write costs do not depend on the size of the store. A crash loses at most the
+ * changes of the last flush interval.
+ * The store file is used as snapshot. Once the journal exceeds MAX_JOURNAL_SIZE or if a full write is requested
+ * (e.g. after bulk changes), we write a new snapshot and truncate the journal.
+ * At read, the journal records are applied on top of the snapshot.
+ * <p>
+ * A journal record carries the value of the entry at the time of the flush, not the change itself. Thus, replaying a
+ * record more than once or replaying records already contained in the snapshot (crash between writing the snapshot
+ * and truncating the journal) does not lead to inconsistencies beyond reverting an entry to a state it had before the
+ * last compaction.
+ */
+@Slf4j
+public class JournaledPersistence<T extends JournaledPersistableStore<T>> extends Persistence<T> {
+    private static final ScheduledExecutorService EXECUTOR = ExecutorFactory.newSingleThreadScheduledExecutor("JournaledPersistence");
+    public static final long FLUSH_INTERVAL_MS = 200;
+    public static final long MAX_JOURNAL_SIZE = 8 * 1024 * 1024;
+
+    private final T persistableStore;
+    private final Journal journal;
+    private final Set<ByteArray> dirtyKeys = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    public JournaledPersistence(Path directoryPath,
+                                String fileName,
+                                T persistableStore,
+                                MaxBackupSize maxBackupSize,
+                                RestoreService restoreService) {
+        super(directoryPath, fileName, maxBackupSize, restoreService);
+
+        this.persistableStore = persistableStore;
+        String storeFileName = getStorePath().getFileName().toString();
+        String journalFileName = storeFileName.substring(0, storeFileName.length() - EXTENSION.length()) + Journal.EXTENSION;
+        journal = new Journal(getStorePath().resolveSibling(journalFileName));
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            Thread.currentThread().setName("JournaledPersistence.shutdownHook-" + fileName);
+            flush();
+            journal.close();
+        }));
+    }
+
+    @Override
+    public synchronized Optional<T> read() {
+        Optional<T> snapshot = super.read();
+        if (!journal.exists()) {
+            return snapshot;
+        }
+
+        T store = snapshot.orElseGet(persistableStore::getClone);
+        try {
+            int numRecords = journal.replay(store::applyJournalRecord);
+            log.info("Applied {} journal records to {}", numRecords, getFileName());
+            return snapshot.isPresent() || numRecords > 0 ? Optional.of(store) : Optional.empty();
+        } catch (IOException e) {
+            log.error("Could not replay journal {}", journal.getPath(), e);
+            return snapshot;
+        }
+    }
+
+    /**
+     * Marks the entry with the given key as changed. The current value of the entry (or a delete record if there is no
+     * such entry anymore) will be written to the journal at the next flush.
+     */
+    public void persistEntry(ByteArray key) {
+        dirtyKeys.add(key);
+        if (flushScheduled.compareAndSet(false, true)) {
+            EXECUTOR.schedule(() -> {
+                flushScheduled.set(false);
+                flush();
+            }, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes a new snapshot from the current state of the store and truncates the journal.
+     * The passed store is ignored as the snapshot must be taken after the pending changes have been written to the journal.
+     */
+    @Override
+    public CompletableFuture<Void> persistAsync(T serializable) {
+        return compactAsync();
+    }
+
+    public CompletableFuture<Void> compactAsync() {
+        return CompletableFuture.runAsync(this::compact, EXECUTOR);
+    }
+
+    @Override
+    protected void persist(T ignored) {
+        compact();
+    }
+
+    @VisibleForTesting
+    synchronized void flush() {
+        appendDirtyEntries();
+        if (journal.getSize() > MAX_JOURNAL_SIZE) {
+            compact();
+        }
+    }
+
+    private synchronized void compact() {
+        // We drain the pending changes to the journal first, so that we do not lose them if writing the snapshot
+        // fails. Changes after that are either contained in the snapshot or get written to the truncated journal.
+        appendDirtyEntries();
+        boolean success = write(persistableStore.getClone());
+        if (!success) {
+            log.warn("Writing snapshot of {} failed. We keep the journal.", getFileName());
+            return;
+        }
+        try {
+            journal.truncate();
+        } catch (IOException e) {
+            log.error("Could not truncate journal {}", journal.getPath(), e);
+        }
+    }
+
+    private void appendDirtyEntries() {
+        if (dirtyKeys.isEmpty()) {
+            return;
+        }
+
+        try {
+            Iterator<ByteArray> iterator = dirtyKeys.iterator();
+            while (iterator.hasNext()) {
+                ByteArray key = iterator.next();
+                // We remove the key before reading the value, so that a concurrent change marks it again as dirty.
+                iterator.remove();
+                journal.append(key, persistableStore.serializeEntry(key));
+            }
+            journal.sync();
+        } catch (IOException e) {
+            log.error("Could not write to journal {}", journal.getPath(), e);
+        }
+    }
+}
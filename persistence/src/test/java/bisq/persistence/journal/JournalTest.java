@@ -0,0 +1,107 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.persistence.journal;
+
+import bisq.common.data.ByteArray;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JournalTest {
+    private final ByteArray keyA = new ByteArray(new byte[]{1, 2, 3});
+    private final ByteArray keyB = new ByteArray(new byte[]{4, 5, 6});
+
+    @Test
+    void replayNotExistingJournal(@TempDir Path tempDirPath) throws IOException {
+        Journal journal = new Journal(tempDirPath.resolve("store.journal"));
+        assertThat(journal.replay((key, value) -> {
+        })).isZero();
+    }
+
+    @Test
+    void appendAndReplay(@TempDir Path tempDirPath) throws IOException {
+        Path path = tempDirPath.resolve("store.journal");
+        Journal journal = new Journal(path);
+        journal.append(keyA, Optional.of(new byte[]{10}));
+        journal.append(keyB, Optional.of(new byte[]{20}));
+        journal.append(keyA, Optional.empty());
+        journal.append(keyB, Optional.of(new byte[]{21, 22}));
+        journal.sync();
+        journal.close();
+
+        Map<ByteArray, byte[]> map = new HashMap<>();
+        int numRecords = new Journal(path).replay((key, value) -> {
+            if (value.isPresent()) {
+                map.put(key, value.get());
+            } else {
+                map.remove(key);
+            }
+        });
+        assertThat(numRecords).isEqualTo(4);
+        assertThat(map).containsOnlyKeys(keyB);
+        assertThat(map.get(keyB)).isEqualTo(new byte[]{21, 22});
+    }
+
+    @Test
+    void replayStopsAtTornTail(@TempDir Path tempDirPath) throws IOException {
+        Path path = tempDirPath.resolve("store.journal");
+        Journal journal = new Journal(path);
+        journal.append(keyA, Optional.of(new byte[]{10}));
+        journal.append(keyB, Optional.of(new byte[]{20}));
+        journal.close();
+        long sizeOfFirstRecord = 8 + 1 + 4 + 3 + 1;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(path) - 2);
+        }
+
+        Map<ByteArray, byte[]> map = new HashMap<>();
+        Journal reopened = new Journal(path);
+        assertThat(reopened.replay((key, value) -> map.put(key, value.orElseThrow()))).isEqualTo(1);
+        assertThat(map).containsOnlyKeys(keyA);
+        assertThat(Files.size(path)).isEqualTo(sizeOfFirstRecord);
+
+        // New records get appended after the last valid record
+        reopened.append(keyB, Optional.of(new byte[]{30}));
+        reopened.close();
+        map.clear();
+        assertThat(new Journal(path).replay((key, value) -> map.put(key, value.orElseThrow()))).isEqualTo(2);
+        assertThat(map.get(keyB)).isEqualTo(new byte[]{30});
+    }
+
+    @Test
+    void truncate(@TempDir Path tempDirPath) throws IOException {
+        Path path = tempDirPath.resolve("store.journal");
+        Journal journal = new Journal(path);
+        journal.append(keyA, Optional.of(new byte[]{10}));
+        journal.truncate();
+        assertThat(journal.getSize()).isZero();
+        journal.close();
+        assertThat(new Journal(path).replay((key, value) -> {
+        })).isZero();
+    }
+}
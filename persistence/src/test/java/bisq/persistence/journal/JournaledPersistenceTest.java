@@ -0,0 +1,225 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.persistence.journal;
+
+import bisq.persistence.PersistableStoreResolver;
+import bisq.persistence.Persistence;
+import bisq.persistence.PersistenceClient;
+import bisq.persistence.PersistenceService;
+import bisq.persistence.backup.MaxBackupSize;
+import bisq.persistence.backup.RestoreService;
+import lombok.Getter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JournaledPersistenceTest {
+    private static final String FILE_NAME = "JournaledTimestampStore";
+
+    @BeforeAll
+    static void addResolver() {
+        PersistableStoreResolver.addResolver(new JournaledTimestampStore().getResolver());
+    }
+
+    @Test
+    void replaysAddRemoveAndRefreshRecordsOnTopOfSnapshot(@TempDir Path tempDirPath) throws IOException {
+        JournaledTimestampStore store = new JournaledTimestampStore();
+        JournaledPersistence<JournaledTimestampStore> persistence = createPersistence(tempDirPath, store);
+        put(persistence, store, "A", 1);
+        put(persistence, store, "B", 2);
+        persistence.compactAsync().join();
+
+        put(persistence, store, "C", 3);
+        remove(persistence, store, "A");
+        put(persistence, store, "B", 20);
+        persistence.flush();
+
+        assertThat(Files.size(getJournalPath(persistence))).isPositive();
+        assertThat(readSnapshot(tempDirPath)).isEqualTo(Map.of("A", 1L, "B", 2L));
+        assertThat(readStore(tempDirPath)).isEqualTo(Map.of("B", 20L, "C", 3L));
+    }
+
+    @Test
+    void replaysJournalWithoutSnapshot(@TempDir Path tempDirPath) {
+        JournaledTimestampStore store = new JournaledTimestampStore();
+        JournaledPersistence<JournaledTimestampStore> persistence = createPersistence(tempDirPath, store);
+        put(persistence, store, "A", 1);
+        persistence.flush();
+
+        assertThat(Files.exists(persistence.getStorePath())).isFalse();
+        assertThat(readStore(tempDirPath)).isEqualTo(Map.of("A", 1L));
+    }
+
+    @Test
+    void compactionWritesSnapshotAndTruncatesJournal(@TempDir Path tempDirPath) throws IOException {
+        JournaledTimestampStore store = new JournaledTimestampStore();
+        JournaledPersistence<JournaledTimestampStore> persistence = createPersistence(tempDirPath, store);
+        put(persistence, store, "A", 1);
+        put(persistence, store, "B", 2);
+        persistence.flush();
+        remove(persistence, store, "A");
+        put(persistence, store, "C", 3);
+
+        // Pending changes get written before the snapshot is taken
+        persistence.compactAsync().join();
+
+        assertThat(Files.size(getJournalPath(persistence))).isZero();
+        assertThat(readSnapshot(tempDirPath)).isEqualTo(Map.of("B", 2L, "C", 3L));
+        assertThat(readStore(tempDirPath)).isEqualTo(Map.of("B", 2L, "C", 3L));
+    }
+
+    @Test
+    void recoversFromJournalTruncatedAtRecordBoundary(@TempDir Path tempDirPath) throws IOException {
+        JournaledTimestampStore store = new JournaledTimestampStore();
+        JournaledPersistence<JournaledTimestampStore> persistence = createPersistence(tempDirPath, store);
+        long recordBoundary = writeTwoFlushes(persistence, store);
+
+        Path journalPath = getJournalPath(persistence);
+        truncate(journalPath, recordBoundary);
+
+        assertThat(readStore(tempDirPath)).isEqualTo(Map.of("A", 1L, "B", 2L));
+        assertThat(Files.size(journalPath)).isEqualTo(recordBoundary);
+    }
+
+    @Test
+    void recoversFromTornLastRecord(@TempDir Path tempDirPath) throws IOException {
+        JournaledTimestampStore store = new JournaledTimestampStore();
+        JournaledPersistence<JournaledTimestampStore> persistence = createPersistence(tempDirPath, store);
+        long recordBoundary = writeTwoFlushes(persistence, store);
+
+        // Crash while writing the first record of the second flush
+        Path journalPath = getJournalPath(persistence);
+        truncate(journalPath, recordBoundary + 5);
+
+        JournaledTimestampStore recoveredStore = new JournaledTimestampStore();
+        JournaledPersistence<JournaledTimestampStore> recoveredPersistence = createPersistence(tempDirPath, recoveredStore);
+        recoveredStore.applyPersisted(recoveredPersistence.read().orElseThrow());
+        assertThat(recoveredStore.getTimestampsByProfileId()).isEqualTo(Map.of("A", 1L, "B", 2L));
+        assertThat(Files.size(journalPath)).isEqualTo(recordBoundary);
+
+        // New records get appended after the last valid record
+        put(recoveredPersistence, recoveredStore, "D", 5);
+        recoveredPersistence.flush();
+        assertThat(readStore(tempDirPath)).isEqualTo(Map.of("A", 1L, "B", 2L, "D", 5L));
+    }
+
+    @Test
+    void readAllPersistedAppliesJournal(@TempDir Path tempDirPath) {
+        JournaledTimestampStoreClient client = new JournaledTimestampStoreClient(new PersistenceService(tempDirPath));
+        JournaledTimestampStore store = client.getPersistableStore();
+        JournaledPersistence<JournaledTimestampStore> persistence = client.getPersistence();
+        put(persistence, store, "A", 1);
+        persistence.compactAsync().join();
+        put(persistence, store, "B", 2);
+        remove(persistence, store, "A");
+        persistence.flush();
+
+        PersistenceService persistenceService = new PersistenceService(tempDirPath);
+        JournaledTimestampStoreClient restartedClient = new JournaledTimestampStoreClient(persistenceService);
+        assertThat(persistenceService.readAllPersisted().join()).isTrue();
+        assertThat(restartedClient.getPersistableStore().getTimestampsByProfileId()).isEqualTo(Map.of("B", 2L));
+    }
+
+    /**
+     * Snapshot {A=1}, first flush with B=2, second flush with B=3 and C=4.
+     *
+     * @return The size of the journal after the first flush
+     */
+    private static long writeTwoFlushes(JournaledPersistence<JournaledTimestampStore> persistence,
+                                        JournaledTimestampStore store) throws IOException {
+        put(persistence, store, "A", 1);
+        persistence.compactAsync().join();
+        put(persistence, store, "B", 2);
+        persistence.flush();
+        long recordBoundary = Files.size(getJournalPath(persistence));
+        put(persistence, store, "B", 3);
+        put(persistence, store, "C", 4);
+        persistence.flush();
+        assertThat(readStore(persistence.getStorePath().getParent())).isEqualTo(Map.of("A", 1L, "B", 3L, "C", 4L));
+        return recordBoundary;
+    }
+
+    private static void put(JournaledPersistence<JournaledTimestampStore> persistence,
+                            JournaledTimestampStore store,
+                            String profileId,
+                            long timestamp) {
+        store.getTimestampsByProfileId().put(profileId, timestamp);
+        persistence.persistEntry(JournaledTimestampStore.toKey(profileId));
+    }
+
+    private static void remove(JournaledPersistence<JournaledTimestampStore> persistence,
+                               JournaledTimestampStore store,
+                               String profileId) {
+        store.getTimestampsByProfileId().remove(profileId);
+        persistence.persistEntry(JournaledTimestampStore.toKey(profileId));
+    }
+
+    private static JournaledPersistence<JournaledTimestampStore> createPersistence(Path directoryPath,
+                                                                                  JournaledTimestampStore store) {
+        return new JournaledPersistence<>(directoryPath, FILE_NAME, store, MaxBackupSize.ZERO, new RestoreService());
+    }
+
+    // Reads the store as it would be read after a restart
+    private static Map<String, Long> readStore(Path directoryPath) {
+        return createPersistence(directoryPath, new JournaledTimestampStore()).read()
+                .orElseThrow()
+                .getTimestampsByProfileId();
+    }
+
+    // Reads only the snapshot, without applying the journal
+    private static Map<String, Long> readSnapshot(Path directoryPath) {
+        return new Persistence<JournaledTimestampStore>(directoryPath, FILE_NAME, MaxBackupSize.ZERO, new RestoreService())
+                .read()
+                .orElseThrow()
+                .getTimestampsByProfileId();
+    }
+
+    private static Path getJournalPath(Persistence<JournaledTimestampStore> persistence) {
+        String storeFileName = persistence.getStorePath().getFileName().toString();
+        String baseName = storeFileName.substring(0, storeFileName.length() - Persistence.EXTENSION.length());
+        return persistence.getStorePath().resolveSibling(baseName + Journal.EXTENSION);
+    }
+
+    private static void truncate(Path path, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    @Getter
+    private static final class JournaledTimestampStoreClient implements PersistenceClient<JournaledTimestampStore> {
+        private final JournaledTimestampStore persistableStore = new JournaledTimestampStore();
+        private final JournaledPersistence<JournaledTimestampStore> persistence;
+
+        private JournaledTimestampStoreClient(PersistenceService persistenceService) {
+            persistence = persistenceService.getOrCreateJournaledPersistence(this,
+                    Path.of("db"),
+                    FILE_NAME,
+                    persistableStore,
+                    MaxBackupSize.ZERO);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.persistence.journal;
+
+import bisq.common.data.ByteArray;
+import bisq.common.data.StringLongPair;
+import bisq.common.proto.ProtoResolver;
+import bisq.common.proto.UnresolvableProtobufMessageException;
+import bisq.persistence.PersistableStore;
+import com.google.protobuf.InvalidProtocolBufferException;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@NoArgsConstructor(access = AccessLevel.PACKAGE)
+final class JournaledTimestampStore implements JournaledPersistableStore<JournaledTimestampStore> {
+    @Getter(AccessLevel.PACKAGE)
+    private final Map<String, Long> timestampsByProfileId = new ConcurrentHashMap<>();
+
+    private JournaledTimestampStore(Map<String, Long> timestampsByProfileId) {
+        this.timestampsByProfileId.putAll(timestampsByProfileId);
+    }
+
+    static ByteArray toKey(String profileId) {
+        return new ByteArray(profileId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public bisq.persistence.protobuf.JournaledTimestampStore toProto(boolean serializeForHash) {
+        return resolveProto(serializeForHash);
+    }
+
+    @Override
+    public bisq.persistence.protobuf.JournaledTimestampStore.Builder getBuilder(boolean serializeForHash) {
+        return bisq.persistence.protobuf.JournaledTimestampStore.newBuilder()
+                .addAllStringLongPairs(timestampsByProfileId.entrySet().stream()
+                        .map(entry -> new StringLongPair(entry.getKey(), entry.getValue()))
+                        .map(e -> e.toProto(serializeForHash))
+                        .collect(Collectors.toSet()));
+    }
+
+    public static JournaledTimestampStore fromProto(bisq.persistence.protobuf.JournaledTimestampStore proto) {
+        Map<String, Long> map = proto.getStringLongPairsList().stream()
+                .map(StringLongPair::fromProto)
+                .collect(Collectors.toMap(StringLongPair::getKey, StringLongPair::getValue));
+        return new JournaledTimestampStore(map);
+    }
+
+    @Override
+    public ProtoResolver<PersistableStore<?>> getResolver() {
+        return any -> {
+            try {
+                return fromProto(any.unpack(bisq.persistence.protobuf.JournaledTimestampStore.class));
+            } catch (InvalidProtocolBufferException e) {
+                throw new UnresolvableProtobufMessageException(e);
+            }
+        };
+    }
+
+    @Override
+    public JournaledTimestampStore getClone() {
+        return new JournaledTimestampStore(Map.copyOf(timestampsByProfileId));
+    }
+
+    @Override
+    public void applyPersisted(JournaledTimestampStore persisted) {
+        timestampsByProfileId.clear();
+        timestampsByProfileId.putAll(persisted.getTimestampsByProfileId());
+    }
+
+    @Override
+    public Optional<byte[]> serializeEntry(ByteArray key) {
+        String profileId = new String(key.getBytes(), StandardCharsets.UTF_8);
+        return Optional.ofNullable(timestampsByProfileId.get(profileId))
+                .map(timestamp -> ByteBuffer.allocate(Long.BYTES).putLong(timestamp).array());
+    }
+
+    @Override
+    public void applyJournalRecord(ByteArray key, Optional<byte[]> value) {
+        String profileId = new String(key.getBytes(), StandardCharsets.UTF_8);
+        if (value.isPresent()) {
+            timestampsByProfileId.put(profileId, ByteBuffer.wrap(value.get()).getLong());
+        } else {
+            timestampsByProfileId.remove(profileId);
+        }
+    }
+}
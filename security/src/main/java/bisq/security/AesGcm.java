@@ -37,30 +37,58 @@ public class AesGcm {
     private static final int MAX_TAG_LENGTH = 128;
     private static final int RECOMMENDED_IV_LENGTH = 12;
 
+    // Cipher and KeyAgreement instances are not thread safe and costly to look up at the BC provider, thus we reuse
+    // cached instances. They get reset by init.
+    private static final CryptoInstanceCache<Cipher> AES_GCM_CIPHER = new CryptoInstanceCache<>();
+    private static final CryptoInstanceCache<KeyAgreement> ECDH_KEY_AGREEMENT = new CryptoInstanceCache<>();
+
     public static byte[] encrypt(SecretKey secretKey, byte[] iv, byte[] plainText) throws NoSuchPaddingException, NoSuchAlgorithmException, NoSuchProviderException, InvalidAlgorithmParameterException, InvalidKeyException, IllegalBlockSizeException, BadPaddingException {
-        Cipher cipher = Cipher.getInstance(AES_GCM_NO_PADDING_CIPHER_NAME, BouncyCastleProvider.PROVIDER_NAME);
-        GCMParameterSpec spec = new GCMParameterSpec(MAX_TAG_LENGTH, iv);
-        cipher.init(Cipher.ENCRYPT_MODE, secretKey, spec);
-        return cipher.doFinal(plainText);
+        Cipher cipher = getAesGcmCipher();
+        try {
+            GCMParameterSpec spec = new GCMParameterSpec(MAX_TAG_LENGTH, iv);
+            cipher.init(Cipher.ENCRYPT_MODE, secretKey, spec);
+            return cipher.doFinal(plainText);
+        } finally {
+            AES_GCM_CIPHER.release(cipher);
+        }
     }
 
     public static byte[] decrypt(SecretKey secretKey, byte[] iv, byte[] cipherText) throws NoSuchPaddingException, NoSuchAlgorithmException, NoSuchProviderException, InvalidAlgorithmParameterException, InvalidKeyException, IllegalBlockSizeException, BadPaddingException {
-        Cipher cipher = Cipher.getInstance(AES_GCM_NO_PADDING_CIPHER_NAME, BouncyCastleProvider.PROVIDER_NAME);
-        GCMParameterSpec spec = new GCMParameterSpec(MAX_TAG_LENGTH, iv);
-        cipher.init(Cipher.DECRYPT_MODE, secretKey, spec);
-        return cipher.doFinal(cipherText);
+        Cipher cipher = getAesGcmCipher();
+        try {
+            GCMParameterSpec spec = new GCMParameterSpec(MAX_TAG_LENGTH, iv);
+            cipher.init(Cipher.DECRYPT_MODE, secretKey, spec);
+            return cipher.doFinal(cipherText);
+        } finally {
+            AES_GCM_CIPHER.release(cipher);
+        }
     }
 
     public static SecretKey generateSharedAesSecretKey(PrivateKey privateKey, PublicKey publicKey) throws GeneralSecurityException {
-        KeyAgreement keyAgreement = KeyAgreement.getInstance(KeyGeneration.ECDH, BouncyCastleProvider.PROVIDER_NAME);
-        keyAgreement.init(privateKey);
-        keyAgreement.doPhase(publicKey, true);
-        return keyAgreement.generateSecret(AES);
+        KeyAgreement keyAgreement = ECDH_KEY_AGREEMENT.poll();
+        if (keyAgreement == null) {
+            keyAgreement = KeyAgreement.getInstance(KeyGeneration.ECDH, BouncyCastleProvider.PROVIDER_NAME);
+        }
+        try {
+            keyAgreement.init(privateKey);
+            keyAgreement.doPhase(publicKey, true);
+            return keyAgreement.generateSecret(AES);
+        } finally {
+            ECDH_KEY_AGREEMENT.release(keyAgreement);
+        }
     }
 
     public static IvParameterSpec generateIv() {
         return new IvParameterSpec(new SecureRandom().generateSeed(RECOMMENDED_IV_LENGTH));
     }
 
+    private static Cipher getAesGcmCipher() throws NoSuchPaddingException, NoSuchAlgorithmException, NoSuchProviderException {
+        Cipher cipher = AES_GCM_CIPHER.poll();
+        if (cipher == null) {
+            cipher = Cipher.getInstance(AES_GCM_NO_PADDING_CIPHER_NAME, BouncyCastleProvider.PROVIDER_NAME);
+        }
+        return cipher;
+    }
+
 
 }
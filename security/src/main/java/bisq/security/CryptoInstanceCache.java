@@ -0,0 +1,72 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.security;
+
+import javax.annotation.Nullable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caches instances which are costly to create and not thread safe, like Cipher, Signature or MessageDigest.
+ * <p>
+ * On platform threads we keep one instance per thread. Virtual threads are created per task, so a thread local
+ * instance would never get reused, and with many virtual threads we would keep many instances alive. Therefore,
+ * virtual threads share a bounded pool of instances.
+ * <p>
+ * An instance is taken with {@link #poll()} and given back with {@link #release(Object)} after use. While it is taken,
+ * no other caller gets it. If none is available, the caller creates a new one.
+ */
+final class CryptoInstanceCache<T> {
+    private static final int MAX_POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
+    private final ThreadLocal<T> instanceByThread = new ThreadLocal<>();
+    private final Queue<T> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger poolSize = new AtomicInteger();
+
+    @Nullable
+    T poll() {
+        if (Thread.currentThread().isVirtual()) {
+            T instance = pool.poll();
+            if (instance != null) {
+                poolSize.decrementAndGet();
+            }
+            return instance;
+        } else {
+            T instance = instanceByThread.get();
+            // Cleared while in use, so that a nested call does not get the same instance
+            instanceByThread.set(null);
+            return instance;
+        }
+    }
+
+    void release(T instance) {
+        if (Thread.currentThread().isVirtual()) {
+            if (poolSize.incrementAndGet() <= MAX_POOL_SIZE) {
+                pool.offer(instance);
+            } else {
+                poolSize.decrementAndGet();
+            }
+        } else {
+            instanceByThread.set(instance);
+        }
+    }
+
+    int getPoolSize() {
+        return poolSize.get();
+    }
+}
@@ -23,32 +23,56 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
 public class DigestUtil {
+    // Digest instances are not thread safe, thus we reuse cached instances instead of creating a new one at each
+    // call. The digest gets reset after each completed hash computation.
+    private static final CryptoInstanceCache<RIPEMD160Digest> RIPEMD160_DIGEST = new CryptoInstanceCache<>();
+    private static final CryptoInstanceCache<MessageDigest> SHA256_DIGEST = new CryptoInstanceCache<>();
+    private static final CryptoInstanceCache<MessageDigest> SHA512_DIGEST = new CryptoInstanceCache<>();
+
     public static byte[] hash(byte[] input) {
         // RIPEMD160 is slow on large input, so we use fast sha256 first. Is twice as fast with 1kb data.
         return RIPEMD160(sha256(input));
     }
 
     public static byte[] RIPEMD160(byte[] input) {
-        RIPEMD160Digest digest = new RIPEMD160Digest();
-        digest.update(input, 0, input.length);
-        byte[] out = new byte[digest.getDigestSize()];
-        digest.doFinal(out, 0);
-        return out;
+        RIPEMD160Digest digest = RIPEMD160_DIGEST.poll();
+        if (digest == null) {
+            digest = new RIPEMD160Digest();
+        }
+        try {
+            digest.reset();
+            digest.update(input, 0, input.length);
+            byte[] out = new byte[digest.getDigestSize()];
+            digest.doFinal(out, 0);
+            return out;
+        } finally {
+            RIPEMD160_DIGEST.release(digest);
+        }
     }
 
     public static byte[] sha256(byte[] input) {
+        return digest(input, SHA256_DIGEST, "SHA-256");
+    }
+
+    public static byte[] sha512(byte[] input) {
+        return digest(input, SHA512_DIGEST, "SHA-512");
+    }
+
+    private static byte[] digest(byte[] input, CryptoInstanceCache<MessageDigest> cache, String algorithm) {
+        MessageDigest digest = cache.poll();
+        if (digest == null) {
+            digest = getMessageDigest(algorithm);
+        }
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
             return digest.digest(input);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException(e);
+        } finally {
+            cache.release(digest);
         }
     }
 
-    public static byte[] sha512(byte[] input) {
+    private static MessageDigest getMessageDigest(String algorithm) {
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-512");
-            return digest.digest(input);
+            return MessageDigest.getInstance(algorithm);
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException(e);
         }
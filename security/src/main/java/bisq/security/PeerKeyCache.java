@@ -0,0 +1,136 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.security;
+
+import bisq.common.data.ByteArray;
+import bisq.security.keys.KeyGeneration;
+import lombok.EqualsAndHashCode;
+
+import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache for the decoded public keys of our peers and the AES keys derived by the ECDH agreement with them.
+ * Chat and ack messages are exchanged repeatedly between the same key pairs, and decoding the key and running the
+ * key agreement is a large part of the costs of encrypting or decrypting a small message.
+ * <p>
+ * Entries are kept in access order and the least recently used entry gets evicted once the number of entries
+ * exceeds the max size. The expensive computations are done outside the lock, so concurrent callers might compute
+ * the same value, which is harmless as the result is deterministic.
+ */
+class PeerKeyCache {
+    static final int MAX_SIZE = 1000;
+
+    @EqualsAndHashCode
+    private static final class SharedSecretKey {
+        private final ByteArray myPublicKey;
+        private final ByteArray peerPublicKey;
+
+        private SharedSecretKey(byte[] myPublicKey, byte[] peerPublicKey) {
+            this.myPublicKey = new ByteArray(myPublicKey);
+            this.peerPublicKey = new ByteArray(peerPublicKey);
+        }
+    }
+
+    private final Map<ByteArray, PublicKey> publicKeyByEncoded;
+    private final Map<SharedSecretKey, SecretKey> sharedAesSecretKeyByKeys;
+    private long numHits;
+    private long numMisses;
+
+    PeerKeyCache() {
+        this(MAX_SIZE);
+    }
+
+    PeerKeyCache(int maxSize) {
+        publicKeyByEncoded = createLruMap(maxSize);
+        sharedAesSecretKeyByKeys = createLruMap(maxSize);
+    }
+
+    PublicKey getPublicKey(byte[] encodedPublicKey) throws GeneralSecurityException {
+        ByteArray key = new ByteArray(encodedPublicKey);
+        synchronized (this) {
+            PublicKey publicKey = publicKeyByEncoded.get(key);
+            if (publicKey != null) {
+                numHits++;
+                return publicKey;
+            }
+            numMisses++;
+        }
+        PublicKey publicKey = KeyGeneration.generatePublic(encodedPublicKey);
+        synchronized (this) {
+            publicKeyByEncoded.put(key, publicKey);
+        }
+        return publicKey;
+    }
+
+    /**
+     * @param myKeyPair            Our key pair. We use the public key as cache key as the private key must not be
+     *                             exposed.
+     * @param peerPublicKey        The public key of our peer
+     * @param encodedPeerPublicKey The encoded public key of our peer
+     * @return The shared AES key derived from our private key and the peers public key
+     */
+    SecretKey getSharedAesSecretKey(KeyPair myKeyPair,
+                                    PublicKey peerPublicKey,
+                                    byte[] encodedPeerPublicKey) throws GeneralSecurityException {
+        SharedSecretKey key = new SharedSecretKey(myKeyPair.getPublic().getEncoded(), encodedPeerPublicKey);
+        synchronized (this) {
+            SecretKey secretKey = sharedAesSecretKeyByKeys.get(key);
+            if (secretKey != null) {
+                numHits++;
+                return secretKey;
+            }
+            numMisses++;
+        }
+        SecretKey secretKey = AesGcm.generateSharedAesSecretKey(myKeyPair.getPrivate(), peerPublicKey);
+        synchronized (this) {
+            sharedAesSecretKeyByKeys.put(key, secretKey);
+        }
+        return secretKey;
+    }
+
+    synchronized int getSize() {
+        return publicKeyByEncoded.size() + sharedAesSecretKeyByKeys.size();
+    }
+
+    synchronized long getNumHits() {
+        return numHits;
+    }
+
+    synchronized long getNumMisses() {
+        return numMisses;
+    }
+
+    synchronized void clear() {
+        publicKeyByEncoded.clear();
+        sharedAesSecretKeyByKeys.clear();
+    }
+
+    private static <K, V> Map<K, V> createLruMap(int maxSize) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+}
@@ -25,11 +25,17 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.security.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class SignatureUtil {
     public static final String SHA256withECDSA = "SHA256withECDSA";
     public static final String SHA256withDSA = "SHA256withDSA";
 
+    // Signature.getInstance is costly as it resolves the provider service at each call. Signature instances are not
+    // thread safe, thus we reuse cached instances per algorithm. They get reset by initSign/initVerify.
+    private static final Map<String, CryptoInstanceCache<Signature>> SIGNATURE_CACHE_BY_ALGORITHM = new ConcurrentHashMap<>();
+
     static {
         if (java.security.Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
             Security.addProvider(new BouncyCastleProvider());
@@ -41,10 +47,15 @@ public class SignatureUtil {
     }
 
     public static byte[] sign(byte[] message, PrivateKey privateKey, String algorithm) throws GeneralSecurityException {
-        Signature signature = Signature.getInstance(algorithm, "BC");
-        signature.initSign(privateKey);
-        signature.update(message);
-        return signature.sign();
+        CryptoInstanceCache<Signature> cache = getSignatureCache(algorithm);
+        Signature signature = getSignature(cache, algorithm);
+        try {
+            signature.initSign(privateKey);
+            signature.update(message);
+            return signature.sign();
+        } finally {
+            cache.release(signature);
+        }
     }
 
     public static boolean verify(byte[] message, byte[] signature, PublicKey publicKey) throws GeneralSecurityException {
@@ -52,10 +63,28 @@ public class SignatureUtil {
     }
 
     public static boolean verify(byte[] message, byte[] signature, PublicKey publicKey, String algorithm) throws GeneralSecurityException {
-        Signature sig = Signature.getInstance(algorithm, "BC");
-        sig.initVerify(publicKey);
-        sig.update(message);
-        return sig.verify(signature);
+        CryptoInstanceCache<Signature> cache = getSignatureCache(algorithm);
+        Signature sig = getSignature(cache, algorithm);
+        try {
+            sig.initVerify(publicKey);
+            sig.update(message);
+            return sig.verify(signature);
+        } finally {
+            cache.release(sig);
+        }
+    }
+
+    private static CryptoInstanceCache<Signature> getSignatureCache(String algorithm) {
+        return SIGNATURE_CACHE_BY_ALGORITHM.computeIfAbsent(algorithm, key -> new CryptoInstanceCache<>());
+    }
+
+    private static Signature getSignature(CryptoInstanceCache<Signature> cache,
+                                          String algorithm) throws GeneralSecurityException {
+        Signature signature = cache.poll();
+        if (signature == null) {
+            signature = Signature.getInstance(algorithm, "BC");
+        }
+        return signature;
     }
 
     // input: a base-64 bitcoin sig
@@ -0,0 +1,117 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.security.pow.hashcash;
+
+import bisq.common.platform.PlatformUtils;
+import bisq.common.threading.ExecutorFactory;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.util.Pack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Searches the counter for a HashCash proof of work.
+ * <p>
+ * The pre-image is payload + challenge + counter, where the payload is the serialized message and can be large.
+ * We hash payload and challenge only once and start each attempt from a copy of that digest state, so an attempt
+ * costs only the hashing of the 8 counter bytes. Digests and buffers are reused per thread, thus the search loop does
+ * not allocate.
+ * <p>
+ * For higher difficulties the counter space is split across the available cores: worker i tries the counters
+ * i + 1, i + 1 + numWorkers, ... The caller thread is one of the workers, and all workers stop once any of them has
+ * found a solution. Any solution is valid for {@link HashCashProofOfWorkService#verify}, but it is not necessarily
+ * the smallest one as with a sequential search.
+ */
+final class HashCashMinter {
+    // Expected number of attempts is 2^(log2Difficulty+1). Below that threshold minting takes less than a ms and
+    // dispatching to other threads would cost more than it saves.
+    private static final int MIN_LOG2_DIFFICULTY_FOR_PARALLEL_MINTING = 12;
+    private static final int NUM_WORKERS = PlatformUtils.availableProcessors();
+
+    private static final ThreadLocal<Worker> WORKER = ThreadLocal.withInitial(Worker::new);
+
+    // Lazy initialized at first parallel minting
+    private static final class ExecutorHolder {
+        private static final ExecutorService EXECUTOR =
+                ExecutorFactory.newFixedThreadPool("HashCashMinter", Math.max(1, NUM_WORKERS - 1));
+    }
+
+    private static final class Worker {
+        private final SHA256Digest digest = new SHA256Digest();
+        private final byte[] counterBytes = new byte[8];
+        private final byte[] hash = new byte[32];
+
+        private byte[] hash(SHA256Digest preImagePrefix, long counter) {
+            digest.reset(preImagePrefix);
+            Pack.longToBigEndian(counter, counterBytes, 0);
+            digest.update(counterBytes, 0, counterBytes.length);
+            digest.doFinal(hash, 0);
+            return hash;
+        }
+    }
+
+    private HashCashMinter() {
+    }
+
+    /**
+     * @return The counter for which the hash has more than log2Difficulty leading zeros.
+     */
+    static long mint(byte[] payload, byte[] challenge, int log2Difficulty) {
+        SHA256Digest preImagePrefix = new SHA256Digest();
+        preImagePrefix.update(payload, 0, payload.length);
+        if (challenge != null) {
+            preImagePrefix.update(challenge, 0, challenge.length);
+        }
+
+        AtomicLong solution = new AtomicLong();
+        if (log2Difficulty < MIN_LOG2_DIFFICULTY_FOR_PARALLEL_MINTING || NUM_WORKERS == 1) {
+            search(preImagePrefix, log2Difficulty, 1, 1, solution);
+            return solution.get();
+        }
+
+        List<Future<?>> futures = new ArrayList<>(NUM_WORKERS - 1);
+        for (int i = 1; i < NUM_WORKERS; i++) {
+            long start = i + 1;
+            futures.add(ExecutorHolder.EXECUTOR.submit(() ->
+                    search(preImagePrefix, log2Difficulty, start, NUM_WORKERS, solution)));
+        }
+        search(preImagePrefix, log2Difficulty, 1, NUM_WORKERS, solution);
+        // Workers which have not started yet (e.g. as other mints keep the pool busy) are not needed anymore
+        futures.forEach(future -> future.cancel(false));
+        return solution.get();
+    }
+
+    private static void search(SHA256Digest preImagePrefix,
+                               int log2Difficulty,
+                               long start,
+                               long step,
+                               AtomicLong solution) {
+        Worker worker = WORKER.get();
+        for (long counter = start; solution.get() == 0; counter += step) {
+            byte[] hash = worker.hash(preImagePrefix, counter);
+            if (HashCashProofOfWorkService.numberOfLeadingZeros(hash) > log2Difficulty) {
+                solution.compareAndSet(0, counter);
+                return;
+            }
+        }
+    }
+}
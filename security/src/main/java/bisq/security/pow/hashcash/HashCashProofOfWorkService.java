@@ -43,12 +43,7 @@ public class HashCashProofOfWorkService extends ProofOfWorkService {
                             double difficulty) {
         long ts = System.currentTimeMillis();
         int log2Difficulty = toNumLeadingZeros(difficulty);
-        byte[] hash;
-        long counter = 0;
-        do {
-            hash = toSha256Hash(payload, challenge, ++counter);
-        }
-        while (numberOfLeadingZeros(hash) <= log2Difficulty);
+        long counter = HashCashMinter.mint(payload, challenge, log2Difficulty);
         byte[] solution = Longs.toByteArray(counter);
         return new ProofOfWork(payload, counter, challenge, difficulty, solution, System.currentTimeMillis() - ts);
     }
@@ -87,10 +82,6 @@ public class HashCashProofOfWorkService extends ProofOfWorkService {
         return numberOfLeadingZeros;
     }
 
-    private static byte[] toSha256Hash(byte[] payload, byte[] challenge, long counter) {
-        return toSha256Hash(payload, challenge, Longs.toByteArray(counter));
-    }
-
     private static byte[] toSha256Hash(byte[] payload, byte[] challenge, byte[] solution) {
         byte[] preImage = org.bouncycastle.util.Arrays.concatenate(payload,
                 challenge,
@@ -0,0 +1,69 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CryptoInstanceCacheTest {
+    @Test
+    void platformThreadReusesItsInstance() {
+        CryptoInstanceCache<Object> cache = new CryptoInstanceCache<>();
+        assertThat(cache.poll()).isNull();
+        Object instance = new Object();
+        cache.release(instance);
+
+        assertThat(cache.poll()).isSameAs(instance);
+        // While taken, a nested call does not get the same instance
+        assertThat(cache.poll()).isNull();
+        cache.release(instance);
+        assertThat(cache.poll()).isSameAs(instance);
+        assertThat(cache.getPoolSize()).isZero();
+    }
+
+    @Test
+    void virtualThreadsShareInstances() throws InterruptedException {
+        CryptoInstanceCache<Object> cache = new CryptoInstanceCache<>();
+        Object instance = new Object();
+        Thread.ofVirtual().start(() -> cache.release(instance)).join();
+        assertThat(cache.getPoolSize()).isEqualTo(1);
+
+        AtomicReference<Object> polled = new AtomicReference<>();
+        Thread.ofVirtual().start(() -> polled.set(cache.poll())).join();
+        assertThat(polled.get()).isSameAs(instance);
+        assertThat(cache.getPoolSize()).isZero();
+    }
+
+    @Test
+    void poolOfVirtualThreadsIsBounded() throws InterruptedException {
+        CryptoInstanceCache<Object> cache = new CryptoInstanceCache<>();
+        int maxPoolSize = Runtime.getRuntime().availableProcessors() * 2;
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < maxPoolSize + 10; i++) {
+            threads.add(Thread.ofVirtual().start(() -> cache.release(new Object())));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(cache.getPoolSize()).isEqualTo(maxPoolSize);
+    }
+}
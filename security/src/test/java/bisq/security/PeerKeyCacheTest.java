@@ -0,0 +1,73 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.security;
+
+import bisq.security.keys.KeyGeneration;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.PublicKey;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class PeerKeyCacheTest {
+    private final KeyPair alice = KeyGeneration.generateKeyPair();
+    private final KeyPair bob = KeyGeneration.generateKeyPair();
+
+    @Test
+    void sharedSecretKeyIsCachedAndMatchesPeer() throws GeneralSecurityException {
+        PeerKeyCache cache = new PeerKeyCache();
+        byte[] encodedBob = bob.getPublic().getEncoded();
+        byte[] encodedAlice = alice.getPublic().getEncoded();
+
+        SecretKey aliceKey = cache.getSharedAesSecretKey(alice, bob.getPublic(), encodedBob);
+        assertSame(aliceKey, cache.getSharedAesSecretKey(alice, bob.getPublic(), encodedBob));
+        assertEquals(1, cache.getNumHits());
+
+        PublicKey alicePublicKey = cache.getPublicKey(encodedAlice);
+        SecretKey bobKey = cache.getSharedAesSecretKey(bob, alicePublicKey, encodedAlice);
+        assertArrayEquals(aliceKey.getEncoded(), bobKey.getEncoded());
+        assertArrayEquals(AesGcm.generateSharedAesSecretKey(bob.getPrivate(), alice.getPublic()).getEncoded(),
+                bobKey.getEncoded());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedPublicKey() throws GeneralSecurityException {
+        PeerKeyCache cache = new PeerKeyCache(2);
+        byte[] encodedAlice = alice.getPublic().getEncoded();
+        byte[] encodedBob = bob.getPublic().getEncoded();
+        byte[] encodedCarol = KeyGeneration.generateKeyPair().getPublic().getEncoded();
+
+        PublicKey alicePublicKey = cache.getPublicKey(encodedAlice);
+        cache.getPublicKey(encodedBob);
+        assertSame(alicePublicKey, cache.getPublicKey(encodedAlice));
+        cache.getPublicKey(encodedCarol);
+        assertEquals(2, cache.getSize());
+
+        // Bob was least recently used and got evicted
+        long numMisses = cache.getNumMisses();
+        assertSame(alicePublicKey, cache.getPublicKey(encodedAlice));
+        assertNotNull(cache.getPublicKey(encodedBob));
+        assertEquals(numMisses + 1, cache.getNumMisses());
+    }
+}
@@ -19,6 +19,7 @@ package bisq.security.pow.hashcash;
 
 import bisq.security.DigestUtil;
 import bisq.security.pow.ProofOfWork;
+import com.google.common.primitives.Longs;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
@@ -79,6 +80,37 @@ class HashCashProofOfWorkServiceTest {
 //        Minting 1000 tokens with > 8 leading zeros  took 0.318 ms per token and 526 iterations in average. Verification took 0.001 ms per token.
     }
 
+    @Test
+    public void testMintFindsSmallestCounterAtLowDifficulty() {
+        HashCashProofOfWorkService service = new HashCashProofOfWorkService();
+        byte[] payload = RandomStringUtils.random(2000, true, true).getBytes(StandardCharsets.UTF_8);
+        byte[] challenge = DigestUtil.sha256(UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8));
+        ProofOfWork proofOfWork = service.mint(payload, challenge, 256);
+        assertTrue(service.verify(proofOfWork));
+
+        // Same result as the sequential search over the full pre-image
+        long counter = 0;
+        byte[] hash;
+        do {
+            counter++;
+            hash = DigestUtil.sha256(org.bouncycastle.util.Arrays.concatenate(payload, challenge, Longs.toByteArray(counter)));
+        } while (numberOfLeadingZeros(hash) <= toNumLeadingZeros(256));
+        assertEquals(counter, proofOfWork.getCounter());
+        assertArrayEquals(Longs.toByteArray(counter), proofOfWork.getSolution());
+    }
+
+    @Test
+    public void testParallelMint() {
+        HashCashProofOfWorkService service = new HashCashProofOfWorkService();
+        for (int i = 0; i < 5; i++) {
+            byte[] payload = RandomStringUtils.random(2000, true, true).getBytes(StandardCharsets.UTF_8);
+            byte[] challenge = DigestUtil.sha256(UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8));
+            ProofOfWork proofOfWork = service.mint(payload, challenge, Math.scalb(1.0, 14));
+            assertTrue(service.verify(proofOfWork));
+            assertArrayEquals(Longs.toByteArray(proofOfWork.getCounter()), proofOfWork.getSolution());
+        }
+    }
+
     private void run(int log2Difficulty, StringBuilder stringBuilder) {
         double difficulty = Math.scalb(1.0, log2Difficulty);
         int numTokens = 1000;
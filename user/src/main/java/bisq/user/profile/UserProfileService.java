@@ -83,11 +83,8 @@ public class UserProfileService extends RateLimitedPersistenceClient<UserProfile
         log.info("initialize");
         networkService.addDataServiceListener(this);
         networkService.getDataService().ifPresent(dataService -> {
-            dataService.getAuthenticatedData().forEach(authenticatedData -> {
-                if (authenticatedData.getDistributedData() instanceof UserProfile userProfile) {
-                    processUserProfileAddedOrRefreshed(userProfile, true);
-                }
-            });
+            dataService.getDistributedData(UserProfile.class)
+                    .forEach(userProfile -> processUserProfileAddedOrRefreshed(userProfile, true));
             persist();
         });
 
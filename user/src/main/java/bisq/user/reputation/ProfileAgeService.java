@@ -246,9 +246,7 @@ public class ProfileAgeService extends SourceReputationService<AuthorizedTimesta
 
     private Set<String> getTimeStampedProfileIds() {
         return networkService.getDataService()
-                .map(service -> service.getAuthorizedData()
-                        .filter(authorizedData -> authorizedData.getAuthorizedDistributedData() instanceof AuthorizedTimestampData)
-                        .map(authorizedData -> (AuthorizedTimestampData) authorizedData.getAuthorizedDistributedData())
+                .map(service -> service.getAuthorizedDistributedData(AuthorizedTimestampData.class)
                         .map(AuthorizedTimestampData::getProfileId)
                         .collect(Collectors.toSet()))
                 .orElseGet(Collections::emptySet);